@@ -0,0 +1,205 @@
+package nl.tudelft.ti2806.pl1.geneAnnotation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable interval tree over the regions of reference genes. The genes
+ * are sorted by start position and the tree is implicit in that array: the
+ * middle of every range of the array is the root of the range, and every root
+ * stores the largest end position within its range. Point, range and overlap
+ * queries take O(log n + k) time for k reported genes.
+ *
+ * Gene regions are inclusive on both ends, like in
+ * {@link ReferenceGene#isIntragenic(long)}.
+ */
+public final class GeneIndex {
+
+	/** The genes, sorted by start position. */
+	private final ReferenceGene[] genes;
+
+	/** The start position of every gene. */
+	private final long[] starts;
+
+	/** The end position of every gene. */
+	private final long[] ends;
+
+	/** The largest end position in the range of which a gene is the root. */
+	private final long[] maxEnds;
+
+	/**
+	 * Builds the index of a collection of genes.
+	 *
+	 * @param col
+	 *            The genes to index.
+	 */
+	public GeneIndex(final Collection<ReferenceGene> col) {
+		genes = col.toArray(new ReferenceGene[col.size()]);
+		Arrays.sort(genes, new Comparator<ReferenceGene>() {
+			@Override
+			public int compare(final ReferenceGene a, final ReferenceGene b) {
+				return Integer.compare(a.getStart(), b.getStart());
+			}
+		});
+		starts = new long[genes.length];
+		ends = new long[genes.length];
+		for (int i = 0; i < genes.length; i++) {
+			starts[i] = genes[i].getStart();
+			ends[i] = genes[i].getEnd();
+		}
+		maxEnds = new long[genes.length];
+		augment(0, genes.length);
+	}
+
+	/**
+	 * Computes the largest end position of every range in the tree.
+	 *
+	 * @param lo
+	 *            The first position of the range.
+	 * @param hi
+	 *            The position after the range.
+	 * @return The largest end position in the range.
+	 */
+	private long augment(final int lo, final int hi) {
+		if (lo >= hi) {
+			return Long.MIN_VALUE;
+		}
+		int mid = (lo + hi) >>> 1;
+		long max = Math.max(ends[mid],
+				Math.max(augment(lo, mid), augment(mid + 1, hi)));
+		maxEnds[mid] = max;
+		return max;
+	}
+
+	/**
+	 * @return The amount of indexed genes.
+	 */
+	public int size() {
+		return genes.length;
+	}
+
+	/**
+	 * @param position
+	 *            A position on the reference genome.
+	 * @return True iff a gene region contains the position.
+	 */
+	public boolean contains(final long position) {
+		return overlaps(position, position);
+	}
+
+	/**
+	 * @param from
+	 *            The first position of a region.
+	 * @param to
+	 *            The last position of the region.
+	 * @return True iff a gene region overlaps the region.
+	 */
+	public boolean overlaps(final long from, final long to) {
+		return find(0, genes.length, from, to, null);
+	}
+
+	/**
+	 * @param position
+	 *            A position on the reference genome.
+	 * @return The genes containing the position, sorted by start position.
+	 */
+	public List<ReferenceGene> at(final long position) {
+		return overlapping(position, position);
+	}
+
+	/**
+	 * @param from
+	 *            The first position of a region.
+	 * @param to
+	 *            The last position of the region.
+	 * @return The genes overlapping the region, sorted by start position.
+	 */
+	public List<ReferenceGene> overlapping(final long from, final long to) {
+		List<ReferenceGene> ret = new ArrayList<ReferenceGene>();
+		find(0, genes.length, from, to, ret);
+		return ret;
+	}
+
+	/**
+	 * @param from
+	 *            The first position of a region.
+	 * @param to
+	 *            The last position of the region.
+	 * @return The genes lying entirely within the region, sorted by start
+	 *         position.
+	 */
+	public List<ReferenceGene> within(final long from, final long to) {
+		List<ReferenceGene> ret = new ArrayList<ReferenceGene>();
+		for (int i = lowerBound(from); i < genes.length && starts[i] <= to; i++) {
+			if (ends[i] <= to) {
+				ret.add(genes[i]);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * @param position
+	 *            A position on the reference genome.
+	 * @return The position in the array of the first gene starting at or after
+	 *         the position.
+	 */
+	private int lowerBound(final long position) {
+		int lo = 0;
+		int hi = starts.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (starts[mid] < position) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Finds the genes overlapping a region within a range of the tree.
+	 *
+	 * @param lo
+	 *            The first position of the range.
+	 * @param hi
+	 *            The position after the range.
+	 * @param from
+	 *            The first position of the region.
+	 * @param to
+	 *            The last position of the region.
+	 * @param out
+	 *            The list to add the overlapping genes to, or null to stop at
+	 *            the first one.
+	 * @return True iff a gene in the range overlaps the region.
+	 */
+	private boolean find(final int lo, final int hi, final long from,
+			final long to, final List<ReferenceGene> out) {
+		if (lo >= hi) {
+			return false;
+		}
+		int mid = (lo + hi) >>> 1;
+		if (maxEnds[mid] < from) {
+			return false;
+		}
+		boolean found = find(lo, mid, from, to, out);
+		if (found && out == null) {
+			return true;
+		}
+		if (starts[mid] > to) {
+			return found;
+		}
+		if (ends[mid] >= from) {
+			if (out == null) {
+				return true;
+			}
+			out.add(genes[mid]);
+			found = true;
+		}
+		return find(mid + 1, hi, from, to, out) || found;
+	}
+}
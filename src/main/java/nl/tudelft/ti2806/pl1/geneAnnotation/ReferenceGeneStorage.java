@@ -4,11 +4,12 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Scanner;
 import java.util.TreeSet;
 
@@ -47,9 +48,18 @@ public class ReferenceGeneStorage {
 	/** All the genes and information extracted from the information file. */
 	private TreeSet<ReferenceGene> referenceGenes;
 
+	/** The interval tree over the regions of the reference genes. */
+	private GeneIndex geneIndex;
+
 	/** All the known drug resistance mutations. */
 	private Map<Long, ResistanceMutation> drugResMuts;
 
+	/** The sorted positions of the known drug resistance mutations. */
+	private long[] drugResPositions = new long[0];
+
+	/** Increased every time annotations are loaded. */
+	private volatile int version;
+
 	/** The list of meta data load observers. */
 	private List<ResistanceMutationObserver> observers = new ArrayList<ResistanceMutationObserver>();
 
@@ -131,19 +141,72 @@ public class ReferenceGeneStorage {
 	 */
 	private void findDNodes(final Map<Long, ResistanceMutation> map) {
 		if (dgraph != null) {
-			Collection<ResistanceMutation> resMuts = map.values();
+			ResistanceMutation[] muts = sortByPosition(map.values());
+			long[] positions = positions(muts);
 			for (DNode dn : dgraph.getNodes().values()) {
-				for (ResistanceMutation mut : resMuts) {
-					if (dn.getStart() <= mut.getRefIndex()
-							&& mut.getRefIndex() < dn.getEnd()) {
-						mut.setDnode(dn);
-						dn.addResistantMutationIndex(mut);
-					}
+				for (int i = lowerBound(positions, dn.getStart()); i < muts.length
+						&& positions[i] < dn.getEnd(); i++) {
+					muts[i].setDnode(dn);
+					dn.addResistantMutationIndex(muts[i]);
 				}
 			}
 		}
 	}
 
+	/**
+	 * @param muts
+	 *            Resistance mutations.
+	 * @return The mutations, sorted by their position on the reference genome.
+	 */
+	private static ResistanceMutation[] sortByPosition(
+			final Collection<ResistanceMutation> muts) {
+		ResistanceMutation[] ret = muts.toArray(new ResistanceMutation[muts
+				.size()]);
+		Arrays.sort(ret, new Comparator<ResistanceMutation>() {
+			@Override
+			public int compare(final ResistanceMutation a,
+					final ResistanceMutation b) {
+				return Long.compare(a.getRefIndex(), b.getRefIndex());
+			}
+		});
+		return ret;
+	}
+
+	/**
+	 * @param muts
+	 *            Resistance mutations.
+	 * @return The position of every mutation on the reference genome.
+	 */
+	private static long[] positions(final ResistanceMutation[] muts) {
+		long[] ret = new long[muts.length];
+		for (int i = 0; i < muts.length; i++) {
+			ret[i] = muts[i].getRefIndex();
+		}
+		return ret;
+	}
+
+	/**
+	 * @param sorted
+	 *            Sorted positions.
+	 * @param position
+	 *            A position on the reference genome.
+	 * @return The index of the first position which is at least
+	 *         <code>position</code>.
+	 */
+	private static int lowerBound(final long[] sorted, final long position) {
+		int lo = 0;
+		int hi = sorted.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (sorted[mid] < position) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
 	/**
 	 * Extracts all the references genes from the decorationV5_20130412.gff
 	 * file.
@@ -194,24 +257,26 @@ public class ReferenceGeneStorage {
 	 * @return Whether the index is in a intragenic region.
 	 */
 	public boolean isIntragenic(final int index) {
-		if (getReferenceGenes() != null) {
-			for (ReferenceGene rg : getReferenceGenes()) {
-				if (rg.isIntragenic(index)) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return geneIndex != null && geneIndex.contains(index);
+	}
+
+	/**
+	 * @return The interval tree over the regions of the reference genes, or
+	 *         null if no gene annotation has been loaded.
+	 */
+	public GeneIndex getGeneIndex() {
+		return geneIndex;
 	}
 
 	/** Connect the mutations with each referenceGene object. */
 	private void connectGeneMutations() {
 		if (getReferenceGenes() != null && getDrugResistanceMutations() != null) {
+			ResistanceMutation[] muts = sortByPosition(drugResMuts.values());
+			long[] positions = positions(muts);
 			for (ReferenceGene rg : this.getReferenceGenes()) {
-				for (Entry<Long, ResistanceMutation> e : drugResMuts.entrySet()) {
-					if (rg.isIntragenic(e.getKey())) {
-						rg.addMutation(e.getKey(), e.getValue());
-					}
+				for (int i = lowerBound(positions, rg.getStart()); i < muts.length
+						&& positions[i] <= rg.getEnd(); i++) {
+					rg.addMutation(positions[i], muts[i]);
 				}
 			}
 		}
@@ -226,7 +291,10 @@ public class ReferenceGeneStorage {
 	 * @return Whether the index results in a change of gene.
 	 */
 	public boolean containsMutationIndex(final int index) {
-		for (ReferenceGene rg : this.getReferenceGenes()) {
+		if (geneIndex == null) {
+			return false;
+		}
+		for (ReferenceGene rg : geneIndex.at(index)) {
 			if (rg.containsMutationIndex(index)) {
 				return true;
 			}
@@ -234,6 +302,26 @@ public class ReferenceGeneStorage {
 		return false;
 	}
 
+	/**
+	 * @param from
+	 *            The first position of a region on the reference genome.
+	 * @param to
+	 *            The position after the region.
+	 * @return Whether a known drug resistance mutation lies in the region.
+	 */
+	public boolean containsResistanceMutation(final long from, final long to) {
+		int i = lowerBound(drugResPositions, from);
+		return i < drugResPositions.length && drugResPositions[i] < to;
+	}
+
+	/**
+	 * @return The version of the loaded annotations, which changes every time
+	 *         a gene annotation or known resistance mutations are loaded.
+	 */
+	public int getVersion() {
+		return version;
+	}
+
 	/**
 	 * @return the map containing the known drug resistance mutations.
 	 */
@@ -248,6 +336,9 @@ public class ReferenceGeneStorage {
 	public void setDrugRestistantMutations(final File knownResMut) {
 		if (knownResMut != null) {
 			this.drugResMuts = extractMutations(knownResMut);
+			this.drugResPositions = positions(sortByPosition(drugResMuts
+					.values()));
+			version++;
 			connectGeneMutations();
 			notifyResistanceMutationObservers();
 		}
@@ -280,6 +371,8 @@ public class ReferenceGeneStorage {
 	public void setGeneAnnotation(final File geneAnn) {
 		if (geneAnn != null) {
 			this.referenceGenes = extractReferenceGenes(geneAnn);
+			this.geneIndex = new GeneIndex(referenceGenes);
+			version++;
 			connectGeneMutations();
 			notifyReferenceGeneObservers();
 		}
@@ -0,0 +1,205 @@
+package nl.tudelft.ti2806.pl1.graph;
+
+import java.util.Collection;
+
+/**
+ * A frozen, compressed sparse row (CSR) adjacency of a data graph. Every node
+ * gets a dense index; the out- and in-neighbours of node <code>v</code> are
+ * stored in the primitive target arrays between its offset and the offset of
+ * <code>v + 1</code>, so traversals need no edge objects. Neighbours keep the
+ * order in which their edges were added to the graph.
+ *
+ * <pre>
+ * for (int e = adj.firstOut(v); e &lt; adj.endOut(v); e++) {
+ * 	int w = adj.target(e);
+ * }
+ * </pre>
+ *
+ * The adjacency is invalidated as soon as the graph it was built from
+ * changes.
+ */
+public final class Adjacency {
+
+	/** The nodes, by their index. */
+	private final DNode[] nodes;
+
+	/** The first out edge of every node, plus the total amount of edges. */
+	private final int[] outOffsets;
+
+	/** The index of the end node of every out edge. */
+	private final int[] outTargets;
+
+	/** The first in edge of every node, plus the total amount of edges. */
+	private final int[] inOffsets;
+
+	/** The index of the start node of every in edge. */
+	private final int[] inSources;
+
+	/** Whether the graph has not changed since this adjacency was built. */
+	private volatile boolean valid;
+
+	/**
+	 * Builds the adjacency of a set of nodes and the edges between them.
+	 *
+	 * @param nodeCol
+	 *            The nodes.
+	 * @param edges
+	 *            The edges between the nodes.
+	 */
+	Adjacency(final Collection<DNode> nodeCol, final Collection<DEdge> edges) {
+		int n = nodeCol.size();
+		this.nodes = nodeCol.toArray(new DNode[n]);
+		for (int v = 0; v < n; v++) {
+			nodes[v].bindAdjacency(this, v);
+		}
+		this.outOffsets = new int[n + 1];
+		this.inOffsets = new int[n + 1];
+		int m = edges.size();
+		int[] from = new int[m];
+		int[] to = new int[m];
+		int e = 0;
+		for (DEdge edge : edges) {
+			from[e] = edge.getStartNode().getAdjacencyIndex();
+			to[e] = edge.getEndNode().getAdjacencyIndex();
+			outOffsets[from[e] + 1]++;
+			inOffsets[to[e] + 1]++;
+			e++;
+		}
+		for (int v = 0; v < n; v++) {
+			outOffsets[v + 1] += outOffsets[v];
+			inOffsets[v + 1] += inOffsets[v];
+		}
+		this.outTargets = new int[m];
+		this.inSources = new int[m];
+		int[] outFill = new int[n];
+		int[] inFill = new int[n];
+		for (e = 0; e < m; e++) {
+			outTargets[outOffsets[from[e]] + outFill[from[e]]++] = to[e];
+			inSources[inOffsets[to[e]] + inFill[to[e]]++] = from[e];
+		}
+		this.valid = true;
+	}
+
+	/**
+	 * @return The amount of nodes.
+	 */
+	public int size() {
+		return nodes.length;
+	}
+
+	/**
+	 * @return The amount of edges.
+	 */
+	public int edgeCount() {
+		return outTargets.length;
+	}
+
+	/**
+	 * @param v
+	 *            The index of a node.
+	 * @return The node.
+	 */
+	public DNode node(final int v) {
+		return nodes[v];
+	}
+
+	/**
+	 * @param node
+	 *            A node of the graph.
+	 * @return The index of the node, or -1 if it is not in this adjacency.
+	 */
+	public int indexOf(final DNode node) {
+		int v = node.getAdjacencyIndex();
+		if (v >= 0 && v < nodes.length && nodes[v] == node) {
+			return v;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param v
+	 *            The index of a node.
+	 * @return The position of the first out edge of the node.
+	 */
+	public int firstOut(final int v) {
+		return outOffsets[v];
+	}
+
+	/**
+	 * @param v
+	 *            The index of a node.
+	 * @return The position after the last out edge of the node.
+	 */
+	public int endOut(final int v) {
+		return outOffsets[v + 1];
+	}
+
+	/**
+	 * @param e
+	 *            The position of an out edge.
+	 * @return The index of the end node of the edge.
+	 */
+	public int target(final int e) {
+		return outTargets[e];
+	}
+
+	/**
+	 * @param v
+	 *            The index of a node.
+	 * @return The position of the first in edge of the node.
+	 */
+	public int firstIn(final int v) {
+		return inOffsets[v];
+	}
+
+	/**
+	 * @param v
+	 *            The index of a node.
+	 * @return The position after the last in edge of the node.
+	 */
+	public int endIn(final int v) {
+		return inOffsets[v + 1];
+	}
+
+	/**
+	 * @param e
+	 *            The position of an in edge.
+	 * @return The index of the start node of the edge.
+	 */
+	public int source(final int e) {
+		return inSources[e];
+	}
+
+	/**
+	 * @param v
+	 *            The index of a node.
+	 * @return The amount of out edges of the node.
+	 */
+	public int outDegree(final int v) {
+		return outOffsets[v + 1] - outOffsets[v];
+	}
+
+	/**
+	 * @param v
+	 *            The index of a node.
+	 * @return The amount of in edges of the node.
+	 */
+	public int inDegree(final int v) {
+		return inOffsets[v + 1] - inOffsets[v];
+	}
+
+	/**
+	 * @return True iff the graph has not changed since the adjacency was
+	 *         built.
+	 */
+	public boolean isValid() {
+		return valid;
+	}
+
+	/**
+	 * Marks the adjacency as out of date.
+	 */
+	void invalidate() {
+		valid = false;
+	}
+}
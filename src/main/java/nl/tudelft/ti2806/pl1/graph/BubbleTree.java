@@ -0,0 +1,456 @@
+package nl.tudelft.ti2806.pl1.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The superbubbles of a data graph, nested into a tree. A superbubble is a
+ * pair of an entrance and an exit node such that every path from the entrance
+ * reaches the exit, the nodes in between can only be entered through the
+ * entrance and only be left through the exit, and no node in between forms
+ * such a pair with the entrance. Every variation between genomes is enclosed
+ * by a superbubble, and superbubbles either nest or share at most their
+ * entrance or exit node.
+ *
+ * The nodes are sorted in reverse postorder of a depth-first search, in which
+ * the nodes of every superbubble form a contiguous range. A single sweep over
+ * that order with a stack of candidate entrances finds all superbubbles in
+ * linear time. Superbubbles without nodes in between are not kept.
+ */
+public final class BubbleTree {
+
+	/** The adjacency the bubbles were found in. */
+	private final Adjacency adj;
+
+	/** The adjacency index of the node at every position of the order. */
+	private final int[] order;
+
+	/** The position in the order of every adjacency index. */
+	private final int[] position;
+
+	/** All bubbles, sorted by the position of their entrance. */
+	private final List<Bubble> bubbles;
+
+	/** The bubbles which are not nested in another bubble. */
+	private final List<Bubble> roots;
+
+	/** The bubble entered at every position, or null. */
+	private final Bubble[] entered;
+
+	/** The innermost bubble containing every position between its ends. */
+	private final Bubble[] innermost;
+
+	/**
+	 * Finds the superbubbles of a graph.
+	 *
+	 * @param adjacency
+	 *            The frozen adjacency of an acyclic graph.
+	 */
+	public BubbleTree(final Adjacency adjacency) {
+		this.adj = adjacency;
+		int n = adjacency.size();
+		this.order = reversePostorder(adjacency);
+		this.position = new int[n];
+		for (int p = 0; p < n; p++) {
+			position[order[p]] = p;
+		}
+		this.bubbles = sweep();
+		this.roots = new ArrayList<Bubble>();
+		this.entered = new Bubble[n];
+		this.innermost = new Bubble[n];
+		nest();
+	}
+
+	/**
+	 * @param adjacency
+	 *            An adjacency.
+	 * @return The adjacency indices of all nodes in reverse postorder of a
+	 *         depth-first search from the nodes without incoming edges.
+	 */
+	private static int[] reversePostorder(final Adjacency adjacency) {
+		int n = adjacency.size();
+		int[] ret = new int[n];
+		int done = n;
+		boolean[] seen = new boolean[n];
+		int[] stack = new int[n];
+		int[] cursor = new int[n];
+		for (int pass = 0; pass < 2; pass++) {
+			for (int root = 0; root < n; root++) {
+				if (seen[root] || (pass == 0 && adjacency.inDegree(root) > 0)) {
+					continue;
+				}
+				int top = 0;
+				stack[0] = root;
+				cursor[0] = adjacency.firstOut(root);
+				seen[root] = true;
+				while (top >= 0) {
+					int v = stack[top];
+					if (cursor[top] < adjacency.endOut(v)) {
+						int w = adjacency.target(cursor[top]++);
+						if (!seen[w]) {
+							seen[w] = true;
+							top++;
+							stack[top] = w;
+							cursor[top] = adjacency.firstOut(w);
+						}
+					} else {
+						ret[--done] = v;
+						top--;
+					}
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Finds the superbubbles in one sweep over the order. Every candidate
+	 * entrance on the stack keeps the smallest parent position of the nodes
+	 * after it and the largest child position of the nodes from it, up to
+	 * the current position; an entrance and an exit form a superbubble iff
+	 * no node in between has a parent before the entrance or a child after
+	 * the exit. A candidate with a parent before it can not be the entrance
+	 * of any later exit either, so it is dropped.
+	 *
+	 * @return The superbubbles, sorted by the position of their entrance.
+	 */
+	private List<Bubble> sweep() {
+		int n = order.length;
+		List<Bubble> ret = new ArrayList<Bubble>();
+		int[] starts = new int[n];
+		int[] minParents = new int[n];
+		int[] maxChildren = new int[n];
+		int top = -1;
+		for (int p = 0; p < n; p++) {
+			if (top >= 0) {
+				minParents[top] = Math.min(minParents[top], minParent(p));
+				maxChildren[top] = Math.max(maxChildren[top],
+						maxChild(p - 1));
+			}
+			if (isExitCandidate(order[p])) {
+				while (top >= 0 && maxChildren[top] <= p) {
+					int s = starts[top];
+					boolean valid = minParents[top] >= s;
+					if (top > 0) {
+						minParents[top - 1] = Math.min(minParents[top - 1],
+								minParents[top]);
+						maxChildren[top - 1] = Math.max(maxChildren[top - 1],
+								maxChildren[top]);
+					}
+					top--;
+					if (valid) {
+						if (p > s + 1) {
+							ret.add(new Bubble(s, p));
+						}
+						break;
+					}
+				}
+			}
+			if (isEntranceCandidate(order[p])) {
+				top++;
+				starts[top] = p;
+				minParents[top] = Integer.MAX_VALUE;
+				maxChildren[top] = Integer.MIN_VALUE;
+			}
+		}
+		Collections.sort(ret, new Comparator<Bubble>() {
+			@Override
+			public int compare(final Bubble a, final Bubble b) {
+				if (a.first != b.first) {
+					return Integer.compare(a.first, b.first);
+				}
+				return Integer.compare(b.last, a.last);
+			}
+		});
+		return ret;
+	}
+
+	/**
+	 * @param p
+	 *            A position.
+	 * @return The smallest position of a parent of the node, or -1 if it has
+	 *         no parents.
+	 */
+	private int minParent(final int p) {
+		int v = order[p];
+		int ret = adj.inDegree(v) == 0 ? -1 : Integer.MAX_VALUE;
+		for (int e = adj.firstIn(v); e < adj.endIn(v); e++) {
+			ret = Math.min(ret, position[adj.source(e)]);
+		}
+		return ret;
+	}
+
+	/**
+	 * @param p
+	 *            A position.
+	 * @return The largest position of a child of the node, or the amount of
+	 *         nodes if it has no children.
+	 */
+	private int maxChild(final int p) {
+		int v = order[p];
+		int ret = adj.outDegree(v) == 0 ? order.length : Integer.MIN_VALUE;
+		for (int e = adj.firstOut(v); e < adj.endOut(v); e++) {
+			ret = Math.max(ret, position[adj.target(e)]);
+		}
+		return ret;
+	}
+
+	/**
+	 * @param v
+	 *            An adjacency index.
+	 * @return True iff a child of the node has no other parents, which holds
+	 *         for every entrance.
+	 */
+	private boolean isEntranceCandidate(final int v) {
+		for (int e = adj.firstOut(v); e < adj.endOut(v); e++) {
+			if (adj.inDegree(adj.target(e)) == 1) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param v
+	 *            An adjacency index.
+	 * @return True iff a parent of the node has no other children, which
+	 *         holds for every exit.
+	 */
+	private boolean isExitCandidate(final int v) {
+		for (int e = adj.firstIn(v); e < adj.endIn(v); e++) {
+			if (adj.outDegree(adj.source(e)) == 1) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Nests the bubbles into a tree and indexes them by position.
+	 */
+	private void nest() {
+		List<Bubble> open = new ArrayList<Bubble>();
+		int next = 0;
+		for (int p = 0; p < order.length; p++) {
+			while (!open.isEmpty() && open.get(open.size() - 1).last <= p) {
+				open.remove(open.size() - 1);
+			}
+			if (!open.isEmpty()) {
+				innermost[p] = open.get(open.size() - 1);
+			}
+			while (next < bubbles.size() && bubbles.get(next).first == p) {
+				Bubble b = bubbles.get(next++);
+				if (entered[p] == null) {
+					entered[p] = b;
+				}
+				while (!open.isEmpty()
+						&& open.get(open.size() - 1).last <= b.first) {
+					open.remove(open.size() - 1);
+				}
+				if (open.isEmpty()) {
+					roots.add(b);
+				} else {
+					b.parent = open.get(open.size() - 1);
+					b.parent.children.add(b);
+					b.depth = b.parent.depth + 1;
+				}
+				open.add(b);
+			}
+		}
+	}
+
+	/**
+	 * @return All bubbles, sorted by the position of their entrance.
+	 */
+	public List<Bubble> getBubbles() {
+		return Collections.unmodifiableList(bubbles);
+	}
+
+	/**
+	 * @return The bubbles which are not nested in another bubble.
+	 */
+	public List<Bubble> getRoots() {
+		return Collections.unmodifiableList(roots);
+	}
+
+	/**
+	 * @return The amount of bubbles.
+	 */
+	public int size() {
+		return bubbles.size();
+	}
+
+	/**
+	 * @param node
+	 *            A node of the graph.
+	 * @return The position of the node in the order in which every bubble is
+	 *         a contiguous range.
+	 */
+	public int position(final DNode node) {
+		return position[adj.indexOf(node)];
+	}
+
+	/**
+	 * @param node
+	 *            A node of the graph.
+	 * @return The bubble of which the node is the entrance, or null.
+	 */
+	public Bubble entered(final DNode node) {
+		return entered[position(node)];
+	}
+
+	/**
+	 * @param node
+	 *            A node of the graph.
+	 * @return The innermost bubble with the node between its entrance and
+	 *         exit, or null if the node is not in any bubble.
+	 */
+	public Bubble innermost(final DNode node) {
+		return innermost[position(node)];
+	}
+
+	/**
+	 * @return True iff the graph has not changed since the bubbles were found.
+	 */
+	public boolean isValid() {
+		return adj.isValid();
+	}
+
+	/**
+	 * A superbubble, with the bubbles nested in it.
+	 */
+	public final class Bubble {
+
+		/** The position of the entrance. */
+		private final int first;
+
+		/** The position of the exit. */
+		private final int last;
+
+		/** The innermost bubble this bubble is nested in, or null. */
+		private Bubble parent;
+
+		/** The bubbles directly nested in this bubble. */
+		private final List<Bubble> children = new ArrayList<Bubble>();
+
+		/** The amount of bubbles this bubble is nested in. */
+		private int depth;
+
+		/**
+		 * @param firstIn
+		 *            The position of the entrance.
+		 * @param lastIn
+		 *            The position of the exit.
+		 */
+		private Bubble(final int firstIn, final int lastIn) {
+			this.first = firstIn;
+			this.last = lastIn;
+		}
+
+		/**
+		 * @return The entrance node.
+		 */
+		public DNode getEntrance() {
+			return adj.node(order[first]);
+		}
+
+		/**
+		 * @return The exit node.
+		 */
+		public DNode getExit() {
+			return adj.node(order[last]);
+		}
+
+		/**
+		 * @return The position of the entrance.
+		 */
+		public int first() {
+			return first;
+		}
+
+		/**
+		 * @return The position of the exit.
+		 */
+		public int last() {
+			return last;
+		}
+
+		/**
+		 * @return The nodes between the entrance and the exit, including the
+		 *         nodes of nested bubbles.
+		 */
+		public List<DNode> getInterior() {
+			List<DNode> ret = new ArrayList<DNode>(last - first - 1);
+			for (int p = first + 1; p < last; p++) {
+				ret.add(adj.node(order[p]));
+			}
+			return ret;
+		}
+
+		/**
+		 * @return The amount of nodes between the entrance and the exit.
+		 */
+		public int size() {
+			return last - first - 1;
+		}
+
+		/**
+		 * @param node
+		 *            A node of the graph.
+		 * @return True iff the node lies between the entrance and the exit.
+		 */
+		public boolean contains(final DNode node) {
+			int p = position(node);
+			return first < p && p < last;
+		}
+
+		/**
+		 * @return True iff every node between the entrance and the exit is
+		 *         only connected to the entrance and the exit, like in single
+		 *         nucleotide polymorphisms and simple insertions.
+		 */
+		public boolean isSimple() {
+			int s = order[first];
+			int t = order[last];
+			for (int p = first + 1; p < last; p++) {
+				int v = order[p];
+				if (adj.inDegree(v) != 1 || adj.outDegree(v) != 1
+						|| adj.source(adj.firstIn(v)) != s
+						|| adj.target(adj.firstOut(v)) != t) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * @return The innermost bubble this bubble is nested in, or null.
+		 */
+		public Bubble getParent() {
+			return parent;
+		}
+
+		/**
+		 * @return The bubbles directly nested in this bubble, sorted by the
+		 *         position of their entrance.
+		 */
+		public List<Bubble> getChildren() {
+			return Collections.unmodifiableList(children);
+		}
+
+		/**
+		 * @return The amount of bubbles this bubble is nested in.
+		 */
+		public int getDepth() {
+			return depth;
+		}
+
+		@Override
+		public String toString() {
+			return "<Bubble[" + getEntrance().getId() + ","
+					+ getExit().getId() + "]>";
+		}
+	}
+}
@@ -1,7 +1,6 @@
 package nl.tudelft.ti2806.pl1.graph;
 
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -42,11 +41,25 @@ public final class ConvertDGraph {
 	 * @return The visual graph containing all the nodes from the data graph.
 	 */
 	public static Graph convert(final DGraph dgraph) {
+		return convert(dgraph, dgraph.getSelected());
+	}
+
+	/**
+	 * Converts a data graph into a visual graph without reading the selection
+	 * of the data graph, so it can be done in the background.
+	 * 
+	 * @param dgraph
+	 *            The data graph to convert.
+	 * @param selected
+	 *            The id of the node to mark as selected.
+	 * @return The visual graph containing all the nodes from the data graph.
+	 */
+	public static Graph convert(final DGraph dgraph, final String selected) {
 		Graph graph = new SingleGraph("");
 		Set<DEdge> edges = new HashSet<DEdge>();
 		for (DNode n : dgraph.getNodes().values()) {
 			edges.addAll(n.getAllEdges());
-			graph = addNode(graph, dgraph, n);
+			graph = addNode(graph, n, selected);
 		}
 		for (DEdge edge : edges) {
 			graph = addEdge(graph, dgraph, edge);
@@ -76,7 +89,7 @@ public final class ConvertDGraph {
 			addNodeToGraph(graph, to, dgraph);
 		}
 		Edge eg = graph.addEdge(from + to, from, to, true);
-		addEdgeWidth(eg, edge, dgraph.getStart().getSources().size());
+		addEdgeWidth(eg, edge, dgraph.getGenomes().size());
 		return graph;
 	}
 
@@ -91,14 +104,11 @@ public final class ConvertDGraph {
 	 * @param maxsources
 	 *            The maximum amount of sources in the graph.
 	 */
-	@SuppressWarnings("unchecked")
 	private static void addEdgeWidth(final Edge eg, final DEdge edge,
 			final int maxsources) {
-		Collection<String> m = (Collection<String>) edge.getStartNode()
-				.getSources().clone();
-		m.retainAll(edge.getEndNode().getSources());
+		int shared = edge.getStartNode().countSharedSources(edge.getEndNode());
 		eg.addAttribute("ui.size",
-				(int) ((double) m.size() / maxsources * MAX_SIZE_EDGE));
+				(int) ((double) shared / maxsources * MAX_SIZE_EDGE));
 
 	}
 
@@ -107,18 +117,18 @@ public final class ConvertDGraph {
 	 * 
 	 * @param graph
 	 *            Visual graph which the node will be added to.
-	 * @param dgraph
-	 *            Data storage of the graph.
 	 * @param n
 	 *            Corresponding data node which has to be added to the visual
 	 *            graph.
+	 * @param selected
+	 *            The id of the selected node.
 	 * @return Visual graph with the new node added.
 	 */
-	private static Graph addNode(final Graph graph, final DGraph dgraph,
-			final DNode n) {
+	private static Graph addNode(final Graph graph, final DNode n,
+			final String selected) {
 		String id = String.valueOf(n.getId());
 		Node gn = graph.addNode(id);
-		addAttributes(gn, n, dgraph.getSelected());
+		addAttributes(gn, n, selected);
 		return graph;
 	}
 
@@ -136,7 +146,7 @@ public final class ConvertDGraph {
 			final String selected) {
 		gn.addAttribute("x", n.getX());
 		gn.addAttribute("y", n.getY());
-		gn.addAttribute("ui.label", checkLabelLength(n.getContent()));
+		gn.addAttribute("ui.label", checkLabelLength(n));
 		String nodeclass = "common";
 		if (n.hasResMuts()) {
 			nodeclass = "resistant";
@@ -148,9 +158,10 @@ public final class ConvertDGraph {
 			gn.addAttribute("ui.class", nodeclass);
 		}
 		gn.addAttribute("ui.color", 1 - n.getPercUnknown());
-		gn.addAttribute("contentsize", n.getContent().length());
+		gn.addAttribute("contentsize", n.getContentLength());
 		gn.addAttribute("collapsed",
 				new HashSet<Integer>(Arrays.asList(n.getId())));
+		gn.addAttribute("genomes", GenomeDictionary.or(n.getSourceBits(), null));
 	}
 
 	/**
@@ -171,26 +182,28 @@ public final class ConvertDGraph {
 		DNode n = dg.getDNode(Integer.parseInt(id));
 		gn.addAttribute("x", n.getX());
 		gn.addAttribute("y", n.getY());
-		gn.addAttribute("ui.label", checkLabelLength(n.getContent()));
+		gn.addAttribute("ui.label", checkLabelLength(n));
 		gn.addAttribute("ui.class", "common");
 		gn.addAttribute("ui.color", 1 - n.getPercUnknown());
+		gn.addAttribute("genomes", GenomeDictionary.or(n.getSourceBits(), null));
 	}
 
 	/**
-	 * Compares the label with a threshold length and returns the label if it's
-	 * smaller than the threshold, otherwise it returns the length.
+	 * Compares the content length with a threshold length and returns the
+	 * content if it's smaller than the threshold, otherwise it returns the
+	 * length. Only short contents get unpacked.
 	 * 
-	 * @param label
-	 *            The label to be checked.
-	 * @return Length of label if bigger than threshold, otherwise the label
-	 *         itself.
+	 * @param n
+	 *            The data node of which the label is to be checked.
+	 * @return Length of the content if bigger than threshold, otherwise the
+	 *         content itself.
 	 */
-	private static String checkLabelLength(final String label) {
-		int l = label.length();
+	private static String checkLabelLength(final DNode n) {
+		int l = n.getContentLength();
 		if (l > LABEL_LENGTH_THRESHOLD) {
 			return String.valueOf(l);
 		}
-		return label;
+		return n.getContent();
 	}
 
 }
@@ -3,6 +3,7 @@ package nl.tudelft.ti2806.pl1.graph;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -30,6 +31,18 @@ public class DGraph implements DynamicGraph {
 	/** The edges in the graph. */
 	private Collection<DEdge> edges;
 
+	/** The dense index of every genome in the graph. */
+	private final GenomeDictionary genomes;
+
+	/** The frozen adjacency of the graph, null if it is not built. */
+	private Adjacency adjacency;
+
+	/** The superbubbles of the graph, null if they are not found yet. */
+	private BubbleTree bubbles;
+
+	/** The nodes sorted by x coordinate, null if it is not built. */
+	private PositionIndex<DNode> positions;
+
 	/** The start node of the graph. */
 	private DNode start;
 
@@ -62,8 +75,9 @@ public class DGraph implements DynamicGraph {
 	 */
 	public DGraph() {
 		nodes = new HashMap<Integer, DNode>();
-		edges = new ArrayList<DEdge>();
+		edges = new LinkedHashSet<DEdge>();
 		references = new HashMap<String, Collection<DNode>>();
+		genomes = new GenomeDictionary();
 		start = null;
 		referenceGeneStorage = new ReferenceGeneStorage(this);
 	}
@@ -75,6 +89,14 @@ public class DGraph implements DynamicGraph {
 		return references;
 	}
 
+	/**
+	 * @return The dictionary mapping the genomes of the graph to the indices
+	 *         of the node source bitsets.
+	 */
+	public GenomeDictionary getGenomes() {
+		return genomes;
+	}
+
 	/**
 	 * 
 	 * @return The set containing the names of all references.
@@ -125,7 +147,52 @@ public class DGraph implements DynamicGraph {
 	 *            the edges to set
 	 */
 	protected final void setEdges(final Collection<DEdge> newEdges) {
-		this.edges = newEdges;
+		invalidateAdjacency();
+		this.edges = new LinkedHashSet<DEdge>(newEdges);
+	}
+
+	/**
+	 * Builds the frozen adjacency of the graph. Call this once the graph is
+	 * complete; any later change to the graph invalidates it again.
+	 * 
+	 * @return The adjacency.
+	 */
+	public final Adjacency freeze() {
+		invalidateAdjacency();
+		adjacency = new Adjacency(nodes.values(), edges);
+		return adjacency;
+	}
+
+	/**
+	 * @return The frozen adjacency of the graph, built if it is not up to
+	 *         date.
+	 */
+	public final Adjacency getAdjacency() {
+		if (adjacency == null || !adjacency.isValid()) {
+			return freeze();
+		}
+		return adjacency;
+	}
+
+	/**
+	 * @return The superbubbles of the graph, found if they are not up to
+	 *         date.
+	 */
+	public BubbleTree getBubbles() {
+		if (bubbles == null || !bubbles.isValid()) {
+			bubbles = new BubbleTree(getAdjacency());
+		}
+		return bubbles;
+	}
+
+	/**
+	 * Marks the adjacency as out of date after a change of the graph.
+	 */
+	private void invalidateAdjacency() {
+		if (adjacency != null) {
+			adjacency.invalidate();
+			adjacency = null;
+		}
 	}
 
 	/**
@@ -155,6 +222,9 @@ public class DGraph implements DynamicGraph {
 				references.get(s).add(node);
 			}
 		}
+		node.bindGenomes(genomes);
+		invalidateAdjacency();
+		positions = null;
 		nodes.put(node.getId(), node);
 		return true;
 	}
@@ -185,21 +255,45 @@ public class DGraph implements DynamicGraph {
 			return false;
 		}
 		DNode removeNode = nodes.get(n);
+		invalidateAdjacency();
+		positions = null;
 		for (DEdge edge : removeNode.getAllEdges()) {
 			edge.getStartNode().deleteEdge(edge);
 			edge.getEndNode().deleteEdge(edge);
 			edges.remove(edge);
 		}
-		for (String s : removeNode.getSources()) {
-			references.get(s).remove(removeNode);
-			if (references.get(s).isEmpty()) {
-				references.remove(s);
+		long[] bits = removeNode.getSourceBits();
+		if (bits == null) {
+			for (String s : removeNode.getSources()) {
+				removeReference(s, removeNode);
+			}
+		} else {
+			for (int w = 0; w < bits.length; w++) {
+				for (long word = bits[w]; word != 0; word &= word - 1) {
+					removeReference(genomes.getName(w * Long.SIZE
+							+ Long.numberOfTrailingZeros(word)), removeNode);
+				}
 			}
 		}
 		nodes.remove(n);
 		return true;
 	}
 
+	/**
+	 * Removes a node from the nodes of a genome.
+	 * 
+	 * @param s
+	 *            The name of the genome.
+	 * @param node
+	 *            The node to remove.
+	 */
+	private void removeReference(final String s, final DNode node) {
+		references.get(s).remove(node);
+		if (references.get(s).isEmpty()) {
+			references.remove(s);
+		}
+	}
+
 	/**
 	 * Adds an edge to the graph.
 	 * 
@@ -215,6 +309,7 @@ public class DGraph implements DynamicGraph {
 		if (edges.contains(edge)) {
 			return false;
 		}
+		invalidateAdjacency();
 		nodes.get(edge.getStartNode().getId()).addEdge(edge);
 		nodes.get(edge.getEndNode().getId()).addEdge(edge);
 		edges.add(edge);
@@ -236,6 +331,7 @@ public class DGraph implements DynamicGraph {
 		if (!edges.contains(edge)) {
 			return false;
 		}
+		invalidateAdjacency();
 		nodes.get(edge.getStartNode().getId()).deleteEdge(edge);
 		nodes.get(edge.getEndNode().getId()).deleteEdge(edge);
 		edges.remove(edge);
@@ -279,13 +375,29 @@ public class DGraph implements DynamicGraph {
 
 	@Override
 	public Collection<DNode> getDNodes(final ViewArea va) {
-		ArrayList<DNode> ret = new ArrayList<DNode>();
-		for (DNode n : getNodes().values()) {
-			if (va.isContained(n)) {
-				ret.add(n);
-			}
+		return getPositionIndex().query(va.getLeftBoundary(),
+				va.getRightBoundary());
+	}
+
+	/**
+	 * @return The index of the nodes by x coordinate, built if there is none.
+	 */
+	public final PositionIndex<DNode> getPositionIndex() {
+		if (positions == null) {
+			return indexPositions();
 		}
-		return ret;
+		return positions;
+	}
+
+	/**
+	 * Rebuilds the index of the nodes by x coordinate. Call this after the
+	 * nodes have been placed.
+	 * 
+	 * @return The new index.
+	 */
+	public final PositionIndex<DNode> indexPositions() {
+		positions = PositionIndex.of(nodes.values());
+		return positions;
 	}
 
 	@Override
@@ -368,7 +480,7 @@ public class DGraph implements DynamicGraph {
 	public final void calculateReferenceLength() {
 		int ret = 0;
 		for (DNode d : references.get(refGenomeName)) {
-			ret += d.getContent().length();
+			ret += d.getContentLength();
 		}
 		this.refGenomeLength = ret;
 	}
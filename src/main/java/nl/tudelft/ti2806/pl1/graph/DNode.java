@@ -21,17 +21,35 @@ public class DNode {
 	/** The edges of the node. */
 	private Collection<DEdge> outEdges, inEdges;
 
-	/** The different genomes which go through this node. */
+	/**
+	 * The different genomes which go through this node, as long as the node
+	 * is not part of a graph.
+	 */
 	private HashSet<String> sources;
 
+	/**
+	 * The genomes which go through this node as a bitset, indexed by the
+	 * genome dictionary of the graph the node was added to.
+	 */
+	private long[] sourceBits;
+
+	/** The genome dictionary of the graph this node was added to. */
+	private GenomeDictionary genomes;
+
+	/** The frozen adjacency of the graph of this node, if it was built. */
+	private Adjacency adjacency;
+
+	/** The index of this node in {@link #adjacency}. */
+	private int adjacencyIndex = -1;
+
 	/** The start index on the genome. */
 	private int start;
 
 	/** The end index on the genome. */
 	private int end;
 
-	/** The content of the node. */
-	private String content;
+	/** The content of the node, packed at two bits per base. */
+	private PackedSequence content;
 
 	/** The original placement coordinates. */
 	private int x, y;
@@ -60,20 +78,20 @@ public class DNode {
 	 *            DNA bases inside the Node.
 	 */
 	public DNode(final int idIn, final HashSet<String> sourcesIn,
-			final int startIn, final int endIn, final String contentIn) {
+			final int startIn, final int endIn, final CharSequence contentIn) {
 		this.id = idIn;
 		this.outEdges = new ArrayList<DEdge>();
 		this.inEdges = new ArrayList<DEdge>();
 		this.start = startIn;
 		this.end = endIn;
 		this.sources = sourcesIn;
-		this.content = contentIn;
+		this.content = pack(contentIn);
 		this.x = 0;
 		this.y = 0;
 		this.depth = 0;
 		this.resMuts = null;
 		if (id >= 0) {
-			this.percUnknown = percentageUnknown(contentIn);
+			this.percUnknown = percentageUnknown(content);
 		} else {
 			this.percUnknown = 1.0;
 		}
@@ -84,17 +102,25 @@ public class DNode {
 	 * inverse percentage of it.
 	 * 
 	 * @param contentIn
-	 *            The string to be processed.
+	 *            The sequence to be processed.
 	 * @return Percentage of the amount of unknown nucleotides.
 	 */
-	private double percentageUnknown(final String contentIn) {
-		int counter = 0;
-		for (int i = 0; i < contentIn.length(); i++) {
-			if (contentIn.charAt(i) == 'N') {
-				counter++;
-			}
+	private double percentageUnknown(final PackedSequence contentIn) {
+		return (double) contentIn.count('N') / contentIn.length();
+	}
+
+	/**
+	 * @param seq
+	 *            The sequence to pack.
+	 * @return The packed sequence, shared if it already is packed.
+	 */
+	private static PackedSequence pack(final CharSequence seq) {
+		if (seq instanceof PackedSequence) {
+			return (PackedSequence) seq;
+		} else if (seq.length() == 0) {
+			return PackedSequence.EMPTY;
 		}
-		return (double) counter / contentIn.length();
+		return new PackedSequence(seq);
 	}
 
 	/**
@@ -105,6 +131,7 @@ public class DNode {
 	 * @return true iff the ID of the edge is not already in use.
 	 */
 	public final boolean addEdge(final DEdge edge) {
+		invalidateAdjacency();
 		if (edge.getStartNode().getId() == id && !getOutEdges().contains(edge)) {
 			outEdges.add(edge);
 			return true;
@@ -210,12 +237,19 @@ public class DNode {
 	}
 
 	/**
-	 * Get the sources which contains this node.
+	 * Get the sources which contains this node. Once the node is part of a
+	 * graph the set is created from the bitset on every call, so it is only
+	 * meant for showing the sources. Use {@link #hasSource(String)},
+	 * {@link #countSharedSources(DNode)} and {@link #getSourceBits()} everywhere
+	 * else.
 	 * 
 	 * @return Returns the different sources which contains this node
 	 */
 	public HashSet<String> getSources() {
-		return sources;
+		if (genomes == null) {
+			return sources;
+		}
+		return genomes.toNames(sourceBits);
 	}
 
 	/**
@@ -225,7 +259,67 @@ public class DNode {
 	 *            The new sources which contains this node
 	 */
 	public final void setSources(final HashSet<String> newSources) {
-		this.sources = newSources;
+		if (genomes == null) {
+			this.sources = newSources;
+		} else {
+			this.sourceBits = genomes.toBits(newSources);
+		}
+	}
+
+	/**
+	 * Stores the sources as a bitset of the genome dictionary of a graph, so
+	 * the set of names itself is no longer needed.
+	 * 
+	 * @param dictionary
+	 *            The genome dictionary of the graph the node is added to.
+	 */
+	public final void bindGenomes(final GenomeDictionary dictionary) {
+		if (dictionary == genomes) {
+			return;
+		}
+		this.sourceBits = dictionary.toBits(getSources());
+		this.genomes = dictionary;
+		this.sources = null;
+	}
+
+	/**
+	 * @return The sources of this node as a bitset, indexed by the genome
+	 *         dictionary of its graph.
+	 * @see GenomeDictionary
+	 */
+	public long[] getSourceBits() {
+		if (genomes == null) {
+			return null;
+		}
+		return sourceBits;
+	}
+
+	/**
+	 * @param genome
+	 *            The name of a genome.
+	 * @return True iff the genome goes through this node.
+	 */
+	public boolean hasSource(final String genome) {
+		if (genomes == null) {
+			return sources.contains(genome);
+		}
+		return GenomeDictionary.contains(sourceBits, genomes.indexOf(genome));
+	}
+
+	/**
+	 * @param other
+	 *            Another node.
+	 * @return The amount of genomes going through both nodes.
+	 */
+	public int countSharedSources(final DNode other) {
+		long[] otherBits = other.getSourceBits();
+		if (genomes == null || otherBits == null
+				|| other.genomes != genomes) {
+			HashSet<String> shared = new HashSet<String>(getSources());
+			shared.retainAll(other.getSources());
+			return shared.size();
+		}
+		return GenomeDictionary.countShared(sourceBits, otherBits);
 	}
 
 	/**
@@ -265,22 +359,40 @@ public class DNode {
 	}
 
 	/**
-	 * Get the content of the node.
+	 * Get the content of the node. This is an expensive conversion: every call
+	 * unpacks the whole sequence into a new string. Use {@link #getSequence()}
+	 * to read the nucleotides and {@link #getContentLength()} for the length,
+	 * and only call this when a string is really needed, such as for short
+	 * labels.
 	 * 
 	 * @return The content of the node
 	 */
 	public String getContent() {
+		return content.toString();
+	}
+
+	/**
+	 * @return The packed content of the node.
+	 */
+	public PackedSequence getSequence() {
 		return content;
 	}
 
+	/**
+	 * @return The amount of nucleotides in the content of the node.
+	 */
+	public int getContentLength() {
+		return content.length();
+	}
+
 	/**
 	 * Set the content of the node.
 	 * 
 	 * @param newContent
 	 *            The new content.
 	 */
-	public final void setContent(final String newContent) {
-		this.content = newContent;
+	public final void setContent(final CharSequence newContent) {
+		this.content = pack(newContent);
 	}
 
 	/**
@@ -317,6 +429,13 @@ public class DNode {
 	 */
 	public Collection<DNode> getPreviousNodes() {
 		ArrayList<DNode> previous = new ArrayList<DNode>();
+		if (hasAdjacency()) {
+			int v = adjacencyIndex;
+			for (int e = adjacency.firstIn(v); e < adjacency.endIn(v); e++) {
+				previous.add(adjacency.node(adjacency.source(e)));
+			}
+			return previous;
+		}
 		for (DEdge edge : getInEdges()) {
 			previous.add(edge.getStartNode());
 		}
@@ -330,12 +449,56 @@ public class DNode {
 	 */
 	public Collection<DNode> getNextNodes() {
 		ArrayList<DNode> next = new ArrayList<DNode>();
+		if (hasAdjacency()) {
+			int v = adjacencyIndex;
+			for (int e = adjacency.firstOut(v); e < adjacency.endOut(v); e++) {
+				next.add(adjacency.node(adjacency.target(e)));
+			}
+			return next;
+		}
 		for (DEdge edge : getOutEdges()) {
 			next.add(edge.getEndNode());
 		}
 		return next;
 	}
 
+	/**
+	 * Links this node to the frozen adjacency of its graph.
+	 * 
+	 * @param adj
+	 *            The adjacency.
+	 * @param index
+	 *            The index of this node in the adjacency.
+	 */
+	final void bindAdjacency(final Adjacency adj, final int index) {
+		this.adjacency = adj;
+		this.adjacencyIndex = index;
+	}
+
+	/**
+	 * @return The index of this node in the last adjacency it was part of.
+	 */
+	final int getAdjacencyIndex() {
+		return adjacencyIndex;
+	}
+
+	/**
+	 * @return True iff the neighbours can be read from a valid adjacency.
+	 */
+	private boolean hasAdjacency() {
+		return adjacency != null && adjacency.isValid();
+	}
+
+	/**
+	 * Marks the adjacency of the graph of this node as out of date.
+	 */
+	private void invalidateAdjacency() {
+		if (adjacency != null) {
+			adjacency.invalidate();
+			adjacency = null;
+		}
+	}
+
 	/**
 	 * Removes an edge from the node.
 	 * 
@@ -344,6 +507,7 @@ public class DNode {
 	 * @return A boolean indicating if it succeeded or failed
 	 */
 	public boolean deleteEdge(final DEdge edge) {
+		invalidateAdjacency();
 		if (getInEdges().contains(edge)) {
 			getInEdges().remove(edge);
 			return true;
@@ -0,0 +1,250 @@
+package nl.tudelft.ti2806.pl1.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Maps every genome name of a graph to a dense index, so a set of genomes can
+ * be stored as a bitset of <code>long</code> words. Intersecting, counting
+ * and testing genomes then are word level AND and population count
+ * operations instead of hash set operations.
+ */
+public final class GenomeDictionary {
+
+	/** The shift converting a genome index into a word index. */
+	private static final int WORD_SHIFT = 6;
+
+	/** The index of every genome name. */
+	private final HashMap<String, Integer> index;
+
+	/** The genome names, in order of their index. */
+	private final ArrayList<String> names;
+
+	/**
+	 * Creates an empty dictionary.
+	 */
+	public GenomeDictionary() {
+		this.index = new HashMap<String, Integer>();
+		this.names = new ArrayList<String>();
+	}
+
+	/**
+	 * @return The amount of genomes in the dictionary.
+	 */
+	public int size() {
+		return names.size();
+	}
+
+	/**
+	 * @return The genome names, in order of their index.
+	 */
+	public List<String> getNames() {
+		return Collections.unmodifiableList(names);
+	}
+
+	/**
+	 * @param name
+	 *            A genome name.
+	 * @return The index of the genome, or -1 if it is not in the dictionary.
+	 */
+	public int indexOf(final String name) {
+		Integer i = index.get(name);
+		if (i == null) {
+			return -1;
+		}
+		return i;
+	}
+
+	/**
+	 * @param i
+	 *            The index of a genome.
+	 * @return The name of the genome.
+	 */
+	public String getName(final int i) {
+		return names.get(i);
+	}
+
+	/**
+	 * Adds a genome to the dictionary if it is not in it yet.
+	 *
+	 * @param name
+	 *            The genome name.
+	 * @return The index of the genome.
+	 */
+	public int add(final String name) {
+		Integer i = index.get(name);
+		if (i == null) {
+			i = names.size();
+			index.put(name, i);
+			names.add(name);
+		}
+		return i;
+	}
+
+	/**
+	 * Converts genome names to a bitset, adding unknown genomes to the
+	 * dictionary.
+	 *
+	 * @param genomes
+	 *            The genome names.
+	 * @return The bitset of the genomes.
+	 */
+	public long[] toBits(final Collection<String> genomes) {
+		int[] indices = new int[genomes.size()];
+		int max = -1;
+		int k = 0;
+		for (String g : genomes) {
+			indices[k] = add(g);
+			max = Math.max(max, indices[k++]);
+		}
+		long[] bits = new long[words(max + 1)];
+		for (int i : indices) {
+			bits[i >>> WORD_SHIFT] |= 1L << i;
+		}
+		return bits;
+	}
+
+	/**
+	 * Converts genome names to a bitset, ignoring genomes which are not in the
+	 * dictionary.
+	 *
+	 * @param genomes
+	 *            The genome names.
+	 * @return The bitset of the known genomes.
+	 */
+	public long[] mask(final Collection<String> genomes) {
+		long[] bits = new long[words(size())];
+		for (String g : genomes) {
+			int i = indexOf(g);
+			if (i >= 0) {
+				bits[i >>> WORD_SHIFT] |= 1L << i;
+			}
+		}
+		return bits;
+	}
+
+	/**
+	 * @param bits
+	 *            A bitset of genomes.
+	 * @return The names of the genomes in the bitset.
+	 */
+	public HashSet<String> toNames(final long[] bits) {
+		HashSet<String> ret = new HashSet<String>(count(bits) * 2);
+		for (int w = 0; w < bits.length; w++) {
+			long word = bits[w];
+			while (word != 0) {
+				ret.add(names.get((w << WORD_SHIFT)
+						+ Long.numberOfTrailingZeros(word)));
+				word &= word - 1;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * @param genomes
+	 *            The amount of genomes.
+	 * @return The amount of words needed to store a bitset of the genomes.
+	 */
+	private static int words(final int genomes) {
+		return (genomes + Long.SIZE - 1) >>> WORD_SHIFT;
+	}
+
+	/**
+	 * @param bits
+	 *            A bitset of genomes.
+	 * @param i
+	 *            The index of a genome.
+	 * @return True iff the genome is in the bitset.
+	 */
+	public static boolean contains(final long[] bits, final int i) {
+		int w = i >>> WORD_SHIFT;
+		return i >= 0 && w < bits.length && (bits[w] & (1L << i)) != 0;
+	}
+
+	/**
+	 * @param bits
+	 *            A bitset of genomes.
+	 * @return The amount of genomes in the bitset.
+	 */
+	public static int count(final long[] bits) {
+		int ret = 0;
+		for (long w : bits) {
+			ret += Long.bitCount(w);
+		}
+		return ret;
+	}
+
+	/**
+	 * @param a
+	 *            A bitset of genomes.
+	 * @param b
+	 *            Another bitset of genomes.
+	 * @return The amount of genomes in both bitsets.
+	 */
+	public static int countShared(final long[] a, final long[] b) {
+		int len = Math.min(a.length, b.length);
+		int ret = 0;
+		for (int w = 0; w < len; w++) {
+			ret += Long.bitCount(a[w] & b[w]);
+		}
+		return ret;
+	}
+
+	/**
+	 * @param a
+	 *            A bitset of genomes.
+	 * @param b
+	 *            Another bitset of genomes.
+	 * @return True iff the bitsets have at least one genome in common.
+	 */
+	public static boolean intersects(final long[] a, final long[] b) {
+		int len = Math.min(a.length, b.length);
+		for (int w = 0; w < len; w++) {
+			if ((a[w] & b[w]) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param a
+	 *            A bitset of genomes.
+	 * @param b
+	 *            Another bitset of genomes.
+	 * @return The bitset of the genomes in both bitsets.
+	 */
+	public static long[] and(final long[] a, final long[] b) {
+		long[] ret = new long[Math.min(a.length, b.length)];
+		for (int w = 0; w < ret.length; w++) {
+			ret[w] = a[w] & b[w];
+		}
+		return ret;
+	}
+
+	/**
+	 * @param a
+	 *            A bitset of genomes, or null for no genomes.
+	 * @param b
+	 *            Another bitset of genomes, or null for no genomes.
+	 * @return The bitset of the genomes in either bitset.
+	 */
+	public static long[] or(final long[] a, final long[] b) {
+		if (a == null) {
+			return b == null ? new long[0] : b.clone();
+		} else if (b == null) {
+			return a.clone();
+		}
+		long[] ret = Arrays.copyOf(a, Math.max(a.length, b.length));
+		for (int w = 0; w < b.length; w++) {
+			ret[w] |= b[w];
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,361 @@
+package nl.tudelft.ti2806.pl1.graph;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import nl.tudelft.ti2806.pl1.gui.contentpane.ViewArea;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Element;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.graphstream.stream.SinkAdapter;
+import org.graphstream.ui.view.Camera;
+
+/**
+ * A window on a visual graph. The window graph only contains the nodes of the
+ * source graph which lie within the shown view area plus a margin on both
+ * sides, together with their direct neighbours so edges leaving the window
+ * are still drawn. Nodes are added and evicted as the shown area moves, so a
+ * viewer of the window graph only has to handle what is on the screen.
+ *
+ * Attribute changes on the source graph, such as selection and highlighting,
+ * are forwarded to the nodes and edges in the window.
+ *
+ * The source graph can be replaced by another one, such as another zoom
+ * level. The window graph is then updated with only the differences: nodes
+ * and edges the new source does not have are removed, missing ones are
+ * added, and the attributes of the remaining ones are changed where they
+ * differ. A viewer of the window graph can therefore be kept for every
+ * source graph.
+ */
+public final class GraphWindow extends SinkAdapter {
+
+	/** The default margin on both sides of the shown area, in pixels. */
+	public static final int DEFAULT_MARGIN = 2000;
+
+	/** The visual graph of which a part is shown. */
+	private Graph source;
+
+	/** The graph containing the shown part of the source graph. */
+	private final Graph window;
+
+	/** The margin on both sides of the shown area. */
+	private int margin;
+
+	/** The left boundary of the materialised range. */
+	private int left;
+
+	/** The right boundary of the materialised range. */
+	private int right;
+
+	/** The bounding box of the source graph: min x, min y, max x, max y. */
+	private double[] bounds;
+
+	/** Whether the window graph may contain elements of a former source. */
+	private boolean replaced;
+
+	/**
+	 * Creates an empty window on a visual graph. The window starts following
+	 * the changes of the source graph immediately.
+	 *
+	 * @param sourceGraph
+	 *            The placed visual graph.
+	 * @param marginIn
+	 *            The margin on both sides of the shown area.
+	 */
+	public GraphWindow(final Graph sourceGraph, final int marginIn) {
+		this.source = sourceGraph;
+		this.window = new SingleGraph(sourceGraph.getId() + "-window");
+		this.margin = marginIn;
+		this.bounds = computeBounds(sourceGraph);
+		reset();
+		source.addAttributeSink(this);
+	}
+
+	/**
+	 * @param graph
+	 *            A placed visual graph.
+	 * @return The bounding box of the graph: min x, min y, max x, max y.
+	 */
+	private static double[] computeBounds(final Graph graph) {
+		double[] ret = new double[] { 0, 0, 0, 0 };
+		boolean first = true;
+		for (Node n : graph.getEachNode()) {
+			Number nx = n.getAttribute("x");
+			Number ny = n.getAttribute("y");
+			double x = nx.doubleValue();
+			double y = ny.doubleValue();
+			if (first) {
+				ret = new double[] { x, y, x, y };
+				first = false;
+			} else {
+				ret[0] = Math.min(ret[0], x);
+				ret[1] = Math.min(ret[1], y);
+				ret[2] = Math.max(ret[2], x);
+				ret[3] = Math.max(ret[3], y);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Replaces the source graph. The window graph is brought up to date with
+	 * the new source on the next call to {@link #show(ViewArea)}, and the
+	 * camera has to be fitted again.
+	 *
+	 * @param newSource
+	 *            The placed visual graph.
+	 */
+	public void setSource(final Graph newSource) {
+		source.removeAttributeSink(this);
+		source = newSource;
+		bounds = computeBounds(newSource);
+		replaced = true;
+		reset();
+		source.addAttributeSink(this);
+	}
+
+	/**
+	 * Marks the materialised range as empty, so the next call to
+	 * {@link #show(ViewArea)} recomputes the window.
+	 */
+	private void reset() {
+		left = 1;
+		right = 0;
+	}
+
+	/**
+	 * @return The graph containing the shown part of the source graph.
+	 */
+	public Graph getGraph() {
+		return window;
+	}
+
+	/**
+	 * @return The visual graph of which a part is shown.
+	 */
+	public Graph getSource() {
+		return source;
+	}
+
+	/**
+	 * @return The margin on both sides of the shown area.
+	 */
+	public int getMargin() {
+		return margin;
+	}
+
+	/**
+	 * Changes the margin. Takes effect on the next call to
+	 * {@link #show(ViewArea)}.
+	 *
+	 * @param newMargin
+	 *            The margin on both sides of the shown area.
+	 */
+	public void setMargin(final int newMargin) {
+		this.margin = newMargin;
+		reset();
+	}
+
+	/**
+	 * Makes the camera of a view show the window graph in the coordinates of
+	 * the whole source graph, instead of fitting the window graph onto the
+	 * view.
+	 *
+	 * @param camera
+	 *            The camera of the view showing the window graph.
+	 */
+	public void fit(final Camera camera) {
+		camera.setGraphViewport(bounds[0], bounds[1], bounds[2], bounds[3]);
+	}
+
+	/**
+	 * Moves the window to a new shown area. Nothing changes as long as the area
+	 * stays at least half a margin away from the boundaries of the
+	 * materialised range.
+	 *
+	 * @param area
+	 *            The shown area.
+	 * @return True iff the window graph changed.
+	 */
+	public boolean show(final ViewArea area) {
+		int l = area.getLeftBoundary();
+		int r = area.getRightBoundary();
+		if (left <= right && l - margin / 2 >= left && r + margin / 2 <= right) {
+			return false;
+		}
+		left = l - margin;
+		right = r + margin;
+
+		List<Node> inRange = PositionIndex.get(source).query(left, right);
+		Set<String> wanted = new HashSet<String>(inRange.size() * 2);
+		for (Node n : inRange) {
+			wanted.add(n.getId());
+			for (Edge e : n.getEachEdge()) {
+				wanted.add(e.getOpposite(n).getId());
+			}
+		}
+
+		List<String> evict = new ArrayList<String>();
+		for (Node n : window.getEachNode()) {
+			if (!wanted.contains(n.getId())) {
+				evict.add(n.getId());
+			}
+		}
+		for (String id : evict) {
+			window.removeNode(id);
+		}
+		if (replaced) {
+			update();
+			replaced = false;
+		}
+		for (String id : wanted) {
+			if (window.getNode(id) == null) {
+				copyAttributes(source.getNode(id), window.addNode(id));
+			}
+		}
+		for (Node n : inRange) {
+			for (Edge e : n.getEachEdge()) {
+				if (window.getEdge(e.getId()) == null) {
+					copyAttributes(e, window.addEdge(e.getId(), e
+							.getSourceNode().getId(), e.getTargetNode()
+							.getId(), e.isDirected()));
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Updates the nodes and edges in the window graph to the source graph
+	 * which replaced the one they were copied from. Edges which do not exist
+	 * anymore between the same nodes are removed.
+	 */
+	private void update() {
+		for (Node n : window.getEachNode()) {
+			updateAttributes(source.getNode(n.getId()), n);
+		}
+		List<String> removed = new ArrayList<String>();
+		for (Edge e : window.getEachEdge()) {
+			Edge now = source.getEdge(e.getId());
+			if (now == null
+					|| !now.getSourceNode().getId()
+							.equals(e.getSourceNode().getId())
+					|| !now.getTargetNode().getId()
+							.equals(e.getTargetNode().getId())) {
+				removed.add(e.getId());
+			} else {
+				updateAttributes(now, e);
+			}
+		}
+		for (String id : removed) {
+			window.removeEdge(id);
+		}
+	}
+
+	/**
+	 * Stops following the changes of the source graph.
+	 */
+	public void detach() {
+		source.removeAttributeSink(this);
+	}
+
+	/**
+	 * @param from
+	 *            The node or edge of the source graph.
+	 * @param to
+	 *            The node or edge of the window graph.
+	 */
+	private static void copyAttributes(final Element from, final Element to) {
+		for (String key : from.getAttributeKeySet()) {
+			to.addAttribute(key, from.getAttribute(key));
+		}
+	}
+
+	/**
+	 * Changes the attributes of a node or edge of the window graph which
+	 * differ from the ones of the source graph.
+	 *
+	 * @param from
+	 *            The node or edge of the source graph.
+	 * @param to
+	 *            The node or edge of the window graph.
+	 */
+	private static void updateAttributes(final Element from, final Element to) {
+		List<String> removed = new ArrayList<String>();
+		for (String key : to.getAttributeKeySet()) {
+			if (!from.hasAttribute(key)) {
+				removed.add(key);
+			}
+		}
+		for (String key : removed) {
+			to.removeAttribute(key);
+		}
+		for (String key : from.getAttributeKeySet()) {
+			Object value = from.getAttribute(key);
+			if (value != null && !value.equals(to.getAttribute(key))) {
+				to.setAttribute(key, value);
+			}
+		}
+	}
+
+	@Override
+	public void nodeAttributeAdded(final String sourceId, final long timeId,
+			final String nodeId, final String attribute, final Object value) {
+		Node n = window.getNode(nodeId);
+		if (n != null) {
+			n.addAttribute(attribute, value);
+		}
+	}
+
+	@Override
+	public void nodeAttributeChanged(final String sourceId, final long timeId,
+			final String nodeId, final String attribute, final Object oldValue,
+			final Object newValue) {
+		Node n = window.getNode(nodeId);
+		if (n != null) {
+			n.setAttribute(attribute, newValue);
+		}
+	}
+
+	@Override
+	public void nodeAttributeRemoved(final String sourceId, final long timeId,
+			final String nodeId, final String attribute) {
+		Node n = window.getNode(nodeId);
+		if (n != null) {
+			n.removeAttribute(attribute);
+		}
+	}
+
+	@Override
+	public void edgeAttributeAdded(final String sourceId, final long timeId,
+			final String edgeId, final String attribute, final Object value) {
+		Edge e = window.getEdge(edgeId);
+		if (e != null) {
+			e.addAttribute(attribute, value);
+		}
+	}
+
+	@Override
+	public void edgeAttributeChanged(final String sourceId, final long timeId,
+			final String edgeId, final String attribute, final Object oldValue,
+			final Object newValue) {
+		Edge e = window.getEdge(edgeId);
+		if (e != null) {
+			e.setAttribute(attribute, newValue);
+		}
+	}
+
+	@Override
+	public void edgeAttributeRemoved(final String sourceId, final long timeId,
+			final String edgeId, final String attribute) {
+		Edge e = window.getEdge(edgeId);
+		if (e != null) {
+			e.removeAttribute(attribute);
+		}
+	}
+}
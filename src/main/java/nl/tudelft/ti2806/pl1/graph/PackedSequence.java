@@ -0,0 +1,304 @@
+package nl.tudelft.ti2806.pl1.graph;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An immutable nucleotide sequence storing A, C, G and T at two bits per base.
+ * Every other character (N and the other IUPAC codes) is kept in a sparse,
+ * run length encoded side table, since these mostly occur in long runs.
+ */
+public final class PackedSequence implements CharSequence {
+
+	/** The empty sequence. */
+	public static final PackedSequence EMPTY = new PackedSequence("");
+
+	/** The amount of bits used for a single base. */
+	private static final int BITS_PER_BASE = 2;
+
+	/** The amount of bases stored in a single word. */
+	private static final int BASES_PER_WORD = Long.SIZE / BITS_PER_BASE;
+
+	/** The shift converting a base index into a word index. */
+	private static final int WORD_SHIFT = 5;
+
+	/** The mask selecting the two bits of a single base. */
+	private static final long BASE_MASK = 3L;
+
+	/** The mask selecting the low bit of every base in a word. */
+	private static final long LOW_BITS = 0x5555555555555555L;
+
+	/** The characters of the four packed bases, indexed by their code. */
+	private static final char[] BASES = { 'A', 'C', 'G', 'T' };
+
+	/** The amount of bytes a run of unpacked characters takes when written. */
+	private static final int RUN_BYTES = 2 * Integer.SIZE / Byte.SIZE
+			+ Character.SIZE / Byte.SIZE;
+
+	/** The packed bases. Positions in the side table are stored as zero. */
+	private final long[] words;
+
+	/** The length of the sequence. */
+	private final int length;
+
+	/** The start positions of the runs of non-ACGT characters, ascending. */
+	private final int[] runStarts;
+
+	/** The lengths of the runs of non-ACGT characters. */
+	private final int[] runLengths;
+
+	/** The character of every run of non-ACGT characters. */
+	private final char[] runChars;
+
+	/**
+	 * Packs a sequence.
+	 *
+	 * @param seq
+	 *            The sequence of nucleotides to pack.
+	 */
+	public PackedSequence(final CharSequence seq) {
+		this.length = seq.length();
+		this.words = new long[(length + BASES_PER_WORD - 1) / BASES_PER_WORD];
+		int runs = 0;
+		int[] starts = new int[0];
+		int[] lengths = new int[0];
+		char[] chars = new char[0];
+		for (int i = 0; i < length; i++) {
+			char c = seq.charAt(i);
+			int code = code(c);
+			if (code >= 0) {
+				words[i >>> WORD_SHIFT] |= (long) code << shift(i);
+			} else if (runs > 0 && chars[runs - 1] == c
+					&& starts[runs - 1] + lengths[runs - 1] == i) {
+				lengths[runs - 1]++;
+			} else {
+				if (runs == starts.length) {
+					int cap = Math.max(1, runs * 2);
+					starts = Arrays.copyOf(starts, cap);
+					lengths = Arrays.copyOf(lengths, cap);
+					chars = Arrays.copyOf(chars, cap);
+				}
+				starts[runs] = i;
+				lengths[runs] = 1;
+				chars[runs] = c;
+				runs++;
+			}
+		}
+		this.runStarts = Arrays.copyOf(starts, runs);
+		this.runLengths = Arrays.copyOf(lengths, runs);
+		this.runChars = Arrays.copyOf(chars, runs);
+	}
+
+	/**
+	 * Creates a sequence from its packed representation.
+	 *
+	 * @param wordsIn
+	 *            The packed bases.
+	 * @param lengthIn
+	 *            The length of the sequence.
+	 * @param starts
+	 *            The start positions of the side table runs.
+	 * @param lengths
+	 *            The lengths of the side table runs.
+	 * @param chars
+	 *            The characters of the side table runs.
+	 */
+	private PackedSequence(final long[] wordsIn, final int lengthIn,
+			final int[] starts, final int[] lengths, final char[] chars) {
+		this.words = wordsIn;
+		this.length = lengthIn;
+		this.runStarts = starts;
+		this.runLengths = lengths;
+		this.runChars = chars;
+	}
+
+	/**
+	 * Writes the packed representation of this sequence.
+	 *
+	 * @param out
+	 *            The output to write to.
+	 * @throws IOException
+	 *             When writing fails.
+	 * @see #read(ByteBuffer)
+	 */
+	public void write(final DataOutput out) throws IOException {
+		out.writeInt(length);
+		for (long w : words) {
+			out.writeLong(w);
+		}
+		out.writeInt(runStarts.length);
+		for (int r = 0; r < runStarts.length; r++) {
+			out.writeInt(runStarts[r]);
+			out.writeInt(runLengths[r]);
+			out.writeChar(runChars[r]);
+		}
+	}
+
+	/**
+	 * Reads a sequence written by {@link #write(DataOutput)} without
+	 * repacking it.
+	 *
+	 * @param buf
+	 *            The buffer to read from, positioned at the sequence.
+	 * @return The sequence.
+	 */
+	public static PackedSequence read(final ByteBuffer buf) {
+		int len = buf.getInt();
+		if (len < 0 || (long) len / BASES_PER_WORD * (Long.SIZE / Byte.SIZE) > buf
+				.remaining()) {
+			throw new IllegalArgumentException("Invalid sequence length " + len);
+		}
+		long[] w = new long[(len + BASES_PER_WORD - 1) / BASES_PER_WORD];
+		buf.asLongBuffer().get(w);
+		buf.position(buf.position() + w.length * (Long.SIZE / Byte.SIZE));
+		int runs = buf.getInt();
+		if (runs < 0 || (long) runs * RUN_BYTES > buf.remaining()) {
+			throw new IllegalArgumentException("Invalid amount of runs " + runs);
+		}
+		int[] starts = new int[runs];
+		int[] lengths = new int[runs];
+		char[] chars = new char[runs];
+		for (int r = 0; r < runs; r++) {
+			starts[r] = buf.getInt();
+			lengths[r] = buf.getInt();
+			chars[r] = buf.getChar();
+		}
+		if (len == 0 && runs == 0) {
+			return EMPTY;
+		}
+		return new PackedSequence(w, len, starts, lengths, chars);
+	}
+
+	/**
+	 * @param c
+	 *            A character.
+	 * @return The two bit code of the character, or -1 if it is not one of the
+	 *         four packed bases.
+	 */
+	private static int code(final char c) {
+		switch (c) {
+		case 'A':
+			return 0;
+		case 'C':
+			return 1;
+		case 'G':
+			return 2;
+		case 'T':
+			return 3;
+		default:
+			return -1;
+		}
+	}
+
+	/**
+	 * @param index
+	 *            The index of a base.
+	 * @return The bit offset of the base within its word.
+	 */
+	private static int shift(final int index) {
+		return (index & (BASES_PER_WORD - 1)) * BITS_PER_BASE;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(final int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("index: " + index
+					+ ", length: " + length);
+		}
+		int run = findRun(index);
+		if (run >= 0) {
+			return runChars[run];
+		}
+		int code = (int) ((words[index >>> WORD_SHIFT] >>> shift(index)) & BASE_MASK);
+		return BASES[code];
+	}
+
+	/**
+	 * @param index
+	 *            The index of a base.
+	 * @return The run containing the index, or -1 if it is a packed base.
+	 */
+	private int findRun(final int index) {
+		int pos = Arrays.binarySearch(runStarts, index);
+		if (pos >= 0) {
+			return pos;
+		}
+		int before = -pos - 2;
+		if (before >= 0 && index < runStarts[before] + runLengths[before]) {
+			return before;
+		}
+		return -1;
+	}
+
+	/**
+	 * Counts the occurrences of a character without unpacking the sequence.
+	 * Counting one of the four packed bases takes a population count per
+	 * word; other characters are counted from the side table.
+	 *
+	 * @param c
+	 *            The character to count.
+	 * @return The amount of times <code>c</code> occurs in the sequence.
+	 */
+	public int count(final char c) {
+		int code = code(c);
+		if (code < 0) {
+			int ret = 0;
+			for (int r = 0; r < runChars.length; r++) {
+				if (runChars[r] == c) {
+					ret += runLengths[r];
+				}
+			}
+			return ret;
+		}
+		long pattern = LOW_BITS * code;
+		int ret = 0;
+		for (int w = 0; w < words.length; w++) {
+			long x = words[w] ^ pattern;
+			long match = ~(x | (x >>> 1)) & LOW_BITS;
+			int valid = Math.min(BASES_PER_WORD, length - w * BASES_PER_WORD);
+			if (valid < BASES_PER_WORD) {
+				match &= (1L << (valid * BITS_PER_BASE)) - 1;
+			}
+			ret += Long.bitCount(match);
+		}
+		if (code == 0) {
+			for (int r = 0; r < runLengths.length; r++) {
+				ret -= runLengths[r];
+			}
+		}
+		return ret;
+	}
+
+	@Override
+	public CharSequence subSequence(final int start, final int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("start: " + start + ", end: "
+					+ end + ", length: " + length);
+		}
+		StringBuilder sb = new StringBuilder(end - start);
+		for (int i = start; i < end; i++) {
+			sb.append(charAt(i));
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = BASES[(int) ((words[i >>> WORD_SHIFT] >>> shift(i)) & BASE_MASK)];
+		}
+		for (int r = 0; r < runStarts.length; r++) {
+			Arrays.fill(chars, runStarts[r], runStarts[r] + runLengths[r],
+					runChars[r]);
+		}
+		return new String(chars);
+	}
+}
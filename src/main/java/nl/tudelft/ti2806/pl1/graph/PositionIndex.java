@@ -0,0 +1,184 @@
+package nl.tudelft.ti2806.pl1.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+
+/**
+ * An immutable index of nodes sorted by their x coordinate. Finding the nodes
+ * within a horizontal range takes a binary search for the left boundary plus
+ * the amount of nodes found, instead of a scan over all nodes.
+ *
+ * @param <T>
+ *            The type of the indexed nodes.
+ */
+public final class PositionIndex<T> {
+
+	/**
+	 * The graph attribute under which the index of a GraphStream graph is
+	 * stored.
+	 */
+	public static final String ATTRIBUTE = "xindex";
+
+	/** The sorted x coordinates. */
+	private final int[] xs;
+
+	/** The nodes, in the order of their x coordinate. */
+	private final Object[] items;
+
+	/**
+	 * @param xsIn
+	 *            The sorted x coordinates.
+	 * @param itemsIn
+	 *            The nodes, in the order of their x coordinate.
+	 */
+	private PositionIndex(final int[] xsIn, final Object[] itemsIn) {
+		this.xs = xsIn;
+		this.items = itemsIn;
+	}
+
+	/**
+	 * Indexes data nodes by their x coordinate.
+	 *
+	 * @param nodes
+	 *            The nodes to index.
+	 * @return The index.
+	 */
+	public static PositionIndex<DNode> of(final Collection<DNode> nodes) {
+		DNode[] sorted = nodes.toArray(new DNode[nodes.size()]);
+		Arrays.sort(sorted, new Comparator<DNode>() {
+			@Override
+			public int compare(final DNode a, final DNode b) {
+				return Integer.compare(a.getX(), b.getX());
+			}
+		});
+		int[] xs = new int[sorted.length];
+		for (int i = 0; i < sorted.length; i++) {
+			xs[i] = sorted[i].getX();
+		}
+		return new PositionIndex<DNode>(xs, sorted);
+	}
+
+	/**
+	 * Indexes the nodes of a GraphStream graph by their <code>x</code>
+	 * attribute.
+	 *
+	 * @param graph
+	 *            The graph to index.
+	 * @return The index.
+	 */
+	public static PositionIndex<Node> of(final Graph graph) {
+		final int[] x = new int[graph.getNodeCount()];
+		Integer[] order = new Integer[x.length];
+		for (Node n : graph.getEachNode()) {
+			x[n.getIndex()] = n.getAttribute("x");
+			order[n.getIndex()] = n.getIndex();
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(final Integer a, final Integer b) {
+				return Integer.compare(x[a], x[b]);
+			}
+		});
+		int[] xs = new int[x.length];
+		Node[] sorted = new Node[x.length];
+		for (int i = 0; i < order.length; i++) {
+			xs[i] = x[order[i]];
+			sorted[i] = graph.getNode(order[i]);
+		}
+		return new PositionIndex<Node>(xs, sorted);
+	}
+
+	/**
+	 * Gets the index stored on a GraphStream graph, indexing the graph if it
+	 * has none yet or if nodes were added or removed since it was stored.
+	 *
+	 * @param graph
+	 *            The graph.
+	 * @return The index of the graph.
+	 */
+	public static PositionIndex<Node> get(final Graph graph) {
+		Object stored = graph.getAttribute(ATTRIBUTE);
+		if (stored instanceof PositionIndex) {
+			@SuppressWarnings("unchecked")
+			PositionIndex<Node> ret = (PositionIndex<Node>) stored;
+			if (ret.size() == graph.getNodeCount()) {
+				return ret;
+			}
+		}
+		return store(graph);
+	}
+
+	/**
+	 * (Re)indexes a GraphStream graph and stores the index on it. Call this
+	 * after the x attributes have changed.
+	 *
+	 * @param graph
+	 *            The graph.
+	 * @return The new index of the graph.
+	 */
+	public static PositionIndex<Node> store(final Graph graph) {
+		PositionIndex<Node> ret = of(graph);
+		graph.setAttribute(ATTRIBUTE, ret);
+		return ret;
+	}
+
+	/**
+	 * @return The amount of indexed nodes.
+	 */
+	public int size() {
+		return xs.length;
+	}
+
+	/**
+	 * @param x
+	 *            An x coordinate.
+	 * @return The position of the first node with an x coordinate of at least
+	 *         <code>x</code>.
+	 */
+	private int lowerBound(final int x) {
+		int lo = 0;
+		int hi = xs.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (xs[mid] < x) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * @param left
+	 *            The left boundary, inclusive.
+	 * @param right
+	 *            The right boundary, inclusive.
+	 * @return The nodes with an x coordinate within the boundaries, ordered by
+	 *         x coordinate.
+	 */
+	public List<T> query(final int left, final int right) {
+		if (right < left) {
+			return Collections.emptyList();
+		}
+		int from = lowerBound(left);
+		int to = from;
+		while (to < xs.length && xs[to] <= right) {
+			to++;
+		}
+		List<T> ret = new ArrayList<T>(to - from);
+		for (int i = from; i < to; i++) {
+			@SuppressWarnings("unchecked")
+			T item = (T) items[i];
+			ret.add(item);
+		}
+		return ret;
+	}
+}
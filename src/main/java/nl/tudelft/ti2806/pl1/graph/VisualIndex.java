@@ -0,0 +1,212 @@
+package nl.tudelft.ti2806.pl1.graph;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.stream.SinkAdapter;
+
+/**
+ * Maps the id of every data node to the visual node which contains it after
+ * collapsing, so finding the visual node of a data node takes one array
+ * lookup instead of a scan over the <code>collapsed</code> attributes of all
+ * visual nodes.
+ *
+ * The index refers to visual nodes by their index in the graph, so it has to
+ * be rebuilt when nodes are added or removed or when the contents of a node
+ * change. A stored index listens to its graph to notice this.
+ */
+public final class VisualIndex {
+
+	/**
+	 * The graph attribute under which the index of a GraphStream graph is
+	 * stored.
+	 */
+	public static final String ATTRIBUTE = "visualindex";
+
+	/** Marks a data node which is not in any visual node. */
+	private static final int NONE = -1;
+
+	/** The indexed graph. */
+	private final Graph graph;
+
+	/** Notices changes of the graph which make the index stale. */
+	private final Tracker tracker = new Tracker();
+
+	/** The smallest data node id. */
+	private final int min;
+
+	/** The index of the visual node containing every data node id. */
+	private final int[] slots;
+
+	/**
+	 * @param graphIn
+	 *            The indexed graph.
+	 * @param minIn
+	 *            The smallest data node id.
+	 * @param slotsIn
+	 *            The index of the visual node containing every data node id.
+	 */
+	private VisualIndex(final Graph graphIn, final int minIn,
+			final int[] slotsIn) {
+		this.graph = graphIn;
+		this.min = minIn;
+		this.slots = slotsIn;
+	}
+
+	/**
+	 * Indexes the <code>collapsed</code> attributes of a visual graph.
+	 *
+	 * @param graph
+	 *            The graph to index.
+	 * @return The index.
+	 */
+	public static VisualIndex of(final Graph graph) {
+		int lo = Integer.MAX_VALUE;
+		int hi = Integer.MIN_VALUE;
+		for (Node n : graph.getEachNode()) {
+			for (int id : ids(n)) {
+				lo = Math.min(lo, id);
+				hi = Math.max(hi, id);
+			}
+		}
+		if (lo > hi) {
+			return new VisualIndex(graph, 0, new int[0]);
+		}
+		int[] slots = new int[hi - lo + 1];
+		Arrays.fill(slots, NONE);
+		for (Node n : graph.getEachNode()) {
+			for (int id : ids(n)) {
+				slots[id - lo] = n.getIndex();
+			}
+		}
+		return new VisualIndex(graph, lo, slots);
+	}
+
+	/**
+	 * Gets the index stored on a visual graph, indexing the graph if it has
+	 * none yet, if the stored index belongs to another graph of which this
+	 * one is a copy, or if the graph changed since the index was stored.
+	 *
+	 * @param graph
+	 *            The graph.
+	 * @return The index of the graph.
+	 */
+	public static VisualIndex get(final Graph graph) {
+		Object stored = graph.getAttribute(ATTRIBUTE);
+		if (stored instanceof VisualIndex) {
+			VisualIndex ret = (VisualIndex) stored;
+			if (ret.graph == graph && !ret.tracker.stale) {
+				return ret;
+			}
+		}
+		return store(graph);
+	}
+
+	/**
+	 * (Re)indexes a visual graph and stores the index on it. Call this once
+	 * all collapsing is done.
+	 *
+	 * @param graph
+	 *            The graph.
+	 * @return The new index of the graph.
+	 */
+	public static VisualIndex store(final Graph graph) {
+		Object old = graph.getAttribute(ATTRIBUTE);
+		if (old instanceof VisualIndex) {
+			graph.removeSink(((VisualIndex) old).tracker);
+		}
+		VisualIndex ret = of(graph);
+		graph.addSink(ret.tracker);
+		graph.setAttribute(ATTRIBUTE, ret);
+		return ret;
+	}
+
+	/**
+	 * @param node
+	 *            A visual node.
+	 * @return The ids of the data nodes in the visual node.
+	 */
+	private static Collection<Integer> ids(final Node node) {
+		Collection<Integer> ret = node.getAttribute("collapsed");
+		if (ret == null) {
+			return Collections.emptyList();
+		}
+		return ret;
+	}
+
+	/**
+	 * @param id
+	 *            The id of a data node.
+	 * @return The visual node containing the data node, or null if no visual
+	 *         node contains it.
+	 */
+	public Node find(final int id) {
+		int i = id - min;
+		if (i < 0 || i >= slots.length || slots[i] == NONE) {
+			return null;
+		}
+		return graph.getNode(slots[i]);
+	}
+
+	/**
+	 * Marks the index as stale when visual nodes are added or removed, or
+	 * when the data nodes a visual node contains are replaced.
+	 */
+	private static final class Tracker extends SinkAdapter {
+
+		/** Whether the graph changed since the index was built. */
+		private volatile boolean stale;
+
+		@Override
+		public void nodeAdded(final String sourceId, final long timeId,
+				final String nodeId) {
+			stale = true;
+		}
+
+		@Override
+		public void nodeRemoved(final String sourceId, final long timeId,
+				final String nodeId) {
+			stale = true;
+		}
+
+		@Override
+		public void graphCleared(final String sourceId, final long timeId) {
+			stale = true;
+		}
+
+		@Override
+		public void nodeAttributeAdded(final String sourceId,
+				final long timeId, final String nodeId,
+				final String attribute, final Object value) {
+			collapsedChanged(attribute);
+		}
+
+		@Override
+		public void nodeAttributeChanged(final String sourceId,
+				final long timeId, final String nodeId,
+				final String attribute, final Object oldValue,
+				final Object newValue) {
+			collapsedChanged(attribute);
+		}
+
+		@Override
+		public void nodeAttributeRemoved(final String sourceId,
+				final long timeId, final String nodeId,
+				final String attribute) {
+			collapsedChanged(attribute);
+		}
+
+		/**
+		 * @param attribute
+		 *            The name of a node attribute which changed.
+		 */
+		private void collapsedChanged(final String attribute) {
+			if ("collapsed".equals(attribute)) {
+				stale = true;
+			}
+		}
+	}
+}
@@ -13,8 +13,8 @@ import javax.swing.event.ChangeListener;
 import nl.tudelft.ti2806.pl1.exceptions.InvalidNodePlacementException;
 import nl.tudelft.ti2806.pl1.graph.DGraph;
 import nl.tudelft.ti2806.pl1.gui.Window;
-import nl.tudelft.ti2806.pl1.mutation.Mutation;
-import nl.tudelft.ti2806.pl1.mutation.MutationFinder;
+import nl.tudelft.ti2806.pl1.mutation.ParallelGroupFinder;
+import nl.tudelft.ti2806.pl1.phylotree.CladeIndex;
 
 /**
  * A panel representing the content pane of the main window. Contains a tabbed
@@ -125,11 +125,9 @@ public class Content extends JPanel {
 				clo.phyloLoaded();
 			}
 			DGraph dg = getGraphPanel().getDgraph();
-			for (Mutation m : dg.getPointMutations()) {
-				m.setAffectedNodeGroups(MutationFinder
-						.getAffectedNodeGroupsCount(dg, m.getPreNode(),
-								m.getPostNode(), getPhyloPanel().getTree()));
-			}
+			ParallelGroupFinder.analyze(dg,
+					new CladeIndex(phyloPanel.getPhyloTree(), dg.getGenomes()));
+			getGraphPanel().resetZoomLevels();
 		}
 	}
 
@@ -18,7 +18,9 @@ import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -38,9 +40,13 @@ import javax.swing.SwingWorker;
 
 import nl.tudelft.ti2806.pl1.geneAnnotation.ReferenceGene;
 import nl.tudelft.ti2806.pl1.geneAnnotation.ReferenceGeneObserver;
+import nl.tudelft.ti2806.pl1.geneAnnotation.ResistanceMutationObserver;
 import nl.tudelft.ti2806.pl1.graph.ConvertDGraph;
 import nl.tudelft.ti2806.pl1.graph.DGraph;
 import nl.tudelft.ti2806.pl1.graph.DNode;
+import nl.tudelft.ti2806.pl1.graph.GenomeDictionary;
+import nl.tudelft.ti2806.pl1.graph.GraphWindow;
+import nl.tudelft.ti2806.pl1.graph.VisualIndex;
 import nl.tudelft.ti2806.pl1.gui.AppEvent;
 import nl.tudelft.ti2806.pl1.gui.ProgressDialog;
 import nl.tudelft.ti2806.pl1.gui.Window;
@@ -48,10 +54,12 @@ import nl.tudelft.ti2806.pl1.gui.optionpane.GeneSelectionObserver;
 import nl.tudelft.ti2806.pl1.gui.optionpane.GenomeRow;
 import nl.tudelft.ti2806.pl1.gui.optionpane.GenomeTableObserver;
 import nl.tudelft.ti2806.pl1.gui.optionpane.ZoomlevelObserver;
-import nl.tudelft.ti2806.pl1.mutation.MutationFinder;
-import nl.tudelft.ti2806.pl1.phylotree.BinaryTree;
+import nl.tudelft.ti2806.pl1.mutation.ParallelMutationFinder;
+import nl.tudelft.ti2806.pl1.reader.GraphSnapshot;
 import nl.tudelft.ti2806.pl1.reader.NodePlacer;
 import nl.tudelft.ti2806.pl1.reader.Reader;
+import nl.tudelft.ti2806.pl1.zoomlevels.CollapseIndex;
+import nl.tudelft.ti2806.pl1.zoomlevels.ZoomlevelCache;
 import nl.tudelft.ti2806.pl1.zoomlevels.ZoomlevelCreator;
 
 import org.graphstream.graph.Graph;
@@ -80,21 +88,18 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 	/** The horizontal scroll increment value. */
 	private static final int HOR_SCROLL_INCR = 400;
 
-	/** How far zoomed in. **/
-	private int count = 0;
-
 	/** Which zoom level is currently shown. **/
 	private int zoomLevel = 0;
 
-	/** The zoom level thresholds. */
-	private static final int ZOOMLEVEL_AMOUNT = 10;
-
-	/** The threshold difference between zoomlevels. */
-	private static final int THRESHOLD_DIFFERENCE = 10;
-
 	/** The maximum threshold score. */
 	private static final int MAXIMUM_THRESHOLD = 100;
 
+	/**
+	 * The amount of zoom levels after the first one. Every zoom level lowers
+	 * the threshold by one.
+	 */
+	private static final int ZOOMLEVEL_AMOUNT = MAXIMUM_THRESHOLD;
+
 	/**
 	 * The list of node selection observers.
 	 * 
@@ -132,6 +137,12 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 	/** The graph loaded into the panel. */
 	private Graph graph;
 
+	/** The part of the loaded graph which is handed to the viewer. */
+	private GraphWindow shown;
+
+	/** The margin around the visible area kept in the shown graph. */
+	private int windowMargin = GraphWindow.DEFAULT_MARGIN;
+
 	/** The graph's view panel. */
 	private ViewPanel view;
 
@@ -153,6 +164,9 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 	/** The zoom level creator. */
 	private ZoomlevelCreator zlc;
 
+	/** The recently used and prefetched zoom levels. */
+	private ZoomlevelCache levels;
+
 	/** The scroll behaviour. */
 	private ZoomScrollListener scroll;
 
@@ -162,6 +176,9 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 	/** A collection of the highlighted genomes. */
 	private Collection<String> highlightedGenomes;
 
+	/** The highlighted genomes as a bitset, or null if it has to be made. */
+	private long[] highlightMask;
+
 	/** Map containing the position of the genes. */
 	private HashMap<String, ArrayList<Integer>> genes = new HashMap<String, ArrayList<Integer>>();
 
@@ -292,17 +309,16 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 	class GeneLocator implements ReferenceGeneObserver {
 
 		/**
-		 * Locate the genes in the graph.
-		 * 
-		 * @param vGraph
-		 *            Graph in which to look up the genes.
+		 * Locate the genes on the nodes of the reference genome.
 		 */
-		public void locateGenes(final Graph vGraph) {
+		public void locateGenes() {
 			if (dgraph.getReferenceGeneStorage().getReferenceGenes() != null) {
+				DNode[] byStart = sortByStart();
+				int[] maxEnd = maxEnds(byStart);
 				for (ReferenceGene rg : dgraph.getReferenceGeneStorage()
 						.getReferenceGenes()) {
-					Integer start = searchNode(rg.getStart(), vGraph);
-					Integer end = searchNode(rg.getEnd(), vGraph);
+					Integer start = searchNode(rg.getStart(), byStart, maxEnd);
+					Integer end = searchNode(rg.getEnd(), byStart, maxEnd);
 					if (start != null && end != null) {
 						ArrayList<Integer> locs = new ArrayList<Integer>(2);
 						locs.add(start);
@@ -322,17 +338,8 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 		 *            graph in which to search.
 		 * @return Node object containing the id or node with the id.
 		 */
-		@SuppressWarnings("unchecked")
 		private Node findNode(final int id, final Graph vGraph) {
-			for (Node n : vGraph.getEachNode()) {
-				for (Integer index : (HashSet<Integer>) n
-						.getAttribute("collapsed")) {
-					if (index == id) {
-						return n;
-					}
-				}
-			}
-			return null;
+			return VisualIndex.get(vGraph).find(id);
 		}
 
 		/**
@@ -360,22 +367,65 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 			}
 		}
 
+		/**
+		 * @return The data nodes of the reference genome, sorted by their
+		 *         start position on it.
+		 */
+		private DNode[] sortByStart() {
+			Collection<DNode> nodes = dgraph.getRefGenome();
+			DNode[] ret = nodes.toArray(new DNode[nodes.size()]);
+			Arrays.sort(ret, new Comparator<DNode>() {
+				@Override
+				public int compare(final DNode a, final DNode b) {
+					return Integer.compare(a.getStart(), b.getStart());
+				}
+			});
+			return ret;
+		}
+
+		/**
+		 * @param byStart
+		 *            The reference nodes, sorted by their start position.
+		 * @return For every position, the largest end position of the nodes
+		 *         up to that position.
+		 */
+		private int[] maxEnds(final DNode[] byStart) {
+			int[] ret = new int[byStart.length];
+			int max = Integer.MIN_VALUE;
+			for (int i = 0; i < byStart.length; i++) {
+				max = Math.max(max, byStart[i].getEnd());
+				ret[i] = max;
+			}
+			return ret;
+		}
+
 		/**
 		 * 
 		 * @param loc
 		 *            Location on the reference genome.
-		 * @param vGraph
-		 *            graph in which to search.
-		 * @return Index of the node.
+		 * @param byStart
+		 *            The reference nodes, sorted by their start position.
+		 * @param maxEnd
+		 *            For every position, the largest end position of the nodes
+		 *            up to that position.
+		 * @return Id of the reference node covering the location, or null if
+		 *         there is none.
 		 */
-		@SuppressWarnings("unchecked")
-		private Integer searchNode(final int loc, final Graph vGraph) {
-			for (Node n : vGraph.getEachNode()) {
-				for (int id : (HashSet<Integer>) n.getAttribute("collapsed")) {
-					if (dgraph.getDNode(id).getStart() <= loc
-							&& dgraph.getDNode(id).getEnd() > loc) {
-						return id;
-					}
+		private Integer searchNode(final int loc, final DNode[] byStart,
+				final int[] maxEnd) {
+			int lo = 0;
+			int hi = byStart.length;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (byStart[mid].getStart() <= loc) {
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			for (int i = lo - 1; i >= 0 && maxEnd[i] > loc; i--) {
+				if (byStart[i].getEnd() > loc) {
+					return byStart[i].getId();
 				}
 			}
 			return null;
@@ -383,7 +433,7 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 
 		@Override
 		public void update() {
-			locateGenes(graph);
+			locateGenes();
 			searchGeneLocs(graph);
 			fillGeneNavigatorBox();
 		}
@@ -431,15 +481,34 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 		@Override
 		protected Graph doInBackground() throws Exception {
 			try {
-				dgraph = Reader.read(nodes.getAbsolutePath(),
-						edges.getAbsolutePath());
+				File cache = GraphSnapshot.snapshotFile(nodes);
+				GraphSnapshot snapshot = GraphSnapshot.load(cache, nodes,
+						edges);
+				if (snapshot != null) {
+					dgraph = snapshot.getGraph();
+					viewSize = snapshot.getSize();
+					dgraph.calculateReferenceLength();
+				} else {
+					dgraph = Reader.read(nodes.getAbsolutePath(),
+							edges.getAbsolutePath());
+					viewSize = NodePlacer.place(dgraph);
+					analyzeDGraph();
+					saveSnapshot(cache, dgraph, viewSize);
+				}
+				highlightMask = null;
 				dgraph.getReferenceGeneStorage().registerObserver(minimap);
 				dgraph.getReferenceGeneStorage().registerObserver(gl);
 				zlc = new ZoomlevelCreator(dgraph);
-				viewSize = NodePlacer.place(dgraph);
+				if (levels != null) {
+					levels.shutdown();
+				}
+				levels = new ZoomlevelCache(zlc, viewSize);
+				dgraph.getReferenceGeneStorage().registerObserver(
+						(ReferenceGeneObserver) levels);
+				dgraph.getReferenceGeneStorage().registerObserver(
+						(ResistanceMutationObserver) levels);
 				graph = ConvertDGraph.convert(dgraph);
 				viewSize = NodePlacer.place(graph, viewSize);
-				analyzeDGraph();
 				window.getOptionPanel().fillGenomeList(
 						dgraph.getReferencesSet(), true, true);
 			} catch (Exception e) {
@@ -448,31 +517,75 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 			}
 			return graph;
 		}
+
+		/**
+		 * Writes a snapshot of the imported graph, so the next time the same
+		 * files are opened no parsing and analysis is needed. A failed write
+		 * does not affect the loaded graph.
+		 * 
+		 * @param cache
+		 *            The snapshot file.
+		 * @param dg
+		 *            The placed and analyzed data graph.
+		 * @param size
+		 *            The size of the layout.
+		 */
+		private void saveSnapshot(final File cache, final DGraph dg,
+				final Dimension size) {
+			try {
+				GraphSnapshot.save(cache, nodes, edges, dg, size);
+			} catch (IOException e) {
+				// the snapshot only speeds up the next load of the graph
+				e.printStackTrace();
+			}
+		}
 	}
 
 	/** Performs all the analyze methods on the DGraph. */
 	private void analyzeDGraph() {
-		BinaryTree tree = window.getContent().getPhyloPanel().getTree();
 		dgraph.calculateReferenceLength();
-		dgraph.setPointMutations(MutationFinder
-				.findPointMutations(dgraph, tree));
-		dgraph.setDeletionMutations(MutationFinder.findDeletionMutations(
-				dgraph, tree));
-		dgraph.setInsertionMutations(MutationFinder.findInsertionMutations(
-				dgraph, tree));
-		dgraph.setComplexMutations(MutationFinder.findComplexMutations(dgraph,
-				tree));
+		ParallelMutationFinder.analyze(dgraph);
 	}
 
 	/**
-	 * Takes the virtual (GraphStream) graph and shows it in the panel.
+	 * Takes the virtual (GraphStream) graph and shows it in the panel. Only the
+	 * nodes around the visible area are handed to the viewer. The viewer is
+	 * created for the first graph and kept afterwards: the window graph it
+	 * shows is only updated with the differences to the new graph.
 	 * 
 	 * @param vGraph
 	 *            The visual graph to draw
 	 */
 	private void visualizeGraph(final Graph vGraph) {
 		gl.searchGeneLocs(vGraph);
-		Viewer viewer = new Viewer(vGraph,
+		if (shown == null) {
+			shown = new GraphWindow(vGraph, windowMargin);
+			createView();
+		} else {
+			shown.setSource(vGraph);
+		}
+		shown.fit(view.getCamera());
+		view.setMinimumSize(viewSize);
+		view.setPreferredSize(viewSize);
+		view.setMaximumSize(viewSize);
+
+		this.graph = vGraph;
+		shown.show(getCurrentViewArea());
+		view.revalidate();
+		view.repaint();
+		window.revalidate();
+		centerVertical();
+		notifyGraphScrollObservers();
+		notifyViewChangeObservers();
+		notifyZoomLevelObservers();
+	}
+
+	/**
+	 * Creates the viewer of the window graph, its view and the listeners on
+	 * it, and puts the view in the graph pane.
+	 */
+	private void createView() {
+		Viewer viewer = new Viewer(shown.getGraph(),
 				Viewer.ThreadingModel.GRAPH_IN_ANOTHER_THREAD);
 		viewer.disableAutoLayout();
 		view = new DefaultView(viewer, Viewer.DEFAULT_VIEW_ID,
@@ -487,9 +600,6 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 			}
 		};
 		viewer.addView(view);
-		view.setMinimumSize(viewSize);
-		view.setPreferredSize(viewSize);
-		view.setMaximumSize(viewSize);
 		view.setEnabled(false);
 
 		vp = viewer.newViewerPipe();
@@ -502,14 +612,7 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 		int scrollval = graphPane.getHorizontalScrollBar().getValue();
 		graphPane.setViewportView(view);
 		graphPane.getHorizontalScrollBar().setValue(scrollval);
-
-		this.graph = vGraph;
-		vGraph.addAttribute("ui.stylesheet", "url('stylesheet.css')");
-		window.revalidate();
-		centerVertical();
-		notifyGraphScrollObservers();
-		notifyViewChangeObservers();
-		notifyZoomLevelObservers();
+		shown.getGraph().addAttribute("ui.stylesheet", "url('stylesheet.css')");
 	}
 
 	/**
@@ -665,20 +768,13 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 	/**
 	 * Highlights a genome.
 	 */
-	@SuppressWarnings("unchecked")
 	public final void highlight() {
+		long[] mask = getHighlightMask();
+		if (GenomeDictionary.count(mask) == 0) {
+			return;
+		}
 		for (Node n : graph.getEachNode()) {
-			HashSet<Integer> ids = (HashSet<Integer>) n
-					.getAttribute("collapsed");
-			boolean contains = false;
-			for (int id : ids) {
-				for (String highlight : highlightedGenomes) {
-					contains = contains
-							|| dgraph.getDNode(id).getSources()
-									.contains(highlight);
-				}
-			}
-			if (contains) {
+			if (GenomeDictionary.intersects(getGenomes(n), mask)) {
 				if (n.getId().equals(String.valueOf(dgraph.getSelected()))) {
 					n.setAttribute("oldclass", "highlight");
 				} else {
@@ -696,18 +792,14 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 	 */
 	@SuppressWarnings("unchecked")
 	public final void unHighlight() {
+		long[] mask = getHighlightMask();
 		for (Node n : graph.getEachNode()) {
-			HashSet<Integer> ids = (HashSet<Integer>) n
-					.getAttribute("collapsed");
-			boolean contains = false;
-			for (int id : ids) {
-				for (String source : dgraph.getDNode(id).getSources()) {
-					contains = contains || highlightedGenomes.contains(source);
-				}
-			}
-			if (!contains && n.hasAttribute("oldclass")) {
+			if (n.hasAttribute("oldclass")
+					&& !GenomeDictionary.intersects(getGenomes(n), mask)) {
 				if (n.getId().equals(String.valueOf(dgraph.getSelected()))) {
-					n.setAttribute("oldclass", checkClassType(ids));
+					n.setAttribute("oldclass",
+							checkClassType((HashSet<Integer>) n
+									.getAttribute("collapsed")));
 				} else {
 					n.setAttribute("ui.class", n.getAttribute("oldclass"));
 					n.setAttribute("oldclass", n.getAttribute("ui.class"));
@@ -716,6 +808,38 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 		}
 	}
 
+	/**
+	 * @return The highlighted genomes as a bitset over the genome dictionary
+	 *         of the data graph.
+	 */
+	private long[] getHighlightMask() {
+		if (highlightMask == null) {
+			highlightMask = dgraph.getGenomes().mask(highlightedGenomes);
+		}
+		return highlightMask;
+	}
+
+	/**
+	 * @param n
+	 *            A visual node.
+	 * @return The genomes going through the data nodes in the visual node, as
+	 *         a bitset. Nodes made without the bitset get it stored the first
+	 *         time.
+	 */
+	@SuppressWarnings("unchecked")
+	private long[] getGenomes(final Node n) {
+		long[] ret = n.getAttribute("genomes");
+		if (ret == null) {
+			ret = new long[0];
+			for (int id : (Collection<Integer>) n.getAttribute("collapsed")) {
+				ret = GenomeDictionary.or(ret, dgraph.getDNode(id)
+						.getSourceBits());
+			}
+			n.addAttribute("genomes", ret);
+		}
+		return ret;
+	}
+
 	/**
 	 * First checks the class type on resistance and then on collapsed.
 	 * 
@@ -751,10 +875,24 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 	}
 
 	/**
-	 * Reloads the current zoom level.
+	 * Drops the cached zoom levels and applies the current level again, if a
+	 * graph is loaded. Needed after the scores of the mutations changed, as
+	 * they do when a phylogenetic tree is loaded.
+	 */
+	public void resetZoomLevels() {
+		if (levels != null) {
+			levels.clear();
+			applyZoomLevel(zoomLevel);
+		}
+	}
+
+	/**
+	 * Reloads the current zoom level, if a graph is loaded.
 	 */
 	public void reloadCurrentLevel() {
-		applyZoomLevel(zoomLevel);
+		if (levels != null) {
+			applyZoomLevel(zoomLevel);
+		}
 	}
 
 	/**
@@ -763,30 +901,146 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 	 *            The zoom level to apply.
 	 */
 	public void applyZoomLevel(final int newZoomLevel) {
-		count = 0;
 		if (newZoomLevel < 0) {
 			AppEvent.statusBarError("There is no zoom level further from the current level");
 		} else if (newZoomLevel > ZOOMLEVEL_AMOUNT) {
 			AppEvent.statusBarError("There is no zoom level further from the current level");
 		} else {
 			zoomLevel = newZoomLevel;
-			int threshold;
-			if (newZoomLevel == 0) {
-				threshold = MAXIMUM_THRESHOLD;
-			} else {
-				threshold = MAXIMUM_THRESHOLD - newZoomLevel
-						* THRESHOLD_DIFFERENCE;
-			}
-			Graph gr = zlc.createGraph(threshold);
-			setViewSize(NodePlacer.place(gr, viewSize));
-			NodePlacer.placeY(gr);
+			ZoomlevelCache.Level level = levels.get(threshold(newZoomLevel));
+			Graph gr = level.getGraph();
+			Set<Integer> selectedIds = getSelectedIds();
+			resetClasses(gr);
+			restoreSelection(gr, selectedIds);
+			setViewSize(level.getSize());
 			visualizeGraph(gr);
 			highlight();
+			prefetchNeighbours(newZoomLevel);
 			AppEvent.statusBarInfo("Zoom level set to: " + zoomLevel);
 		}
 		notifyViewChangeObservers();
 	}
 
+	/**
+	 * @param level
+	 *            A zoom level.
+	 * @return The score threshold of the zoom level.
+	 */
+	private static int threshold(final int level) {
+		return MAXIMUM_THRESHOLD - level;
+	}
+
+	/**
+	 * Finds the next zoom level in a direction which collapses another amount
+	 * of mutations, skipping the levels which would look the same.
+	 * 
+	 * @param level
+	 *            A zoom level.
+	 * @param step
+	 *            1 to zoom in, -1 to zoom out.
+	 * @return The next zoom level, which may lie outside the valid levels.
+	 */
+	private int nextLevel(final int level, final int step) {
+		CollapseIndex index = zlc.getIndex();
+		int collapses = index.count(threshold(level));
+		int ret = level + step;
+		while (ret > 0 && ret < ZOOMLEVEL_AMOUNT
+				&& index.count(threshold(ret)) == collapses) {
+			ret += step;
+		}
+		return ret;
+	}
+
+	/**
+	 * Starts computing the zoom levels next to a zoom level in the background.
+	 * 
+	 * @param level
+	 *            The current zoom level.
+	 */
+	private void prefetchNeighbours(final int level) {
+		if (level < ZOOMLEVEL_AMOUNT) {
+			levels.prefetch(threshold(nextLevel(level, 1)));
+		}
+		if (level > 0) {
+			levels.prefetch(threshold(nextLevel(level, -1)));
+		}
+	}
+
+	/**
+	 * @return The ids of the data nodes in the selected visual node, or an
+	 *         empty set if no node is selected.
+	 */
+	@SuppressWarnings("unchecked")
+	private Set<Integer> getSelectedIds() {
+		if (graph != null) {
+			Node selected = graph.getNode(dgraph.getSelected());
+			if (selected != null) {
+				return (HashSet<Integer>) selected.getAttribute("collapsed");
+			}
+		}
+		return new HashSet<Integer>();
+	}
+
+	/**
+	 * Removes the selection and highlighting a cached zoom level may still
+	 * have from the last time it was shown.
+	 * 
+	 * @param gr
+	 *            The visual graph of the zoom level.
+	 */
+	@SuppressWarnings("unchecked")
+	private void resetClasses(final Graph gr) {
+		for (Node n : gr.getEachNode()) {
+			if (n.hasAttribute("oldclass")) {
+				n.setAttribute("ui.class",
+						checkClassType((HashSet<Integer>) n
+								.getAttribute("collapsed")));
+				n.removeAttribute("oldclass");
+			}
+		}
+	}
+
+	/**
+	 * Selects the visual node containing the data nodes which were selected
+	 * before, without notifying the node selection observers.
+	 * 
+	 * @param gr
+	 *            The visual graph of the new zoom level.
+	 * @param selectedIds
+	 *            The ids of the data nodes in the selected visual node.
+	 */
+	private void restoreSelection(final Graph gr, final Set<Integer> selectedIds) {
+		dgraph.setSelected(ZoomlevelCreator.NO_SELECTION);
+		if (selectedIds.isEmpty()) {
+			return;
+		}
+		VisualIndex index = VisualIndex.get(gr);
+		for (int id : selectedIds) {
+			Node n = index.find(id);
+			if (n != null) {
+				dgraph.setSelected(n.getId());
+				n.setAttribute("oldclass", n.getAttribute("ui.class"));
+				n.setAttribute("ui.class", "selected");
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Changes the margin on both sides of the visible area within which the
+	 * nodes of the graph are handed to the viewer.
+	 * 
+	 * @param margin
+	 *            The margin in pixels.
+	 */
+	public void setWindowMargin(final int margin) {
+		this.windowMargin = margin;
+		if (shown != null) {
+			shown.setMargin(margin);
+			shown.show(getCurrentViewArea());
+		}
+	}
+
 	/**
 	 * @param newViewSize
 	 *            The new view size
@@ -809,11 +1063,9 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 	 */
 	class ZoomScrollListener implements MouseWheelListener {
 
-		/** How far there has to be zoomed in to get to a new zoomlevel. **/
-		private static final int NEWLEVEL = 3;
-
 		/**
-		 * This method decides what to do when the mouse is scrolled.
+		 * This method decides what to do when the mouse is scrolled. Every
+		 * step of the wheel moves to the next zoom level.
 		 * 
 		 * @param e
 		 *            MouseWheelEvent for which is being handled.
@@ -822,14 +1074,10 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 		@Override
 		public void mouseWheelMoved(final MouseWheelEvent e) {
 			int rotation = e.getWheelRotation();
-			if (count > NEWLEVEL) {
+			if (rotation > 0) {
 				zoomLevelOut();
-			} else if (count < -NEWLEVEL) {
-				zoomLevelIn();
-			} else if (rotation > 0) {
-				count++;
 			} else if (rotation < 0) {
-				count--;
+				zoomLevelIn();
 			}
 		}
 
@@ -856,6 +1104,9 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 
 		@Override
 		public void adjustmentValueChanged(final AdjustmentEvent e) {
+			if (shown != null) {
+				shown.show(getCurrentViewArea());
+			}
 			notifyGraphScrollObservers();
 		}
 
@@ -885,9 +1136,11 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 			if (genomeHighlightChanged) {
 				if (genomeRow.isHighlighted()) {
 					highlightedGenomes.add(genomeRow.getId());
+					highlightMask = null;
 					highlight();
 				} else {
 					highlightedGenomes.remove(genomeRow.getId());
+					highlightMask = null;
 					unHighlight();
 				}
 			}
@@ -896,8 +1149,10 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 		@Override
 		public void update(final Collection<String> chosen) {
 			highlightedGenomes.clear();
+			highlightMask = null;
 			unHighlight();
 			highlightedGenomes = chosen;
+			highlightMask = null;
 			highlight();
 		}
 	}
@@ -928,17 +1183,21 @@ public class GraphPanel extends JSplitPane implements ContentTab,
 	}
 
 	/**
-	 * Lets you zoom in one level further.
+	 * Lets you zoom in one level further, if a graph is loaded.
 	 */
 	public void zoomLevelIn() {
-		applyZoomLevel(zoomLevel + 1);
+		if (levels != null) {
+			applyZoomLevel(nextLevel(zoomLevel, 1));
+		}
 	}
 
 	/**
-	 * Lets you zoom out one level back.
+	 * Lets you zoom out one level back, if a graph is loaded.
 	 */
 	public void zoomLevelOut() {
-		applyZoomLevel(zoomLevel - 1);
+		if (levels != null) {
+			applyZoomLevel(nextLevel(zoomLevel, -1));
+		}
 	}
 
 	/**
@@ -1,24 +1,16 @@
 package nl.tudelft.ti2806.pl1.gui.contentpane;
 
 import java.awt.BorderLayout;
-import java.awt.Color;
-import java.awt.Font;
+import java.util.BitSet;
 import java.util.Set;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
-import javax.swing.JTextPane;
-import javax.swing.event.CaretEvent;
-import javax.swing.event.CaretListener;
-import javax.swing.text.BadLocationException;
-import javax.swing.text.DefaultStyledDocument;
-import javax.swing.text.SimpleAttributeSet;
-import javax.swing.text.StyleConstants;
-import javax.swing.text.StyledDocument;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 import nl.tudelft.ti2806.pl1.graph.DNode;
-import nl.tudelft.ti2806.pl1.gui.NucleoBase;
 import nl.tudelft.ti2806.pl1.mutation.ResistanceMutation;
 
 import org.graphstream.graph.Node;
@@ -33,39 +25,28 @@ public class NodeContentBox extends JPanel implements NodeSelectionObserver {
 	/** The serial version UID. */
 	private static final long serialVersionUID = 3092702168114777481L;
 
-	/** The font size of the node content text pane. */
-	private static final int FONT_SIZE = 12;
+	/** The view showing the nucleotide contents. */
+	private SequenceView text = new SequenceView();
 
-	/** The background color of nucleotides involved in resistance mutations. */
-	private static final Color RES_NUCLEO_BG_COLOR = new Color(120, 255, 120);
-
-	/** The text area document. */
-	private StyledDocument doc = new DefaultStyledDocument();
-
-	/** The text pane where the nucleotide contents is shown. */
-	private JTextPane text = new JTextPane(doc);
-
-	/** The scroll pane containing the text pane. */
+	/** The scroll pane containing the sequence view. */
 	private JScrollPane scroll = new JScrollPane(text);
 
 	/**
-	 * The label showing information about the user's selection within the text
-	 * pane.
+	 * The label showing information about the user's selection within the
+	 * sequence view.
 	 */
-	private JLabel selInfo = new JLabel();
+	private JLabel selInfo = new JLabel(" ");
 
 	/**
 	 * Initializes the node content box.
 	 */
 	public NodeContentBox() {
 		setLayout(new BorderLayout());
-		text.setFont(new Font(Font.MONOSPACED, Font.BOLD, FONT_SIZE));
-		text.setEditable(false);
-		text.addCaretListener(new CaretListener() {
+		text.addChangeListener(new ChangeListener() {
 			@Override
-			public void caretUpdate(final CaretEvent e) {
-				int left = Math.min(e.getDot(), e.getMark());
-				int right = Math.max(e.getDot(), e.getMark());
+			public void stateChanged(final ChangeEvent e) {
+				int left = Math.min(text.getDot(), text.getMark());
+				int right = Math.max(text.getDot(), text.getMark());
 				if (right - left == 1) {
 					selInfo.setText(" Selected nucleotide: " + right);
 				} else if (left != right) {
@@ -81,41 +62,28 @@ public class NodeContentBox extends JPanel implements NodeSelectionObserver {
 	}
 
 	/**
-	 * {@inheritDoc} Changes to the graph graphics based on the selected node.
+	 * {@inheritDoc} Shows the content of the selected node, without copying
+	 * or styling it per nucleotide, so selecting a node takes the same time
+	 * for any length.
 	 */
 	@Override
 	public final void update(final Node node, final Set<DNode> innerNodes) {
-		SimpleAttributeSet set = new SimpleAttributeSet();
 		if (innerNodes.size() == 1) {
 			DNode dn = innerNodes.iterator().next();
-			String content = dn.getContent();
-			text.setText(content);
-			for (int i = 0; i < text.getDocument().getLength(); i++) {
-				Color nucleoColor = Color.BLACK;
-				try {
-					nucleoColor = NucleoBase.valueOf(doc.getText(i, 1))
-							.getColor().darker().darker();
-				} catch (BadLocationException e) {
-					e.printStackTrace();
-				}
-				StyleConstants.setForeground(set, nucleoColor);
-				doc.setCharacterAttributes(i, 1, set, true);
-			}
+			BitSet marks = new BitSet();
 			if (dn.hasResMuts()) {
-				set = new SimpleAttributeSet();
 				for (ResistanceMutation rm : dn.getResMuts()) {
-					StyleConstants.setBackground(set, RES_NUCLEO_BG_COLOR);
 					int loc = (int) rm.getRefIndex() - dn.getStart();
-					doc.setCharacterAttributes(loc, 1, set, false);
+					if (loc >= 0 && loc < dn.getContentLength()) {
+						marks.set(loc);
+					}
 				}
 			}
+			text.setSequence(dn.getSequence(), marks);
 		} else {
-			text.setText("This is a collapsed section containing "
+			text.setMessage("This is a collapsed section containing "
 					+ innerNodes.size()
 					+ " nodes.\nPlease zoom in to gain more information about this section.");
-			StyleConstants.setForeground(set, Color.BLACK);
-			doc.setCharacterAttributes(0, text.getText().length(), set, true);
 		}
-		text.setCaretPosition(0);
 	}
 }
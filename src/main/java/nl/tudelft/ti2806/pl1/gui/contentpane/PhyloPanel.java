@@ -1,11 +1,6 @@
 package nl.tudelft.ti2806.pl1.gui.contentpane;
 
-import java.awt.BasicStroke;
 import java.awt.Color;
-import java.awt.Dimension;
-import java.awt.Graphics;
-import java.awt.Graphics2D;
-import java.awt.Insets;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.BufferedReader;
@@ -13,6 +8,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -22,10 +18,10 @@ import javax.swing.JComponent;
 import javax.swing.JScrollPane;
 import javax.swing.JTabbedPane;
 
+import nl.tudelft.ti2806.pl1.exceptions.InvalidFileFormatException;
 import nl.tudelft.ti2806.pl1.gui.AppEvent;
-import nl.tudelft.ti2806.pl1.phylotree.BinaryTree;
-
-import com.wordpress.tips4java.ScrollablePanel;
+import nl.tudelft.ti2806.pl1.phylotree.NewickParser;
+import nl.tudelft.ti2806.pl1.phylotree.PhyloTree;
 
 /**
  * @author Maarten
@@ -35,15 +31,6 @@ public class PhyloPanel extends JScrollPane implements ContentTab {
 	/** The serial version UID. */
 	private static final long serialVersionUID = -1936473122898892804L;
 
-	/** The size of the nodes. */
-	private static final int NODE_WIDTH = 100, NODE_HEIGHT = 25;
-
-	/** The width of the edges connecting the nodes. */
-	private static final float EDGE_WIDTH = 2;
-
-	/** The number of decimal places to round the path lengths to. */
-	private static final int DIST_ROUND_TO_N = 3;
-
 	/** The color of a chosen/selected node. */
 	public static final Color NODE_SELECTED_COLOR = Color.ORANGE;
 
@@ -59,24 +46,18 @@ public class PhyloPanel extends JScrollPane implements ContentTab {
 	/** The default color to use. */
 	public static final Color DEFAULT_COLOR = Color.BLACK;
 
-	/** The tree that this panel will show. */
-	private BinaryTree tree;
+	/** The array model of the tree, holding the chosen and collapsed nodes. */
+	private PhyloTree phyloTree;
 
 	/** The observers for the phylopanel. */
 	private Collection<PhyloChosenObserver> observers = new ArrayList<PhyloChosenObserver>();
 
-	/** The Newick formatted input string. */
-	private String newickSource;
-
-	/** The scroll panel. */
-	private ScrollablePanel treePanel;
+	/** The canvas painting the tree. */
+	private PhyloTreeCanvas treePanel;
 
 	/** The tabs this pane is part of. */
 	private JTabbedPane tabsParent;
 
-	/** The space in between the nodes. */
-	private static final Insets INSETS = new Insets(3, 10, 0, 0);
-
 	/**
 	 * Initializes the panel.
 	 * 
@@ -85,20 +66,12 @@ public class PhyloPanel extends JScrollPane implements ContentTab {
 	 */
 	public PhyloPanel(final JTabbedPane parent) {
 		this.tabsParent = parent;
-		treePanel = new ScrollablePanel() {
-			/** The serial version UID */
-			private static final long serialVersionUID = 118748767146413611L;
-
-			@Override
-			protected final void paintComponent(final Graphics g) {
-				super.paintComponent(g);
-				if (tree != null) {
-					drawLines(g, tree);
-				}
-			}
-		};
-		treePanel.setLayout(null);
+		treePanel = new PhyloTreeCanvas(this);
 		setViewportView(treePanel);
+		getVerticalScrollBar().setUnitIncrement(
+				PhyloTreeCanvas.NODE_HEIGHT + PhyloTreeCanvas.INSETS.top);
+		getHorizontalScrollBar().setUnitIncrement(
+				PhyloTreeCanvas.NODE_WIDTH + PhyloTreeCanvas.INSETS.left);
 	}
 
 	@Override
@@ -110,143 +83,61 @@ public class PhyloPanel extends JScrollPane implements ContentTab {
 	}
 
 	/**
-	 * Draws all the lines from given node and its children recursively.
-	 * 
-	 * @param g
-	 *            The graphics object.
-	 * @param node
-	 *            The root of the tree to draw lines in.
-	 */
-	private void drawLines(final Graphics g, final BinaryTree node) {
-		Graphics2D g2 = (Graphics2D) g;
-		g2.setStroke(new BasicStroke(EDGE_WIDTH));
-		if (!node.isCollapsed()) {
-			List<BinaryTree> children = node.getChildren();
-			int x = (int) node.getCenter().getX();
-			int y = (int) node.getCenter().getY();
-			for (BinaryTree child : children) {
-				g2.setColor(getLineColor(node, child));
-				int childX = (int) child.getCenter().getX();
-				int childY = (int) child.getCenter().getY();
-				if (childY == y) {
-					g2.drawLine(x, y, childX, y);
-					g2.drawString(child.getPathLengthN(DIST_ROUND_TO_N),
-							(x + childX) / 2, childY);
-				} else {
-					g2.drawLine(x, y, x, childY);
-					g2.drawLine(x, childY, childX, childY);
-					g2.drawString(child.getPathLengthN(DIST_ROUND_TO_N), x,
-							(y + childY) / 2);
-				}
-				g2.setColor(DEFAULT_COLOR);
-				drawLines(g, child);
-			}
-		}
-	}
-
-	/**
-	 * Determines the color to draw the connecting line between two connected
-	 * nodes with.
-	 * 
-	 * @param parent
-	 *            The parent node.
-	 * @param child
-	 *            The child node.
-	 * @return The appropriate line color to connect the <code>parent</code> to
-	 *         the <code>child</code> with.
-	 */
-	private Color getLineColor(final BinaryTree parent, final BinaryTree child) {
-		if (parent.getChildren().contains(child) && parent.isChosen()
-				&& child.isChosen()) {
-			return EDGE_BETWEEN_SELECTED_COLOR;
-		}
-		return DEFAULT_COLOR;
-	}
-
-	/**
-	 * Loads a newick file.
+	 * Loads a newick file. The file is parsed while it is read.
 	 * 
 	 * @param newick
 	 *            The Newick file to load.
 	 * @return true iff the tree was loaded successfully.
 	 */
 	public final boolean loadTree(final File newick) {
-		boolean ret = true;
+		Reader in = null;
 		try {
-			this.newickSource = readIntoString(newick);
+			in = new BufferedReader(new InputStreamReader(new FileInputStream(
+					newick), "UTF-8"));
+			this.phyloTree = NewickParser.parse(in);
 		} catch (IOException e) {
-			ret = false;
 			AppEvent.statusBarError("File " + newick.getAbsolutePath()
 					+ " could not be read.");
 			e.printStackTrace();
+			return false;
+		} catch (InvalidFileFormatException e) {
+			AppEvent.statusBarError(e.getMessage());
+			return false;
+		} finally {
+			close(in);
 		}
-		this.tree = BinaryTree.parseNewick(newickSource, this);
-		plotTree();
-		return ret;
-	}
-
-	/**
-	 * Plots the tree as a button.
-	 */
-	public final void plotTree() {
-		removeTree();
-		int treeWidth = tree.computePlacement(0, 0);
-		int treeHeight = tree.height();
-		addNode(tree);
-		treePanel.setPreferredSize(new Dimension((treeHeight + 1)
-				* (NODE_WIDTH + INSETS.left) + INSETS.left, (treeWidth + 1)
-				* (NODE_HEIGHT + INSETS.top) + INSETS.top));
-		repaint();
-	}
-
-	/**
-	 * Empties the panel. All tree components will be deleted.
-	 */
-	public final void removeTree() {
-		treePanel.removeAll();
+		treePanel.setTree(phyloTree);
+		return true;
 	}
 
 	/**
-	 * Adds the current tree and all its children if it is not collapsed.
+	 * Closes a reader, if it was opened.
 	 * 
-	 * @param bintree
-	 *            The current tree
+	 * @param in
+	 *            The reader, or null.
 	 */
-	private void addNode(final BinaryTree bintree) {
-		int x = (int) bintree.getGridCoordinates().getX();
-		int y = (int) bintree.getGridCoordinates().getY();
-		bintree.setBounds(x * (NODE_WIDTH + INSETS.left) + INSETS.left, y
-				* (NODE_HEIGHT + INSETS.top) + INSETS.top, NODE_WIDTH,
-				NODE_HEIGHT);
-		bintree.setText(bintree.getID());
-		treePanel.add(bintree);
-		if (!bintree.isCollapsed()) {
-			for (BinaryTree t : bintree.getChildren()) {
-				addNode(t);
+	private static void close(final Reader in) {
+		if (in != null) {
+			try {
+				in.close();
+			} catch (IOException e) {
+				e.printStackTrace();
 			}
 		}
 	}
 
 	/**
-	 * Copies the entire file content into a single String, and returns it.
-	 * 
-	 * @param file
-	 *            The file to read.
-	 * @return the file content as a continuous string
-	 * @throws IOException
-	 *             when file reading goes wrong.
+	 * Plots the tree again after its collapsed nodes changed.
 	 */
-	public static String readIntoString(final File file) throws IOException {
-		final StringBuffer buff = new StringBuffer();
-		final BufferedReader in = new BufferedReader(new BufferedReader(
-				new InputStreamReader(new FileInputStream(file), "UTF-8")));
-		String line;
-		while ((line = in.readLine()) != null) {
-			buff.append(line);
-		}
-		in.close();
+	public final void plotTree() {
+		treePanel.treeChanged();
+	}
 
-		return buff.toString();
+	/**
+	 * Empties the panel. The tree will no longer be shown.
+	 */
+	public final void removeTree() {
+		treePanel.setTree(null);
 	}
 
 	/**
@@ -263,17 +154,17 @@ public class PhyloPanel extends JScrollPane implements ContentTab {
 	 * Notifies the phylotree chosen observers.
 	 */
 	public void notifyObservers() {
-		Collection<String> chosen = getTree().getChosen(getTree());
+		Collection<String> chosen = phyloTree.getChosen();
 		for (PhyloChosenObserver o : observers) {
 			o.update(chosen);
 		}
 	}
 
 	/**
-	 * @return The loaded tree.
+	 * @return The array model of the loaded tree.
 	 */
-	public final BinaryTree getTree() {
-		return tree;
+	public final PhyloTree getPhyloTree() {
+		return phyloTree;
 	}
 
 	/**
@@ -0,0 +1,312 @@
+package nl.tudelft.ti2806.pl1.gui.contentpane;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Insets;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+import javax.swing.JComponent;
+import javax.swing.ToolTipManager;
+
+import nl.tudelft.ti2806.pl1.phylotree.PhyloTree;
+
+/**
+ * Paints a phylogenetic tree on a grid. Only the nodes whose subtree crosses
+ * the clip area are visited, so painting a part of a large tree does not
+ * depend on the size of the tree. Clicks and tool tips find the node under
+ * the mouse from the grid cell it points at.
+ */
+public class PhyloTreeCanvas extends JComponent {
+
+	/** The serial version UID. */
+	private static final long serialVersionUID = -2279465340851377028L;
+
+	/** The size of the nodes. */
+	static final int NODE_WIDTH = 100, NODE_HEIGHT = 25;
+
+	/** The space in between the nodes. */
+	static final Insets INSETS = new Insets(3, 10, 0, 0);
+
+	/** The width of the edges connecting the nodes. */
+	private static final float EDGE_WIDTH = 2;
+
+	/** The number of decimal places to round the path lengths to. */
+	private static final int DIST_ROUND_TO_N = 3;
+
+	/**
+	 * The number of significant digits of the evolutionary distance to the
+	 * parent node to show in tool tips.
+	 */
+	private static final int TOOLTIP_ROUND_TO_N = 5;
+
+	/** The background color of the nodes. */
+	private static final Color NODE_BACKGROUND = new Color(238, 238, 238);
+
+	/** The amount of pixels the text is moved from the node border. */
+	private static final int TEXT_MARGIN = 4;
+
+	/** The panel this canvas is shown in. */
+	private final PhyloPanel phyloPanel;
+
+	/** The tree shown. */
+	private PhyloTree tree;
+
+	/**
+	 * @param panel
+	 *            The panel this canvas is shown in.
+	 */
+	public PhyloTreeCanvas(final PhyloPanel panel) {
+		this.phyloPanel = panel;
+		setOpaque(true);
+		setBackground(Color.WHITE);
+		addMouseListener(new NodeMouseListener());
+		ToolTipManager.sharedInstance().registerComponent(this);
+	}
+
+	/**
+	 * @param newTree
+	 *            The tree to show.
+	 */
+	public void setTree(final PhyloTree newTree) {
+		this.tree = newTree;
+		treeChanged();
+	}
+
+	/**
+	 * Resizes the canvas to the placement of the tree and repaints it.
+	 */
+	public void treeChanged() {
+		if (tree == null) {
+			setPreferredSize(new Dimension(0, 0));
+		} else {
+			setPreferredSize(new Dimension(tree.getColumns()
+					* (NODE_WIDTH + INSETS.left) + INSETS.left, tree.getRows()
+					* (NODE_HEIGHT + INSETS.top) + INSETS.top));
+		}
+		revalidate();
+		repaint();
+	}
+
+	/**
+	 * @param column
+	 *            A column of the grid.
+	 * @return The left side of the nodes in the column.
+	 */
+	private static int left(final int column) {
+		return column * (NODE_WIDTH + INSETS.left) + INSETS.left;
+	}
+
+	/**
+	 * @param row
+	 *            A row of the grid.
+	 * @return The top of the nodes on the row.
+	 */
+	private static int top(final int row) {
+		return row * (NODE_HEIGHT + INSETS.top) + INSETS.top;
+	}
+
+	/**
+	 * Finds the node drawn at a point.
+	 *
+	 * @param x
+	 *            The horizontal coordinate.
+	 * @param y
+	 *            The vertical coordinate.
+	 * @return The node at the point, or -1 if there is none.
+	 */
+	int nodeAt(final int x, final int y) {
+		if (tree == null || x < INSETS.left || y < INSETS.top) {
+			return -1;
+		}
+		int column = (x - INSETS.left) / (NODE_WIDTH + INSETS.left);
+		int row = (y - INSETS.top) / (NODE_HEIGHT + INSETS.top);
+		if (x >= left(column) + NODE_WIDTH || y >= top(row) + NODE_HEIGHT) {
+			return -1;
+		}
+		return tree.nodeAt(column, row);
+	}
+
+	@Override
+	protected void paintComponent(final Graphics g) {
+		super.paintComponent(g);
+		Rectangle clip = g.getClipBounds();
+		if (clip == null) {
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+		g.setColor(getBackground());
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+		if (tree == null) {
+			return;
+		}
+		Graphics2D g2 = (Graphics2D) g;
+		g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+				RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		g2.setStroke(new BasicStroke(EDGE_WIDTH));
+		int firstRow = Math.max(0, (clip.y - INSETS.top - NODE_HEIGHT)
+				/ (NODE_HEIGHT + INSETS.top));
+		int lastRow = (clip.y + clip.height) / (NODE_HEIGHT + INSETS.top) + 1;
+		int lastColumn = (clip.x + clip.width) / (NODE_WIDTH + INSETS.left);
+		int[] stack = new int[tree.size()];
+		int size = 0;
+		stack[size++] = 0;
+		while (size > 0) {
+			int v = stack[--size];
+			if (tree.getRow(v) > lastRow || tree.getBottom(v) < firstRow
+					|| tree.getColumn(v) > lastColumn) {
+				continue;
+			}
+			if (!tree.isCollapsed(v)) {
+				for (int i = tree.getChildCount(v) - 1; i >= 0; i--) {
+					int child = tree.getChild(v, i);
+					drawEdge(g2, v, child);
+					stack[size++] = child;
+				}
+			}
+			drawNode(g2, v);
+		}
+	}
+
+	/**
+	 * Draws the edge from a node to one of its children, labelled with the
+	 * distance between them.
+	 *
+	 * @param g
+	 *            The graphics object.
+	 * @param parent
+	 *            The parent node.
+	 * @param child
+	 *            The child node.
+	 */
+	private void drawEdge(final Graphics2D g, final int parent,
+			final int child) {
+		int x = left(tree.getColumn(parent)) + NODE_WIDTH / 2;
+		int y = top(tree.getRow(parent)) + NODE_HEIGHT / 2;
+		int childX = left(tree.getColumn(child)) + NODE_WIDTH / 2;
+		int childY = top(tree.getRow(child)) + NODE_HEIGHT / 2;
+		if (tree.isChosen(parent) && tree.isChosen(child)) {
+			g.setColor(PhyloPanel.EDGE_BETWEEN_SELECTED_COLOR);
+		} else {
+			g.setColor(PhyloPanel.DEFAULT_COLOR);
+		}
+		String length = String.valueOf(roundN(tree.getLength(child),
+				DIST_ROUND_TO_N));
+		if (childY == y) {
+			g.drawLine(x, y, childX, y);
+			g.setColor(PhyloPanel.DEFAULT_COLOR);
+			g.drawString(length, (x + childX) / 2, childY);
+		} else {
+			g.drawLine(x, y, x, childY);
+			g.drawLine(x, childY, childX, childY);
+			g.setColor(PhyloPanel.DEFAULT_COLOR);
+			g.drawString(length, x, (y + childY) / 2);
+		}
+	}
+
+	/**
+	 * Draws a node as a box with its name.
+	 *
+	 * @param g
+	 *            The graphics object.
+	 * @param v
+	 *            The node.
+	 */
+	private void drawNode(final Graphics2D g, final int v) {
+		int x = left(tree.getColumn(v));
+		int y = top(tree.getRow(v));
+		Color color = nodeColor(v);
+		g.setColor(NODE_BACKGROUND);
+		g.fillRect(x, y, NODE_WIDTH, NODE_HEIGHT);
+		g.setColor(color);
+		g.drawRect(x, y, NODE_WIDTH, NODE_HEIGHT);
+		String name = tree.getName(v);
+		if (!name.isEmpty()) {
+			FontMetrics fm = g.getFontMetrics();
+			Graphics2D text = (Graphics2D) g.create(x, y, NODE_WIDTH,
+					NODE_HEIGHT);
+			int textX = Math.max(TEXT_MARGIN,
+					(NODE_WIDTH - fm.stringWidth(name)) / 2);
+			text.drawString(name, textX, (NODE_HEIGHT + fm.getAscent()
+					- fm.getDescent()) / 2);
+			text.dispose();
+		}
+	}
+
+	/**
+	 * @param v
+	 *            A node.
+	 * @return The color to draw the node with.
+	 */
+	private Color nodeColor(final int v) {
+		if (tree.isCollapsed(v) && !tree.isLeaf(v)) {
+			return PhyloPanel.INNER_NODE_COLLAPSED;
+		} else if (tree.isChosen(v)) {
+			return PhyloPanel.NODE_SELECTED_COLOR;
+		} else if (tree.isLeaf(v)) {
+			return PhyloPanel.DEFAULT_COLOR;
+		}
+		return PhyloPanel.INNER_NODE_NORMAL;
+	}
+
+	@Override
+	public String getToolTipText(final MouseEvent e) {
+		int v = nodeAt(e.getX(), e.getY());
+		if (v < 0) {
+			return null;
+		}
+		String length = String.valueOf(roundN(tree.getLength(v),
+				TOOLTIP_ROUND_TO_N));
+		if (tree.getName(v).isEmpty()) {
+			return length;
+		}
+		return "<html>" + tree.getName(v) + "<br>" + length + "</html>";
+	}
+
+	/**
+	 * Rounds a number to a given number of decimal places.
+	 *
+	 * @param x
+	 *            the value to round
+	 * @param n
+	 *            the number of decimal places to round on
+	 * @return the value <code>x</code> rounded to <code>n</code> decimal places
+	 */
+	private static double roundN(final double x, final int n) {
+		final int base = 10;
+		return Math.round(x * (Math.pow(base, n))) / Math.pow(base, n);
+	}
+
+	/**
+	 * Chooses a node on a left click and collapses it on a right click.
+	 *
+	 * @author Maarten, Justin
+	 * @since 27-5-2015
+	 */
+	class NodeMouseListener extends MouseAdapter {
+		@Override
+		public void mousePressed(final MouseEvent e) {
+			int v = nodeAt(e.getX(), e.getY());
+			if (v < 0) {
+				return;
+			}
+			switch (e.getButton()) {
+			case MouseEvent.BUTTON1:
+				tree.setChosen(v, !tree.isChosen(v));
+				repaint();
+				break;
+			case MouseEvent.BUTTON3:
+				tree.setCollapsed(v, !tree.isCollapsed(v));
+				phyloPanel.plotTree();
+				break;
+			default:
+				break;
+			}
+		}
+	}
+}
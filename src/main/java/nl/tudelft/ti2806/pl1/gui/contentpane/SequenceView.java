@@ -0,0 +1,443 @@
+package nl.tudelft.ti2806.pl1.gui.contentpane;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.ActionEvent;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.BitSet;
+
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
+import javax.swing.KeyStroke;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import nl.tudelft.ti2806.pl1.gui.NucleoBase;
+
+/**
+ * Shows a nucleotide sequence wrapped into rows filling the width of the
+ * component. The sequence is not copied into a document: only the rows
+ * crossing the clip area are read and painted, with a color per nucleotide
+ * looked up in a table, so showing and scrolling a sequence does not depend
+ * on its length. Marked positions get a highlighted background.
+ *
+ * Like a text component it keeps a caret and a selection, which can be set
+ * with the mouse and copied with control C. Listeners are notified whenever
+ * they change.
+ */
+public class SequenceView extends JComponent implements Scrollable {
+
+	/** The serial version UID. */
+	private static final long serialVersionUID = 6010416254113837120L;
+
+	/** The font size of the sequence. */
+	private static final int FONT_SIZE = 12;
+
+	/** The space around the text. */
+	private static final int INSET = 3;
+
+	/** The background color of marked nucleotides. */
+	private static final Color MARK_COLOR = new Color(120, 255, 120);
+
+	/** The background color of selected nucleotides. */
+	private static final Color SELECTION_COLOR = new Color(184, 207, 229);
+
+	/** The amount of characters with a color. */
+	private static final int ASCII = 128;
+
+	/** The color of every character, null for characters without a base. */
+	private static final Color[] COLORS = new Color[ASCII];
+
+	static {
+		for (NucleoBase base : NucleoBase.values()) {
+			Color color = base.getColor().darker().darker();
+			char c = base.name().charAt(0);
+			COLORS[c] = color;
+			COLORS[Character.toLowerCase(c)] = color;
+		}
+	}
+
+	/** The sequence shown, or null if a message is shown. */
+	private CharSequence sequence;
+
+	/** The lines of the message shown instead of a sequence. */
+	private String[] message = new String[0];
+
+	/** The marked positions of the sequence. */
+	private BitSet marked = new BitSet();
+
+	/** The position of the caret. */
+	private int dot;
+
+	/** The other end of the selection. */
+	private int mark;
+
+	/** The characters of the row being painted. */
+	private char[] row = new char[0];
+
+	/**
+	 * Initializes an empty sequence view.
+	 */
+	public SequenceView() {
+		setOpaque(true);
+		setBackground(Color.WHITE);
+		setFont(new Font(Font.MONOSPACED, Font.BOLD, FONT_SIZE));
+		setFocusable(true);
+		SelectionMouseListener mouse = new SelectionMouseListener();
+		addMouseListener(mouse);
+		addMouseMotionListener(mouse);
+		addComponentListener(new ComponentAdapter() {
+			@Override
+			public void componentResized(final ComponentEvent e) {
+				revalidate();
+			}
+		});
+		getInputMap().put(
+				KeyStroke.getKeyStroke(KeyEvent.VK_C,
+						InputEvent.CTRL_DOWN_MASK), "copy");
+		getActionMap().put("copy", new AbstractAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void actionPerformed(final ActionEvent e) {
+				String selected = getSelectedText();
+				if (!selected.isEmpty()) {
+					Toolkit.getDefaultToolkit().getSystemClipboard()
+							.setContents(new StringSelection(selected), null);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Shows a sequence.
+	 *
+	 * @param seq
+	 *            The sequence.
+	 * @param marks
+	 *            The positions of the sequence to mark.
+	 */
+	public void setSequence(final CharSequence seq, final BitSet marks) {
+		this.sequence = seq;
+		this.marked = marks;
+		contentChanged();
+	}
+
+	/**
+	 * Shows a message instead of a sequence.
+	 *
+	 * @param text
+	 *            The message, of which the lines are separated by newlines.
+	 */
+	public void setMessage(final String text) {
+		this.sequence = null;
+		this.message = text.split("\n");
+		this.marked = new BitSet();
+		contentChanged();
+	}
+
+	/**
+	 * Resets the selection and scrolls back to the start.
+	 */
+	private void contentChanged() {
+		select(0, 0);
+		revalidate();
+		repaint();
+		scrollRectToVisible(new Rectangle(0, 0, 1, 1));
+	}
+
+	/**
+	 * @return The length of the text shown.
+	 */
+	public int getLength() {
+		if (sequence == null) {
+			return 0;
+		}
+		return sequence.length();
+	}
+
+	/**
+	 * @return The position of the caret.
+	 */
+	public int getDot() {
+		return dot;
+	}
+
+	/**
+	 * @return The other end of the selection.
+	 */
+	public int getMark() {
+		return mark;
+	}
+
+	/**
+	 * Selects the positions between the mark and the caret.
+	 *
+	 * @param markIn
+	 *            The other end of the selection.
+	 * @param dotIn
+	 *            The position of the caret.
+	 */
+	public void select(final int markIn, final int dotIn) {
+		int m = Math.max(0, Math.min(markIn, getLength()));
+		int d = Math.max(0, Math.min(dotIn, getLength()));
+		if (m == mark && d == dot) {
+			return;
+		}
+		this.mark = m;
+		this.dot = d;
+		repaint();
+		ChangeEvent e = new ChangeEvent(this);
+		for (ChangeListener l : listenerList
+				.getListeners(ChangeListener.class)) {
+			l.stateChanged(e);
+		}
+	}
+
+	/**
+	 * @return The selected part of the sequence.
+	 */
+	public String getSelectedText() {
+		return sequence == null ? "" : sequence.subSequence(
+				Math.min(dot, mark), Math.max(dot, mark)).toString();
+	}
+
+	/**
+	 * @param l
+	 *            The listener to notify when the caret or the selection
+	 *            changes.
+	 */
+	public void addChangeListener(final ChangeListener l) {
+		listenerList.add(ChangeListener.class, l);
+	}
+
+	/**
+	 * @return The width of a character.
+	 */
+	private int charWidth() {
+		return getFontMetrics(getFont()).charWidth('A');
+	}
+
+	/**
+	 * @return The height of a row.
+	 */
+	private int rowHeight() {
+		return getFontMetrics(getFont()).getHeight();
+	}
+
+	/**
+	 * @return The amount of characters on a row.
+	 */
+	int getColumns() {
+		return Math.max(1, (getWidth() - 2 * INSET) / charWidth());
+	}
+
+	/**
+	 * @return The amount of rows of the text shown.
+	 */
+	int getRows() {
+		if (sequence == null) {
+			return message.length;
+		}
+		int columns = getColumns();
+		return (sequence.length() + columns - 1) / columns;
+	}
+
+	/**
+	 * Finds the position in between the characters closest to a point.
+	 *
+	 * @param x
+	 *            The horizontal coordinate.
+	 * @param y
+	 *            The vertical coordinate.
+	 * @return The position.
+	 */
+	int offsetAt(final int x, final int y) {
+		if (sequence == null || y < INSET) {
+			return 0;
+		}
+		int columns = getColumns();
+		int r = (y - INSET) / rowHeight();
+		int c = (x - INSET + charWidth() / 2) / charWidth();
+		c = Math.max(0, Math.min(columns, c));
+		return (int) Math.min(sequence.length(), (long) r * columns + c);
+	}
+
+	@Override
+	public Dimension getPreferredSize() {
+		if (isPreferredSizeSet()) {
+			return super.getPreferredSize();
+		}
+		int width = 2 * INSET + charWidth();
+		if (sequence == null) {
+			FontMetrics fm = getFontMetrics(getFont());
+			for (String line : message) {
+				width = Math.max(width, 2 * INSET + fm.stringWidth(line));
+			}
+		}
+		return new Dimension(width, 2 * INSET + getRows() * rowHeight());
+	}
+
+	@Override
+	protected void paintComponent(final Graphics g) {
+		super.paintComponent(g);
+		Rectangle clip = g.getClipBounds();
+		if (clip == null) {
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+		g.setColor(getBackground());
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+		g.setFont(getFont());
+		FontMetrics fm = g.getFontMetrics();
+		int height = rowHeight();
+		int first = Math.max(0, (clip.y - INSET) / height);
+		int last = Math.min(getRows() - 1, (clip.y + clip.height - INSET)
+				/ height);
+		if (sequence == null) {
+			g.setColor(Color.BLACK);
+			for (int r = first; r <= last; r++) {
+				g.drawString(message[r], INSET, INSET + r * height
+						+ fm.getAscent());
+			}
+			return;
+		}
+		int columns = getColumns();
+		if (row.length < columns) {
+			row = new char[columns];
+		}
+		for (int r = first; r <= last; r++) {
+			int start = r * columns;
+			paintRow(g, start, Math.min(sequence.length(), start + columns),
+					INSET + r * height, fm.getAscent());
+		}
+	}
+
+	/**
+	 * Paints a row of the sequence with its marks and selection.
+	 *
+	 * @param g
+	 *            The graphics object.
+	 * @param start
+	 *            The position of the first character of the row.
+	 * @param end
+	 *            The position after the last character of the row.
+	 * @param y
+	 *            The top of the row.
+	 * @param ascent
+	 *            The ascent of the font.
+	 */
+	private void paintRow(final Graphics g, final int start, final int end,
+			final int y, final int ascent) {
+		int width = charWidth();
+		int height = rowHeight();
+		g.setColor(MARK_COLOR);
+		for (int i = marked.nextSetBit(start); i >= 0 && i < end; i = marked
+				.nextSetBit(i + 1)) {
+			g.fillRect(INSET + (i - start) * width, y, width, height);
+		}
+		int selStart = Math.max(start, Math.min(dot, mark));
+		int selEnd = Math.min(end, Math.max(dot, mark));
+		if (selStart < selEnd) {
+			g.setColor(SELECTION_COLOR);
+			g.fillRect(INSET + (selStart - start) * width, y, (selEnd - selStart)
+					* width, height);
+		}
+		int n = end - start;
+		for (int i = 0; i < n; i++) {
+			row[i] = sequence.charAt(start + i);
+		}
+		int run = 0;
+		for (int i = 1; i <= n; i++) {
+			if (i == n || color(row[i]) != color(row[run])) {
+				g.setColor(color(row[run]));
+				g.drawChars(row, run, i - run, INSET + run * width, y + ascent);
+				run = i;
+			}
+		}
+	}
+
+	/**
+	 * @param c
+	 *            A character of the sequence.
+	 * @return The color to paint the character with.
+	 */
+	private static Color color(final char c) {
+		Color ret = null;
+		if (c < ASCII) {
+			ret = COLORS[c];
+		}
+		if (ret == null) {
+			return Color.BLACK;
+		}
+		return ret;
+	}
+
+	@Override
+	public Dimension getPreferredScrollableViewportSize() {
+		return getPreferredSize();
+	}
+
+	@Override
+	public int getScrollableUnitIncrement(final Rectangle visibleRect,
+			final int orientation, final int direction) {
+		if (orientation == SwingConstants.VERTICAL) {
+			return rowHeight();
+		}
+		return charWidth();
+	}
+
+	@Override
+	public int getScrollableBlockIncrement(final Rectangle visibleRect,
+			final int orientation, final int direction) {
+		if (orientation == SwingConstants.VERTICAL) {
+			return Math.max(rowHeight(), visibleRect.height - rowHeight());
+		}
+		return visibleRect.width;
+	}
+
+	@Override
+	public boolean getScrollableTracksViewportWidth() {
+		return sequence != null;
+	}
+
+	@Override
+	public boolean getScrollableTracksViewportHeight() {
+		return false;
+	}
+
+	/**
+	 * Sets the caret on a click and moves it while dragging, selecting the
+	 * nucleotides in between.
+	 */
+	class SelectionMouseListener extends MouseAdapter {
+		@Override
+		public void mousePressed(final MouseEvent e) {
+			requestFocusInWindow();
+			int offset = offsetAt(e.getX(), e.getY());
+			if (e.isShiftDown()) {
+				select(mark, offset);
+			} else {
+				select(offset, offset);
+			}
+		}
+
+		@Override
+		public void mouseDragged(final MouseEvent e) {
+			select(mark, offsetAt(e.getX(), e.getY()));
+			scrollRectToVisible(new Rectangle(e.getX(), e.getY(), 1, 1));
+		}
+	}
+}
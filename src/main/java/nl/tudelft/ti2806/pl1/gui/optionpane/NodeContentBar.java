@@ -7,6 +7,7 @@ import java.awt.Graphics;
 import javax.swing.BoxLayout;
 import javax.swing.JPanel;
 
+import nl.tudelft.ti2806.pl1.graph.PackedSequence;
 import nl.tudelft.ti2806.pl1.gui.AppEvent;
 import nl.tudelft.ti2806.pl1.gui.NucleoBase;
 
@@ -65,19 +66,45 @@ public class NodeContentBar extends JPanel {
 	}
 
 	/**
-	 * Analyze a new DNA sequence string and update the bar chart.
+	 * Analyze a new DNA sequence and update the bar chart. Packed sequences
+	 * are counted without unpacking them.
 	 * 
 	 * @param newSequence
 	 *            The sequence to analyze.
 	 */
-	public final void analyseString(final String newSequence) {
+	public final void analyseString(final CharSequence newSequence) {
+		this.totalLen = newSequence.length();
+		if (newSequence instanceof PackedSequence) {
+			PackedSequence packed = (PackedSequence) newSequence;
+			lenA = packed.count('A');
+			lenC = packed.count('C');
+			lenT = packed.count('T');
+			lenG = packed.count('G');
+			lenN = packed.count('N');
+			if (lenA + lenC + lenT + lenG + lenN != totalLen) {
+				AppEvent.statusBarError("invalid nucleotide bases found in selected node.");
+			}
+		} else {
+			countBases(newSequence);
+		}
+		calculated = true;
+		repaint();
+	}
+
+	/**
+	 * Counts the nucleotides of a sequence one by one.
+	 * 
+	 * @param sequence
+	 *            The sequence to count the nucleotides of.
+	 */
+	private void countBases(final CharSequence sequence) {
 		lenA = 0;
 		lenC = 0;
 		lenT = 0;
 		lenG = 0;
 		lenN = 0;
-		this.totalLen = newSequence.length();
-		for (char c : newSequence.toCharArray()) {
+		for (int i = 0; i < sequence.length(); i++) {
+			char c = sequence.charAt(i);
 			switch (c) {
 			case 'A':
 				lenA++;
@@ -99,8 +126,6 @@ public class NodeContentBar extends JPanel {
 						+ "\' found in selected node.");
 			}
 		}
-		calculated = true;
-		repaint();
 	}
 
 	@Override
@@ -186,10 +186,10 @@ public class SelectedNodeGroup extends JPanel implements NodeSelectionObserver {
 		if (show) {
 			DNode selectedNode = innerNodes.iterator().next();
 			lblID.setText(String.valueOf(selectedNode.getId()));
-			lblContentLength.setText(String.valueOf(selectedNode.getContent()
-					.length()));
+			lblContentLength.setText(String.valueOf(selectedNode
+					.getContentLength()));
 			lblSources.setText(collectionToString(selectedNode.getSources()));
-			nodeChart.analyseString(selectedNode.getContent());
+			nodeChart.analyseString(selectedNode.getSequence());
 		}
 		revalidate();
 	}
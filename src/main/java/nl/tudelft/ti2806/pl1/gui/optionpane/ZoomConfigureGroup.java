@@ -73,7 +73,10 @@ public class ZoomConfigureGroup extends JPanel {
 					JSlider changed = (JSlider) e.getSource();
 					AppEvent.statusBarInfo("Slider to "
 							+ ((double) changed.getValue() / SLIDERVALUES));
-					ScoreMultiplier.multiplierChange(changed);
+					if (!changed.getValueIsAdjusting()) {
+						ScoreMultiplier.multiplierChange(changed);
+						AppEvent.RESET_CURRENT_LEVEL.actionPerformed(null);
+					}
 				}
 			});
 			add(new JLabel(SLIDERS[i].getGUI()));
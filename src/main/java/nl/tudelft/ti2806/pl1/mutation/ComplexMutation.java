@@ -3,6 +3,8 @@ package nl.tudelft.ti2806.pl1.mutation;
 import java.util.Collection;
 
 import nl.tudelft.ti2806.pl1.geneAnnotation.ReferenceGeneStorage;
+import nl.tudelft.ti2806.pl1.graph.DGraph;
+import nl.tudelft.ti2806.pl1.graph.GenomeDictionary;
 
 /**
  * @author Justin, Maarten
@@ -44,6 +46,20 @@ public class ComplexMutation extends Mutation {
 		return this.inNodes;
 	}
 
+	/**
+	 * @return The genomes passing any of the nodes of the mutation outside
+	 *         the reference genome.
+	 */
+	@Override
+	long[] carriers(final DGraph graph) {
+		long[] ret = null;
+		for (int id : inNodes) {
+			ret = GenomeDictionary.or(ret,
+					MutationFinder.sourceBits(graph, graph.getDNode(id)));
+		}
+		return GenomeDictionary.or(ret, null);
+	}
+
 	@Override
 	public String toString() {
 		return "<CompMut[pre:" + getPreNode() + ",post:" + getPostNode()
@@ -65,9 +81,8 @@ public class ComplexMutation extends Mutation {
 	}
 
 	@Override
-	public double getScore() {
-		return super.getScore()
-				* ScoreMultiplier.getMult(MutationMultipliers.INDEL.name());
+	protected double typeMultiplier(final ScoreMultiplier.Config config) {
+		return config.get(MutationMultipliers.INDEL);
 	}
 
 }
@@ -46,8 +46,7 @@ public class DeletionMutation extends Mutation {
 	}
 
 	@Override
-	public double getScore() {
-		return super.getScore()
-				* ScoreMultiplier.getMult(MutationMultipliers.INDEL.name());
+	protected double typeMultiplier(final ScoreMultiplier.Config config) {
+		return config.get(MutationMultipliers.INDEL);
 	}
 }
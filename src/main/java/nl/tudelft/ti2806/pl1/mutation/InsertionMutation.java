@@ -1,6 +1,7 @@
 package nl.tudelft.ti2806.pl1.mutation;
 
 import nl.tudelft.ti2806.pl1.geneAnnotation.ReferenceGeneStorage;
+import nl.tudelft.ti2806.pl1.graph.DGraph;
 
 /**
  * @author Maarten, Justin
@@ -40,6 +41,14 @@ public class InsertionMutation extends Mutation {
 		return inNode;
 	}
 
+	/**
+	 * @return The genomes passing the inserted node.
+	 */
+	@Override
+	long[] carriers(final DGraph graph) {
+		return MutationFinder.sourceBits(graph, graph.getDNode(inNode));
+	}
+
 	@Override
 	public String toString() {
 		return "<InsMut[pre:" + getPreNode() + ",post:" + getPostNode()
@@ -61,8 +70,7 @@ public class InsertionMutation extends Mutation {
 	}
 
 	@Override
-	public double getScore() {
-		return super.getScore()
-				* ScoreMultiplier.getMult(MutationMultipliers.INDEL.name());
+	protected double typeMultiplier(final ScoreMultiplier.Config config) {
+		return config.get(MutationMultipliers.INDEL);
 	}
 }
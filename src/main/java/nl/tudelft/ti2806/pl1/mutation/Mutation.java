@@ -1,6 +1,10 @@
 package nl.tudelft.ti2806.pl1.mutation;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import nl.tudelft.ti2806.pl1.geneAnnotation.ReferenceGeneStorage;
+import nl.tudelft.ti2806.pl1.graph.DGraph;
+import nl.tudelft.ti2806.pl1.graph.GenomeDictionary;
 
 /**
  * @author Maarten, Justin
@@ -14,9 +18,24 @@ public abstract class Mutation {
 	/** Score of the mutation. */
 	private double score = 0;
 
+	/**
+	 * The multipliers the score was calculated with, or null if the score has
+	 * to be recalculated.
+	 */
+	private ScoreMultiplier.Config scoredWith;
+
+	/** The version of the annotations the score was calculated with. */
+	private int scoredVersion;
+
 	/** Storage of all the genes in the reference genome. */
 	private ReferenceGeneStorage referenceGeneStorage;
 
+	/**
+	 * Increased every time the affected node groups of a mutation are set, so
+	 * anything built from the scores can tell whether they may have changed.
+	 */
+	private static final AtomicInteger GROUPS_VERSION = new AtomicInteger();
+
 	/** The scores for the number of phylo groups. */
 	private static final int[] GROUP_SCORE = { 0, 0, 8, 16, 24 };
 
@@ -53,7 +72,6 @@ public abstract class Mutation {
 		this.endposition = endpos;
 		this.referenceGeneStorage = rgs;
 		affectedNodeGroups = 0;
-		calculateGeneralScore();
 	}
 
 	/**
@@ -67,57 +85,88 @@ public abstract class Mutation {
 	 * @param newAffectedNodeGroups
 	 *            the affectedNodeGroups to set
 	 */
-	public void setAffectedNodeGroups(final int newAffectedNodeGroups) {
+	public synchronized void setAffectedNodeGroups(
+			final int newAffectedNodeGroups) {
 		this.affectedNodeGroups = newAffectedNodeGroups;
+		this.scoredWith = null;
+		GROUPS_VERSION.incrementAndGet();
+	}
+
+	/**
+	 * @return The version of the affected node groups of all mutations.
+	 */
+	public static int getGroupsVersion() {
+		return GROUPS_VERSION.get();
 	}
 
 	/**
+	 * Gets the score of the mutation. The score is cached, and only
+	 * recalculated when the score multipliers, the annotations or the amount
+	 * of affected node groups have changed since it was calculated.
+	 * 
 	 * @return the score of the mutation.
 	 */
-	public double getScore() {
-		calculateGeneralScore();
+	public synchronized double getScore() {
+		ScoreMultiplier.Config config = ScoreMultiplier.current();
+		int version = referenceGeneStorage.getVersion();
+		if (scoredWith != config || scoredVersion != version) {
+			score = 0;
+			calculateGeneralScore(config);
+			score *= typeMultiplier(config);
+			scoredWith = config;
+			scoredVersion = version;
+		}
 		return score;
 	}
 
+	/**
+	 * The multiplier applied to the score of every mutation of this type.
+	 * 
+	 * @param config
+	 *            The current score multipliers.
+	 * @return The multiplier for this type of mutation.
+	 */
+	protected double typeMultiplier(final ScoreMultiplier.Config config) {
+		return 1;
+	}
+
 	/**
 	 * Calculate the general score for a mutation.
+	 * 
+	 * @param config
+	 *            The score multipliers to use.
 	 */
-	private void calculateGeneralScore() {
-		score = 0;
+	private void calculateGeneralScore(final ScoreMultiplier.Config config) {
 		ReferenceGeneStorage rgs = this.getReferenceGeneStorage();
 		if (rgs.isIntragenic(startposition) || rgs.isIntragenic(endposition)) {
-			addScore(SCORE_IN_GENE
-					* ScoreMultiplier.getMult(MutationMultipliers.IN_GENE
-							.name()));
-			scoreKnownMutation();
-			scoreNodeGroups();
+			addScore(SCORE_IN_GENE * config.get(MutationMultipliers.IN_GENE));
+			scoreKnownMutation(config);
+			scoreNodeGroups(config);
 		}
 	}
 
 	/**
 	 * Add score for KnownMutation.
+	 * 
+	 * @param config
+	 *            The score multipliers to use.
 	 */
-	private void scoreKnownMutation() {
-		ReferenceGeneStorage rgs = this.getReferenceGeneStorage();
-		if (rgs.getDrugResistanceMutations() != null) {
-			for (long pos : rgs.getDrugResistanceMutations().keySet()) {
-				if (startposition <= pos && pos < endposition) {
-					addScore(SCORE_MUT
-							* ScoreMultiplier
-									.getMult(MutationMultipliers.KNOWN_MUTATION
-											.name()));
-					return;
-				}
-			}
+	private void scoreKnownMutation(final ScoreMultiplier.Config config) {
+		if (getReferenceGeneStorage().containsResistanceMutation(
+				startposition, endposition)) {
+			addScore(SCORE_MUT
+					* config.get(MutationMultipliers.KNOWN_MUTATION));
 		}
 	}
 
 	/**
 	 * Add score for NodeGroups.
+	 * 
+	 * @param config
+	 *            The score multipliers to use.
 	 */
-	private void scoreNodeGroups() {
-		double phylomult = ScoreMultiplier.getMult(MutationMultipliers.PHYLO
-				.name());
+	private void scoreNodeGroups(final ScoreMultiplier.Config config) {
+		double phylomult = config.get(MutationMultipliers.PHYLO);
 		if (affectedNodeGroups < GROUP_SCORE.length - 1) {
 			addScore(GROUP_SCORE[affectedNodeGroups] * phylomult);
 		} else {
@@ -125,6 +174,20 @@ public abstract class Mutation {
 		}
 	}
 
+	/**
+	 * @return the start position on the reference genome.
+	 */
+	public final int getStartPosition() {
+		return startposition;
+	}
+
+	/**
+	 * @return the end position on the reference genome.
+	 */
+	public final int getEndPosition() {
+		return endposition;
+	}
+
 	/**
 	 * @return the preNode
 	 */
@@ -139,6 +202,22 @@ public abstract class Mutation {
 		return postNode;
 	}
 
+	/**
+	 * The genomes carrying the mutation, which are grouped on the
+	 * phylogenetic tree to find the affected node groups. By default these
+	 * are the genomes passing both the node before and the node after the
+	 * mutation.
+	 * 
+	 * @param graph
+	 *            The graph the mutation was found in.
+	 * @return The bitset of the carrying genomes.
+	 */
+	long[] carriers(final DGraph graph) {
+		return GenomeDictionary.and(
+				MutationFinder.sourceBits(graph, graph.getDNode(preNode)),
+				MutationFinder.sourceBits(graph, graph.getDNode(postNode)));
+	}
+
 	@Override
 	public boolean equals(final Object obj) {
 		if (obj instanceof Mutation) {
@@ -175,7 +254,7 @@ public abstract class Mutation {
 	 * @param scoreIn
 	 *            the score to set
 	 */
-	public final void setScore(final double scoreIn) {
+	public final synchronized void setScore(final double scoreIn) {
 		this.score = scoreIn;
 	}
 
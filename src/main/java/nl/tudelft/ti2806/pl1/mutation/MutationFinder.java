@@ -3,13 +3,15 @@ package nl.tudelft.ti2806.pl1.mutation;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
 import java.util.Set;
 
+import nl.tudelft.ti2806.pl1.graph.BubbleTree;
+import nl.tudelft.ti2806.pl1.graph.BubbleTree.Bubble;
 import nl.tudelft.ti2806.pl1.graph.DGraph;
 import nl.tudelft.ti2806.pl1.graph.DNode;
+import nl.tudelft.ti2806.pl1.graph.GenomeDictionary;
 import nl.tudelft.ti2806.pl1.phylotree.BinaryTree;
+import nl.tudelft.ti2806.pl1.phylotree.CladeIndex;
 
 /**
  * @author Justin, Maarten, Mark
@@ -18,7 +20,7 @@ import nl.tudelft.ti2806.pl1.phylotree.BinaryTree;
 public final class MutationFinder {
 
 	/** Reference genome name. */
-	private static final String REFERENCE_GENOME = "TKK_REF";
+	static final String REFERENCE_GENOME = "TKK_REF";
 
 	/**
 	 */
@@ -35,17 +37,36 @@ public final class MutationFinder {
 	 *            The begin node id.
 	 * @param id2
 	 *            The end node id.
-	 * @param root
-	 *            The root node of the phylogenetic tree.
+	 * @param clades
+	 *            The clade index of the phylogenetic tree for the genomes of
+	 *            the graph.
 	 * @return The amount of groups of nodes which share a common parent
 	 *         according to the phylogenetic tree.
 	 */
 	public static int getAffectedNodeGroupsCount(final DGraph graph,
-			final int id1, final int id2, final BinaryTree root) {
-		Set<String> sources1 = graph.getDNode(id1).getSources();
-		Set<String> sources2 = graph.getDNode(id2).getSources();
-		Set<String> sources = intersect(sources1, sources2);
-		return BinaryTree.findGroups(sources, root).size();
+			final int id1, final int id2, final CladeIndex clades) {
+		long[] sources = GenomeDictionary.and(
+				sourceBits(graph, graph.getDNode(id1)),
+				sourceBits(graph, graph.getDNode(id2)));
+		return clades.findGroups(sources).length;
+	}
+
+	/**
+	 * @param graph
+	 *            The graph.
+	 * @param node
+	 *            A node of the graph.
+	 * @return The bitset of the genomes passing the node, in the genome
+	 *         dictionary of the graph. Only a node which is not bound to the
+	 *         dictionary has its names converted, and such a node still holds
+	 *         its own set of names, so no set is rebuilt from a bitset.
+	 */
+	static long[] sourceBits(final DGraph graph, final DNode node) {
+		long[] bits = node.getSourceBits();
+		if (bits == null) {
+			return graph.getGenomes().mask(node.getSources());
+		}
+		return bits;
 	}
 
 	/**
@@ -100,26 +121,39 @@ public final class MutationFinder {
 	public static Collection<InsertionMutation> findInsertionMutations(
 			final DGraph graph, final BinaryTree tree) {
 		ArrayList<InsertionMutation> ins = new ArrayList<InsertionMutation>();
-		Collection<DNode> nodes = graph.getReference(REFERENCE_GENOME);
-		for (DNode node : nodes) {
-			for (DNode next : node.getNextNodes()) {
-				if (!(next.getSources().contains(REFERENCE_GENOME))) {
-					Collection<DNode> nextnodes = next.getNextNodes();
-					if (nextnodes.size() == 1) {
-						DNode endnode = nextnodes.iterator().next();
-						if (node.getNextNodes().contains(endnode)) {
-							InsertionMutation mut = new InsertionMutation(
-									node.getId(), endnode.getId(),
-									node.getStart(), node.getEnd(),
-									graph.getReferenceGeneStorage(),
-									next.getId());
-							ins.add(mut);
-						}
+		for (DNode node : graph.getReference(REFERENCE_GENOME)) {
+			findInsertionMutations(graph, node, ins);
+		}
+		return ins;
+	}
+
+	/**
+	 * Finds the simple Insertion mutations starting at a reference node.
+	 * 
+	 * @param graph
+	 *            The DGraph.
+	 * @param node
+	 *            A node of the reference genome.
+	 * @param ins
+	 *            The collection to add the found mutations to.
+	 */
+	static void findInsertionMutations(final DGraph graph, final DNode node,
+			final Collection<InsertionMutation> ins) {
+		for (DNode next : node.getNextNodes()) {
+			if (!(next.hasSource(REFERENCE_GENOME))) {
+				Collection<DNode> nextnodes = next.getNextNodes();
+				if (nextnodes.size() == 1) {
+					DNode endnode = nextnodes.iterator().next();
+					if (node.getNextNodes().contains(endnode)) {
+						InsertionMutation mut = new InsertionMutation(
+								node.getId(), endnode.getId(), node.getStart(),
+								node.getEnd(), graph.getReferenceGeneStorage(),
+								next.getId());
+						ins.add(mut);
 					}
 				}
 			}
 		}
-		return ins;
 	}
 
 	/**
@@ -134,36 +168,52 @@ public final class MutationFinder {
 	public static Collection<DeletionMutation> findDeletionMutations(
 			final DGraph graph, final BinaryTree tree) {
 		ArrayList<DeletionMutation> dels = new ArrayList<DeletionMutation>();
-		Collection<DNode> nodes = graph.getReference(REFERENCE_GENOME);
-		for (DNode node : nodes) {
-			boolean isDeletion = false;
-			int countRefNodes = 0;
-			int maxdepth = 0;
-			DNode endnode = null;
-			for (DNode next : node.getNextNodes()) {
-				if (next.getSources().contains(REFERENCE_GENOME)) {
-					if (next.getDepth() > maxdepth) {
-						maxdepth = next.getDepth();
-						endnode = next;
-					}
-					countRefNodes++;
-				}
-				if (countRefNodes > 1) {
-					isDeletion = true;
+		for (DNode node : graph.getReference(REFERENCE_GENOME)) {
+			findDeletionMutations(graph, node, dels);
+		}
+		return dels;
+	}
+
+	/**
+	 * Finds the simple Deletion mutation starting at a reference node.
+	 * 
+	 * @param graph
+	 *            The DGraph.
+	 * @param node
+	 *            A node of the reference genome.
+	 * @param dels
+	 *            The collection to add the found mutation to.
+	 */
+	static void findDeletionMutations(final DGraph graph, final DNode node,
+			final Collection<DeletionMutation> dels) {
+		boolean isDeletion = false;
+		int countRefNodes = 0;
+		int maxdepth = 0;
+		DNode endnode = null;
+		for (DNode next : node.getNextNodes()) {
+			if (next.hasSource(REFERENCE_GENOME)) {
+				if (next.getDepth() > maxdepth) {
+					maxdepth = next.getDepth();
+					endnode = next;
 				}
+				countRefNodes++;
 			}
-			if (isDeletion) {
-				DeletionMutation mut = new DeletionMutation(node.getId(),
-						endnode.getId(), node.getStart(), node.getEnd(),
-						graph.getReferenceGeneStorage());
-				dels.add(mut);
+			if (countRefNodes > 1) {
+				isDeletion = true;
 			}
 		}
-		return dels;
+		if (isDeletion) {
+			DeletionMutation mut = new DeletionMutation(node.getId(),
+					endnode.getId(), node.getStart(), node.getEnd(),
+					graph.getReferenceGeneStorage());
+			dels.add(mut);
+		}
 	}
 
 	/**
-	 * Finds the complex mutations of a DGraph.
+	 * Finds the complex mutations of a DGraph. Every superbubble entered from
+	 * the reference genome which is not a simple bubble is a complex mutation,
+	 * consisting of the nodes in the bubble outside the reference genome.
 	 * 
 	 * @param graph
 	 *            The DGraph.
@@ -174,76 +224,42 @@ public final class MutationFinder {
 	public static Collection<ComplexMutation> findComplexMutations(
 			final DGraph graph, final BinaryTree tree) {
 		Collection<ComplexMutation> ins = new ArrayList<ComplexMutation>();
-		Collection<DNode> nodes = graph.getReference(REFERENCE_GENOME);
-		HashSet<DNode> visitednodes = new HashSet<DNode>();
-		for (DNode node : nodes) {
-			Set<Integer> srcNodes = new HashSet<Integer>();
-			Set<Integer> inNodes = new HashSet<Integer>();
-			Queue<DNode> q = new LinkedList<DNode>();
-			for (DNode next : node.getNextNodes()) {
-				if (!(next.getSources().contains(REFERENCE_GENOME))) {
-					if (!visitednodes.contains(next)) {
-						q.add(next);
-						visitednodes.add(next);
-					}
-					inNodes.add(next.getId());
-					while (!q.isEmpty()) {
-						DNode n = q.remove();
-						for (DNode qnext : n.getNextNodes()) {
-							if (!qnext.getSources().contains(REFERENCE_GENOME)) {
-								if (!visitednodes.contains(qnext)) {
-									q.add(qnext);
-									visitednodes.add(qnext);
-								}
-								inNodes.add(qnext.getId());
-							} else {
-								srcNodes.add(qnext.getId());
-							}
-						}
-					}
-				} else {
-					srcNodes.add(next.getId());
-				}
-			}
-			int srcId = getSourceSinkNode(srcNodes, graph);
-			if (node.getOutEdges().size() > 0
-					&& (inNodes.size() > 1 || (inNodes.size() == 1 && graph
-							.getDNode(inNodes.iterator().next()).getContent()
-							.length() > 1))) {
-				ComplexMutation mut = new ComplexMutation(node.getId(), srcId,
-						node.getStart(), node.getEnd(),
-						graph.getReferenceGeneStorage(), inNodes);
-				ins.add(mut);
-			}
+		BubbleTree bubbles = graph.getBubbles();
+		for (DNode node : graph.getReference(REFERENCE_GENOME)) {
+			findComplexMutations(graph, bubbles.entered(node), ins);
 		}
 		return ins;
 	}
 
 	/**
-	 * Get the Source Sink node of a set of nodes containing the reference
-	 * genome.
+	 * Finds the complex mutation of a superbubble.
 	 * 
-	 * @param srcNodes
-	 *            The nodes containing the reference genome.
-	 * @param g
-	 *            The graph
-	 * @return The ID of the Source Sink node.
+	 * @param graph
+	 *            The DGraph.
+	 * @param bubble
+	 *            A superbubble entered from a reference node, or null.
+	 * @param ins
+	 *            The collection to add the found mutation to.
 	 */
-	private static int getSourceSinkNode(final Set<Integer> srcNodes,
-			final DGraph g) {
-		DNode srcSink = null;
-		int max = 0;
-		for (Integer n : srcNodes) {
-			DNode node = g.getDNode(n);
-			if (node.getDepth() > max) {
-				max = node.getDepth();
-				srcSink = node;
+	static void findComplexMutations(final DGraph graph, final Bubble bubble,
+			final Collection<ComplexMutation> ins) {
+		if (bubble == null || bubble.isSimple()) {
+			return;
+		}
+		DNode node = bubble.getEntrance();
+		Set<Integer> inNodes = new HashSet<Integer>();
+		DNode inNode = null;
+		for (DNode n : bubble.getInterior()) {
+			if (!n.hasSource(REFERENCE_GENOME)) {
+				inNodes.add(n.getId());
+				inNode = n;
 			}
 		}
-		int srcId = 0;
-		if (srcSink != null) {
-			srcId = srcSink.getId();
+		if (inNodes.size() > 1
+				|| (inNodes.size() == 1 && inNode.getContentLength() > 1)) {
+			ins.add(new ComplexMutation(node.getId(), bubble.getExit().getId(),
+					node.getStart(), node.getEnd(), graph
+							.getReferenceGeneStorage(), inNodes));
 		}
-		return srcId;
 	}
 }
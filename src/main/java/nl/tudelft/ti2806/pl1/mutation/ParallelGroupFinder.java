@@ -0,0 +1,124 @@
+package nl.tudelft.ti2806.pl1.mutation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import nl.tudelft.ti2806.pl1.graph.DGraph;
+import nl.tudelft.ti2806.pl1.phylotree.CladeIndex;
+
+/**
+ * Sets the amount of affected node groups of all mutations of a data graph in
+ * parallel. For every mutation the genomes carrying it are taken as a bitset
+ * and split into the clades of the phylogenetic tree by a
+ * {@link CladeIndex}. The mutations are split into ranges, which are grouped
+ * in a fork/join pool.
+ */
+public final class ParallelGroupFinder {
+
+	/** The smallest amount of mutations in a range. */
+	private static final int MIN_RANGE = 256;
+
+	/** The graph the mutations were found in. */
+	private final DGraph graph;
+
+	/** The clade index of the phylogenetic tree. */
+	private final CladeIndex clades;
+
+	/** The mutations of all types. */
+	private final Mutation[] mutations;
+
+	/**
+	 * @param dgraph
+	 *            The graph the mutations were found in.
+	 * @param index
+	 *            The clade index of the phylogenetic tree.
+	 */
+	private ParallelGroupFinder(final DGraph dgraph, final CladeIndex index) {
+		this.graph = dgraph;
+		this.clades = index;
+		List<Mutation> all = new ArrayList<Mutation>();
+		addAll(all, dgraph.getPointMutations());
+		addAll(all, dgraph.getDelMutations());
+		addAll(all, dgraph.getInsMutations());
+		addAll(all, dgraph.getComplexMutations());
+		this.mutations = all.toArray(new Mutation[all.size()]);
+	}
+
+	/**
+	 * @param all
+	 *            The list to add the mutations to.
+	 * @param muts
+	 *            The mutations of a type, or null if there are none.
+	 */
+	private static void addAll(final List<Mutation> all,
+			final Collection<? extends Mutation> muts) {
+		if (muts != null) {
+			all.addAll(muts);
+		}
+	}
+
+	/**
+	 * Sets the affected node groups of all mutations of a graph using one
+	 * thread per processor.
+	 *
+	 * @param graph
+	 *            The data graph.
+	 * @param clades
+	 *            The clade index of the phylogenetic tree for the genomes of
+	 *            the graph.
+	 */
+	public static void analyze(final DGraph graph, final CladeIndex clades) {
+		analyze(graph, clades, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Sets the affected node groups of all mutations of a graph.
+	 *
+	 * @param graph
+	 *            The data graph.
+	 * @param clades
+	 *            The clade index of the phylogenetic tree for the genomes of
+	 *            the graph.
+	 * @param parallelism
+	 *            The amount of threads to use.
+	 */
+	public static void analyze(final DGraph graph, final CladeIndex clades,
+			final int parallelism) {
+		new ParallelGroupFinder(graph, clades).run(parallelism);
+	}
+
+	/**
+	 * Groups all mutations.
+	 *
+	 * @param parallelism
+	 *            The amount of threads.
+	 */
+	private void run(final int parallelism) {
+		final int count = ParallelRanges.count(mutations.length, MIN_RANGE,
+				parallelism);
+		ParallelRanges.run(count, parallelism, new ParallelRanges.Task() {
+			@Override
+			public void process(final int range) {
+				int n = mutations.length;
+				group(ParallelRanges.bound(n, range, count),
+						ParallelRanges.bound(n, range + 1, count));
+			}
+		});
+	}
+
+	/**
+	 * Sets the affected node groups of a range of the mutations.
+	 *
+	 * @param from
+	 *            The first mutation of the range.
+	 * @param to
+	 *            The mutation after the range.
+	 */
+	private void group(final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			Mutation m = mutations[i];
+			m.setAffectedNodeGroups(clades.findGroups(m.carriers(graph)).length);
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package nl.tudelft.ti2806.pl1.mutation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+import nl.tudelft.ti2806.pl1.graph.BubbleTree;
+import nl.tudelft.ti2806.pl1.graph.DGraph;
+import nl.tudelft.ti2806.pl1.graph.DNode;
+
+/**
+ * Finds all mutations of a data graph in parallel. The reference path and the
+ * nodes of the graph are split into ranges, and the detectors of
+ * {@link MutationFinder} and {@link PointMutationFinder} run on every range in
+ * a fork/join pool. The results of the ranges are disjoint and are merged in
+ * the order of the ranges, so they equal the results of the sequential
+ * finders.
+ *
+ * The superbubbles of the graph are found once, before the ranges are
+ * searched, and complex mutations are classified from them, so every range
+ * can be searched independently.
+ */
+public final class ParallelMutationFinder {
+
+	/** The smallest amount of reference nodes in a range. */
+	private static final int MIN_RANGE = 512;
+
+	/** The graph to find the mutations of. */
+	private final DGraph graph;
+
+	/** The superbubbles of the graph. */
+	private final BubbleTree bubbles;
+
+	/** The nodes of the reference path. */
+	private final DNode[] reference;
+
+	/** The ranges in which the mutations are found. */
+	private final List<Range> ranges;
+
+	/**
+	 * @param dgraph
+	 *            The graph to find the mutations of.
+	 * @param parallelism
+	 *            The amount of threads.
+	 */
+	private ParallelMutationFinder(final DGraph dgraph, final int parallelism) {
+		this.graph = dgraph;
+		Collection<DNode> ref = dgraph
+				.getReference(MutationFinder.REFERENCE_GENOME);
+		this.reference = ref.toArray(new DNode[ref.size()]);
+		this.bubbles = dgraph.getBubbles();
+		this.ranges = split(dgraph.getAdjacency().size(), parallelism);
+	}
+
+	/**
+	 * Finds all mutations of a graph using one thread per processor, and sets
+	 * them on the graph.
+	 *
+	 * @param graph
+	 *            The data graph.
+	 */
+	public static void analyze(final DGraph graph) {
+		analyze(graph, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Finds all mutations of a graph and sets them on the graph.
+	 *
+	 * @param graph
+	 *            The data graph.
+	 * @param parallelism
+	 *            The amount of threads to use.
+	 */
+	public static void analyze(final DGraph graph, final int parallelism) {
+		new ParallelMutationFinder(graph, parallelism).run(parallelism);
+	}
+
+	/**
+	 * Splits the reference path and the nodes of the adjacency into the same
+	 * amount of ranges.
+	 *
+	 * @param vertices
+	 *            The amount of nodes in the adjacency.
+	 * @param parallelism
+	 *            The amount of threads.
+	 * @return The ranges.
+	 */
+	private List<Range> split(final int vertices, final int parallelism) {
+		int count = ParallelRanges.count(Math.max(reference.length, vertices),
+				MIN_RANGE, parallelism);
+		List<Range> ret = new ArrayList<Range>(count);
+		for (int i = 0; i < count; i++) {
+			ret.add(new Range(ParallelRanges.bound(reference.length, i, count),
+					ParallelRanges.bound(reference.length, i + 1, count),
+					ParallelRanges.bound(vertices, i, count), ParallelRanges
+							.bound(vertices, i + 1, count)));
+		}
+		return ret;
+	}
+
+	/**
+	 * Finds the mutations of all ranges and sets the merged results on the
+	 * graph.
+	 *
+	 * @param parallelism
+	 *            The amount of threads.
+	 */
+	private void run(final int parallelism) {
+		ParallelRanges.run(ranges.size(), parallelism,
+				new ParallelRanges.Task() {
+					@Override
+					public void process(final int range) {
+						ranges.get(range).find();
+					}
+				});
+		Collection<PointMutation> points = new HashSet<PointMutation>();
+		List<DeletionMutation> dels = new ArrayList<DeletionMutation>();
+		List<InsertionMutation> ins = new ArrayList<InsertionMutation>();
+		List<ComplexMutation> complex = new ArrayList<ComplexMutation>();
+		for (Range range : ranges) {
+			points.addAll(range.points);
+			dels.addAll(range.dels);
+			ins.addAll(range.ins);
+			complex.addAll(range.complex);
+		}
+		graph.setPointMutations(points);
+		graph.setDeletionMutations(dels);
+		graph.setInsertionMutations(ins);
+		graph.setComplexMutations(complex);
+	}
+
+	/**
+	 * A range of the reference path and of the nodes of the graph, with the
+	 * mutations found in it.
+	 */
+	private final class Range {
+
+		/** The first reference node of the range. */
+		private final int refFrom;
+
+		/** The reference node after the range. */
+		private final int refTo;
+
+		/** The adjacency index of the first node of the range. */
+		private final int from;
+
+		/** The adjacency index after the last node of the range. */
+		private final int to;
+
+		/** The point mutations found in the range. */
+		private final List<PointMutation> points = new ArrayList<PointMutation>();
+
+		/** The deletion mutations found in the range. */
+		private final List<DeletionMutation> dels = new ArrayList<DeletionMutation>();
+
+		/** The insertion mutations found in the range. */
+		private final List<InsertionMutation> ins = new ArrayList<InsertionMutation>();
+
+		/** The complex mutations found in the range. */
+		private final List<ComplexMutation> complex = new ArrayList<ComplexMutation>();
+
+		/**
+		 * @param refFromIn
+		 *            The first reference node of the range.
+		 * @param refToIn
+		 *            The reference node after the range.
+		 * @param fromIn
+		 *            The adjacency index of the first node of the range.
+		 * @param toIn
+		 *            The adjacency index after the last node of the range.
+		 */
+		private Range(final int refFromIn, final int refToIn,
+				final int fromIn, final int toIn) {
+			this.refFrom = refFromIn;
+			this.refTo = refToIn;
+			this.from = fromIn;
+			this.to = toIn;
+		}
+
+		/**
+		 * Finds all mutations in the range.
+		 */
+		private void find() {
+			PointMutationFinder.findPointMutations(graph, from, to, points);
+			for (int i = refFrom; i < refTo; i++) {
+				MutationFinder.findDeletionMutations(graph, reference[i], dels);
+				MutationFinder.findInsertionMutations(graph, reference[i], ins);
+				MutationFinder.findComplexMutations(graph,
+						bubbles.entered(reference[i]), complex);
+			}
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package nl.tudelft.ti2806.pl1.mutation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits work over a sequence into ranges and processes the ranges in a
+ * fork/join pool. There are a few ranges per thread, so a thread finishing
+ * its range early can take over another one.
+ */
+final class ParallelRanges {
+
+	/** The amount of ranges per thread, to even out uneven ranges. */
+	private static final int RANGES_PER_THREAD = 4;
+
+	/** Private constructor to avoid instantiation. */
+	private ParallelRanges() {
+	}
+
+	/**
+	 * Processes a single range.
+	 */
+	interface Task {
+
+		/**
+		 * @param range
+		 *            The index of the range to process.
+		 */
+		void process(int range);
+	}
+
+	/**
+	 * @param length
+	 *            The length of the split sequence.
+	 * @param minRange
+	 *            The smallest length of a range.
+	 * @param parallelism
+	 *            The amount of threads.
+	 * @return The amount of ranges to split the sequence into, at least 1.
+	 */
+	static int count(final int length, final int minRange,
+			final int parallelism) {
+		return Math.max(1, Math.min(parallelism * RANGES_PER_THREAD, length
+				/ minRange));
+	}
+
+	/**
+	 * @param length
+	 *            The length of the split sequence.
+	 * @param i
+	 *            The index of a range.
+	 * @param count
+	 *            The amount of ranges.
+	 * @return The start of the range.
+	 */
+	static int bound(final int length, final int i, final int count) {
+		return (int) ((long) length * i / count);
+	}
+
+	/**
+	 * Processes all ranges, on the calling thread if there is only one.
+	 *
+	 * @param count
+	 *            The amount of ranges.
+	 * @param parallelism
+	 *            The amount of threads.
+	 * @param task
+	 *            The task processing a range.
+	 */
+	static void run(final int count, final int parallelism, final Task task) {
+		if (count == 1) {
+			task.process(0);
+			return;
+		}
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			pool.invoke(new Split(task, 0, count));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Processes a part of the ranges, splitting it in halves until a single
+	 * range is left.
+	 */
+	private static final class Split extends RecursiveAction {
+
+		/** The serial version UID. */
+		private static final long serialVersionUID = -6128940718215307354L;
+
+		/** The task processing a range. */
+		private final Task task;
+
+		/** The first range of the part. */
+		private final int lo;
+
+		/** The range after the part. */
+		private final int hi;
+
+		/**
+		 * @param taskIn
+		 *            The task processing a range.
+		 * @param loIn
+		 *            The first range of the part.
+		 * @param hiIn
+		 *            The range after the part.
+		 */
+		private Split(final Task taskIn, final int loIn, final int hiIn) {
+			this.task = taskIn;
+			this.lo = loIn;
+			this.hi = hiIn;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo == 1) {
+				task.process(lo);
+			} else if (hi > lo) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new Split(task, lo, mid), new Split(task, mid, hi));
+			}
+		}
+	}
+}
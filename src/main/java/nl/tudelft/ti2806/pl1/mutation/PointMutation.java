@@ -43,9 +43,7 @@ public class PointMutation extends Mutation {
 	}
 
 	@Override
-	public double getScore() {
-		return super.getScore()
-				* ScoreMultiplier.getMult(MutationMultipliers.POINTMUTATION
-						.name());
+	protected double typeMultiplier(final ScoreMultiplier.Config config) {
+		return config.get(MutationMultipliers.POINTMUTATION);
 	}
 }
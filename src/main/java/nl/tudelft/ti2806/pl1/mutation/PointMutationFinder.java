@@ -4,12 +4,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map.Entry;
 import java.util.Set;
 
 import nl.tudelft.ti2806.pl1.geneAnnotation.ReferenceGeneStorage;
-import nl.tudelft.ti2806.pl1.graph.DEdge;
+import nl.tudelft.ti2806.pl1.graph.Adjacency;
 import nl.tudelft.ti2806.pl1.graph.DGraph;
 import nl.tudelft.ti2806.pl1.graph.DNode;
 
@@ -39,26 +38,42 @@ public final class PointMutationFinder {
 	public static Collection<PointMutation> findPointMutations(
 			final DGraph graph) {
 		Collection<PointMutation> pointmutations = new HashSet<PointMutation>();
-		Collection<DNode> dnodes = graph.getNodes().values();
-		for (DNode node : dnodes) {
-			Iterator<DEdge> leaving = node.getOutEdges().iterator();
+		findPointMutations(graph, 0, graph.getAdjacency().size(),
+				pointmutations);
+		return pointmutations;
+	}
+
+	/**
+	 * Finds the point mutations starting at a range of nodes of the frozen
+	 * adjacency of a graph.
+	 * 
+	 * @param graph
+	 *            The graph.
+	 * @param from
+	 *            The adjacency index of the first node of the range.
+	 * @param to
+	 *            The adjacency index after the last node of the range.
+	 * @param pointmutations
+	 *            The collection to add the found mutations to.
+	 */
+	static void findPointMutations(final DGraph graph, final int from,
+			final int to, final Collection<PointMutation> pointmutations) {
+		Adjacency adj = graph.getAdjacency();
+		for (int v = from; v < to; v++) {
 			ArrayList<Integer> muts = new ArrayList<Integer>();
-			while (leaving.hasNext()) {
-				DEdge out = leaving.next();
-				DNode outnode = out.getEndNode();
-				String content = outnode.getContent();
-				if (content.length() == 1) {
+			for (int e = adj.firstOut(v); e < adj.endOut(v); e++) {
+				DNode outnode = adj.node(adj.target(e));
+				if (outnode.getContentLength() == 1) {
 					muts.add(outnode.getId());
 				}
 			}
 			if (muts.size() > 1) {
 				HashMap<Integer, Set<Integer>> nodegroups = makeNodeGroups(
 						muts, graph);
-				pointmutations.addAll(createPointMutations(node.getId(),
+				pointmutations.addAll(createPointMutations(adj.node(v).getId(),
 						nodegroups, graph, graph.getReferenceGeneStorage()));
 			}
 		}
-		return pointmutations;
 	}
 
 	/**
@@ -130,11 +145,10 @@ public final class PointMutationFinder {
 	private static ArrayList<Integer> getNextNodes(final DGraph graph,
 			final int id) {
 		ArrayList<Integer> nodes = new ArrayList<Integer>();
-		DNode n = graph.getDNode(id);
-		Iterator<DEdge> edges = n.getOutEdges().iterator();
-		while (edges.hasNext()) {
-			DEdge next = edges.next();
-			nodes.add(next.getEndNode().getId());
+		Adjacency adj = graph.getAdjacency();
+		int v = adj.indexOf(graph.getDNode(id));
+		for (int e = adj.firstOut(v); e < adj.endOut(v); e++) {
+			nodes.add(adj.node(adj.target(e)).getId());
 		}
 		return nodes;
 	}
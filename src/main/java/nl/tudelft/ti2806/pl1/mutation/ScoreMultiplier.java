@@ -1,58 +1,71 @@
 package nl.tudelft.ti2806.pl1.mutation;
 
-import java.util.HashMap;
+import java.util.Arrays;
 
 import javax.swing.JSlider;
 
 /**
  * Keeps track of multiplier for each score category.
- * 
+ *
+ * The multipliers are kept in an immutable {@link Config}, which is replaced
+ * as a whole whenever a multiplier changes. Zoom levels are computed in the
+ * background, so readers always see a consistent set of multipliers, and
+ * mutations can tell from the version of the configuration whether their
+ * cached score is still valid.
+ *
  * @author Marissa
  * @since 18-06-15
  */
 public final class ScoreMultiplier {
 
-	/** The multiplier value for each score category. **/
-	private static HashMap<String, Double> mults = new HashMap<String, Double>();
-
 	/** Convert it from 0-10 to 0-1 scale. **/
 	private static final int MAKEPERCENTAGE = 10;
 
 	/** The default value for the multiplier. */
 	private static final double DEFAULT = 1;
 
+	/** The configuration in which every multiplier has its default value. */
+	private static final Config DEFAULTS = new Config(0, defaults());
+
+	/** The current multiplier configuration. */
+	private static volatile Config config = DEFAULTS;
+
+	/** The version of the last created configuration. */
+	private static int lastVersion = 0;
+
 	/** Private constructor to avoid instantiation. **/
 	private ScoreMultiplier() {
 	}
 
 	/**
 	 * A score multiplier has changed and gets adjusted.
-	 * 
+	 *
 	 * @param changed
 	 *            The slider that has changed.
 	 */
 	public static void multiplierChange(final JSlider changed) {
-		mults.put(changed.getName(), (double) changed.getValue()
+		setMult(changed.getName(), (double) changed.getValue()
 				/ MAKEPERCENTAGE);
 	}
 
 	/**
 	 * The multiplier for the score.
-	 * 
+	 *
 	 * @param mult
 	 *            The score we want to get the multiplier for.
 	 * @return The multiplier for the given score.
 	 */
 	public static Double getMult(final String mult) {
-		if (mults.containsKey(mult)) {
-			return mults.get(mult);
+		try {
+			return config.get(MutationMultipliers.valueOf(mult));
+		} catch (IllegalArgumentException e) {
+			return DEFAULT;
 		}
-		return DEFAULT;
 	}
 
 	/**
 	 * Set the score for a multiplier.
-	 * 
+	 *
 	 * @param mult
 	 *            The multiplier you want to set the value for.
 	 * @param score
@@ -62,14 +75,92 @@ public final class ScoreMultiplier {
 	 */
 	public static void setMult(final String mult, final double score)
 			throws IllegalArgumentException {
-		MutationMultipliers.valueOf(mult);
-		mults.put(mult, score);
+		MutationMultipliers key = MutationMultipliers.valueOf(mult);
+		synchronized (ScoreMultiplier.class) {
+			if (config.get(key) != score) {
+				double[] values = config.values();
+				values[key.ordinal()] = score;
+				config = new Config(++lastVersion, values);
+			}
+		}
 	}
 
 	/**
 	 * Reset all multipliers to default value.
 	 */
-	public static void resetMults() {
-		mults = new HashMap<String, Double>();
+	public static synchronized void resetMults() {
+		config = DEFAULTS;
+	}
+
+	/**
+	 * @return The current multiplier configuration.
+	 */
+	public static Config current() {
+		return config;
+	}
+
+	/**
+	 * @return The current value of every multiplier, in the order of
+	 *         {@link MutationMultipliers#values()}.
+	 */
+	public static double[] snapshot() {
+		return config.values();
+	}
+
+	/**
+	 * @return The default value of every multiplier.
+	 */
+	private static double[] defaults() {
+		double[] ret = new double[MutationMultipliers.values().length];
+		Arrays.fill(ret, DEFAULT);
+		return ret;
+	}
+
+	/**
+	 * An immutable set of multipliers. Every change of a multiplier results in
+	 * a configuration with a new version.
+	 */
+	public static final class Config {
+
+		/** The version of the configuration. */
+		private final int version;
+
+		/** The multipliers, indexed by their ordinal. */
+		private final double[] mults;
+
+		/**
+		 * @param versionIn
+		 *            The version of the configuration.
+		 * @param multsIn
+		 *            The multipliers, indexed by their ordinal.
+		 */
+		private Config(final int versionIn, final double[] multsIn) {
+			this.version = versionIn;
+			this.mults = multsIn;
+		}
+
+		/**
+		 * @return The version of the configuration.
+		 */
+		public int getVersion() {
+			return version;
+		}
+
+		/**
+		 * @param mult
+		 *            A score category.
+		 * @return The multiplier of the category.
+		 */
+		public double get(final MutationMultipliers mult) {
+			return mults[mult.ordinal()];
+		}
+
+		/**
+		 * @return A copy of the multipliers, in the order of
+		 *         {@link MutationMultipliers#values()}.
+		 */
+		public double[] values() {
+			return mults.clone();
+		}
 	}
 }
@@ -0,0 +1,325 @@
+package nl.tudelft.ti2806.pl1.phylotree;
+
+import java.util.Arrays;
+
+import nl.tudelft.ti2806.pl1.graph.GenomeDictionary;
+
+/**
+ * Answers grouping and distance queries about the genomes of a graph on a
+ * phylogenetic tree. Everything the queries need is computed once: the leaves
+ * of the clade of every node as a bitset over the genome dictionary of the
+ * graph, the distance of every node to the root, and a sparse table over an
+ * Euler tour of the tree, giving the lowest common ancestor of two nodes in
+ * constant time.
+ */
+public final class CladeIndex {
+
+	/** The shift converting a genome index into a word index. */
+	private static final int WORD_SHIFT = 6;
+
+	/** The tree. */
+	private final PhyloTree tree;
+
+	/** The amount of words of every clade bitset. */
+	private final int words;
+
+	/**
+	 * The leaves of the clade of every node, as bitsets of genomes stored
+	 * one after another.
+	 */
+	private final long[] clades;
+
+	/**
+	 * Whether all leaves of the clade of every node are genomes in the
+	 * dictionary.
+	 */
+	private final boolean[] complete;
+
+	/** The leaf of every genome, -1 for genomes not in the tree. */
+	private final int[] leafOf;
+
+	/** The distance of every node to the root. */
+	private final double[] rootDistance;
+
+	/** The depth of every node. */
+	private final int[] depth;
+
+	/** The first position of every node in the Euler tour. */
+	private final int[] first;
+
+	/**
+	 * The sparse table over the Euler tour. Level k holds, for every position,
+	 * the least deep node of the 2^k positions starting there.
+	 */
+	private final int[][] table;
+
+	/**
+	 * Indexes a tree for a dictionary of genomes.
+	 *
+	 * @param treeIn
+	 *            The tree.
+	 * @param genomes
+	 *            The genomes, of which the names are matched to the leaf
+	 *            names of the tree.
+	 */
+	public CladeIndex(final PhyloTree treeIn, final GenomeDictionary genomes) {
+		this.tree = treeIn;
+		int n = tree.size();
+		this.words = (genomes.size() + Long.SIZE - 1) >>> WORD_SHIFT;
+		this.clades = new long[n * words];
+		this.complete = new boolean[n];
+		this.leafOf = new int[genomes.size()];
+		Arrays.fill(leafOf, -1);
+		for (int v = n - 1; v >= 0; v--) {
+			if (tree.isLeaf(v)) {
+				int g = genomes.indexOf(tree.getName(v));
+				if (g >= 0) {
+					leafOf[g] = v;
+					clades[v * words + (g >>> WORD_SHIFT)] |= 1L << g;
+					complete[v] = true;
+				}
+			} else {
+				complete[v] = true;
+				for (int i = 0; i < tree.getChildCount(v); i++) {
+					int c = tree.getChild(v, i);
+					complete[v] &= complete[c];
+					for (int w = 0; w < words; w++) {
+						clades[v * words + w] |= clades[c * words + w];
+					}
+				}
+			}
+		}
+		this.rootDistance = new double[n];
+		this.depth = new int[n];
+		for (int v = 1; v < n; v++) {
+			int p = tree.getParent(v);
+			rootDistance[v] = rootDistance[p] + tree.getLength(v);
+			depth[v] = depth[p] + 1;
+		}
+		this.first = new int[n];
+		this.table = buildTable(eulerTour());
+	}
+
+	/**
+	 * Walks around the tree, listing every node when it is entered and again
+	 * after each of its children.
+	 *
+	 * @return The Euler tour of the tree.
+	 */
+	private int[] eulerTour() {
+		int n = tree.size();
+		int[] tour = new int[2 * n - 1];
+		int[] stack = new int[n];
+		int[] nextChild = new int[n];
+		int size = 0;
+		int len = 0;
+		stack[size++] = 0;
+		first[0] = len;
+		tour[len++] = 0;
+		while (size > 0) {
+			int v = stack[size - 1];
+			if (nextChild[v] < tree.getChildCount(v)) {
+				int c = tree.getChild(v, nextChild[v]++);
+				stack[size++] = c;
+				first[c] = len;
+				tour[len++] = c;
+			} else {
+				size--;
+				if (size > 0) {
+					tour[len++] = stack[size - 1];
+				}
+			}
+		}
+		return tour;
+	}
+
+	/**
+	 * @param tour
+	 *            The Euler tour.
+	 * @return The sparse table over the tour.
+	 */
+	private int[][] buildTable(final int[] tour) {
+		int levels = 1;
+		while ((1 << levels) <= tour.length) {
+			levels++;
+		}
+		int[][] ret = new int[levels][];
+		ret[0] = tour;
+		for (int k = 1; k < levels; k++) {
+			int half = 1 << (k - 1);
+			int[] prev = ret[k - 1];
+			int[] level = new int[tour.length - (1 << k) + 1];
+			for (int i = 0; i < level.length; i++) {
+				level[i] = shallowest(prev[i], prev[i + half]);
+			}
+			ret[k] = level;
+		}
+		return ret;
+	}
+
+	/**
+	 * @param u
+	 *            A node.
+	 * @param v
+	 *            Another node.
+	 * @return The least deep of the nodes.
+	 */
+	private int shallowest(final int u, final int v) {
+		if (depth[v] < depth[u]) {
+			return v;
+		}
+		return u;
+	}
+
+	/**
+	 * @return The indexed tree.
+	 */
+	public PhyloTree getTree() {
+		return tree;
+	}
+
+	/**
+	 * @param genome
+	 *            The index of a genome in the dictionary.
+	 * @return The leaf of the genome, or -1 if it is not in the tree.
+	 */
+	public int getLeaf(final int genome) {
+		if (genome < 0 || genome >= leafOf.length) {
+			return -1;
+		}
+		return leafOf[genome];
+	}
+
+	/**
+	 * @param v
+	 *            A node.
+	 * @return The distance of the node to the root.
+	 */
+	public double getRootDistance(final int v) {
+		return rootDistance[v];
+	}
+
+	/**
+	 * @param u
+	 *            A node.
+	 * @param v
+	 *            Another node.
+	 * @return The lowest common ancestor of the nodes.
+	 */
+	public int lca(final int u, final int v) {
+		int lo = Math.min(first[u], first[v]);
+		int hi = Math.max(first[u], first[v]);
+		int k = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(hi - lo + 1);
+		return shallowest(table[k][lo], table[k][hi - (1 << k) + 1]);
+	}
+
+	/**
+	 * @param v
+	 *            A node.
+	 * @param sources
+	 *            A bitset of genomes.
+	 * @return True iff all leaves of the clade of the node are in the bitset.
+	 */
+	private boolean cladeIn(final int v, final long[] sources) {
+		if (!complete[v]) {
+			return false;
+		}
+		for (int w = 0; w < words; w++) {
+			long s = 0;
+			if (w < sources.length) {
+				s = sources[w];
+			}
+			if ((clades[v * words + w] & ~s) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param sources
+	 *            A bitset of genomes.
+	 * @return The leaves of the genomes in the tree, in preorder.
+	 */
+	private int[] leaves(final long[] sources) {
+		int[] ret = new int[GenomeDictionary.count(sources)];
+		int k = 0;
+		for (int w = 0; w < sources.length; w++) {
+			long word = sources[w];
+			while (word != 0) {
+				int leaf = getLeaf((w << WORD_SHIFT)
+						+ Long.numberOfTrailingZeros(word));
+				if (leaf >= 0) {
+					ret[k++] = leaf;
+				}
+				word &= word - 1;
+			}
+		}
+		ret = Arrays.copyOf(ret, k);
+		Arrays.sort(ret);
+		return ret;
+	}
+
+	/**
+	 * Splits genomes into groups which are whole clades of the tree. Every
+	 * group is the largest clade containing a genome of which all leaves are
+	 * in the given genomes. Genomes which are not in the tree are ignored.
+	 *
+	 * @param sources
+	 *            A bitset of genomes.
+	 * @return The roots of the clades of the groups, in preorder.
+	 */
+	public int[] findGroups(final long[] sources) {
+		int[] leaves = leaves(sources);
+		int[] ret = new int[leaves.length];
+		int count = 0;
+		int i = 0;
+		while (i < leaves.length) {
+			int v = leaves[i];
+			int p = tree.getParent(v);
+			while (p >= 0 && cladeIn(p, sources)) {
+				v = p;
+				p = tree.getParent(v);
+			}
+			ret[count++] = v;
+			int end = v + tree.getSubtreeSize(v);
+			while (i < leaves.length && leaves[i] < end) {
+				i++;
+			}
+		}
+		return Arrays.copyOf(ret, count);
+	}
+
+	/**
+	 * Calculates the distance between the root and the lowest common ancestor
+	 * of genomes. As the nodes are numbered in preorder, this ancestor is the
+	 * lowest common ancestor of the first and the last of their leaves.
+	 *
+	 * @param sources
+	 *            A bitset of genomes.
+	 * @return The distance of the lowest common ancestor of the genomes in the
+	 *         tree to the root, 0 if none of the genomes is in the tree.
+	 */
+	public double getDistance(final long[] sources) {
+		int min = -1;
+		int max = -1;
+		for (int w = 0; w < sources.length; w++) {
+			long word = sources[w];
+			while (word != 0) {
+				int leaf = getLeaf((w << WORD_SHIFT)
+						+ Long.numberOfTrailingZeros(word));
+				if (leaf >= 0) {
+					if (min < 0 || leaf < min) {
+						min = leaf;
+					}
+					max = Math.max(max, leaf);
+				}
+				word &= word - 1;
+			}
+		}
+		if (min < 0) {
+			return 0;
+		}
+		return rootDistance[lca(min, max)];
+	}
+}
@@ -1,19 +1,13 @@
 package nl.tudelft.ti2806.pl1.phylotree;
 
-import java.awt.Color;
 import java.util.ArrayList;
 import java.util.List;
 
-import nl.tudelft.ti2806.pl1.gui.contentpane.PhyloPanel;
-
 /**
  * @author Maarten
  */
 public class InnerNode extends BinaryTree {
 
-	/** Serial version UID. */
-	private static final long serialVersionUID = 4003391741650507864L;
-
 	/** The children of the node. */
 	private final BinaryTree left, right;
 
@@ -28,13 +22,10 @@ public class InnerNode extends BinaryTree {
 	 *            The left child.
 	 * @param rightChild
 	 *            The right child.
-	 * @param panel
-	 *            The phylo panel this node is part of.
 	 */
 	public InnerNode(final String nameIn, final double dist,
-			final BinaryTree leftChild, final BinaryTree rightChild,
-			final PhyloPanel panel) {
-		super(nameIn, dist, panel);
+			final BinaryTree leftChild, final BinaryTree rightChild) {
+		super(nameIn, dist);
 		this.left = leftChild;
 		this.right = rightChild;
 	}
@@ -89,8 +80,7 @@ public class InnerNode extends BinaryTree {
 	@Override
 	protected final String toStringHelper(final String indent) {
 		String res = indent + stringOrElse(getID(), "X") + " (dist="
-				+ getPathLength() + ",x=" + getGridCoordinates().getX() + ",y="
-				+ getGridCoordinates().getY() + ")\n";
+				+ getPathLength() + ")\n";
 		if (hasLeft()) {
 			res += left.toStringHelper(indent + "\t");
 		}
@@ -122,24 +112,6 @@ public class InnerNode extends BinaryTree {
 		}
 	}
 
-	@Override
-	public final Color getBackground() {
-		if (isCollapsed()) {
-			return PhyloPanel.INNER_NODE_COLLAPSED;
-		} else if (isChosen()) {
-			return PhyloPanel.NODE_SELECTED_COLOR;
-		}
-		return PhyloPanel.INNER_NODE_NORMAL;
-	}
-
-	@Override
-	public final Color getForeground() {
-		if (isChosen()) {
-			return PhyloPanel.NODE_SELECTED_COLOR;
-		}
-		return PhyloPanel.DEFAULT_COLOR;
-	}
-
 	@Override
 	public final int height() {
 		int h = 0;
@@ -152,18 +124,6 @@ public class InnerNode extends BinaryTree {
 		return h + 1;
 	}
 
-	@Override
-	public final int computePlacement(final int x, final int y) {
-		setGridLoc(x, y);
-		if (isCollapsed()) {
-			return 1;
-		} else {
-			int lWidth = left.computePlacement(x + 1, y);
-			int rWidth = right.computePlacement(x + 1, y + lWidth);
-			return lWidth + rWidth;
-		}
-	}
-
 	@Override
 	public final List<BinaryTree> getChildren() {
 		ArrayList<BinaryTree> ret = new ArrayList<BinaryTree>(2);
@@ -176,23 +136,6 @@ public class InnerNode extends BinaryTree {
 		return ret;
 	}
 
-	@Override
-	public final boolean isChosen() {
-		for (BinaryTree child : getChildren()) {
-			if (!child.isChosen()) {
-				return false;
-			}
-		}
-		return getChildren().size() > 0;
-	}
-
-	@Override
-	public final void setChosen(final boolean b) {
-		for (BinaryTree child : getChildren()) {
-			child.setChosen(b);
-		}
-	}
-
 	@Override
 	public boolean isLeaf() {
 		return false;
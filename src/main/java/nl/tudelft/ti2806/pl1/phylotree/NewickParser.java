@@ -0,0 +1,374 @@
+package nl.tudelft.ti2806.pl1.phylotree;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import nl.tudelft.ti2806.pl1.exceptions.InvalidFileFormatException;
+
+/**
+ * Parses a tree in Newick format from a stream of characters, in a single
+ * pass and without recursion, into a {@link PhyloTree}. The open inner nodes
+ * are kept on an explicit stack, so the depth of the tree is not limited by
+ * the call stack, and the input is never held in memory as a whole.
+ *
+ * Nodes may have any amount of children. Labels are either unquoted, ending
+ * at whitespace or one of <code>()[]',:;</code>, or quoted in single quotes,
+ * in which two single quotes stand for one. Comments in square brackets,
+ * which may be nested, and whitespace outside of quoted labels are skipped.
+ * Unlike the Newick standard, underscores in unquoted labels are kept, as
+ * they are part of the genome names. The closing semicolon may be left out.
+ */
+public final class NewickParser {
+
+	/** The size of the read buffer. */
+	private static final int BUFFER_SIZE = 8192;
+
+	/** The initial capacity of the node arrays. */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/** The characters ending an unquoted label or a branch length. */
+	private static final String DELIMITERS = "()[]',:;";
+
+	/** The input. */
+	private final Reader in;
+
+	/** The read buffer. */
+	private final char[] buffer = new char[BUFFER_SIZE];
+
+	/** The position of the next character in the buffer. */
+	private int pos;
+
+	/** The amount of characters in the buffer. */
+	private int limit;
+
+	/** The amount of characters read before the buffer. */
+	private long offset;
+
+	/** The names of the nodes parsed so far. */
+	private final List<String> names = new ArrayList<String>();
+
+	/** The branch lengths of the nodes parsed so far. */
+	private double[] lengths = new double[INITIAL_CAPACITY];
+
+	/** The parents of the nodes parsed so far. */
+	private int[] parents = new int[INITIAL_CAPACITY];
+
+	/** The label and length of the node being parsed. */
+	private final StringBuilder token = new StringBuilder();
+
+	/**
+	 * @param input
+	 *            The input.
+	 */
+	private NewickParser(final Reader input) {
+		this.in = input;
+	}
+
+	/**
+	 * Parses a Newick tree.
+	 *
+	 * @param in
+	 *            The input. It is read up to the end of the tree, but not
+	 *            closed.
+	 * @return The tree.
+	 * @throws IOException
+	 *             When the input can not be read.
+	 * @throws InvalidFileFormatException
+	 *             When the input is not a Newick tree.
+	 */
+	public static PhyloTree parse(final Reader in) throws IOException {
+		return new NewickParser(in).parse();
+	}
+
+	/**
+	 * Parses a Newick tree.
+	 *
+	 * @param s
+	 *            The tree in Newick format.
+	 * @return The tree.
+	 * @throws InvalidFileFormatException
+	 *             When the string is not a Newick tree.
+	 */
+	public static PhyloTree parse(final String s) {
+		try {
+			return parse(new StringReader(s));
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Parses the tree.
+	 *
+	 * @return The tree.
+	 * @throws IOException
+	 *             When the input can not be read.
+	 */
+	private PhyloTree parse() throws IOException {
+		int[] open = new int[INITIAL_CAPACITY];
+		int depth = 0;
+		int current = -1;
+		boolean expectNode = true;
+		boolean done = false;
+		while (!done) {
+			int c = next();
+			switch (c) {
+			case '(':
+				if (!expectNode) {
+					throw error("Unexpected '('");
+				}
+				int inner = newNode(parentOf(open, depth));
+				if (depth == open.length) {
+					open = Arrays.copyOf(open, depth * 2);
+				}
+				open[depth++] = inner;
+				current = -1;
+				break;
+			case ',':
+				if (expectNode) {
+					newNode(parentOf(open, depth));
+				}
+				if (depth == 0) {
+					throw error("Unexpected ','");
+				}
+				expectNode = true;
+				current = -1;
+				break;
+			case ')':
+				if (expectNode) {
+					newNode(parentOf(open, depth));
+				}
+				if (depth == 0) {
+					throw error("Unexpected ')'");
+				}
+				current = open[--depth];
+				expectNode = false;
+				break;
+			case ':':
+				if (expectNode) {
+					current = newNode(parentOf(open, depth));
+					expectNode = false;
+				}
+				lengths[current] = readLength();
+				break;
+			case '[':
+				skipComment();
+				break;
+			case ']':
+				throw error("Unexpected ']'");
+			case ';':
+			case -1:
+				if (c == -1 && names.isEmpty()) {
+					throw error("No tree");
+				}
+				if (expectNode) {
+					newNode(parentOf(open, depth));
+				}
+				if (depth > 0) {
+					throw error("Missing ')'");
+				}
+				done = true;
+				break;
+			default:
+				if (Character.isWhitespace(c)) {
+					break;
+				}
+				if (expectNode) {
+					current = newNode(parentOf(open, depth));
+					expectNode = false;
+				}
+				if (current < 0 || !names.get(current).isEmpty()) {
+					throw error("Unexpected label");
+				}
+				names.set(current, readLabel(c));
+				break;
+			}
+		}
+		int n = names.size();
+		return new PhyloTree(names.toArray(new String[n]), Arrays.copyOf(
+				lengths, n), Arrays.copyOf(parents, n));
+	}
+
+	/**
+	 * @param open
+	 *            The stack of open inner nodes.
+	 * @param depth
+	 *            The amount of open inner nodes.
+	 * @return The innermost open node, or -1 if there is none.
+	 */
+	private static int parentOf(final int[] open, final int depth) {
+		if (depth == 0) {
+			return -1;
+		}
+		return open[depth - 1];
+	}
+
+	/**
+	 * Adds a node without name and length.
+	 *
+	 * @param parent
+	 *            The parent of the node, or -1 for the root.
+	 * @return The new node.
+	 */
+	private int newNode(final int parent) {
+		int v = names.size();
+		if (parent < 0 && v > 0) {
+			throw error("More than one tree");
+		}
+		if (v == parents.length) {
+			parents = Arrays.copyOf(parents, v * 2);
+			lengths = Arrays.copyOf(lengths, v * 2);
+		}
+		names.add("");
+		parents[v] = parent;
+		return v;
+	}
+
+	/**
+	 * Reads a label.
+	 *
+	 * @param first
+	 *            The first character of the label.
+	 * @return The label.
+	 * @throws IOException
+	 *             When the input can not be read.
+	 */
+	private String readLabel(final int first) throws IOException {
+		token.setLength(0);
+		if (first == '\'') {
+			while (true) {
+				int c = next();
+				if (c == -1) {
+					throw error("Unclosed quote");
+				} else if (c == '\'') {
+					if (peek() != '\'') {
+						break;
+					}
+					next();
+				}
+				token.append((char) c);
+			}
+		} else {
+			token.append((char) first);
+			readUnquoted();
+		}
+		return token.toString();
+	}
+
+	/**
+	 * Reads a branch length.
+	 *
+	 * @return The length.
+	 * @throws IOException
+	 *             When the input can not be read.
+	 */
+	private double readLength() throws IOException {
+		int c = peek();
+		while (c != -1 && Character.isWhitespace(c)) {
+			next();
+			c = peek();
+		}
+		token.setLength(0);
+		readUnquoted();
+		try {
+			return Double.parseDouble(token.toString());
+		} catch (NumberFormatException e) {
+			throw error("Invalid branch length '" + token + "'");
+		}
+	}
+
+	/**
+	 * Appends characters to the token up to a delimiter or whitespace.
+	 *
+	 * @throws IOException
+	 *             When the input can not be read.
+	 */
+	private void readUnquoted() throws IOException {
+		int c = peek();
+		while (c != -1 && DELIMITERS.indexOf(c) < 0
+				&& !Character.isWhitespace(c)) {
+			token.append((char) next());
+			c = peek();
+		}
+	}
+
+	/**
+	 * Skips a comment, of which the opening bracket has been read.
+	 *
+	 * @throws IOException
+	 *             When the input can not be read.
+	 */
+	private void skipComment() throws IOException {
+		int nesting = 1;
+		while (nesting > 0) {
+			int c = next();
+			if (c == -1) {
+				throw error("Unclosed comment");
+			} else if (c == '[') {
+				nesting++;
+			} else if (c == ']') {
+				nesting--;
+			}
+		}
+	}
+
+	/**
+	 * @return The next character without consuming it, or -1 at the end.
+	 * @throws IOException
+	 *             When the input can not be read.
+	 */
+	private int peek() throws IOException {
+		if (pos == limit && !fill()) {
+			return -1;
+		}
+		return buffer[pos];
+	}
+
+	/**
+	 * @return The next character, or -1 at the end.
+	 * @throws IOException
+	 *             When the input can not be read.
+	 */
+	private int next() throws IOException {
+		if (pos == limit && !fill()) {
+			return -1;
+		}
+		return buffer[pos++];
+	}
+
+	/**
+	 * Reads the next part of the input into the buffer.
+	 *
+	 * @return False iff the end of the input was reached.
+	 * @throws IOException
+	 *             When the input can not be read.
+	 */
+	private boolean fill() throws IOException {
+		offset += limit;
+		pos = 0;
+		limit = 0;
+		int read = in.read(buffer);
+		while (read == 0) {
+			read = in.read(buffer);
+		}
+		if (read < 0) {
+			return false;
+		}
+		limit = read;
+		return true;
+	}
+
+	/**
+	 * @param message
+	 *            What is wrong with the input.
+	 * @return An exception pointing at the current position of the input.
+	 */
+	private InvalidFileFormatException error(final String message) {
+		return new InvalidFileFormatException(message
+				+ " in Newick tree at character " + (offset + pos));
+	}
+}
@@ -0,0 +1,448 @@
+package nl.tudelft.ti2806.pl1.phylotree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A phylogenetic tree stored in arrays. The nodes are numbered in preorder,
+ * so the root is node 0, every node comes before its descendants and the
+ * subtree of a node is the range of its number up to its number plus its
+ * subtree size. The children of a node are stored as a range of one shared
+ * array.
+ *
+ * Besides the tree the model keeps the state shown by the tree view: which
+ * leaves are chosen, which nodes are collapsed, and the grid placement of the
+ * nodes that are not hidden in a collapsed node. Every visible leaf and
+ * collapsed node takes one row of the grid, an inner node is placed on the
+ * row of its first child and every node is placed in the column of its
+ * depth.
+ */
+public final class PhyloTree {
+
+	/** The name of every node. */
+	private final String[] names;
+
+	/** The distance of every node to its parent. */
+	private final double[] lengths;
+
+	/** The parent of every node, -1 for the root. */
+	private final int[] parents;
+
+	/** The start of the children of every node in {@link #children}. */
+	private final int[] childStart;
+
+	/** The children of all nodes, grouped by parent. */
+	private final int[] children;
+
+	/** The amount of nodes in the subtree of every node. */
+	private final int[] subtreeSize;
+
+	/** The amount of leaves in the subtree of every node. */
+	private final int[] leafCount;
+
+	/** The amount of chosen leaves in the subtree of every node. */
+	private final int[] chosenCount;
+
+	/** Whether every node collapses its descendants. */
+	private final boolean[] collapsed;
+
+	/** The column of every node, -1 for hidden nodes. */
+	private final int[] column;
+
+	/** The row of every node, -1 for hidden nodes. */
+	private final int[] row;
+
+	/** The last row used by the visible subtree of every node. */
+	private final int[] bottom;
+
+	/** The visible nodes, in preorder, so with ascending rows. */
+	private int[] visible;
+
+	/** The amount of rows of the placement. */
+	private int rows;
+
+	/** The amount of columns of the placement. */
+	private int columns;
+
+	/**
+	 * Creates a tree from its nodes in preorder.
+	 *
+	 * @param namesIn
+	 *            The name of every node.
+	 * @param lengthsIn
+	 *            The distance of every node to its parent.
+	 * @param parentsIn
+	 *            The parent of every node, which comes before the node. The
+	 *            root is node 0 and has parent -1.
+	 */
+	PhyloTree(final String[] namesIn, final double[] lengthsIn,
+			final int[] parentsIn) {
+		int n = parentsIn.length;
+		if (n == 0 || parentsIn[0] != -1) {
+			throw new IllegalArgumentException("The tree has no root.");
+		}
+		this.names = namesIn;
+		this.lengths = lengthsIn;
+		this.parents = parentsIn;
+		this.childStart = new int[n + 1];
+		for (int v = 1; v < n; v++) {
+			if (parents[v] < 0 || parents[v] >= v) {
+				throw new IllegalArgumentException("Node " + v
+						+ " does not come after its parent.");
+			}
+			childStart[parents[v] + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			childStart[v + 1] += childStart[v];
+		}
+		this.children = new int[Math.max(0, n - 1)];
+		int[] fill = Arrays.copyOf(childStart, n);
+		for (int v = 1; v < n; v++) {
+			children[fill[parents[v]]++] = v;
+		}
+		this.subtreeSize = new int[n];
+		this.leafCount = new int[n];
+		for (int v = n - 1; v >= 0; v--) {
+			subtreeSize[v]++;
+			if (isLeaf(v)) {
+				leafCount[v]++;
+			}
+			if (v > 0) {
+				subtreeSize[parents[v]] += subtreeSize[v];
+				leafCount[parents[v]] += leafCount[v];
+			}
+		}
+		this.chosenCount = new int[n];
+		this.collapsed = new boolean[n];
+		this.column = new int[n];
+		this.row = new int[n];
+		this.bottom = new int[n];
+		place();
+	}
+
+	/**
+	 * Converts the tree into a binary tree. A node with more than two children
+	 * gets its first child as left child and an unnamed inner node with
+	 * length 0, holding the other children in the same way, as right child. A
+	 * node with one child is merged with it, adding up their lengths.
+	 *
+	 * @return The root of the binary tree.
+	 */
+	public BinaryTree toBinaryTree() {
+		BinaryTree[] built = new BinaryTree[size()];
+		for (int v = size() - 1; v >= 0; v--) {
+			int k = getChildCount(v);
+			if (k == 0) {
+				built[v] = new Leaf(names[v], lengths[v]);
+			} else if (k == 1) {
+				BinaryTree child = built[getChild(v, 0)];
+				double length = lengths[v] + child.getPathLength();
+				if (child.isLeaf()) {
+					built[v] = new Leaf(child.getID(), length);
+				} else {
+					String name = names[v].isEmpty() ? child.getID()
+							: names[v];
+					built[v] = inner(name, length, child.getLeft(),
+							child.getRight());
+				}
+			} else {
+				BinaryTree right = built[getChild(v, k - 1)];
+				for (int i = k - 2; i > 0; i--) {
+					right = inner("", 0, built[getChild(v, i)], right);
+				}
+				built[v] = inner(names[v], lengths[v], built[getChild(v, 0)],
+						right);
+			}
+		}
+		return built[0];
+	}
+
+	/**
+	 * @param name
+	 *            The name of the node.
+	 * @param length
+	 *            The distance to the parent.
+	 * @param left
+	 *            The left child.
+	 * @param right
+	 *            The right child.
+	 * @return An inner node, set as the ancestor of its children.
+	 */
+	private static BinaryTree inner(final String name, final double length,
+			final BinaryTree left, final BinaryTree right) {
+		BinaryTree ret = new InnerNode(name, length, left, right);
+		left.setAncestor(ret);
+		right.setAncestor(ret);
+		return ret;
+	}
+
+	/**
+	 * @return The amount of nodes.
+	 */
+	public int size() {
+		return parents.length;
+	}
+
+	/**
+	 * @param v
+	 *            A node.
+	 * @return The name of the node.
+	 */
+	public String getName(final int v) {
+		return names[v];
+	}
+
+	/**
+	 * @param v
+	 *            A node.
+	 * @return The distance of the node to its parent.
+	 */
+	public double getLength(final int v) {
+		return lengths[v];
+	}
+
+	/**
+	 * @param v
+	 *            A node.
+	 * @return The parent of the node, -1 for the root.
+	 */
+	public int getParent(final int v) {
+		return parents[v];
+	}
+
+	/**
+	 * @param v
+	 *            A node.
+	 * @return The amount of children of the node.
+	 */
+	public int getChildCount(final int v) {
+		return childStart[v + 1] - childStart[v];
+	}
+
+	/**
+	 * @param v
+	 *            A node.
+	 * @param i
+	 *            The index of a child.
+	 * @return The i-th child of the node.
+	 */
+	public int getChild(final int v, final int i) {
+		return children[childStart[v] + i];
+	}
+
+	/**
+	 * @param v
+	 *            A node.
+	 * @return The amount of nodes in the subtree of the node, the node
+	 *         included. The subtree consists of the nodes from v up to v plus
+	 *         this size.
+	 */
+	public int getSubtreeSize(final int v) {
+		return subtreeSize[v];
+	}
+
+	/**
+	 * @param v
+	 *            A node.
+	 * @return True iff the node has no children.
+	 */
+	public boolean isLeaf(final int v) {
+		return childStart[v + 1] == childStart[v];
+	}
+
+	/**
+	 * @param v
+	 *            A node.
+	 * @return True iff the subtree of the node has leaves and all of them are
+	 *         chosen.
+	 */
+	public boolean isChosen(final int v) {
+		return chosenCount[v] > 0 && chosenCount[v] == leafCount[v];
+	}
+
+	/**
+	 * Chooses or unchooses all leaves in the subtree of a node.
+	 *
+	 * @param v
+	 *            A node.
+	 * @param chosen
+	 *            Whether the leaves are chosen.
+	 */
+	public void setChosen(final int v, final boolean chosen) {
+		int end = v + subtreeSize[v];
+		for (int w = end - 1; w >= v; w--) {
+			if (isLeaf(w)) {
+				chosenCount[w] = chosen ? 1 : 0;
+			} else {
+				chosenCount[w] = 0;
+				for (int c = childStart[w]; c < childStart[w + 1]; c++) {
+					chosenCount[w] += chosenCount[children[c]];
+				}
+			}
+		}
+		for (int w = parents[v]; w >= 0; w = parents[w]) {
+			int count = 0;
+			for (int c = childStart[w]; c < childStart[w + 1]; c++) {
+				count += chosenCount[children[c]];
+			}
+			if (count == chosenCount[w]) {
+				break;
+			}
+			chosenCount[w] = count;
+		}
+	}
+
+	/**
+	 * @return The names of the chosen leaves, in preorder.
+	 */
+	public Collection<String> getChosen() {
+		List<String> ret = new ArrayList<String>(chosenCount[0]);
+		for (int v = 0; v < size(); v++) {
+			if (isLeaf(v) && chosenCount[v] > 0) {
+				ret.add(names[v]);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * @param v
+	 *            A node.
+	 * @return True iff the node collapses its descendants.
+	 */
+	public boolean isCollapsed(final int v) {
+		return collapsed[v];
+	}
+
+	/**
+	 * Collapses or expands a node and places the tree again.
+	 *
+	 * @param v
+	 *            A node.
+	 * @param b
+	 *            Whether the node collapses its descendants.
+	 */
+	public void setCollapsed(final int v, final boolean b) {
+		if (collapsed[v] != b) {
+			collapsed[v] = b;
+			place();
+		}
+	}
+
+	/**
+	 * Places the visible nodes on the grid.
+	 */
+	private void place() {
+		int n = size();
+		int[] order = new int[n];
+		int count = 0;
+		int nextRow = 0;
+		int maxColumn = 0;
+		for (int v = 0; v < n; v++) {
+			int p = parents[v];
+			if (p >= 0 && (column[p] < 0 || collapsed[p])) {
+				column[v] = -1;
+				row[v] = -1;
+				bottom[v] = -1;
+				continue;
+			}
+			column[v] = p < 0 ? 0 : column[p] + 1;
+			row[v] = nextRow;
+			bottom[v] = nextRow;
+			if (isLeaf(v) || collapsed[v]) {
+				nextRow++;
+			}
+			maxColumn = Math.max(maxColumn, column[v]);
+			order[count++] = v;
+		}
+		for (int i = count - 1; i > 0; i--) {
+			int v = order[i];
+			bottom[parents[v]] = Math.max(bottom[parents[v]], bottom[v]);
+		}
+		this.visible = Arrays.copyOf(order, count);
+		this.rows = nextRow;
+		this.columns = maxColumn + 1;
+	}
+
+	/**
+	 * @return The amount of rows the visible nodes take.
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * @return The amount of columns the visible nodes take.
+	 */
+	public int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * @param v
+	 *            A node.
+	 * @return True iff the node is not hidden in a collapsed ancestor.
+	 */
+	public boolean isVisible(final int v) {
+		return column[v] >= 0;
+	}
+
+	/**
+	 * @param v
+	 *            A visible node.
+	 * @return The column of the node.
+	 */
+	public int getColumn(final int v) {
+		return column[v];
+	}
+
+	/**
+	 * @param v
+	 *            A visible node.
+	 * @return The row of the node.
+	 */
+	public int getRow(final int v) {
+		return row[v];
+	}
+
+	/**
+	 * @param v
+	 *            A visible node.
+	 * @return The last row used by the visible subtree of the node.
+	 */
+	public int getBottom(final int v) {
+		return bottom[v];
+	}
+
+	/**
+	 * Finds the visible node placed in a cell of the grid. The visible nodes
+	 * are sorted by row, so only the nodes on the row of the cell are
+	 * checked.
+	 *
+	 * @param col
+	 *            The column of the cell.
+	 * @param r
+	 *            The row of the cell.
+	 * @return The node in the cell, or -1 if the cell is empty.
+	 */
+	public int nodeAt(final int col, final int r) {
+		int lo = 0;
+		int hi = visible.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (row[visible[mid]] < r) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		for (int i = lo; i < visible.length && row[visible[i]] == r; i++) {
+			if (column[visible[i]] == col) {
+				return visible[i];
+			}
+		}
+		return -1;
+	}
+}
@@ -2,6 +2,7 @@ package nl.tudelft.ti2806.pl1.reader;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 
 import nl.tudelft.ti2806.pl1.exceptions.InvalidFileFormatException;
@@ -16,6 +17,18 @@ import nl.tudelft.ti2806.pl1.graph.DNode;
  */
 public final class EdgeReader {
 
+	/** The size of the read buffer of the streaming reader. */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** The message thrown when a line does not contain exactly two ids. */
+	private static final String COUNT_MESSAGE = "There should be 2 node id's seperated by spaces in the edge file";
+
+	/** The message thrown when an id is not an integer. */
+	private static final String INTEGER_MESSAGE = "The id's should be integers";
+
+	/** The message thrown when an id does not belong to a node. */
+	private static final String EXIST_MESSAGE = "The id's shoould exist";
+
 	/**
 	 * Avoid the instantiation of the edge reader.
 	 */
@@ -40,8 +53,7 @@ public final class EdgeReader {
 		while ((line = reader.readLine()) != null) {
 			String[] nodes = line.split("\\s");
 			if (nodes.length != 2) {
-				throw new InvalidFileFormatException(
-						"There should be 2 node id's seperated by spaces in the edge file");
+				throw new InvalidFileFormatException(COUNT_MESSAGE);
 			}
 			int start;
 			int end;
@@ -49,17 +61,213 @@ public final class EdgeReader {
 				start = Integer.parseInt(nodes[0]);
 				end = Integer.parseInt(nodes[1]);
 			} catch (Exception e) {
-				throw new InvalidFileFormatException(
-						"The id's should be integers");
+				throw new InvalidFileFormatException(INTEGER_MESSAGE);
 			}
 			DNode src = graph.getDNode(start);
 			DNode tar = graph.getDNode(end);
 			if (src == null || tar == null) {
-				throw new InvalidFileFormatException("The id's shoould exist");
+				throw new InvalidFileFormatException(EXIST_MESSAGE);
 			}
 			DEdge edge = new DEdge(src, tar);
 			edges.add(edge);
 		}
 		return edges;
 	}
+
+	/**
+	 * Streams the edges straight into the graph. The bytes are scanned into
+	 * primitive ids without creating strings per line, the nodes are resolved
+	 * through a dense array indexed by id and every edge is added to the graph
+	 * as soon as it is read, so no intermediate list is built.
+	 * 
+	 * @param in
+	 *            The stream from which the edge information will be read.
+	 * @param graph
+	 *            The graph containing the nodes, to which the edges are
+	 *            added.
+	 * @return The amount of edges read.
+	 * @throws IOException
+	 *             When the stream can't be read or is not a valid edge file.
+	 */
+	public static int addEdges(final InputStream in, final DGraph graph)
+			throws IOException {
+		NodeIndex index = new NodeIndex(graph);
+		byte[] buf = new byte[BUFFER_SIZE];
+		int count = 0;
+		int fields = 0;
+		int[] ids = new int[2];
+		long value = 0;
+		boolean inToken = false;
+		boolean negative = false;
+		boolean noDigits = false;
+		boolean invalid = false;
+		int read;
+		while ((read = in.read(buf)) != -1) {
+			for (int i = 0; i < read; i++) {
+				byte b = buf[i];
+				if (b >= '0' && b <= '9') {
+					if (!inToken) {
+						inToken = true;
+						fields++;
+					}
+					noDigits = false;
+					value = value * 10 + (b - '0');
+					if (value > Integer.MAX_VALUE + 1L) {
+						invalid = true;
+					}
+				} else if (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+					if (inToken) {
+						invalid |= noDigits
+								|| store(ids, fields, value, negative);
+						inToken = false;
+						negative = false;
+						value = 0;
+					}
+					if (b == '\n') {
+						if (fields > 0) {
+							addEdge(graph, index, ids, fields, invalid);
+							count++;
+						}
+						fields = 0;
+						invalid = false;
+					}
+				} else {
+					if (!inToken) {
+						inToken = true;
+						fields++;
+						negative = b == '-';
+						noDigits = true;
+						invalid |= !negative;
+					} else {
+						invalid = true;
+					}
+				}
+			}
+		}
+		if (inToken) {
+			invalid |= noDigits || store(ids, fields, value, negative);
+		}
+		if (fields > 0) {
+			addEdge(graph, index, ids, fields, invalid);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Stores a parsed id.
+	 * 
+	 * @param ids
+	 *            The ids of the current line.
+	 * @param fields
+	 *            The amount of fields of the current line so far.
+	 * @param value
+	 *            The absolute value of the id.
+	 * @param negative
+	 *            Whether the id has a minus sign.
+	 * @return Whether the id is invalid.
+	 */
+	private static boolean store(final int[] ids, final int fields,
+			final long value, final boolean negative) {
+		long signed = negative ? -value : value;
+		if (fields <= ids.length) {
+			ids[fields - 1] = (int) signed;
+		}
+		return signed > Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Validates a parsed line and adds its edge to the graph.
+	 * 
+	 * @param graph
+	 *            The graph.
+	 * @param index
+	 *            The node index of the graph.
+	 * @param ids
+	 *            The parsed start and end id.
+	 * @param fields
+	 *            The amount of fields on the line.
+	 * @param invalid
+	 *            Whether one of the fields was not an integer.
+	 * @throws InvalidFileFormatException
+	 *             When the line is not a valid edge.
+	 */
+	private static void addEdge(final DGraph graph, final NodeIndex index,
+			final int[] ids, final int fields, final boolean invalid)
+			throws InvalidFileFormatException {
+		if (fields != 2) {
+			throw new InvalidFileFormatException(COUNT_MESSAGE);
+		}
+		if (invalid) {
+			throw new InvalidFileFormatException(INTEGER_MESSAGE);
+		}
+		DNode src = index.get(ids[0]);
+		DNode tar = index.get(ids[1]);
+		if (src == null || tar == null) {
+			throw new InvalidFileFormatException(EXIST_MESSAGE);
+		}
+		graph.addDEdge(new DEdge(src, tar));
+	}
+
+	/**
+	 * Looks up the nodes of a graph through an array indexed by id. Node ids
+	 * are consecutive in the data files, so this avoids boxing and hashing
+	 * every id. When the ids turn out to be sparse the graph itself is used.
+	 */
+	static final class NodeIndex {
+
+		/** The maximum amount of empty slots per node in the array. */
+		private static final int MAX_SPARSENESS = 4;
+
+		/** The graph. */
+		private final DGraph graph;
+
+		/** The nodes, indexed by their id minus {@link #min}. */
+		private final DNode[] nodes;
+
+		/** The smallest id in the graph. */
+		private final int min;
+
+		/**
+		 * @param graphIn
+		 *            The graph of which the nodes are indexed.
+		 */
+		NodeIndex(final DGraph graphIn) {
+			this.graph = graphIn;
+			int lo = Integer.MAX_VALUE;
+			int hi = Integer.MIN_VALUE;
+			for (int id : graph.getNodes().keySet()) {
+				lo = Math.min(lo, id);
+				hi = Math.max(hi, id);
+			}
+			long range = (long) hi - lo + 1;
+			if (range <= 0
+					|| range > (long) graph.getNodeCount() * MAX_SPARSENESS) {
+				this.nodes = null;
+				this.min = 0;
+				return;
+			}
+			this.nodes = new DNode[(int) range];
+			this.min = lo;
+			for (DNode n : graph.getNodes().values()) {
+				nodes[n.getId() - min] = n;
+			}
+		}
+
+		/**
+		 * @param id
+		 *            A node id.
+		 * @return The node with the id, or null if there is none.
+		 */
+		DNode get(final int id) {
+			if (nodes == null) {
+				return graph.getDNode(id);
+			}
+			long pos = (long) id - min;
+			if (pos < 0 || pos >= nodes.length) {
+				return null;
+			}
+			return nodes[(int) pos];
+		}
+	}
 }
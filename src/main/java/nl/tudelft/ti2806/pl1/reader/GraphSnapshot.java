@@ -0,0 +1,547 @@
+package nl.tudelft.ti2806.pl1.reader;
+
+import java.awt.Dimension;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+import nl.tudelft.ti2806.pl1.geneAnnotation.ReferenceGeneStorage;
+import nl.tudelft.ti2806.pl1.graph.DEdge;
+import nl.tudelft.ti2806.pl1.graph.DGraph;
+import nl.tudelft.ti2806.pl1.graph.DNode;
+import nl.tudelft.ti2806.pl1.graph.GenomeDictionary;
+import nl.tudelft.ti2806.pl1.graph.PackedSequence;
+import nl.tudelft.ti2806.pl1.mutation.ComplexMutation;
+import nl.tudelft.ti2806.pl1.mutation.DeletionMutation;
+import nl.tudelft.ti2806.pl1.mutation.InsertionMutation;
+import nl.tudelft.ti2806.pl1.mutation.Mutation;
+import nl.tudelft.ti2806.pl1.mutation.PointMutation;
+
+/**
+ * A versioned binary snapshot (<code>.dnag</code> file) of an imported and
+ * analyzed data graph. It stores the nodes with their packed content, the
+ * edges, the genome sources, the layout coordinates and the detected
+ * mutations, so reopening a dataset only has to map the snapshot instead of
+ * parsing, placing and analyzing the text files again.
+ */
+public final class GraphSnapshot {
+
+	/** The file extension of a snapshot. */
+	public static final String EXTENSION = ".dnag";
+
+	/** The directory the snapshots are kept in. */
+	static final File CACHE_DIR = new File(new File(
+			System.getProperty("user.home"), ".dnapp"), "snapshots");
+
+	/** The magic number every snapshot starts with ("DNAG"). */
+	private static final int MAGIC = 0x444E4147;
+
+	/** The version of the format, increase on every incompatible change. */
+	private static final int VERSION = 1;
+
+	/** The start node id written for a graph without start node. */
+	private static final int NO_START = Integer.MIN_VALUE;
+
+	/** The least amount of bytes a node takes in a snapshot. */
+	private static final int NODE_BYTES = 9 * Integer.SIZE / Byte.SIZE;
+
+	/** The least amount of bytes a mutation takes in a snapshot. */
+	private static final int MUTATION_BYTES = 4 * Integer.SIZE / Byte.SIZE;
+
+	/** The charset used to store genome names. */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/** The data graph in the snapshot. */
+	private final DGraph graph;
+
+	/** The size of the layout of the data graph. */
+	private final Dimension size;
+
+	/**
+	 * @param graphIn
+	 *            The data graph in the snapshot.
+	 * @param sizeIn
+	 *            The size of the layout of the data graph.
+	 */
+	private GraphSnapshot(final DGraph graphIn, final Dimension sizeIn) {
+		this.graph = graphIn;
+		this.size = sizeIn;
+	}
+
+	/**
+	 * @return the data graph.
+	 */
+	public DGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return the size of the layout, as returned by
+	 *         {@link NodePlacer#place(DGraph)}.
+	 */
+	public Dimension getSize() {
+		return size;
+	}
+
+	/**
+	 * Snapshots are kept in the home directory of the user, so datasets in
+	 * read-only directories can be cached as well.
+	 *
+	 * @param nodes
+	 *            The node file of a dataset.
+	 * @return The location of the snapshot belonging to the dataset.
+	 */
+	public static File snapshotFile(final File nodes) {
+		File abs = nodes.getAbsoluteFile();
+		return new File(CACHE_DIR, abs.getName() + "-"
+				+ Integer.toHexString(abs.getPath().hashCode()) + EXTENSION);
+	}
+
+	/**
+	 * Writes a snapshot of a placed and analyzed data graph. The snapshot is
+	 * first written to a temporary file, so a failed write never leaves a
+	 * broken snapshot behind.
+	 *
+	 * @param snapshot
+	 *            The file to write the snapshot to.
+	 * @param nodes
+	 *            The node file the graph was read from.
+	 * @param edges
+	 *            The edge file the graph was read from.
+	 * @param graph
+	 *            The data graph.
+	 * @param size
+	 *            The size of the layout of the graph.
+	 * @throws IOException
+	 *             When the snapshot can't be written.
+	 */
+	public static void save(final File snapshot, final File nodes,
+			final File edges, final DGraph graph, final Dimension size)
+			throws IOException {
+		File dir = snapshot.getAbsoluteFile().getParentFile();
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Could not create directory " + dir);
+		}
+		File tmp = new File(snapshot.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(tmp)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(nodes.length());
+			out.writeLong(nodes.lastModified());
+			out.writeLong(edges.length());
+			out.writeLong(edges.lastModified());
+			out.writeInt(size.width);
+			out.writeInt(size.height);
+			writeNodes(out, graph);
+			writeEdges(out, graph.getEdges());
+			writeMutations(out, graph);
+		} finally {
+			out.close();
+		}
+		if (snapshot.exists() && !snapshot.delete() || !tmp.renameTo(snapshot)) {
+			tmp.delete();
+			throw new IOException("Could not write snapshot "
+					+ snapshot.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * Writes the genome dictionary, the start node and all nodes.
+	 *
+	 * @param out
+	 *            The output.
+	 * @param graph
+	 *            The data graph.
+	 * @throws IOException
+	 *             When writing fails.
+	 */
+	private static void writeNodes(final DataOutputStream out,
+			final DGraph graph) throws IOException {
+		List<String> names = graph.getGenomes().getNames();
+		out.writeInt(names.size());
+		for (String name : names) {
+			writeString(out, name);
+		}
+		writeString(out, graph.getRefGenomeName());
+		if (graph.getStart() == null) {
+			out.writeInt(NO_START);
+		} else {
+			out.writeInt(graph.getStart().getId());
+		}
+		out.writeInt(graph.getNodeCount());
+		for (DNode n : graph.getNodes().values()) {
+			out.writeInt(n.getId());
+			out.writeInt(n.getStart());
+			out.writeInt(n.getEnd());
+			out.writeInt(n.getX());
+			out.writeInt(n.getY());
+			out.writeInt(n.getDepth());
+			long[] bits = n.getSourceBits();
+			out.writeInt(GenomeDictionary.count(bits));
+			for (int w = 0; w < bits.length; w++) {
+				for (long word = bits[w]; word != 0; word &= word - 1) {
+					out.writeInt(w * Long.SIZE
+							+ Long.numberOfTrailingZeros(word));
+				}
+			}
+			n.getSequence().write(out);
+		}
+	}
+
+	/**
+	 * @param out
+	 *            The output.
+	 * @param edges
+	 *            The edges to write.
+	 * @throws IOException
+	 *             When writing fails.
+	 */
+	private static void writeEdges(final DataOutputStream out,
+			final Collection<DEdge> edges) throws IOException {
+		out.writeInt(edges.size());
+		for (DEdge e : edges) {
+			out.writeInt(e.getStartNode().getId());
+			out.writeInt(e.getEndNode().getId());
+		}
+	}
+
+	/**
+	 * Writes the four kinds of detected mutations.
+	 *
+	 * @param out
+	 *            The output.
+	 * @param graph
+	 *            The data graph.
+	 * @throws IOException
+	 *             When writing fails.
+	 */
+	private static void writeMutations(final DataOutputStream out,
+			final DGraph graph) throws IOException {
+		Collection<PointMutation> points = nonNull(graph.getPointMutations());
+		out.writeInt(points.size());
+		for (PointMutation m : points) {
+			writeMutation(out, m);
+			writeIds(out, m.getNodes());
+		}
+		Collection<DeletionMutation> dels = nonNull(graph.getDelMutations());
+		out.writeInt(dels.size());
+		for (DeletionMutation m : dels) {
+			writeMutation(out, m);
+		}
+		Collection<InsertionMutation> ins = nonNull(graph.getInsMutations());
+		out.writeInt(ins.size());
+		for (InsertionMutation m : ins) {
+			writeMutation(out, m);
+			out.writeInt(m.getInNode());
+		}
+		Collection<ComplexMutation> comps = nonNull(graph
+				.getComplexMutations());
+		out.writeInt(comps.size());
+		for (ComplexMutation m : comps) {
+			writeMutation(out, m);
+			writeIds(out, m.getInNodes());
+		}
+	}
+
+	/**
+	 * @param out
+	 *            The output.
+	 * @param m
+	 *            The mutation of which the common fields are written.
+	 * @throws IOException
+	 *             When writing fails.
+	 */
+	private static void writeMutation(final DataOutputStream out,
+			final Mutation m) throws IOException {
+		out.writeInt(m.getPreNode());
+		out.writeInt(m.getPostNode());
+		out.writeInt(m.getStartPosition());
+		out.writeInt(m.getEndPosition());
+	}
+
+	/**
+	 * @param out
+	 *            The output.
+	 * @param ids
+	 *            The node ids to write.
+	 * @throws IOException
+	 *             When writing fails.
+	 */
+	private static void writeIds(final DataOutputStream out,
+			final Collection<Integer> ids) throws IOException {
+		out.writeInt(ids.size());
+		for (int id : ids) {
+			out.writeInt(id);
+		}
+	}
+
+	/**
+	 * @param out
+	 *            The output.
+	 * @param s
+	 *            The string to write.
+	 * @throws IOException
+	 *             When writing fails.
+	 */
+	private static void writeString(final DataOutputStream out, final String s)
+			throws IOException {
+		byte[] bytes = s.getBytes(UTF8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * @param col
+	 *            A collection which may be null.
+	 * @param <A>
+	 *            The element type.
+	 * @return The collection, or an empty one if it was null.
+	 */
+	private static <A> Collection<A> nonNull(final Collection<A> col) {
+		if (col == null) {
+			return new ArrayList<A>(0);
+		}
+		return col;
+	}
+
+	/**
+	 * Loads the snapshot of a dataset by memory mapping it. A snapshot which
+	 * can not be read or is damaged is deleted, so it is written again after
+	 * the dataset has been imported from its text files.
+	 *
+	 * @param snapshot
+	 *            The snapshot file.
+	 * @param nodes
+	 *            The node file of the dataset.
+	 * @param edges
+	 *            The edge file of the dataset.
+	 * @return The snapshot, or null if there is no usable snapshot because it
+	 *         does not exist, is of another version, is out of date with the
+	 *         dataset or is damaged.
+	 */
+	public static GraphSnapshot load(final File snapshot, final File nodes,
+			final File edges) {
+		if (!snapshot.isFile() || snapshot.length() > Integer.MAX_VALUE) {
+			return null;
+		}
+		try {
+			RandomAccessFile file = new RandomAccessFile(snapshot, "r");
+			try {
+				return read(file.getChannel(), nodes, edges);
+			} finally {
+				file.close();
+			}
+		} catch (IOException e) {
+			snapshot.delete();
+		} catch (RuntimeException e) {
+			snapshot.delete();
+		}
+		return null;
+	}
+
+	/**
+	 * Reads a snapshot. Damaged contents make the reads run out of the buffer
+	 * or produce invalid counts and ids, which throw runtime exceptions.
+	 *
+	 * @param channel
+	 *            The channel of the snapshot file.
+	 * @param nodes
+	 *            The node file of the dataset.
+	 * @param edges
+	 *            The edge file of the dataset.
+	 * @return The snapshot, or null if it is of another version or out of
+	 *         date with the dataset.
+	 * @throws IOException
+	 *             When the snapshot can't be mapped.
+	 */
+	private static GraphSnapshot read(final FileChannel channel,
+			final File nodes, final File edges) throws IOException {
+		ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+				channel.size());
+		if (buf.remaining() < Integer.SIZE / Byte.SIZE * 2
+				|| buf.getInt() != MAGIC || buf.getInt() != VERSION
+				|| buf.getLong() != nodes.length()
+				|| buf.getLong() != nodes.lastModified()
+				|| buf.getLong() != edges.length()
+				|| buf.getLong() != edges.lastModified()) {
+			return null;
+		}
+		Dimension size = new Dimension(buf.getInt(), buf.getInt());
+		DGraph graph = new DGraph();
+		readNodes(buf, graph);
+		readEdges(buf, graph);
+		graph.freeze();
+		readMutations(buf, graph);
+		return new GraphSnapshot(graph, size);
+	}
+
+	/**
+	 * Reads the genome dictionary, the start node and all nodes.
+	 *
+	 * @param buf
+	 *            The mapped snapshot.
+	 * @param graph
+	 *            The graph to add the nodes to.
+	 */
+	private static void readNodes(final ByteBuffer buf, final DGraph graph) {
+		String[] names = new String[count(buf, Integer.SIZE / Byte.SIZE)];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = readString(buf);
+		}
+		String refName = readString(buf);
+		int startId = buf.getInt();
+		int count = count(buf, NODE_BYTES);
+		for (int i = 0; i < count; i++) {
+			int id = buf.getInt();
+			int start = buf.getInt();
+			int end = buf.getInt();
+			int x = buf.getInt();
+			int y = buf.getInt();
+			int depth = buf.getInt();
+			int sourceCount = count(buf, Integer.SIZE / Byte.SIZE);
+			HashSet<String> sources = new HashSet<String>(sourceCount * 2);
+			for (int s = 0; s < sourceCount; s++) {
+				sources.add(names[buf.getInt()]);
+			}
+			DNode node = new DNode(id, sources, start, end,
+					PackedSequence.read(buf));
+			node.setX(x);
+			node.setY(y);
+			node.setDepth(depth);
+			graph.addDNode(node);
+		}
+		graph.setStart(graph.getDNode(startId));
+		if (!refName.equals(graph.getRefGenomeName())
+				&& graph.getReferences().containsKey(refName)) {
+			graph.setRefGenomeName(refName);
+		}
+	}
+
+	/**
+	 * @param buf
+	 *            The mapped snapshot.
+	 * @param graph
+	 *            The graph to add the edges to.
+	 */
+	private static void readEdges(final ByteBuffer buf, final DGraph graph) {
+		int count = count(buf, 2 * Integer.SIZE / Byte.SIZE);
+		for (int i = 0; i < count; i++) {
+			DNode from = graph.getDNode(buf.getInt());
+			DNode to = graph.getDNode(buf.getInt());
+			graph.addDEdge(new DEdge(from, to));
+		}
+	}
+
+	/**
+	 * Reads the four kinds of mutations.
+	 *
+	 * @param buf
+	 *            The mapped snapshot.
+	 * @param graph
+	 *            The graph to add the mutations to.
+	 */
+	private static void readMutations(final ByteBuffer buf, final DGraph graph) {
+		ReferenceGeneStorage rgs = graph.getReferenceGeneStorage();
+		int count = count(buf, MUTATION_BYTES);
+		Collection<PointMutation> points = new HashSet<PointMutation>();
+		for (int i = 0; i < count; i++) {
+			int[] f = readMutation(buf);
+			points.add(new PointMutation(f[0], f[1], f[2], f[3], rgs,
+					new HashSet<Integer>(readIds(buf))));
+		}
+		graph.setPointMutations(points);
+		count = count(buf, MUTATION_BYTES);
+		Collection<DeletionMutation> dels = new ArrayList<DeletionMutation>(
+				count);
+		for (int i = 0; i < count; i++) {
+			int[] f = readMutation(buf);
+			dels.add(new DeletionMutation(f[0], f[1], f[2], f[3], rgs));
+		}
+		graph.setDeletionMutations(dels);
+		count = count(buf, MUTATION_BYTES);
+		Collection<InsertionMutation> ins = new ArrayList<InsertionMutation>(
+				count);
+		for (int i = 0; i < count; i++) {
+			int[] f = readMutation(buf);
+			ins.add(new InsertionMutation(f[0], f[1], f[2], f[3], rgs, buf
+					.getInt()));
+		}
+		graph.setInsertionMutations(ins);
+		count = count(buf, MUTATION_BYTES);
+		Collection<ComplexMutation> comps = new ArrayList<ComplexMutation>(
+				count);
+		for (int i = 0; i < count; i++) {
+			int[] f = readMutation(buf);
+			comps.add(new ComplexMutation(f[0], f[1], f[2], f[3], rgs,
+					new HashSet<Integer>(readIds(buf))));
+		}
+		graph.setComplexMutations(comps);
+	}
+
+	/**
+	 * @param buf
+	 *            The mapped snapshot.
+	 * @return The pre node, post node, start and end position of a mutation.
+	 */
+	private static int[] readMutation(final ByteBuffer buf) {
+		return new int[] { buf.getInt(), buf.getInt(), buf.getInt(),
+				buf.getInt() };
+	}
+
+	/**
+	 * @param buf
+	 *            The mapped snapshot.
+	 * @return A list of node ids.
+	 */
+	private static List<Integer> readIds(final ByteBuffer buf) {
+		int count = count(buf, Integer.SIZE / Byte.SIZE);
+		List<Integer> ids = new ArrayList<Integer>(count);
+		for (int i = 0; i < count; i++) {
+			ids.add(buf.getInt());
+		}
+		return ids;
+	}
+
+	/**
+	 * @param buf
+	 *            The mapped snapshot.
+	 * @return The string at the current position.
+	 */
+	private static String readString(final ByteBuffer buf) {
+		byte[] bytes = new byte[count(buf, 1)];
+		buf.get(bytes);
+		return new String(bytes, UTF8);
+	}
+
+	/**
+	 * Reads the amount of items which follow, checking it against the size
+	 * of the rest of the snapshot, so a damaged count is found before
+	 * anything is allocated for it.
+	 *
+	 * @param buf
+	 *            The mapped snapshot.
+	 * @param bytesEach
+	 *            The least amount of bytes every item takes.
+	 * @return The amount of items.
+	 */
+	private static int count(final ByteBuffer buf, final int bytesEach) {
+		int count = buf.getInt();
+		if (count < 0 || (long) count * bytesEach > buf.remaining()) {
+			throw new IllegalArgumentException("Invalid count " + count
+					+ " in snapshot at " + buf.position());
+		}
+		return count;
+	}
+}
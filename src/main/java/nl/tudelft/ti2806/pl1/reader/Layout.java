@@ -0,0 +1,96 @@
+package nl.tudelft.ti2806.pl1.reader;
+
+import java.awt.Dimension;
+import java.util.Arrays;
+
+/**
+ * The immutable result of placing a graph: the size of the layout and the
+ * amount of nodes on every depth level. Instances can be shared freely
+ * between threads.
+ */
+public final class Layout {
+
+	/** The empty layout. */
+	public static final Layout EMPTY = new Layout(0, 0, new int[0]);
+
+	/** Horizontal space over which the nodes are spread. */
+	private final int width;
+
+	/** Vertical space over which the nodes are spread. */
+	private final int height;
+
+	/** The amount of nodes at every depth. */
+	private final int[] nodesAtDepth;
+
+	/**
+	 * @param widthIn
+	 *            Horizontal space over which the nodes are spread.
+	 * @param heightIn
+	 *            Vertical space over which the nodes are spread.
+	 * @param nodesAtDepthIn
+	 *            The amount of nodes at every depth.
+	 */
+	Layout(final int widthIn, final int heightIn, final int[] nodesAtDepthIn) {
+		this.width = widthIn;
+		this.height = heightIn;
+		this.nodesAtDepth = nodesAtDepthIn.clone();
+	}
+
+	/**
+	 * @return the width
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the height
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return The size of the layout.
+	 */
+	public Dimension getSize() {
+		return new Dimension(width, height);
+	}
+
+	/**
+	 * @return The amount of depth levels.
+	 */
+	public int getDepthCount() {
+		return nodesAtDepth.length;
+	}
+
+	/**
+	 * @param depth
+	 *            A depth level.
+	 * @return The amount of nodes at the depth.
+	 */
+	public int getNodesAtDepth(final int depth) {
+		return nodesAtDepth[depth];
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (!(obj instanceof Layout)) {
+			return false;
+		}
+		Layout that = (Layout) obj;
+		return width == that.width && height == that.height
+				&& Arrays.equals(nodesAtDepth, that.nodesAtDepth);
+	}
+
+	@Override
+	public int hashCode() {
+		return (width * 31 + height) * 31 + Arrays.hashCode(nodesAtDepth);
+	}
+
+	@Override
+	public String toString() {
+		return "<Layout[" + width + "x" + height + ", "
+				+ nodesAtDepth.length + " levels]>";
+	}
+}
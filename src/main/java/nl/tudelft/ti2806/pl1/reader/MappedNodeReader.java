@@ -0,0 +1,566 @@
+package nl.tudelft.ti2806.pl1.reader;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import nl.tudelft.ti2806.pl1.exceptions.InvalidFileFormatException;
+import nl.tudelft.ti2806.pl1.graph.DNode;
+
+/**
+ * Reads the nodes from a node file by memory mapping it, splitting it into
+ * chunks at the node headers and parsing these chunks in parallel directly
+ * from the bytes. Produces the same nodes, in the same order, as
+ * {@link NodeReader}.
+ */
+public final class MappedNodeReader {
+
+	/** The character every node header starts with. */
+	private static final byte HEADER = '>';
+
+	/** The separator between the fields of a node header. */
+	private static final byte FIELD_SEPARATOR = '|';
+
+	/** The separator between the sources in a node header. */
+	private static final byte SOURCE_SEPARATOR = ',';
+
+	/** The amount of fields in a node header. */
+	private static final int AMOUNT_OF_INFORMATION = 4;
+
+	/** The minimal size of a chunk in bytes. */
+	private static final int MIN_CHUNK_SIZE = 1 << 20;
+
+	/** The maximal size of a chunk in bytes, limited by a single mapping. */
+	private static final int MAX_CHUNK_SIZE = 1 << 28;
+
+	/** The amount of chunks each thread gets on average. */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/** The size of the buffer used to find a chunk boundary. */
+	private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+	/** The number base of the integers in the header. */
+	private static final int RADIX = 10;
+
+	/** The charset the node header is encoded in. */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 */
+	private MappedNodeReader() {
+	}
+
+	/**
+	 * Reads all nodes from a node file using all available processors.
+	 *
+	 * @param nodesPath
+	 *            The path of the node file.
+	 * @return The nodes in the order in which they appear in the file.
+	 * @throws IOException
+	 *             When the file can't be read
+	 */
+	public static ArrayList<DNode> readNodes(final String nodesPath)
+			throws IOException {
+		return readNodes(nodesPath, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Reads all nodes from a node file.
+	 *
+	 * @param nodesPath
+	 *            The path of the node file.
+	 * @param threads
+	 *            The amount of threads to parse the chunks with.
+	 * @return The nodes in the order in which they appear in the file.
+	 * @throws IOException
+	 *             When the file can't be read
+	 */
+	public static ArrayList<DNode> readNodes(final String nodesPath,
+			final int threads) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(nodesPath, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			List<long[]> chunks = split(channel, Math.max(1, threads));
+			if (chunks.size() == 1) {
+				return parseChunk(channel, chunks.get(0));
+			}
+			return parseParallel(channel, chunks, Math.max(1, threads));
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Parses the chunks on a thread pool and concatenates the results in file
+	 * order.
+	 *
+	 * @param channel
+	 *            The channel of the node file.
+	 * @param chunks
+	 *            The chunks as {start, end} byte offsets.
+	 * @param threads
+	 *            The amount of threads to use.
+	 * @return The nodes of all the chunks.
+	 * @throws IOException
+	 *             When the file can't be read
+	 */
+	private static ArrayList<DNode> parseParallel(final FileChannel channel,
+			final List<long[]> chunks, final int threads) throws IOException {
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads,
+				chunks.size()));
+		try {
+			List<Future<ArrayList<DNode>>> parts = new ArrayList<Future<ArrayList<DNode>>>(
+					chunks.size());
+			for (final long[] chunk : chunks) {
+				parts.add(pool.submit(new Callable<ArrayList<DNode>>() {
+					@Override
+					public ArrayList<DNode> call() throws IOException {
+						return parseChunk(channel, chunk);
+					}
+				}));
+			}
+			ArrayList<DNode> nodes = new ArrayList<DNode>();
+			for (Future<ArrayList<DNode>> part : parts) {
+				nodes.addAll(part.get());
+			}
+			return nodes;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Reading the nodes was interrupted", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException(cause);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Splits the file into chunks which each start at a node header.
+	 *
+	 * @param channel
+	 *            The channel of the node file.
+	 * @param threads
+	 *            The amount of threads the chunks will be parsed with.
+	 * @return The chunks as {start, end} byte offsets.
+	 * @throws IOException
+	 *             When the file can't be read
+	 */
+	static List<long[]> split(final FileChannel channel, final int threads)
+			throws IOException {
+		long size = channel.size();
+		long target = size / ((long) threads * CHUNKS_PER_THREAD);
+		target = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, target));
+		List<long[]> chunks = new ArrayList<long[]>();
+		long start = 0;
+		while (start < size) {
+			long end = size;
+			if (size - start > target) {
+				end = nextHeader(channel, start + target);
+				if (end - start > Integer.MAX_VALUE) {
+					throw new InvalidFileFormatException(
+							"A single node is too large to be read");
+				}
+			}
+			chunks.add(new long[] { start, end });
+			start = end;
+		}
+		if (chunks.isEmpty()) {
+			chunks.add(new long[] { 0, 0 });
+		}
+		return chunks;
+	}
+
+	/**
+	 * Finds the first node header at or after a given position. Node content
+	 * never contains the header character, so the first one found starts a new
+	 * node.
+	 *
+	 * @param channel
+	 *            The channel of the node file.
+	 * @param from
+	 *            The position to start searching from.
+	 * @return The position of the header, or the file size if there is none.
+	 * @throws IOException
+	 *             When the file can't be read
+	 */
+	private static long nextHeader(final FileChannel channel, final long from)
+			throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		long pos = from;
+		int read;
+		while ((read = channel.read(buf, pos)) > 0) {
+			for (int i = 0; i < read; i++) {
+				if (buf.get(i) == HEADER) {
+					return pos + i;
+				}
+			}
+			pos += read;
+			buf.clear();
+		}
+		return channel.size();
+	}
+
+	/**
+	 * Maps a chunk of the file and parses all the nodes in it.
+	 *
+	 * @param channel
+	 *            The channel of the node file.
+	 * @param chunk
+	 *            The chunk as {start, end} byte offsets.
+	 * @return The nodes in the chunk.
+	 * @throws IOException
+	 *             When the file can't be read
+	 */
+	private static ArrayList<DNode> parseChunk(final FileChannel channel,
+			final long[] chunk) throws IOException {
+		int length = (int) (chunk[1] - chunk[0]);
+		if (length == 0) {
+			return new ArrayList<DNode>();
+		}
+		MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY,
+				chunk[0], length);
+		return new ChunkParser(buf).parse();
+	}
+
+	/**
+	 * Parses the nodes in a single mapped chunk. Not thread safe; every chunk
+	 * gets its own parser.
+	 */
+	static final class ChunkParser {
+
+		/** The bytes of the chunk. */
+		private final ByteBuffer buf;
+
+		/** The current read position. */
+		private int pos;
+
+		/** Already created source names, so equal names share one string. */
+		private final HashMap<String, String> names = new HashMap<String, String>();
+
+		/** Reusable scratch space for a single header line. */
+		private byte[] line = new byte[SCAN_BUFFER_SIZE];
+
+		/**
+		 * @param buffer
+		 *            The bytes of the chunk, from position zero to the limit.
+		 */
+		ChunkParser(final ByteBuffer buffer) {
+			this.buf = buffer;
+			this.pos = 0;
+		}
+
+		/**
+		 * @return All the nodes in the chunk.
+		 */
+		ArrayList<DNode> parse() {
+			ArrayList<DNode> nodes = new ArrayList<DNode>();
+			int limit = buf.limit();
+			while (pos < limit) {
+				int lineEnd = lineEnd(pos);
+				if (trimCr(pos, lineEnd) == pos) {
+					pos = next(lineEnd);
+					continue;
+				}
+				if (buf.get(pos) != HEADER) {
+					throw new InvalidFileFormatException(
+							"Every new node line should start with >");
+				}
+				int headerLen = copyLine(pos + 1, trimCr(pos + 1, lineEnd));
+				pos = next(lineEnd);
+				CharSequence content = "";
+				if (pos < limit) {
+					int contentEnd = lineEnd(pos);
+					content = new ByteSequence(buf, pos, trimCr(pos,
+							contentEnd));
+					pos = next(contentEnd);
+				}
+				nodes.add(parseNode(headerLen, content));
+			}
+			return nodes;
+		}
+
+		/**
+		 * Creates a node from the header in the scratch line and its content.
+		 *
+		 * @param headerLen
+		 *            The length of the header in the scratch line.
+		 * @param content
+		 *            The content of the node, packed by the node itself.
+		 * @return The parsed node.
+		 */
+		private DNode parseNode(final int headerLen,
+				final CharSequence content) {
+			int[] bounds = new int[AMOUNT_OF_INFORMATION * 2];
+			int fields = 0;
+			int fieldStart = 0;
+			for (int i = 0; i <= headerLen; i++) {
+				if (i == headerLen || line[i] == FIELD_SEPARATOR) {
+					if (fields == AMOUNT_OF_INFORMATION) {
+						throw new InvalidFileFormatException(
+								"Missing some information to create this node");
+					}
+					bounds[fields * 2] = fieldStart;
+					bounds[fields * 2 + 1] = i;
+					fields++;
+					fieldStart = i + 1;
+				}
+			}
+			if (fields != AMOUNT_OF_INFORMATION) {
+				throw new InvalidFileFormatException(
+						"Missing some information to create this node");
+			}
+			int id;
+			int start;
+			int end;
+			try {
+				id = parseInt(bounds[0], bounds[1]);
+			} catch (NumberFormatException e) {
+				throw new InvalidFileFormatException(
+						"The id should be an integer");
+			}
+			try {
+				start = parseInt(bounds[4], bounds[5]);
+				end = parseInt(bounds[6], bounds[7]);
+			} catch (NumberFormatException e) {
+				throw new InvalidFileFormatException(
+						"The start and end reference should be integers");
+			}
+			if (end - start != content.length()) {
+				throw new InvalidFileFormatException(
+						"Size of Node content doesn't match with its reference size");
+			}
+			HashSet<String> sources = parseSources(bounds[2], bounds[3]);
+			return new DNode(id, sources, start, end, content);
+		}
+
+		/**
+		 * Parses the comma separated source names of a header field.
+		 *
+		 * @param from
+		 *            The start of the field in the scratch line.
+		 * @param to
+		 *            The end of the field in the scratch line.
+		 * @return The set of source names.
+		 */
+		private HashSet<String> parseSources(final int from, final int to) {
+			int s = from;
+			int e = to;
+			if (s < e && isSpace(line[s])) {
+				s++;
+			}
+			if (e > s && isSpace(line[e - 1])) {
+				e--;
+			}
+			HashSet<String> sources = new HashSet<String>();
+			int nameStart = s;
+			for (int i = s; i <= e; i++) {
+				if (i == e || line[i] == SOURCE_SEPARATOR) {
+					sources.add(name(nameStart, i));
+					nameStart = i + 1;
+				}
+			}
+			return sources;
+		}
+
+		/**
+		 * Returns the shared string for a source name in the scratch line.
+		 *
+		 * @param from
+		 *            The start of the name.
+		 * @param to
+		 *            The end of the name.
+		 * @return The source name.
+		 */
+		private String name(final int from, final int to) {
+			String name = new String(line, from, to - from, UTF8);
+			String shared = names.get(name);
+			if (shared == null) {
+				names.put(name, name);
+				return name;
+			}
+			return shared;
+		}
+
+		/**
+		 * Parses a decimal integer from the scratch line, ignoring a single
+		 * surrounding white space character on each side.
+		 *
+		 * @param from
+		 *            The start of the field.
+		 * @param to
+		 *            The end of the field.
+		 * @return The parsed integer.
+		 * @throws NumberFormatException
+		 *             When the field is not a valid integer.
+		 */
+		private int parseInt(final int from, final int to) {
+			int s = from;
+			int e = to;
+			if (s < e && isSpace(line[s])) {
+				s++;
+			}
+			if (e > s && isSpace(line[e - 1])) {
+				e--;
+			}
+			boolean negative = false;
+			if (s < e && (line[s] == '-' || line[s] == '+')) {
+				negative = line[s] == '-';
+				s++;
+			}
+			if (s == e) {
+				throw new NumberFormatException();
+			}
+			long value = 0;
+			for (int i = s; i < e; i++) {
+				int digit = line[i] - '0';
+				if (digit < 0 || digit >= RADIX) {
+					throw new NumberFormatException();
+				}
+				value = value * RADIX + digit;
+				if (value > (long) Integer.MAX_VALUE + 1) {
+					throw new NumberFormatException();
+				}
+			}
+			if (negative) {
+				value = -value;
+			}
+			if (value > Integer.MAX_VALUE) {
+				throw new NumberFormatException();
+			}
+			return (int) value;
+		}
+
+		/**
+		 * Copies a range of the chunk into the scratch line.
+		 *
+		 * @param from
+		 *            The start of the range.
+		 * @param to
+		 *            The end of the range.
+		 * @return The length of the copied range.
+		 */
+		private int copyLine(final int from, final int to) {
+			int len = to - from;
+			if (line.length < len) {
+				line = new byte[Math.max(len, line.length * 2)];
+			}
+			for (int i = 0; i < len; i++) {
+				line[i] = buf.get(from + i);
+			}
+			return len;
+		}
+
+		/**
+		 * @param from
+		 *            The position to start searching from.
+		 * @return The position of the next line feed, or the limit.
+		 */
+		private int lineEnd(final int from) {
+			int limit = buf.limit();
+			int i = from;
+			while (i < limit && buf.get(i) != '\n') {
+				i++;
+			}
+			return i;
+		}
+
+		/**
+		 * @param from
+		 *            The start of the line.
+		 * @param lineEnd
+		 *            The position of the line feed ending the line.
+		 * @return The end of the line without a trailing carriage return.
+		 */
+		private int trimCr(final int from, final int lineEnd) {
+			if (lineEnd > from && buf.get(lineEnd - 1) == '\r') {
+				return lineEnd - 1;
+			}
+			return lineEnd;
+		}
+
+		/**
+		 * @param lineEnd
+		 *            The position of the line feed ending a line.
+		 * @return The start of the next line.
+		 */
+		private int next(final int lineEnd) {
+			return Math.min(lineEnd + 1, buf.limit());
+		}
+
+		/**
+		 * @param b
+		 *            The byte to check.
+		 * @return true iff the byte is a white space character.
+		 */
+		private static boolean isSpace(final byte b) {
+			return b == ' ' || b == '\t';
+		}
+	}
+
+	/**
+	 * A read only view on a range of single byte characters in a buffer, so
+	 * node content can be packed straight from the mapped file.
+	 */
+	static final class ByteSequence implements CharSequence {
+
+		/** The buffer holding the characters. */
+		private final ByteBuffer buf;
+
+		/** The range of the characters in the buffer. */
+		private final int from, to;
+
+		/**
+		 * @param buffer
+		 *            The buffer holding the characters.
+		 * @param fromIn
+		 *            The start of the range.
+		 * @param toIn
+		 *            The end of the range.
+		 */
+		ByteSequence(final ByteBuffer buffer, final int fromIn, final int toIn) {
+			this.buf = buffer;
+			this.from = fromIn;
+			this.to = toIn;
+		}
+
+		@Override
+		public int length() {
+			return to - from;
+		}
+
+		@Override
+		public char charAt(final int index) {
+			return (char) (buf.get(from + index) & 0xFF);
+		}
+
+		@Override
+		public CharSequence subSequence(final int start, final int end) {
+			return new ByteSequence(buf, from + start, from + end);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(length());
+			sb.append(this, 0, length());
+			return sb.toString();
+		}
+	}
+}
@@ -1,16 +1,13 @@
 package nl.tudelft.ti2806.pl1.reader;
 
 import java.awt.Dimension;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Queue;
 
 import nl.tudelft.ti2806.pl1.exceptions.InvalidNodePlacementException;
-import nl.tudelft.ti2806.pl1.graph.DEdge;
+import nl.tudelft.ti2806.pl1.graph.Adjacency;
 import nl.tudelft.ti2806.pl1.graph.DGraph;
 import nl.tudelft.ti2806.pl1.graph.DNode;
+import nl.tudelft.ti2806.pl1.graph.PositionIndex;
 
 import org.graphstream.graph.Edge;
 import org.graphstream.graph.Graph;
@@ -27,23 +24,11 @@ public final class NodePlacer {
 	/** The distance between each node. */
 	private static final int X_MULTIPLIER = 30, Y_MULTIPLIER = 30;
 
-	/** Vertical space over which we will spread the nodes. */
-	private static int height;
-
-	/** Horizontal space over which we will spread the nodes. */
-	private static int width;
-
 	/**
 	 */
 	private NodePlacer() {
 	}
 
-	/**
-	 * The list which keeps the information about how many nodes are located at
-	 * depth i.
-	 */
-	private static ArrayList<Integer> nodesAtDepth;
-
 	/**
 	 * Places the nodes of a graphstream graph according to the current view
 	 * size.
@@ -55,61 +40,42 @@ public final class NodePlacer {
 	 * @return The new view size.
 	 */
 	public static Dimension place(final Graph graph, final Dimension viewSize) {
-		for (Node n : graph.getEachNode()) {
-			n.setAttribute("x", 0);
-		}
-		Node start = graph.getNode("-2");
-		Queue<Node> q = new LinkedList<Node>();
-		q.add(start);
-		nodesAtDepth = new ArrayList<Integer>();
-		nodesAtDepth.add(graph.getNodeCount());
-		depths(q);
-		ArrayList<Integer> hdiff = heightDiff(nodesAtDepth, height);
-		for (Node n : graph.getEachNode()) {
-			int dep = n.getAttribute("x");
-			n.setAttribute("x", dep * X_MULTIPLIER);
-			try {
-				n.setAttribute("y", getHeight(dep, hdiff, nodesAtDepth, height));
-			} catch (InvalidNodePlacementException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
+		int n = graph.getNodeCount();
+		int[] remaining = new int[n];
+		int[] queue = new int[n];
+		int tail = 0;
+		for (Node node : graph.getEachNode()) {
+			remaining[node.getIndex()] = node.getInDegree();
+			if (remaining[node.getIndex()] == 0) {
+				queue[tail++] = node.getIndex();
 			}
 		}
-		width = nodesAtDepth.size() * X_MULTIPLIER;
-		height = viewSize.height;
-		return new Dimension(width, height);
-	}
-
-	/**
-	 * For each node, this method finds the highest depth level possible and
-	 * sets this in the node attribute 'x' and it updates nodesAtDepth.
-	 * 
-	 * @param q
-	 *            The queue in which we store the unvisited nodes.
-	 */
-	private static void depths(final Queue<Node> q) {
+		int[] depth = new int[n];
 		int max = 0;
-		while (!q.isEmpty()) {
-			Node src = q.remove();
+		for (int head = 0; head < tail; head++) {
+			Node src = graph.getNode(queue[head]);
+			int ndepth = depth[queue[head]] + 1;
 			for (Edge edge : src.getEachLeavingEdge()) {
-				Node tar = edge.getNode1();
-				int odepth = tar.getAttribute("x");
-				int ndepth = (int) src.getAttribute("x") + 1;
-				if (ndepth > odepth) {
-					nodesAtDepth.set(odepth, nodesAtDepth.get(odepth) - 1);
-					if (nodesAtDepth.size() > ndepth) {
-						nodesAtDepth.set(ndepth, nodesAtDepth.get(ndepth) + 1);
-					} else {
-						nodesAtDepth.add(1);
-					}
-					tar.setAttribute("x", ndepth);
-					if (ndepth > max) {
-						max = ndepth;
-					}
-					q.add(tar);
+				int tar = edge.getNode1().getIndex();
+				if (ndepth > depth[tar]) {
+					depth[tar] = ndepth;
+					max = Math.max(max, ndepth);
+				}
+				if (--remaining[tar] == 0) {
+					queue[tail++] = tar;
 				}
 			}
 		}
+		int[] nodesAtDepth = count(depth, max);
+		int height = viewSize.height;
+		int[] hdiff = heightDiff(nodesAtDepth, height);
+		for (Node node : graph.getEachNode()) {
+			int dep = depth[node.getIndex()];
+			node.setAttribute("x", dep * X_MULTIPLIER);
+			node.setAttribute("y", height(dep, hdiff, nodesAtDepth, height));
+		}
+		PositionIndex.store(graph);
+		return new Dimension((max + 1) * X_MULTIPLIER, height);
 	}
 
 	/**
@@ -124,150 +90,149 @@ public final class NodePlacer {
 	 */
 	public static Dimension place(final DGraph graph)
 			throws InvalidNodePlacementException {
+		return layout(graph).getSize();
+	}
+
+	/**
+	 * Sets the depth and the x and y coordinates of all nodes. The depth of a
+	 * node is the length of the longest path from a source to it, computed in
+	 * a single topological pass.
+	 * 
+	 * @param graph
+	 *            The DGraph for which the Nodes are set
+	 * @return The layout of the graph.
+	 */
+	public static Layout layout(final DGraph graph) {
 		if (graph.getNodeCount() == 0) {
-			return new Dimension(0, 0);
+			return Layout.EMPTY;
 		}
-		nodesAtDepth = new ArrayList<Integer>();
-		nodesAtDepth.add(graph.getNodeCount());
-		DNode first = graph.getStart();
-
-		Queue<DNode> que = new LinkedList<DNode>();
-		que.add(first);
-		depthLevel(que);
-
-		width = nodesAtDepth.size() * X_MULTIPLIER;
-		height = Collections.max(nodesAtDepth) * Y_MULTIPLIER;
-
-		ArrayList<Integer> hdiff = heightDiff(nodesAtDepth, height);
+		Adjacency adj = graph.getAdjacency();
+		int[] depth = new int[adj.size()];
+		int max = depthLevel(adj, depth);
+		int[] nodesAtDepth = count(depth, max);
+		int width = nodesAtDepth.length * X_MULTIPLIER;
+		int height = 0;
+		for (int c : nodesAtDepth) {
+			height = Math.max(height, c * Y_MULTIPLIER);
+		}
+		Layout layout = new Layout(width, height, nodesAtDepth);
 
-		for (DNode node : graph.getNodes().values()) {
-			node.setX(getWidth(width, node.getDepth(), nodesAtDepth.size()));
-			node.setY(getHeight(node.getDepth(), hdiff, nodesAtDepth, height));
+		int[] hdiff = heightDiff(nodesAtDepth, height);
+		for (int v = 0; v < depth.length; v++) {
+			DNode node = adj.node(v);
+			node.setDepth(depth[v]);
+			node.setX(getWidth(width, depth[v], nodesAtDepth.length));
+			node.setY(height(depth[v], hdiff, nodesAtDepth, height));
 		}
-		return new Dimension(width, height);
+		graph.indexPositions();
+		return layout;
 	}
 
 	/**
-	 * For each node, this method finds the highest depth level possible and
-	 * sets this in the node attribute 'depth' and it updates nodesAtDepth.
+	 * Computes the longest path depth of every node with Kahn's algorithm:
+	 * every node is visited once, after all its predecessors.
 	 * 
-	 * @param que
-	 *            The queue in which we store the unvisited edges
+	 * @param adj
+	 *            The adjacency of the graph.
+	 * @param depth
+	 *            The array to store the depth of every node in, by index in
+	 *            the adjacency.
+	 * @return The largest depth.
 	 */
-	private static void depthLevel(final Queue<DNode> que) {
-		while (!que.isEmpty()) {
-			DNode src = que.remove();
-			for (DEdge edge : src.getOutEdges()) {
-				DNode tar = edge.getEndNode();
-				int odepth = tar.getDepth();
-				int ndepth = src.getDepth() + 1;
-				if (ndepth > odepth) {
-					nodesAtDepth.set(odepth, nodesAtDepth.get(odepth) - 1);
-					if (nodesAtDepth.size() > ndepth) {
-						nodesAtDepth.set(ndepth, nodesAtDepth.get(ndepth) + 1);
-					} else {
-						nodesAtDepth.add(1);
-					}
-					tar.setDepth(ndepth);
-					que.add(tar);
+	private static int depthLevel(final Adjacency adj, final int[] depth) {
+		int n = adj.size();
+		int[] remaining = new int[n];
+		int[] queue = new int[n];
+		int tail = 0;
+		for (int v = 0; v < n; v++) {
+			remaining[v] = adj.inDegree(v);
+			if (remaining[v] == 0) {
+				queue[tail++] = v;
+			}
+		}
+		int max = 0;
+		for (int head = 0; head < tail; head++) {
+			int src = queue[head];
+			int ndepth = depth[src] + 1;
+			for (int e = adj.firstOut(src); e < adj.endOut(src); e++) {
+				int tar = adj.target(e);
+				if (ndepth > depth[tar]) {
+					depth[tar] = ndepth;
+					max = Math.max(max, ndepth);
+				}
+				if (--remaining[tar] == 0) {
+					queue[tail++] = tar;
 				}
 			}
 		}
+		return max;
 	}
 
 	/**
-	 * This method returns the width location of the node.
-	 * 
-	 * @param screenwidth
-	 *            The width of the viewer
-	 * @param nodedepth
-	 *            The depth of the node
-	 * @param maxdepth
-	 *            The maximum depth of the nodes in the graph
-	 * @return The width location of the node
-	 */
-	protected static int getWidth(final double screenwidth,
-			final double nodedepth, final double maxdepth) {
-		double wdiff = screenwidth / maxdepth;
-		return (int) (wdiff * nodedepth);
-
-	}
-
-	/**
-	 * This method returns the height of the node.
-	 * 
 	 * @param depth
-	 *            The depth of the node
-	 * @param heightdiff
-	 *            The difference in height between nodes
-	 * @param nodesatdepth
-	 *            The amount of nodes at depth i
-	 * @param screenheight
-	 *            The height of the viewer
-	 * @return The height of the node
-	 * @throws InvalidNodePlacementException
-	 *             Placing node at invalid place.
+	 *            The depth of every node.
+	 * @param max
+	 *            The largest depth.
+	 * @return The amount of nodes at every depth.
 	 */
-	protected static int getHeight(final int depth,
-			final ArrayList<Integer> heightdiff,
-			final ArrayList<Integer> nodesatdepth, final int screenheight)
-			throws InvalidNodePlacementException {
-		int hdiff = heightdiff.get(depth);
-		int natdepth = nodesatdepth.get(depth);
-		if (natdepth >= 1) {
-			nodesatdepth.set(depth, natdepth - 1);
-			return screenheight / 2 - natdepth * hdiff;
-		} else {
-			throw new InvalidNodePlacementException();
+	private static int[] count(final int[] depth, final int max) {
+		int[] ret = new int[max + 1];
+		for (int d : depth) {
+			ret[d]++;
 		}
+		return ret;
 	}
 
 	/**
-	 * Returns an array list with the height difference for each depth i.
-	 * 
 	 * @param nodesatdepth
 	 *            The amount of nodes at depth i
 	 * @param heightofscreen
 	 *            The height of the viewer
 	 * @return The height difference for each node at depth i
 	 */
-	protected static ArrayList<Integer> heightDiff(
-			final ArrayList<Integer> nodesatdepth, final int heightofscreen) {
-		ArrayList<Integer> hdiff = new ArrayList<Integer>(nodesatdepth.size());
-		for (int i = 0; i < nodesatdepth.size(); i++) {
-			hdiff.add(heightofscreen / (nodesatdepth.get(i) + 1));
+	protected static int[] heightDiff(final int[] nodesatdepth,
+			final int heightofscreen) {
+		int[] hdiff = new int[nodesatdepth.length];
+		for (int i = 0; i < nodesatdepth.length; i++) {
+			hdiff[i] = heightofscreen / (nodesatdepth[i] + 1);
 		}
 		return hdiff;
 	}
 
 	/**
-	 * @return the height
-	 */
-	public static int getHeight() {
-		return height;
-	}
-
-	/**
-	 * @param newheight
-	 *            the height to set
+	 * Returns the height of the next node at a depth and counts it as placed.
+	 * 
+	 * @param depth
+	 *            The depth of the node
+	 * @param heightdiff
+	 *            The difference in height between nodes
+	 * @param remaining
+	 *            The amount of nodes still to place at depth i
+	 * @param screenheight
+	 *            The height of the viewer
+	 * @return The height of the node
 	 */
-	public static void setHeight(final int newheight) {
-		NodePlacer.height = newheight;
+	protected static int height(final int depth, final int[] heightdiff,
+			final int[] remaining, final int screenheight) {
+		return screenheight / 2 - remaining[depth]-- * heightdiff[depth];
 	}
 
 	/**
-	 * @return the width
+	 * This method returns the width location of the node.
+	 * 
+	 * @param screenwidth
+	 *            The width of the viewer
+	 * @param nodedepth
+	 *            The depth of the node
+	 * @param maxdepth
+	 *            The maximum depth of the nodes in the graph
+	 * @return The width location of the node
 	 */
-	public static int getWidth() {
-		return width;
-	}
+	protected static int getWidth(final double screenwidth,
+			final double nodedepth, final double maxdepth) {
+		double wdiff = screenwidth / maxdepth;
+		return (int) (wdiff * nodedepth);
 
-	/**
-	 * @param newwidth
-	 *            the width to set
-	 */
-	public static void setWidth(final int newwidth) {
-		NodePlacer.width = newwidth;
 	}
 
 	/**
@@ -1,9 +1,8 @@
 package nl.tudelft.ti2806.pl1.reader;
 
-import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
 
@@ -46,10 +45,9 @@ public final class Reader {
 		for (DNode node : readNodes(nodes)) {
 			graph.addDNode(node);
 		}
-		for (DEdge edge : readEdges(edges, graph)) {
-			graph.addDEdge(edge);
-		}
+		readEdges(edges, graph);
 		addStartEndNode(graph);
+		graph.freeze();
 		return graph;
 	}
 
@@ -64,27 +62,28 @@ public final class Reader {
 	 */
 	private static ArrayList<DNode> readNodes(final String nodesPath)
 			throws IOException {
-		BufferedReader reader = new BufferedReader(new InputStreamReader(
-				new FileInputStream(nodesPath), "UTF-8"));
-		return NodeReader.readNodes(reader);
+		return MappedNodeReader.readNodes(nodesPath);
 	}
 
 	/**
-	 * Reads the edges from the given node file path.
+	 * Reads the edges from the given edge file path and adds them to the
+	 * graph.
 	 * 
 	 * @param edgesPath
 	 *            The path for the file containing the edges
 	 * @param graph
 	 *            The DGraph for which the edges will be added
-	 * @return ArrayList with the edges
 	 * @throws IOException
 	 *             When the file can't be read
 	 */
-	private static ArrayList<DEdge> readEdges(final String edgesPath,
-			final DGraph graph) throws IOException {
-		BufferedReader reader = new BufferedReader(new InputStreamReader(
-				new FileInputStream(edgesPath), "UTF-8"));
-		return EdgeReader.readEdges(reader, graph);
+	private static void readEdges(final String edgesPath, final DGraph graph)
+			throws IOException {
+		InputStream in = new FileInputStream(edgesPath);
+		try {
+			EdgeReader.addEdges(in, graph);
+		} finally {
+			in.close();
+		}
 	}
 
 	/**
@@ -96,9 +95,9 @@ public final class Reader {
 	 */
 	private static void addStartEndNode(final DGraph graph) {
 		ArrayList<DNode> startNodes = new ArrayList<DNode>();
-		HashSet<String> sources = new HashSet<String>();
+		HashSet<String> sources = new HashSet<String>(graph.getGenomes()
+				.getNames());
 		for (DNode node : graph.getNodes().values()) {
-			sources.addAll(node.getSources());
 			if (node.getInEdges().size() == 0) {
 				startNodes.add(node);
 			}
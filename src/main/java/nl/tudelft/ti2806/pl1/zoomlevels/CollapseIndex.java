@@ -0,0 +1,385 @@
+package nl.tudelft.ti2806.pl1.zoomlevels;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import nl.tudelft.ti2806.pl1.geneAnnotation.ReferenceGeneStorage;
+import nl.tudelft.ti2806.pl1.graph.BubbleTree;
+import nl.tudelft.ti2806.pl1.graph.BubbleTree.Bubble;
+import nl.tudelft.ti2806.pl1.graph.DGraph;
+import nl.tudelft.ti2806.pl1.graph.DNode;
+import nl.tudelft.ti2806.pl1.mutation.ComplexMutation;
+import nl.tudelft.ti2806.pl1.mutation.DeletionMutation;
+import nl.tudelft.ti2806.pl1.mutation.InsertionMutation;
+import nl.tudelft.ti2806.pl1.mutation.Mutation;
+import nl.tudelft.ti2806.pl1.mutation.PointMutation;
+import nl.tudelft.ti2806.pl1.mutation.ScoreMultiplier;
+
+/**
+ * All collapsible mutations of a data graph, sorted by the threshold above
+ * which they are collapsed. A zoom level with a threshold collapses exactly
+ * the mutations in front of the position {@link #count(double)} of the
+ * threshold, so going from one threshold to another only takes collapsing or
+ * expanding the mutations in between.
+ *
+ * The key of a mutation is the threshold above which it is collapsed: its
+ * score for insertions and point mutations, at least
+ * {@link InDelCollapser#THRESHOLD_LARGE_MUTATION} for large deletions, and
+ * just below {@link ComplexCollapser#COMPLEXTHRESHOLD} for complex mutations.
+ * Mutations with equal keys are collapsed in the order insertions,
+ * deletions, complex mutations and point mutations. Complex mutations nested
+ * in the bubble of another complex mutation are left out, as the outer one
+ * removes their nodes. So are the insertions and point mutations inside the
+ * bubble of a complex mutation: collapsing them first would replace nodes of
+ * the bubble by nodes the complex mutation does not know.
+ */
+public final class CollapseIndex {
+
+	/** The types of collapses, in the order they are done at equal keys. */
+	enum Kind {
+		/** Removes the inserted node. */
+		INSERTION,
+		/** Removes the edge skipping the deleted part. */
+		DELETION,
+		/** Removes the nodes of the complex mutation. */
+		COMPLEX,
+		/** Merges the nodes of the point mutation. */
+		POINT
+	}
+
+	/** The type of every collapse. */
+	private final Kind[] kinds;
+
+	/** The mutation of every collapse. */
+	private final Mutation[] mutations;
+
+	/** The key of every collapse, in ascending order. */
+	private final double[] keys;
+
+	/** The multipliers the mutations were scored with. */
+	private final ScoreMultiplier.Config config;
+
+	/** The version of the annotations the mutations were scored with. */
+	private final int genesVersion;
+
+	/**
+	 * The version of the affected node groups the mutations were scored
+	 * with.
+	 */
+	private final int groupsVersion;
+
+	/**
+	 * @param entries
+	 *            The collapses, sorted by key.
+	 * @param configIn
+	 *            The multipliers the mutations were scored with.
+	 * @param genesVersionIn
+	 *            The version of the annotations the mutations were scored
+	 *            with.
+	 * @param groupsVersionIn
+	 *            The version of the affected node groups the mutations were
+	 *            scored with.
+	 */
+	private CollapseIndex(final List<Entry> entries,
+			final ScoreMultiplier.Config configIn, final int genesVersionIn,
+			final int groupsVersionIn) {
+		int n = entries.size();
+		this.kinds = new Kind[n];
+		this.mutations = new Mutation[n];
+		this.keys = new double[n];
+		for (int i = 0; i < n; i++) {
+			Entry e = entries.get(i);
+			kinds[i] = e.kind;
+			mutations[i] = e.mutation;
+			keys[i] = e.key;
+		}
+		this.config = configIn;
+		this.genesVersion = genesVersionIn;
+		this.groupsVersion = groupsVersionIn;
+	}
+
+	/**
+	 * Scores and sorts the collapsible mutations of a data graph with the
+	 * current multipliers.
+	 *
+	 * @param graph
+	 *            The data graph.
+	 * @return The index.
+	 */
+	public static CollapseIndex build(final DGraph graph) {
+		ScoreMultiplier.Config config = ScoreMultiplier.current();
+		int version = genesVersion(graph);
+		int groups = Mutation.getGroupsVersion();
+		BitSet hidden = new BitSet();
+		List<ComplexMutation> complex = outermost(
+				graph.getComplexMutations(), graph, hidden);
+		List<Entry> entries = new ArrayList<Entry>();
+		for (InsertionMutation ins : graph.getInsMutations()) {
+			if (!isHidden(ins.getInNode(), graph, hidden)) {
+				entries.add(new Entry(Kind.INSERTION, ins, ins.getScore(),
+						entries.size()));
+			}
+		}
+		for (DeletionMutation del : graph.getDelMutations()) {
+			entries.add(new Entry(Kind.DELETION, del, InDelCollapser
+					.deletionKey(del, graph), entries.size()));
+		}
+		double complexKey = Math.nextAfter(
+				(double) ComplexCollapser.COMPLEXTHRESHOLD,
+				Double.NEGATIVE_INFINITY);
+		for (ComplexMutation mut : complex) {
+			entries.add(new Entry(Kind.COMPLEX, mut, complexKey, entries
+					.size()));
+		}
+		for (PointMutation point : graph.getPointMutations()) {
+			if (!isHidden(point.getNodes(), graph, hidden)) {
+				entries.add(new Entry(Kind.POINT, point, point.getScore(),
+						entries.size()));
+			}
+		}
+		Entry[] sorted = entries.toArray(new Entry[entries.size()]);
+		Arrays.sort(sorted, new Comparator<Entry>() {
+			@Override
+			public int compare(final Entry a, final Entry b) {
+				int ret = Double.compare(a.key, b.key);
+				if (ret == 0) {
+					ret = a.kind.compareTo(b.kind);
+				}
+				if (ret == 0) {
+					ret = Integer.compare(a.order, b.order);
+				}
+				return ret;
+			}
+		});
+		return new CollapseIndex(Arrays.asList(sorted), config, version,
+				groups);
+	}
+
+	/**
+	 * Selects the complex mutations which are not nested in the bubble of
+	 * another complex mutation. As every bubble is a contiguous range of
+	 * positions, visiting the bubbles by entrance position visits every bubble
+	 * before the bubbles nested in it.
+	 *
+	 * @param complex
+	 *            The complex mutations.
+	 * @param graph
+	 *            The data graph.
+	 * @param hidden
+	 *            The bit set to which the positions of the nodes inside the
+	 *            bubbles of the selected mutations are added.
+	 * @return The selected mutations, in their original order.
+	 */
+	static List<ComplexMutation> outermost(
+			final Collection<ComplexMutation> complex, final DGraph graph,
+			final BitSet hidden) {
+		BubbleTree bubbles = graph.getBubbles();
+		List<ComplexMutation> ret = new ArrayList<ComplexMutation>(complex);
+		if (bubbles == null) {
+			return ret;
+		}
+		Bubble[] byEntrance = new Bubble[ret.size()];
+		Integer[] order = new Integer[ret.size()];
+		for (int i = 0; i < order.length; i++) {
+			DNode pre = graph.getDNode(ret.get(i).getPreNode());
+			byEntrance[i] = pre == null ? null : bubbles.entered(pre);
+			order[i] = i;
+		}
+		final Bubble[] entered = byEntrance;
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(final Integer a, final Integer b) {
+				return Integer.compare(first(entered[a]), first(entered[b]));
+			}
+		});
+		boolean[] nested = new boolean[order.length];
+		int end = -1;
+		for (int i : order) {
+			if (entered[i] != null) {
+				nested[i] = entered[i].first() < end;
+				if (!nested[i]) {
+					hidden.set(entered[i].first() + 1, entered[i].last());
+				}
+				end = Math.max(end, entered[i].last());
+			}
+		}
+		List<ComplexMutation> selected = new ArrayList<ComplexMutation>();
+		for (int i = 0; i < nested.length; i++) {
+			if (!nested[i]) {
+				selected.add(ret.get(i));
+			}
+		}
+		return selected;
+	}
+
+	/**
+	 * @param id
+	 *            The id of a data node.
+	 * @param graph
+	 *            The data graph.
+	 * @param hidden
+	 *            The positions of the nodes inside the bubbles of complex
+	 *            mutations.
+	 * @return True iff the node is inside the bubble of a complex mutation.
+	 */
+	private static boolean isHidden(final int id, final DGraph graph,
+			final BitSet hidden) {
+		if (hidden.isEmpty()) {
+			return false;
+		}
+		DNode node = graph.getDNode(id);
+		return node != null && hidden.get(graph.getBubbles().position(node));
+	}
+
+	/**
+	 * @param ids
+	 *            The ids of data nodes.
+	 * @param graph
+	 *            The data graph.
+	 * @param hidden
+	 *            The positions of the nodes inside the bubbles of complex
+	 *            mutations.
+	 * @return True iff any of the nodes is inside the bubble of a complex
+	 *         mutation.
+	 */
+	private static boolean isHidden(final Collection<Integer> ids,
+			final DGraph graph, final BitSet hidden) {
+		for (int id : ids) {
+			if (isHidden(id, graph, hidden)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param bubble
+	 *            A bubble, or null.
+	 * @return The position of the entrance of the bubble, or -1 for null.
+	 */
+	private static int first(final Bubble bubble) {
+		if (bubble == null) {
+			return -1;
+		}
+		return bubble.first();
+	}
+
+	/**
+	 * @param graph
+	 *            A data graph.
+	 * @return The version of the annotations of the graph.
+	 */
+	private static int genesVersion(final DGraph graph) {
+		ReferenceGeneStorage rgs = graph.getReferenceGeneStorage();
+		if (rgs == null) {
+			return 0;
+		}
+		return rgs.getVersion();
+	}
+
+	/**
+	 * @param graph
+	 *            The data graph the index was built from.
+	 * @return True iff the mutations would still be scored the same.
+	 */
+	public boolean isCurrent(final DGraph graph) {
+		return config == ScoreMultiplier.current()
+				&& genesVersion == genesVersion(graph)
+				&& groupsVersion == Mutation.getGroupsVersion();
+	}
+
+	/**
+	 * @return The amount of collapses.
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * @param threshold
+	 *            A score threshold.
+	 * @return The amount of collapses done at the threshold, which are the
+	 *         collapses with a key below the threshold.
+	 */
+	public int count(final double threshold) {
+		int lo = 0;
+		int hi = keys.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (keys[mid] < threshold) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * @param i
+	 *            The position of a collapse.
+	 * @return The threshold above which the collapse is done.
+	 */
+	public double key(final int i) {
+		return keys[i];
+	}
+
+	/**
+	 * @param i
+	 *            The position of a collapse.
+	 * @return The type of the collapse.
+	 */
+	Kind kind(final int i) {
+		return kinds[i];
+	}
+
+	/**
+	 * @param i
+	 *            The position of a collapse.
+	 * @return The mutation collapsed.
+	 */
+	public Mutation mutation(final int i) {
+		return mutations[i];
+	}
+
+	/**
+	 * A collapse while the index is built.
+	 */
+	private static final class Entry {
+
+		/** The type of the collapse. */
+		private final Kind kind;
+
+		/** The mutation collapsed. */
+		private final Mutation mutation;
+
+		/** The threshold above which the collapse is done. */
+		private final double key;
+
+		/** The position of the mutation in the mutations of the graph. */
+		private final int order;
+
+		/**
+		 * @param kindIn
+		 *            The type of the collapse.
+		 * @param mutationIn
+		 *            The mutation collapsed.
+		 * @param keyIn
+		 *            The threshold above which the collapse is done.
+		 * @param orderIn
+		 *            The position of the mutation in the mutations of the
+		 *            graph.
+		 */
+		private Entry(final Kind kindIn, final Mutation mutationIn,
+				final double keyIn, final int orderIn) {
+			this.kind = kindIn;
+			this.mutation = mutationIn;
+			this.key = keyIn;
+			this.order = orderIn;
+		}
+	}
+}
@@ -53,12 +53,14 @@ public final class ComplexCollapser {
 	 * @param graph
 	 *            The graph.
 	 */
-	private static void collapseComplexMutation(final ComplexMutation mut,
+	static void collapseComplexMutation(final ComplexMutation mut,
 			final Graph graph) {
 		Collection<Integer> nodes = mut.getInNodes();
 		for (int n : nodes) {
 			Node node = graph.getNode("" + n);
-			graph.removeNode(node);
+			if (node != null) {
+				graph.removeNode(node);
+			}
 		}
 	}
 }
\ No newline at end of file
@@ -1,14 +1,14 @@
 package nl.tudelft.ti2806.pl1.zoomlevels;
 
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.Set;
+
+import nl.tudelft.ti2806.pl1.graph.GenomeDictionary;
 
-import org.graphstream.graph.BreadthFirstIterator;
 import org.graphstream.graph.Edge;
 import org.graphstream.graph.Graph;
 import org.graphstream.graph.Node;
-import org.graphstream.graph.implementations.Graphs;
 
 /**
  * @author Justin, Marissa
@@ -22,91 +22,128 @@ public final class HorizontalCollapser {
 	}
 
 	/**
-	 * Collapses the graph horizontally if the content size does not surpass the
-	 * maximum content size.
+	 * Collapses every chain of nodes in the graph into its last node. Two
+	 * nodes are in the same chain when the first only leads to the second and
+	 * the second can only be reached from the first. The start node is never
+	 * collapsed into its successor. The graph is changed in place.
 	 * 
 	 * @param graph
 	 *            Graph we want to collapse on.
 	 * @return Horizontally collapsed graph.
 	 */
 	public static Graph horizontalCollapse(final Graph graph) {
-		Graph g = Graphs.merge(graph);
-		return collapseGraph(g);
+		Node[] nodes = new Node[graph.getNodeCount()];
+		for (Node n : graph.getEachNode()) {
+			nodes[n.getIndex()] = n;
+		}
+		int[] chains = chainTable(nodes, graph.getNode("-2"));
+		int i = 0;
+		while (i < chains.length) {
+			int length = chains[i];
+			if (length > 1) {
+				collapseChain(graph, nodes, chains, i + 1, length);
+			}
+			i += length + 1;
+		}
+		return graph;
 	}
 
 	/**
-	 * Collapses the graph horizontally if the content size does not surpass the
-	 * maximum content size.
+	 * Finds all chains of nodes in one pass over primitive node indices. A
+	 * node continues the chain of its predecessor when it has exactly one
+	 * predecessor, which has exactly one successor and is not the start node.
 	 * 
-	 * @param graph
-	 *            Graph we want to collapse on.
-	 * @return Horizontally collapsed graph
+	 * @param nodes
+	 *            The nodes of the graph, by their index.
+	 * @param start
+	 *            The start node, or null.
+	 * @return The chain table: for every chain its length followed by the
+	 *         indices of its nodes from first to last.
 	 */
-	private static Graph collapseGraph(final Graph graph) {
-		Node start = graph.getNode("-2");
-		BreadthFirstIterator<Node> it = new BreadthFirstIterator<Node>(start);
-		Queue<Node> q = new LinkedList<Node>();
-		q.add(start);
-		while (it.hasNext()) {
-			Node node = it.next();
-			q.add(node);
+	static int[] chainTable(final Node[] nodes, final Node start) {
+		int n = nodes.length;
+		int[] next = new int[n];
+		boolean[] continues = new boolean[n];
+		Arrays.fill(next, -1);
+		for (int v = 0; v < n; v++) {
+			if (nodes[v].getInDegree() == 1) {
+				Node prev = nodes[v].getEnteringEdge(0).getSourceNode();
+				if (prev.getOutDegree() == 1 && prev != start) {
+					next[prev.getIndex()] = v;
+					continues[v] = true;
+				}
+			}
 		}
-		Graph ret = graph;
-		while (!q.isEmpty()) {
-			Node node = q.remove();
-			ret = collapseNodes(ret, node);
+		int[] ret = new int[2 * n];
+		int size = 0;
+		for (int v = 0; v < n; v++) {
+			if (!continues[v]) {
+				int lengthAt = size++;
+				for (int w = v; w >= 0; w = next[w]) {
+					ret[size++] = w;
+				}
+				ret[lengthAt] = size - lengthAt - 1;
+			}
 		}
-		return ret;
+		return Arrays.copyOf(ret, size);
 	}
 
 	/**
-	 * Collapses a two nodes if their combined content size does not surpass the
-	 * maximum content size.
+	 * Collapses a chain of nodes into its last node.
 	 * 
 	 * @param graph
 	 *            The graph.
-	 * @param node
-	 *            The node in which the other node will be collapsed.
-	 * @return The graph with the nodes collapsed or not.
+	 * @param nodes
+	 *            The nodes of the graph, by their original index.
+	 * @param chains
+	 *            The chain table.
+	 * @param from
+	 *            The position of the first node of the chain in the table.
+	 * @param length
+	 *            The amount of nodes in the chain.
 	 */
-	private static Graph collapseNodes(final Graph graph, final Node node) {
-		if (node.getInDegree() == 1) {
-			Node prev = node.getEnteringEdgeIterator().next().getNode0();
-			if (prev.getOutDegree() == 1 && !prev.getId().equals("-2")) {
-				mergeAttributes(prev, node);
-				for (Edge edge : prev.getEnteringEdgeSet()) {
-					if (edge != null) {
-						String id = edge.getId();
-						graph.addEdge(id + " " + node.getId(), edge.getNode0(),
-								node, true);
-					}
-				}
-				graph.removeNode(prev);
+	private static void collapseChain(final Graph graph, final Node[] nodes,
+			final int[] chains, final int from, final int length) {
+		Node first = nodes[chains[from]];
+		Node last = nodes[chains[from + length - 1]];
+		HashSet<Integer> nodeids = new HashSet<Integer>();
+		HashSet<String> classes = new HashSet<String>();
+		long[] genomes = null;
+		StringBuilder suffix = new StringBuilder();
+		for (int i = from; i < from + length; i++) {
+			Node node = nodes[chains[i]];
+			nodeids.addAll(getIds(node));
+			classes.add((String) node.getAttribute("ui.class"));
+			genomes = GenomeDictionary.or(genomes,
+					node.<long[]> getAttribute("genomes"));
+			if (i > from) {
+				suffix.append(' ').append(node.getId());
 			}
 		}
-		return graph;
+		last.setAttribute("inNodes", first.getAttribute("inNodes"));
+		last.setAttribute("start", first.getAttribute("start"));
+		last.setAttribute("ui.label", nodeids.size());
+		last.setAttribute("collapsed", nodeids);
+		last.setAttribute("genomes", genomes);
+		setClass(last, classes);
+		for (Edge edge : first.getEnteringEdgeSet()) {
+			graph.addEdge(edge.getId() + suffix, edge.getSourceNode(), last,
+					true);
+		}
+		for (int i = from; i < from + length - 1; i++) {
+			graph.removeNode(nodes[chains[i]]);
+		}
 	}
 
 	/**
-	 * Merges the attributes of two nodes.
+	 * Sets the class of a collapsed node.
 	 * 
-	 * @param from
-	 *            The node from which the attributes are taken
-	 * @param to
-	 *            The node into which the merged attributes are stored
+	 * @param node
+	 *            The collapsed node.
+	 * @param classes
+	 *            The classes of the nodes collapsed into it.
 	 */
-	private static void mergeAttributes(final Node from, final Node to) {
-		to.setAttribute("inNodes", from.getAttribute("inNodes"));
-		to.setAttribute("start", from.getAttribute("start"));
-		HashSet<Integer> nodeids = getIds(from);
-		nodeids.addAll(getIds(to));
-		to.setAttribute("ui.label", nodeids.size());
-		to.setAttribute("collapsed", nodeids);
-		HashSet<String> classes = new HashSet<String>();
-		String oldclass = (String) from.getAttribute("ui.class");
-		String newclass = (String) to.getAttribute("ui.class");
-		classes.add(oldclass);
-		classes.add(newclass);
+	private static void setClass(final Node node, final Set<String> classes) {
 		String subtype;
 		if (classes.contains("resistant")) {
 			subtype = "resistant";
@@ -114,10 +151,10 @@ public final class HorizontalCollapser {
 			subtype = "collapsed";
 		}
 		if (classes.contains("selected")) {
-			to.setAttribute("ui.class", "selected");
-			to.setAttribute("oldclass", subtype);
+			node.setAttribute("ui.class", "selected");
+			node.setAttribute("oldclass", subtype);
 		} else {
-			to.setAttribute("ui.class", subtype);
+			node.setAttribute("ui.class", subtype);
 		}
 	}
 
@@ -132,7 +169,8 @@ public final class HorizontalCollapser {
 		if (node.hasAttribute("collapsed")) {
 			return node.getAttribute("collapsed");
 		} else {
-			return new HashSet<Integer>(Integer.parseInt(node.getId()));
+			return new HashSet<Integer>(Arrays.asList(Integer.parseInt(node
+					.getId())));
 		}
 	}
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package nl.tudelft.ti2806.pl1.zoomlevels;
 
 import java.util.Collection;
 
+import nl.tudelft.ti2806.pl1.graph.DGraph;
+import nl.tudelft.ti2806.pl1.graph.DNode;
 import nl.tudelft.ti2806.pl1.mutation.DeletionMutation;
 import nl.tudelft.ti2806.pl1.mutation.InsertionMutation;
 
@@ -22,7 +24,7 @@ public final class InDelCollapser {
 	private static final int LARGE_AMOUNT_OF_NUCLEOIDS = 5000;
 
 	/** The threshold for when the mutation is very large. */
-	private static final int THRESHOLD_LARGE_MUTATION = 95;
+	static final int THRESHOLD_LARGE_MUTATION = 95;
 
 	/**	 */
 	private InDelCollapser() {
@@ -104,6 +106,26 @@ public final class InDelCollapser {
 		return end - start;
 	}
 
+	/**
+	 * The threshold above which a deletion is collapsed. Deletions of many
+	 * nucleoids are only collapsed above {@link #THRESHOLD_LARGE_MUTATION}.
+	 * 
+	 * @param del
+	 *            The mutation.
+	 * @param graph
+	 *            The data graph of the mutation.
+	 * @return The threshold above which the deletion is collapsed.
+	 */
+	static double deletionKey(final DeletionMutation del, final DGraph graph) {
+		DNode pre = graph.getDNode(del.getPreNode());
+		DNode post = graph.getDNode(del.getPostNode());
+		if (pre != null && post != null
+				&& post.getStart() - pre.getEnd() >= LARGE_AMOUNT_OF_NUCLEOIDS) {
+			return Math.max(del.getScore(), THRESHOLD_LARGE_MUTATION);
+		}
+		return del.getScore();
+	}
+
 	/**
 	 * Collapses a simple deletion mutation of a graph.
 	 * 
@@ -116,8 +138,12 @@ public final class InDelCollapser {
 			final Graph graph) {
 		Node preNode = graph.getNode(del.getPreNode() + "");
 		Node postNode = graph.getNode(del.getPostNode() + "");
-		Edge edge = preNode.getEdgeToward(postNode);
-		graph.removeEdge(edge);
+		if (preNode != null && postNode != null) {
+			Edge edge = preNode.getEdgeToward(postNode);
+			if (edge != null) {
+				graph.removeEdge(edge);
+			}
+		}
 	}
 
 	/**
@@ -131,7 +157,9 @@ public final class InDelCollapser {
 	public static void collapseInsertion(final InsertionMutation ins,
 			final Graph graph) {
 		Node insertedNode = graph.getNode(ins.getInNode() + "");
-		graph.removeNode(insertedNode);
+		if (insertedNode != null) {
+			graph.removeNode(insertedNode);
+		}
 	}
 
 }
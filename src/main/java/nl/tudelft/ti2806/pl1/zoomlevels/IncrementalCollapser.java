@@ -0,0 +1,376 @@
+package nl.tudelft.ti2806.pl1.zoomlevels;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import nl.tudelft.ti2806.pl1.graph.ConvertDGraph;
+import nl.tudelft.ti2806.pl1.graph.DGraph;
+import nl.tudelft.ti2806.pl1.mutation.ComplexMutation;
+import nl.tudelft.ti2806.pl1.mutation.DeletionMutation;
+import nl.tudelft.ti2806.pl1.mutation.InsertionMutation;
+import nl.tudelft.ti2806.pl1.mutation.PointMutation;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Element;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.graphstream.stream.ElementSink;
+
+/**
+ * Keeps one visual graph in which the collapses in front of some position of
+ * a {@link CollapseIndex} are done. Moving to another threshold only does or
+ * undoes the collapses between the old and the new position.
+ *
+ * Every collapse only adds and removes nodes and edges. While a collapse is
+ * done the changes are recorded, including the attributes of the removed
+ * elements, which GraphStream reports before removing an element. The
+ * collapses are always undone in the reverse order they were done in, so
+ * undoing the recorded changes in reverse restores the graph exactly.
+ *
+ * Not thread safe.
+ */
+final class IncrementalCollapser implements ElementSink {
+
+	/** The data graph. */
+	private final DGraph dgraph;
+
+	/** The index the collapses are taken from. */
+	private CollapseIndex index;
+
+	/** The visual graph in which the collapses are done. */
+	private Graph graph;
+
+	/** The ids of the nodes of the uncollapsed graph, in their order. */
+	private String[] base;
+
+	/** The recorded changes of every done collapse, in order. */
+	private final List<List<Change>> done = new ArrayList<List<Change>>();
+
+	/** The changes of the collapse being done, or null. */
+	private List<Change> recording;
+
+	/**
+	 * @param dataGraph
+	 *            The data graph.
+	 */
+	IncrementalCollapser(final DGraph dataGraph) {
+		this.dgraph = dataGraph;
+	}
+
+	/**
+	 * Does or undoes collapses until exactly the collapses below a threshold
+	 * are done.
+	 *
+	 * @param collapses
+	 *            The current index of the collapses. If it is not the index
+	 *            the graph was collapsed with, the graph is converted again.
+	 * @param threshold
+	 *            The score threshold.
+	 * @return The collapsed graph. It is changed by the next move.
+	 */
+	Graph moveTo(final CollapseIndex collapses, final double threshold) {
+		if (collapses != index) {
+			reset(collapses);
+		}
+		int target = index.count(threshold);
+		while (done.size() > target) {
+			undo(done.remove(done.size() - 1));
+		}
+		while (done.size() < target) {
+			collapse(done.size());
+		}
+		return graph;
+	}
+
+	/**
+	 * @return The amount of done collapses.
+	 */
+	int getDone() {
+		return done.size();
+	}
+
+	/**
+	 * Converts the data graph again, without any collapses.
+	 *
+	 * @param collapses
+	 *            The index of the collapses.
+	 */
+	private void reset(final CollapseIndex collapses) {
+		if (graph != null) {
+			graph.removeElementSink(this);
+		}
+		index = collapses;
+		done.clear();
+		graph = ConvertDGraph.convert(dgraph, ZoomlevelCreator.NO_SELECTION);
+		base = new String[graph.getNodeCount()];
+		int i = 0;
+		for (Node n : graph.getEachNode()) {
+			base[i++] = n.getId();
+		}
+		graph.addElementSink(this);
+	}
+
+	/**
+	 * Does a collapse, recording the changes.
+	 *
+	 * @param i
+	 *            The position of the collapse in the index.
+	 */
+	private void collapse(final int i) {
+		recording = new ArrayList<Change>();
+		try {
+			switch (index.kind(i)) {
+			case INSERTION:
+				InDelCollapser.collapseInsertion(
+						(InsertionMutation) index.mutation(i), graph);
+				break;
+			case DELETION:
+				InDelCollapser.collapseDeletion(
+						(DeletionMutation) index.mutation(i), graph);
+				break;
+			case COMPLEX:
+				ComplexCollapser.collapseComplexMutation(
+						(ComplexMutation) index.mutation(i), graph);
+				break;
+			default:
+				PointCollapser.collapsePointMutation(graph,
+						(PointMutation) index.mutation(i),
+						ZoomlevelCreator.NO_SELECTION);
+				break;
+			}
+			done.add(recording);
+		} finally {
+			recording = null;
+		}
+	}
+
+	/**
+	 * Undoes the recorded changes of a collapse, in reverse order.
+	 *
+	 * @param changes
+	 *            The changes.
+	 */
+	private void undo(final List<Change> changes) {
+		for (int i = changes.size() - 1; i >= 0; i--) {
+			changes.get(i).undo(graph);
+		}
+	}
+
+	/**
+	 * Copies the collapsed graph in a fixed node order, so the copy does not
+	 * depend on the order in which the collapses were done and undone: the
+	 * nodes of the uncollapsed graph first, followed by the nodes added by
+	 * the done collapses.
+	 *
+	 * @param selected
+	 *            The id of the data node of which the visual node is marked
+	 *            as selected.
+	 * @return The copy.
+	 */
+	Graph copy(final String selected) {
+		Integer selectedId = parse(selected);
+		Graph ret = new SingleGraph("");
+		List<Node> nodes = new ArrayList<Node>(graph.getNodeCount());
+		for (String id : base) {
+			add(graph.getNode(id), nodes);
+		}
+		for (List<Change> changes : done) {
+			for (Change c : changes) {
+				if (c.added && c.node) {
+					add(graph.getNode(c.id), nodes);
+				}
+			}
+		}
+		for (Node n : nodes) {
+			Node copy = ret.addNode(n.getId());
+			copyAttributes(n, copy);
+			Collection<?> ids = n.getAttribute("collapsed");
+			if (selectedId != null && ids != null && ids.contains(selectedId)) {
+				copy.setAttribute("oldclass", copy.getAttribute("ui.class"));
+				copy.setAttribute("ui.class", "selected");
+			}
+		}
+		for (Node n : nodes) {
+			for (Edge e : n.getEachLeavingEdge()) {
+				Edge copy = ret.addEdge(e.getId(), n.getId(), e.getNode1()
+						.getId(), e.isDirected());
+				copyAttributes(e, copy);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * @param node
+	 *            A node of the collapsed graph, or null.
+	 * @param nodes
+	 *            The list to add the node to, unless it is null.
+	 */
+	private static void add(final Node node, final List<Node> nodes) {
+		if (node != null) {
+			nodes.add(node);
+		}
+	}
+
+	/**
+	 * @param id
+	 *            A node id.
+	 * @return The id as a number, or null if it is not a number.
+	 */
+	private static Integer parse(final String id) {
+		try {
+			return Integer.valueOf(id);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param from
+	 *            An element.
+	 * @param to
+	 *            The element to copy its attributes to.
+	 */
+	private static void copyAttributes(final Element from, final Element to) {
+		for (String key : from.getAttributeKeySet()) {
+			Object value = from.getAttribute(key);
+			to.addAttribute(key, value);
+		}
+	}
+
+	/**
+	 * @param element
+	 *            An element.
+	 * @return The attributes of the element.
+	 */
+	private static Map<String, Object> attributes(final Element element) {
+		Map<String, Object> ret = new LinkedHashMap<String, Object>();
+		for (String key : element.getAttributeKeySet()) {
+			ret.put(key, element.getAttribute(key));
+		}
+		return ret;
+	}
+
+	@Override
+	public void nodeAdded(final String sourceId, final long timeId,
+			final String nodeId) {
+		if (recording != null) {
+			recording.add(new Change(true, true, nodeId, null, null));
+		}
+	}
+
+	@Override
+	public void nodeRemoved(final String sourceId, final long timeId,
+			final String nodeId) {
+		if (recording != null) {
+			recording.add(new Change(false, true, nodeId, null,
+					attributes(graph.getNode(nodeId))));
+		}
+	}
+
+	@Override
+	public void edgeAdded(final String sourceId, final long timeId,
+			final String edgeId, final String fromNodeId,
+			final String toNodeId, final boolean directed) {
+		if (recording != null) {
+			recording.add(new Change(true, false, edgeId, null, null));
+		}
+	}
+
+	@Override
+	public void edgeRemoved(final String sourceId, final long timeId,
+			final String edgeId) {
+		if (recording != null) {
+			recording.add(new Change(false, false, edgeId,
+					graph.getEdge(edgeId), attributes(graph.getEdge(edgeId))));
+		}
+	}
+
+	@Override
+	public void graphCleared(final String sourceId, final long timeId) {
+	}
+
+	@Override
+	public void stepBegins(final String sourceId, final long timeId,
+			final double step) {
+	}
+
+	/**
+	 * An added or removed node or edge.
+	 */
+	private static final class Change {
+
+		/** True iff the element was added, false iff it was removed. */
+		private final boolean added;
+
+		/** True iff the element is a node, false iff it is an edge. */
+		private final boolean node;
+
+		/** The id of the element. */
+		private final String id;
+
+		/** The id of the source node of a removed edge. */
+		private final String from;
+
+		/** The id of the target node of a removed edge. */
+		private final String to;
+
+		/** Whether a removed edge is directed. */
+		private final boolean directed;
+
+		/** The attributes of a removed element. */
+		private final Map<String, Object> attributes;
+
+		/**
+		 * @param addedIn
+		 *            True iff the element was added.
+		 * @param nodeIn
+		 *            True iff the element is a node.
+		 * @param idIn
+		 *            The id of the element.
+		 * @param edge
+		 *            The removed edge, or null.
+		 * @param attributesIn
+		 *            The attributes of a removed element.
+		 */
+		private Change(final boolean addedIn, final boolean nodeIn,
+				final String idIn, final Edge edge,
+				final Map<String, Object> attributesIn) {
+			this.added = addedIn;
+			this.node = nodeIn;
+			this.id = idIn;
+			this.from = edge == null ? null : edge.getNode0().getId();
+			this.to = edge == null ? null : edge.getNode1().getId();
+			this.directed = edge != null && edge.isDirected();
+			this.attributes = attributesIn;
+		}
+
+		/**
+		 * Undoes the change.
+		 *
+		 * @param graph
+		 *            The graph in which the change was made.
+		 */
+		private void undo(final Graph graph) {
+			if (added && node) {
+				graph.removeNode(id);
+			} else if (added) {
+				graph.removeEdge(id);
+			} else {
+				Element e;
+				if (node) {
+					e = graph.addNode(id);
+				} else {
+					e = graph.addEdge(id, from, to, directed);
+				}
+				for (Map.Entry<String, Object> a : attributes.entrySet()) {
+					e.addAttribute(a.getKey(), a.getValue());
+				}
+			}
+		}
+	}
+}
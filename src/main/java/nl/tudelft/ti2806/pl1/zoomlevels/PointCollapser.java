@@ -5,6 +5,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 
+import nl.tudelft.ti2806.pl1.graph.GenomeDictionary;
+import nl.tudelft.ti2806.pl1.graph.VisualIndex;
 import nl.tudelft.ti2806.pl1.mutation.PointMutation;
 
 import org.graphstream.graph.Edge;
@@ -61,9 +63,10 @@ public final class PointCollapser {
 	 * @param string
 	 *            The selected node in the graph.
 	 */
-	private static void collapsePointMutation(final Graph gsg,
+	static void collapsePointMutation(final Graph gsg,
 			final PointMutation pointmutation, final String string) {
 		HashSet<Integer> nodeids = new HashSet<Integer>();
+		long[] genomes = null;
 		StringBuilder sb = new StringBuilder();
 		int x = 0;
 		double y = 0.0;
@@ -76,6 +79,8 @@ public final class PointCollapser {
 				if (node != null) {
 					x = node.getAttribute("x");
 					y += (int) node.getAttribute("y");
+					genomes = GenomeDictionary.or(genomes,
+							node.<long[]> getAttribute("genomes"));
 					if (node.getLeavingEdgeSet().size() == 1
 							&& node.getEnteringEdgeSet().size() == 1) {
 						gsg.removeNode(node);
@@ -87,8 +92,9 @@ public final class PointCollapser {
 				sb.append("/");
 			}
 			y /= pointmutation.getNodes().size();
-			makeNewNode(gsg, x, y, sb.toString(), pointmutation, nodeids,
-					string);
+			Node newnode = makeNewNode(gsg, x, y, sb.toString(),
+					pointmutation, nodeids, string);
+			newnode.addAttribute("genomes", GenomeDictionary.or(genomes, null));
 		}
 	}
 
@@ -179,8 +185,9 @@ public final class PointCollapser {
 	 *            The nodes that this new node contains.
 	 * @param string
 	 *            The selected node in the graph.
+	 * @return The new node.
 	 */
-	private static void makeNewNode(final Graph gsg, final int x,
+	private static Node makeNewNode(final Graph gsg, final int x,
 			final double y, final String newId,
 			final PointMutation pointmutation, final HashSet<Integer> nodeids,
 			final String string) {
@@ -204,6 +211,7 @@ public final class PointCollapser {
 				pointmutation.getPreNode() + "", newnode.getId(), true);
 		gsg.addEdge("CEDGE_" + newId + "/" + pointmutation.getPostNode(),
 				newnode.getId(), pointmutation.getPostNode() + "", true);
+		return newnode;
 	}
 
 	/**
@@ -221,4 +229,28 @@ public final class PointCollapser {
 		}
 		return String.valueOf(Integer.MIN_VALUE);
 	}
+
+	/**
+	 * Finds the id of the selected node, looking up the visual node containing
+	 * the selected data node in the reverse index of the graph when possible.
+	 * 
+	 * @param ret
+	 *            Graph in which to search the selected node.
+	 * @param selected
+	 *            The id of the node which was selected before collapsing.
+	 * @return the node id if a node is selected, otherwise Integer.MIN_VALUE.
+	 */
+	public static String findSelected(final Graph ret, final String selected) {
+		int id;
+		try {
+			id = Integer.parseInt(selected);
+		} catch (NumberFormatException e) {
+			return findSelected(ret);
+		}
+		Node n = VisualIndex.get(ret).find(id);
+		if (n != null && "selected".equals(n.getAttribute("ui.class"))) {
+			return n.getId();
+		}
+		return findSelected(ret);
+	}
 }
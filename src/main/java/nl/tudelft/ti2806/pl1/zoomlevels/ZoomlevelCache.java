@@ -0,0 +1,430 @@
+package nl.tudelft.ti2806.pl1.zoomlevels;
+
+import java.awt.Dimension;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import nl.tudelft.ti2806.pl1.geneAnnotation.ReferenceGeneObserver;
+import nl.tudelft.ti2806.pl1.geneAnnotation.ResistanceMutationObserver;
+import nl.tudelft.ti2806.pl1.mutation.ResistanceMutation;
+import nl.tudelft.ti2806.pl1.mutation.ScoreMultiplier;
+import nl.tudelft.ti2806.pl1.reader.NodePlacer;
+
+import org.graphstream.graph.Graph;
+
+/**
+ * Keeps recently used zoom levels, keyed by their score threshold and the
+ * score multipliers they were computed with, so going back to a level needs
+ * no recomputation. Levels can be prefetched on a background thread. The
+ * least recently used levels are dropped once the cached graphs together
+ * exceed a memory budget.
+ *
+ * All levels are computed on the same background thread, one at a time,
+ * because computing a level scores the mutations.
+ */
+public final class ZoomlevelCache implements ReferenceGeneObserver,
+		ResistanceMutationObserver {
+
+	/** Estimated memory used by a visual node or edge, in bytes. */
+	private static final int BYTES_PER_ELEMENT = 1024;
+
+	/** The part of the maximum heap size used for cached levels. */
+	private static final int MEMORY_SHARE = 4;
+
+	/** The creator computing the levels. */
+	private final ZoomlevelCreator creator;
+
+	/** The size of the view the levels are placed in. */
+	private final Dimension viewSize;
+
+	/** The maximum total amount of nodes and edges of the cached levels. */
+	private final long budget;
+
+	/** The cached levels, from least to most recently used. */
+	private final LinkedHashMap<Key, Level> levels;
+
+	/** The total amount of nodes and edges of the cached levels. */
+	private long weight;
+
+	/** The levels being computed. */
+	private final Map<Key, Future<Level>> pending;
+
+	/** Increased every time the cache is cleared. */
+	private int generation;
+
+	/** The thread computing the levels. */
+	private final ExecutorService executor;
+
+	/**
+	 * Creates a cache using a quarter of the maximum heap size.
+	 *
+	 * @param zlc
+	 *            The creator computing the levels.
+	 * @param size
+	 *            The size of the view the levels are placed in.
+	 */
+	public ZoomlevelCache(final ZoomlevelCreator zlc, final Dimension size) {
+		this(zlc, size, Runtime.getRuntime().maxMemory() / MEMORY_SHARE
+				/ BYTES_PER_ELEMENT);
+	}
+
+	/**
+	 * @param zlc
+	 *            The creator computing the levels.
+	 * @param size
+	 *            The size of the view the levels are placed in.
+	 * @param maxElements
+	 *            The maximum total amount of nodes and edges of the cached
+	 *            levels. The most recently used level is always kept.
+	 */
+	public ZoomlevelCache(final ZoomlevelCreator zlc, final Dimension size,
+			final long maxElements) {
+		this.creator = zlc;
+		this.viewSize = new Dimension(size);
+		this.budget = maxElements;
+		this.levels = new LinkedHashMap<Key, Level>(16, 0.75f, true);
+		this.pending = new HashMap<Key, Future<Level>>();
+		this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable r) {
+				Thread t = new Thread(r, "zoomlevels");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	/**
+	 * Gets a zoom level, computing it if it is not cached. A level which is
+	 * being prefetched is waited for; other prefetches which have not started
+	 * yet are cancelled so they do not delay the requested level.
+	 *
+	 * @param threshold
+	 *            The score threshold.
+	 * @return The zoom level.
+	 */
+	public Level get(final int threshold) {
+		while (true) {
+			Future<Level> future;
+			synchronized (this) {
+				Key key = key(threshold);
+				Level ret = levels.get(key);
+				if (ret != null) {
+					return ret;
+				}
+				future = pending.get(key);
+				if (future == null) {
+					cancelPending();
+					future = submit(key);
+				}
+			}
+			try {
+				return future.get();
+			} catch (CancellationException e) {
+				continue;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Gets a zoom level only if it is cached.
+	 *
+	 * @param threshold
+	 *            The score threshold.
+	 * @return The zoom level, or null if it is not cached.
+	 */
+	public synchronized Level getCached(final int threshold) {
+		return levels.get(key(threshold));
+	}
+
+	/**
+	 * Starts computing zoom levels in the background, unless they are cached
+	 * or being computed already.
+	 *
+	 * @param thresholds
+	 *            The score thresholds of the levels.
+	 */
+	public synchronized void prefetch(final int... thresholds) {
+		for (int threshold : thresholds) {
+			Key key = key(threshold);
+			if (!levels.containsKey(key) && !pending.containsKey(key)) {
+				submit(key);
+			}
+		}
+	}
+
+	/**
+	 * Drops all cached levels and cancels the ones being computed.
+	 */
+	public synchronized void clear() {
+		generation++;
+		creator.invalidate();
+		levels.clear();
+		weight = 0;
+		for (Future<Level> f : pending.values()) {
+			f.cancel(false);
+		}
+		pending.clear();
+	}
+
+	/**
+	 * Stops the background thread. The cache can not compute levels anymore
+	 * afterwards.
+	 */
+	public void shutdown() {
+		clear();
+		executor.shutdownNow();
+	}
+
+	/**
+	 * @return The amount of cached levels.
+	 */
+	public synchronized int size() {
+		return levels.size();
+	}
+
+	/**
+	 * @param threshold
+	 *            The score threshold.
+	 * @return The key of the level with the threshold and the current
+	 *         multipliers.
+	 */
+	private Key key(final int threshold) {
+		return new Key(threshold, ScoreMultiplier.snapshot(), generation);
+	}
+
+	/**
+	 * Cancels the computations which have not started yet.
+	 */
+	private void cancelPending() {
+		Iterator<Future<Level>> it = pending.values().iterator();
+		while (it.hasNext()) {
+			if (it.next().cancel(false)) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Starts computing a level in the background.
+	 *
+	 * @param key
+	 *            The key of the level.
+	 * @return The future level.
+	 */
+	private Future<Level> submit(final Key key) {
+		Future<Level> ret = executor.submit(new Callable<Level>() {
+			@Override
+			public Level call() {
+				Level level;
+				try {
+					level = compute(key.threshold);
+				} catch (RuntimeException e) {
+					forget(key);
+					throw e;
+				}
+				store(key, level);
+				return level;
+			}
+		});
+		pending.put(key, ret);
+		return ret;
+	}
+
+	/**
+	 * Creates and places a zoom level.
+	 *
+	 * @param threshold
+	 *            The score threshold.
+	 * @return The zoom level.
+	 */
+	private Level compute(final int threshold) {
+		Graph graph = creator.createGraph(threshold,
+				ZoomlevelCreator.NO_SELECTION);
+		Dimension size = NodePlacer.place(graph, viewSize);
+		NodePlacer.placeY(graph);
+		return new Level(threshold, graph, size);
+	}
+
+	/**
+	 * Forgets a level which failed to compute, so it is retried the next time
+	 * it is requested.
+	 *
+	 * @param key
+	 *            The key of the level.
+	 */
+	private synchronized void forget(final Key key) {
+		pending.remove(key);
+	}
+
+	/**
+	 * Caches a computed level, unless the multipliers changed or the cache was
+	 * cleared while it was computed, and drops the least recently used levels
+	 * which do not fit in the budget anymore.
+	 *
+	 * @param key
+	 *            The key of the level.
+	 * @param level
+	 *            The level.
+	 */
+	private synchronized void store(final Key key, final Level level) {
+		pending.remove(key);
+		if (!key.equals(key(key.threshold))) {
+			return;
+		}
+		levels.put(key, level);
+		weight += level.weight();
+		Iterator<Entry<Key, Level>> it = levels.entrySet().iterator();
+		while (weight > budget && levels.size() > 1) {
+			Level eldest = it.next().getValue();
+			weight -= eldest.weight();
+			it.remove();
+		}
+	}
+
+	@Override
+	public void update() {
+		clear();
+	}
+
+	@Override
+	public void update(final Map<Long, ResistanceMutation> rgs) {
+		clear();
+	}
+
+	/**
+	 * @return The thresholds of the cached levels, from least to most recently
+	 *         used.
+	 */
+	synchronized ArrayList<Integer> getThresholds() {
+		ArrayList<Integer> ret = new ArrayList<Integer>(levels.size());
+		for (Key key : levels.keySet()) {
+			ret.add(key.threshold);
+		}
+		return ret;
+	}
+
+	/**
+	 * A computed and placed zoom level.
+	 */
+	public static final class Level {
+
+		/** The score threshold of the level. */
+		private final int threshold;
+
+		/** The placed visual graph. */
+		private final Graph graph;
+
+		/** The size of the placed graph. */
+		private final Dimension size;
+
+		/**
+		 * @param thresholdIn
+		 *            The score threshold of the level.
+		 * @param graphIn
+		 *            The placed visual graph.
+		 * @param sizeIn
+		 *            The size of the placed graph.
+		 */
+		Level(final int thresholdIn, final Graph graphIn,
+				final Dimension sizeIn) {
+			this.threshold = thresholdIn;
+			this.graph = graphIn;
+			this.size = sizeIn;
+		}
+
+		/**
+		 * @return The score threshold of the level.
+		 */
+		public int getThreshold() {
+			return threshold;
+		}
+
+		/**
+		 * @return The placed visual graph.
+		 */
+		public Graph getGraph() {
+			return graph;
+		}
+
+		/**
+		 * @return The size of the placed graph.
+		 */
+		public Dimension getSize() {
+			return new Dimension(size);
+		}
+
+		/**
+		 * @return The amount of nodes and edges of the graph.
+		 */
+		private long weight() {
+			return graph.getNodeCount() + graph.getEdgeCount();
+		}
+	}
+
+	/**
+	 * Identifies a zoom level.
+	 */
+	private static final class Key {
+
+		/** The score threshold. */
+		private final int threshold;
+
+		/** The multipliers the mutations were scored with. */
+		private final double[] mults;
+
+		/** The generation of the cache. */
+		private final int generation;
+
+		/**
+		 * @param thresholdIn
+		 *            The score threshold.
+		 * @param multsIn
+		 *            The multipliers the mutations were scored with.
+		 * @param generationIn
+		 *            The generation of the cache.
+		 */
+		private Key(final int thresholdIn, final double[] multsIn,
+				final int generationIn) {
+			this.threshold = thresholdIn;
+			this.mults = multsIn;
+			this.generation = generationIn;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key that = (Key) obj;
+			return threshold == that.threshold
+					&& generation == that.generation
+					&& Arrays.equals(mults, that.mults);
+		}
+
+		@Override
+		public int hashCode() {
+			return (threshold * 31 + generation) * 31 + Arrays.hashCode(mults);
+		}
+	}
+}
@@ -1,7 +1,7 @@
 package nl.tudelft.ti2806.pl1.zoomlevels;
 
-import nl.tudelft.ti2806.pl1.graph.ConvertDGraph;
 import nl.tudelft.ti2806.pl1.graph.DGraph;
+import nl.tudelft.ti2806.pl1.graph.VisualIndex;
 
 import org.graphstream.graph.Graph;
 
@@ -11,9 +11,21 @@ import org.graphstream.graph.Graph;
  */
 public final class ZoomlevelCreator {
 
+	/** The selection of a graph in which no node is selected. */
+	public static final String NO_SELECTION = String.valueOf(Integer.MIN_VALUE);
+
 	/** The data graph from which the zoom levels will be created. */
 	private DGraph graph;
 
+	/** The graph in which the mutations are collapsed. */
+	private final IncrementalCollapser collapser;
+
+	/** Guards the index. */
+	private final Object indexLock = new Object();
+
+	/** The collapsible mutations sorted by their key, or null. */
+	private CollapseIndex index;
+
 	/**
 	 * Initialize the zoom level creator.
 	 * 
@@ -22,6 +34,7 @@ public final class ZoomlevelCreator {
 	 */
 	public ZoomlevelCreator(final DGraph dataGraph) {
 		this.graph = dataGraph;
+		this.collapser = new IncrementalCollapser(dataGraph);
 	}
 
 	/**
@@ -33,19 +46,63 @@ public final class ZoomlevelCreator {
 	 * @return The created graph
 	 */
 	public Graph createGraph(final int threshold) {
-		Graph ret = ConvertDGraph.convert(graph);
-		ret = InDelCollapser.collapseInsertions(graph.getInsMutations(), ret,
-				threshold);
-		ret = InDelCollapser.collapseDeletions(graph.getDelMutations(), ret,
-				threshold);
-		ret = ComplexCollapser.collapseComplexMutations(
-				graph.getComplexMutations(), ret, threshold);
-		ret = PointCollapser.collapseNodes(graph.getPointMutations(), ret,
-				threshold, graph.getSelected());
+		String selected = graph.getSelected();
+		Graph ret = createGraph(threshold, selected);
+		graph.setSelected(PointCollapser.findSelected(ret, selected));
+		return ret;
+	}
+
+	/**
+	 * Creates a graph with its mutations collapsed according to a score
+	 * threshold. Does not change the data graph, so it can be called from a
+	 * background thread.
+	 * 
+	 * The mutations are collapsed in one graph kept between calls, in which
+	 * only the collapses between the previous and the new threshold are done
+	 * or undone. The returned graph is a copy of it, with its chains of nodes
+	 * collapsed.
+	 * 
+	 * @param threshold
+	 *            The score threshold.
+	 * @param selected
+	 *            The id of the node to mark as selected.
+	 * @return The created graph
+	 */
+	public Graph createGraph(final int threshold, final String selected) {
+		CollapseIndex collapses = getIndex();
+		Graph ret;
+		synchronized (collapser) {
+			collapser.moveTo(collapses, threshold);
+			ret = collapser.copy(selected);
+		}
 		if (threshold != 0) {
 			ret = HorizontalCollapser.horizontalCollapse(ret);
 		}
-		graph.setSelected(PointCollapser.findSelected(ret));
+		VisualIndex.store(ret);
 		return ret;
 	}
+
+	/**
+	 * @return The collapsible mutations sorted by their key, built again if
+	 *         the mutations would be scored differently now.
+	 */
+	public CollapseIndex getIndex() {
+		synchronized (indexLock) {
+			if (index == null || !index.isCurrent(graph)) {
+				index = CollapseIndex.build(graph);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Drops the index of the collapsible mutations, so it is built again the
+	 * next time a graph is created. Needed when the scores of the mutations
+	 * changed for another reason than the multipliers or the annotations.
+	 */
+	public void invalidate() {
+		synchronized (indexLock) {
+			index = null;
+		}
+	}
 }
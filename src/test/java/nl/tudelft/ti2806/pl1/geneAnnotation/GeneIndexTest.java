@@ -0,0 +1,95 @@
+package nl.tudelft.ti2806.pl1.geneAnnotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class GeneIndexTest {
+
+	private static final int GENES = 500;
+
+	private static final int LENGTH = 100000;
+
+	private List<ReferenceGene> genes;
+
+	private GeneIndex index;
+
+	@Before
+	public void setup() {
+		Random random = new Random(42);
+		genes = new ArrayList<ReferenceGene>();
+		for (int i = 0; i < GENES; i++) {
+			int start = random.nextInt(LENGTH);
+			int end = start + random.nextInt(random.nextInt(10) == 0 ? 20000
+					: 500);
+			genes.add(new ReferenceGene(start, end, 0, "+", "gene" + i));
+		}
+		index = new GeneIndex(genes);
+	}
+
+	private List<ReferenceGene> bruteOverlapping(final long from,
+			final long to) {
+		List<ReferenceGene> ret = new ArrayList<ReferenceGene>();
+		for (ReferenceGene g : genes) {
+			if (g.getStart() <= to && g.getEnd() >= from) {
+				ret.add(g);
+			}
+		}
+		return ret;
+	}
+
+	@Test
+	public void pointTest() {
+		for (int p = -10; p < LENGTH + 30000; p += 97) {
+			List<ReferenceGene> expected = bruteOverlapping(p, p);
+			assertEquals(new HashSet<ReferenceGene>(expected),
+					new HashSet<ReferenceGene>(index.at(p)));
+			assertEquals(!expected.isEmpty(), index.contains(p));
+		}
+	}
+
+	@Test
+	public void overlapTest() {
+		Random random = new Random(7);
+		for (int i = 0; i < 200; i++) {
+			int from = random.nextInt(LENGTH);
+			int to = from + random.nextInt(2000);
+			List<ReferenceGene> expected = bruteOverlapping(from, to);
+			List<ReferenceGene> found = index.overlapping(from, to);
+			assertEquals(expected.size(), found.size());
+			assertEquals(new HashSet<ReferenceGene>(expected),
+					new HashSet<ReferenceGene>(found));
+			assertEquals(!expected.isEmpty(), index.overlaps(from, to));
+		}
+	}
+
+	@Test
+	public void withinTest() {
+		List<ReferenceGene> found = index.within(1000, 20000);
+		for (ReferenceGene g : genes) {
+			boolean inside = g.getStart() >= 1000 && g.getEnd() <= 20000;
+			assertEquals(inside, found.contains(g));
+		}
+	}
+
+	@Test
+	public void boundaryTest() {
+		GeneIndex small = new GeneIndex(Arrays.asList(new ReferenceGene(10,
+				20, 0, "+", "a")));
+		assertTrue(small.contains(10));
+		assertTrue(small.contains(20));
+		assertFalse(small.contains(21));
+		assertFalse(small.contains(9));
+		assertEquals(1, small.size());
+		assertFalse(new GeneIndex(new ArrayList<ReferenceGene>()).contains(0));
+	}
+}
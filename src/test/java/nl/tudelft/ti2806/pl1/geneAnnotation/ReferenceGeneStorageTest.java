@@ -154,4 +154,17 @@ public class ReferenceGeneStorageTest {
 		verify(n1).addResistantMutationIndex(
 				rgs.getDrugResistanceMutations().get((long) 960154));
 	}
+
+	@Test
+	public void testGeneMutationBoundaries() {
+		for (ReferenceGene rg : RGS.getReferenceGenes()) {
+			if (rg.getStart() == 958526) {
+				assertEquals(2, rg.getMutations().size());
+				assertTrue(rg.containsMutationIndex(960154));
+			} else if (rg.getStart() == 1824437) {
+				assertTrue(rg.containsMutationIndex(1825894));
+				assertFalse(rg.containsMutationIndex(1825895));
+			}
+		}
+	}
 }
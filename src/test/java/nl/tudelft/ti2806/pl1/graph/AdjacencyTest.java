@@ -0,0 +1,79 @@
+package nl.tudelft.ti2806.pl1.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdjacencyTest {
+
+	private DGraph graph;
+
+	private DNode[] nodes;
+
+	@Before
+	public void setup() {
+		graph = new DGraph();
+		nodes = new DNode[4];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = new DNode(i, new HashSet<String>(), 0, 0, "A");
+			graph.addDNode(nodes[i]);
+		}
+		graph.addDEdge(new DEdge(nodes[0], nodes[1]));
+		graph.addDEdge(new DEdge(nodes[0], nodes[2]));
+		graph.addDEdge(new DEdge(nodes[1], nodes[3]));
+		graph.addDEdge(new DEdge(nodes[2], nodes[3]));
+	}
+
+	@Test
+	public void structureTest() {
+		Adjacency adj = graph.freeze();
+		assertEquals(4, adj.size());
+		assertEquals(4, adj.edgeCount());
+		int v = adj.indexOf(nodes[0]);
+		assertSame(nodes[0], adj.node(v));
+		assertEquals(2, adj.outDegree(v));
+		assertEquals(0, adj.inDegree(v));
+		assertSame(nodes[1], adj.node(adj.target(adj.firstOut(v))));
+		assertSame(nodes[2], adj.node(adj.target(adj.firstOut(v) + 1)));
+		int w = adj.indexOf(nodes[3]);
+		assertEquals(2, adj.inDegree(w));
+		assertSame(nodes[1], adj.node(adj.source(adj.firstIn(w))));
+	}
+
+	@Test
+	public void neighboursTest() {
+		graph.freeze();
+		assertEquals(Arrays.asList(nodes[1], nodes[2]),
+				nodes[0].getNextNodes());
+		assertEquals(Arrays.asList(nodes[1], nodes[2]),
+				nodes[3].getPreviousNodes());
+	}
+
+	@Test
+	public void invalidatedOnChangeTest() {
+		Adjacency adj = graph.freeze();
+		assertSame(adj, graph.getAdjacency());
+		graph.addDEdge(new DEdge(nodes[1], nodes[2]));
+		assertFalse(adj.isValid());
+		Adjacency rebuilt = graph.getAdjacency();
+		assertNotSame(adj, rebuilt);
+		assertTrue(rebuilt.isValid());
+		assertEquals(5, rebuilt.edgeCount());
+		assertEquals(Arrays.asList(nodes[3], nodes[2]),
+				nodes[1].getNextNodes());
+	}
+
+	@Test
+	public void duplicateEdgeTest() {
+		assertFalse(graph.addDEdge(new DEdge(nodes[0], nodes[1])));
+		assertEquals(4, graph.getAdjacency().edgeCount());
+	}
+}
@@ -0,0 +1,155 @@
+package nl.tudelft.ti2806.pl1.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import nl.tudelft.ti2806.pl1.graph.BubbleTree.Bubble;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BubbleTreeTest {
+
+	private DGraph graph;
+
+	private DNode[] nodes;
+
+	@Before
+	public void setup() {
+		graph = new DGraph();
+	}
+
+	private void nodes(final int amount) {
+		nodes = new DNode[amount];
+		for (int i = 0; i < amount; i++) {
+			nodes[i] = new DNode(i, new HashSet<String>(), 0, 0, "A");
+			graph.addDNode(nodes[i]);
+		}
+	}
+
+	private void edge(final int from, final int to) {
+		graph.addDEdge(new DEdge(nodes[from], nodes[to]));
+	}
+
+	@Test
+	public void simpleBubbleTest() {
+		nodes(4);
+		edge(0, 1);
+		edge(0, 2);
+		edge(1, 3);
+		edge(2, 3);
+		BubbleTree tree = graph.getBubbles();
+		assertEquals(1, tree.size());
+		Bubble bubble = tree.getBubbles().get(0);
+		assertSame(nodes[0], bubble.getEntrance());
+		assertSame(nodes[3], bubble.getExit());
+		assertEquals(2, bubble.size());
+		assertEquals(new HashSet<DNode>(Arrays.asList(nodes[1], nodes[2])),
+				new HashSet<DNode>(bubble.getInterior()));
+		assertTrue(bubble.isSimple());
+		assertSame(bubble, tree.entered(nodes[0]));
+		assertNull(tree.entered(nodes[1]));
+		assertSame(bubble, tree.innermost(nodes[2]));
+		assertNull(tree.innermost(nodes[0]));
+		assertNull(tree.innermost(nodes[3]));
+		assertEquals(Arrays.asList(bubble), tree.getRoots());
+	}
+
+	@Test
+	public void nestedBubbleTest() {
+		nodes(7);
+		edge(0, 1);
+		edge(0, 5);
+		edge(1, 2);
+		edge(1, 3);
+		edge(2, 4);
+		edge(3, 4);
+		edge(4, 6);
+		edge(5, 6);
+		BubbleTree tree = graph.getBubbles();
+		assertEquals(2, tree.size());
+		Bubble outer = tree.entered(nodes[0]);
+		Bubble inner = tree.entered(nodes[1]);
+		assertSame(nodes[6], outer.getExit());
+		assertSame(nodes[4], inner.getExit());
+		assertFalse(outer.isSimple());
+		assertTrue(inner.isSimple());
+		assertEquals(5, outer.size());
+		assertSame(outer, inner.getParent());
+		assertEquals(Arrays.asList(inner), outer.getChildren());
+		assertEquals(0, outer.getDepth());
+		assertEquals(1, inner.getDepth());
+		assertEquals(Arrays.asList(outer), tree.getRoots());
+		assertSame(inner, tree.innermost(nodes[2]));
+		assertSame(outer, tree.innermost(nodes[4]));
+		assertSame(outer, tree.innermost(nodes[5]));
+		assertTrue(outer.contains(nodes[3]));
+		assertFalse(inner.contains(nodes[5]));
+	}
+
+	@Test
+	public void consecutiveBubblesTest() {
+		nodes(7);
+		edge(0, 1);
+		edge(0, 2);
+		edge(1, 3);
+		edge(2, 3);
+		edge(3, 4);
+		edge(3, 5);
+		edge(4, 6);
+		edge(5, 6);
+		BubbleTree tree = graph.getBubbles();
+		assertEquals(2, tree.getRoots().size());
+		assertSame(nodes[3], tree.entered(nodes[0]).getExit());
+		assertSame(nodes[6], tree.entered(nodes[3]).getExit());
+		assertNull(tree.innermost(nodes[3]));
+	}
+
+	@Test
+	public void notABubbleTest() {
+		nodes(5);
+		edge(0, 1);
+		edge(1, 2);
+		edge(3, 1);
+		edge(1, 4);
+		BubbleTree tree = graph.getBubbles();
+		assertEquals(0, tree.size());
+		assertTrue(tree.getRoots().isEmpty());
+	}
+
+	@Test
+	public void complexBubbleTest() {
+		nodes(5);
+		edge(0, 1);
+		edge(0, 2);
+		edge(1, 2);
+		edge(1, 3);
+		edge(2, 4);
+		edge(3, 4);
+		Bubble bubble = graph.getBubbles().entered(nodes[0]);
+		assertSame(nodes[4], bubble.getExit());
+		assertFalse(bubble.isSimple());
+	}
+
+	@Test
+	public void invalidateTest() {
+		nodes(4);
+		edge(0, 1);
+		edge(0, 2);
+		edge(1, 3);
+		BubbleTree tree = graph.getBubbles();
+		assertSame(tree, graph.getBubbles());
+		assertEquals(0, tree.size());
+		edge(2, 3);
+		assertFalse(tree.isValid());
+		assertNotSame(tree, graph.getBubbles());
+		assertEquals(1, graph.getBubbles().size());
+	}
+}
@@ -64,6 +64,7 @@ public class ConvertDGraphTest {
 		when(graph.getNodes()).thenReturn(map);
 		when(graph.getEdges()).thenReturn(Arrays.asList(edge));
 		when(graph.getStart()).thenReturn(node1);
+		when(graph.getGenomes()).thenReturn(new GenomeDictionary());
 
 		gsGraph = ConvertDGraph.convert(graph);
 	}
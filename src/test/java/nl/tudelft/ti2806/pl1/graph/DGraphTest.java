@@ -140,6 +140,20 @@ public class DGraphTest {
 		verify(node3).deleteEdge(edge2);
 	}
 
+	@Test
+	public void deleteNodeDeletesReferencesTest() {
+		DGraph g = new DGraph();
+		DNode a = new DNode(0, new HashSet<String>(Arrays.asList("X", "Y")),
+				0, 0, "A");
+		DNode b = new DNode(1, new HashSet<String>(Arrays.asList("Y")), 0, 0,
+				"C");
+		g.addDNode(a);
+		g.addDNode(b);
+		assertTrue(g.removeDNode(0));
+		assertFalse(g.getReferences().containsKey("X"));
+		assertEquals(Arrays.asList(b), g.getReferences().get("Y"));
+	}
+
 	@Test
 	public void addEdgeWithoutStartEndNodeInGraph() {
 		DEdge edge = mock(DEdge.class);
@@ -284,10 +298,11 @@ public class DGraphTest {
 
 	@Test
 	public void testGetDNodes() {
-		ViewArea va = mock(ViewArea.class);
+		ViewArea va = new ViewArea(0, 50);
+		when(node1.getX()).thenReturn(10);
+		when(node2.getX()).thenReturn(100);
 		graph.addDNode(node1);
 		graph.addDNode(node2);
-		when(va.isContained(node1)).thenReturn(true);
 		ArrayList<DNode> ret = new ArrayList<DNode>();
 		ret.add(node1);
 		assertEquals(graph.getDNodes(va), ret);
@@ -0,0 +1,97 @@
+package nl.tudelft.ti2806.pl1.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class GenomeDictionaryTest {
+
+	private GenomeDictionary dict;
+
+	@Before
+	public void setup() {
+		dict = new GenomeDictionary();
+		for (int i = 0; i < 100; i++) {
+			dict.add("TKK-" + i);
+		}
+	}
+
+	@Test
+	public void addTest() {
+		assertEquals(100, dict.size());
+		assertEquals(5, dict.add("TKK-5"));
+		assertEquals(100, dict.add("TKK_REF"));
+		assertEquals(100, dict.indexOf("TKK_REF"));
+		assertEquals(-1, dict.indexOf("unknown"));
+		assertEquals("TKK-7", dict.getName(7));
+	}
+
+	@Test
+	public void bitsRoundTripTest() {
+		HashSet<String> set = new HashSet<String>(Arrays.asList("TKK-0",
+				"TKK-63", "TKK-64", "TKK-99"));
+		long[] bits = dict.toBits(set);
+		assertEquals(4, GenomeDictionary.count(bits));
+		assertEquals(set, dict.toNames(bits));
+		assertTrue(GenomeDictionary.contains(bits, 64));
+		assertFalse(GenomeDictionary.contains(bits, 65));
+		assertFalse(GenomeDictionary.contains(bits, -1));
+		assertFalse(GenomeDictionary.contains(bits, 1000));
+	}
+
+	@Test
+	public void sharedTest() {
+		long[] a = dict.toBits(Arrays.asList("TKK-1", "TKK-70", "TKK-80"));
+		long[] b = dict.toBits(Arrays.asList("TKK-70", "TKK-80", "TKK-2"));
+		long[] c = dict.toBits(Arrays.asList("TKK-3"));
+		assertEquals(2, GenomeDictionary.countShared(a, b));
+		assertEquals(new HashSet<String>(Arrays.asList("TKK-70", "TKK-80")),
+				dict.toNames(GenomeDictionary.and(a, b)));
+		assertTrue(GenomeDictionary.intersects(a, b));
+		assertFalse(GenomeDictionary.intersects(a, c));
+		assertEquals(0, GenomeDictionary.countShared(b, c));
+	}
+
+	@Test
+	public void maskIgnoresUnknownTest() {
+		long[] mask = dict.mask(Arrays.asList("TKK-4", "unknown"));
+		assertEquals(1, GenomeDictionary.count(mask));
+		assertEquals(100, dict.size());
+	}
+
+	@Test
+	public void orTest() {
+		long[] a = dict.mask(Arrays.asList("TKK-1"));
+		long[] b = dict.mask(Arrays.asList("TKK-70", "TKK-90"));
+		long[] or = GenomeDictionary.or(a, b);
+		assertEquals(new HashSet<String>(Arrays.asList("TKK-1", "TKK-70",
+				"TKK-90")), dict.toNames(or));
+		assertEquals(1, GenomeDictionary.count(a));
+		assertEquals(1, GenomeDictionary.count(GenomeDictionary.or(a, null)));
+		assertEquals(0, GenomeDictionary.or(null, null).length);
+		assertEquals(3,
+				GenomeDictionary.count(GenomeDictionary.or(new long[1], or)));
+	}
+
+	@Test
+	public void boundNodeTest() {
+		HashSet<String> sources = new HashSet<String>(Arrays.asList("TKK-1",
+				"TKK-90"));
+		DNode node = new DNode(1, sources, 0, 0, "A");
+		DNode other = new DNode(2, new HashSet<String>(
+				Arrays.asList("TKK-90")), 0, 0, "C");
+		node.bindGenomes(dict);
+		other.bindGenomes(dict);
+		assertEquals(sources, node.getSources());
+		assertTrue(node.hasSource("TKK-90"));
+		assertFalse(node.hasSource("TKK-2"));
+		assertFalse(node.hasSource("unknown"));
+		assertEquals(1, node.countSharedSources(other));
+	}
+}
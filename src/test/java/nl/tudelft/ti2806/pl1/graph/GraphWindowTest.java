@@ -0,0 +1,152 @@
+package nl.tudelft.ti2806.pl1.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import nl.tudelft.ti2806.pl1.gui.contentpane.ViewArea;
+
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.graphstream.stream.SinkAdapter;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GraphWindowTest {
+
+	private static final int NODES = 100;
+
+	private static final int SPACING = 100;
+
+	private Graph graph;
+
+	private GraphWindow window;
+
+	@Before
+	public void setup() {
+		graph = new SingleGraph("");
+		for (int i = 0; i < NODES; i++) {
+			Node n = graph.addNode(String.valueOf(i));
+			n.addAttribute("x", i * SPACING);
+			n.addAttribute("y", 0);
+			n.addAttribute("ui.class", "common");
+			if (i > 0) {
+				graph.addEdge((i - 1) + "-" + i, String.valueOf(i - 1),
+						String.valueOf(i), true);
+			}
+		}
+		graph.addEdge("0-99", "0", "99", true);
+		window = new GraphWindow(graph, SPACING);
+	}
+
+	@Test
+	public void showTest() {
+		assertEquals(0, window.getGraph().getNodeCount());
+		assertTrue(window.show(new ViewArea(1000, 1500)));
+		Graph shown = window.getGraph();
+		assertEquals(10, shown.getNodeCount());
+		assertNull(shown.getNode("7"));
+		assertNotNull(shown.getNode("8"));
+		assertNotNull(shown.getNode("17"));
+		assertNull(shown.getNode("18"));
+		assertEquals("common", shown.getNode("10").getAttribute("ui.class"));
+		assertEquals(9, shown.getEdgeCount());
+	}
+
+	@Test
+	public void neighbourTest() {
+		window.show(new ViewArea(0, 200));
+		assertNotNull(window.getGraph().getNode("99"));
+		assertNotNull(window.getGraph().getEdge("0-99"));
+	}
+
+	@Test
+	public void evictTest() {
+		window.show(new ViewArea(1000, 1500));
+		assertFalse(window.show(new ViewArea(1020, 1520)));
+		assertTrue(window.show(new ViewArea(5000, 5500)));
+		Graph shown = window.getGraph();
+		assertNull(shown.getNode("10"));
+		assertNotNull(shown.getNode("50"));
+		assertEquals(10, shown.getNodeCount());
+	}
+
+	@Test
+	public void attributeTest() {
+		window.show(new ViewArea(1000, 1500));
+		graph.getNode("10").setAttribute("ui.class", "selected");
+		graph.getNode("60").setAttribute("ui.class", "selected");
+		assertEquals("selected",
+				window.getGraph().getNode("10").getAttribute("ui.class"));
+		window.show(new ViewArea(5500, 6000));
+		assertEquals("selected",
+				window.getGraph().getNode("60").getAttribute("ui.class"));
+		window.detach();
+		graph.getNode("60").setAttribute("ui.class", "common");
+		assertEquals("selected",
+				window.getGraph().getNode("60").getAttribute("ui.class"));
+	}
+
+	@Test
+	public void marginTest() {
+		window.setMargin(0);
+		assertEquals(0, window.getMargin());
+		window.show(new ViewArea(1000, 1500));
+		assertEquals(8, window.getGraph().getNodeCount());
+	}
+
+	@Test
+	public void setSourceTest() {
+		window.show(new ViewArea(1000, 1500));
+		Graph shown = window.getGraph();
+		Node kept = shown.getNode("15");
+		Graph level = new SingleGraph("");
+		for (int i = 0; i < NODES; i++) {
+			if (i != 12) {
+				Node n = level.addNode(String.valueOf(i));
+				n.addAttribute("x", i * SPACING);
+				n.addAttribute("y", 0);
+				n.addAttribute("ui.class", i == 10 ? "collapsed" : "common");
+			}
+		}
+		Node c = level.addNode("C");
+		c.addAttribute("x", 12 * SPACING);
+		c.addAttribute("y", 0);
+		c.addAttribute("ui.class", "collapsed");
+		for (int i = 1; i < NODES; i++) {
+			if (i != 12 && i != 13) {
+				level.addEdge((i - 1) + "-" + i, String.valueOf(i - 1),
+						String.valueOf(i), true);
+			}
+		}
+		level.addEdge("11-C", "11", "C", true);
+		level.addEdge("C-13", "C", "13", true);
+		final int[] added = new int[1];
+		shown.addSink(new SinkAdapter() {
+			@Override
+			public void nodeAdded(final String sourceId, final long timeId,
+					final String nodeId) {
+				added[0]++;
+			}
+		});
+		window.setSource(level);
+		assertSame(level, window.getSource());
+		assertTrue(window.show(new ViewArea(1000, 1500)));
+		assertSame(kept, shown.getNode("15"));
+		assertNull(shown.getNode("12"));
+		assertNotNull(shown.getNode("C"));
+		assertNull(shown.getEdge("11-12"));
+		assertNotNull(shown.getEdge("11-C"));
+		assertEquals(1, added[0]);
+		assertEquals("collapsed", shown.getNode("10").getAttribute("ui.class"));
+		assertEquals(10, shown.getNodeCount());
+		level.getNode("C").setAttribute("ui.class", "selected");
+		assertEquals("selected", shown.getNode("C").getAttribute("ui.class"));
+		graph.getNode("15").setAttribute("ui.class", "selected");
+		assertEquals("common", shown.getNode("15").getAttribute("ui.class"));
+	}
+}
@@ -0,0 +1,57 @@
+package nl.tudelft.ti2806.pl1.graph;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class PackedSequenceTest {
+
+	private static final String SEQ = "ACGTNNNNACGTRYACGTACGTACGTACGTACGTACGTTTGCAN";
+
+	@Test
+	public void roundTripTest() {
+		PackedSequence packed = new PackedSequence(SEQ);
+		assertEquals(SEQ.length(), packed.length());
+		assertEquals(SEQ, packed.toString());
+	}
+
+	@Test
+	public void charAtTest() {
+		PackedSequence packed = new PackedSequence(SEQ);
+		for (int i = 0; i < SEQ.length(); i++) {
+			assertEquals(SEQ.charAt(i), packed.charAt(i));
+		}
+	}
+
+	@Test
+	public void countTest() {
+		PackedSequence packed = new PackedSequence(SEQ);
+		for (char c : "ACGTNRYX".toCharArray()) {
+			int expected = 0;
+			for (char s : SEQ.toCharArray()) {
+				if (s == c) {
+					expected++;
+				}
+			}
+			assertEquals(expected, packed.count(c));
+		}
+	}
+
+	@Test
+	public void subSequenceTest() {
+		PackedSequence packed = new PackedSequence(SEQ);
+		assertEquals(SEQ.substring(3, 15), packed.subSequence(3, 15)
+				.toString());
+	}
+
+	@Test
+	public void emptyTest() {
+		assertEquals("", PackedSequence.EMPTY.toString());
+		assertEquals(0, PackedSequence.EMPTY.count('A'));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void charAtOutOfBoundsTest() {
+		new PackedSequence("AC").charAt(2);
+	}
+}
@@ -0,0 +1,89 @@
+package nl.tudelft.ti2806.pl1.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import nl.tudelft.ti2806.pl1.gui.contentpane.ViewArea;
+
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PositionIndexTest {
+
+	private static final int[] XS = { 50, 0, 30, 30, 90, 60 };
+
+	private DGraph graph;
+
+	@Before
+	public void setup() {
+		graph = new DGraph();
+		for (int i = 0; i < XS.length; i++) {
+			DNode n = new DNode(i, new HashSet<String>(), 0, 0, "A");
+			n.setX(XS[i]);
+			graph.addDNode(n);
+		}
+	}
+
+	private static List<Integer> ids(final Iterable<DNode> nodes) {
+		List<Integer> ret = new ArrayList<Integer>();
+		for (DNode n : nodes) {
+			ret.add(n.getId());
+		}
+		return ret;
+	}
+
+	@Test
+	public void queryTest() {
+		PositionIndex<DNode> index = graph.getPositionIndex();
+		assertEquals(XS.length, index.size());
+		List<Integer> found = ids(index.query(30, 60));
+		assertEquals(4, found.size());
+		assertTrue(found.containsAll(Arrays.asList(2, 3, 0, 5)));
+		assertEquals(Arrays.asList(1), ids(index.query(-10, 0)));
+		assertTrue(index.query(91, 200).isEmpty());
+		assertTrue(index.query(60, 50).isEmpty());
+	}
+
+	@Test
+	public void getDNodesMatchesScanTest() {
+		ViewArea va = new ViewArea(25, 55);
+		HashSet<DNode> expected = new HashSet<DNode>();
+		for (DNode n : graph.getNodes().values()) {
+			if (va.isContained(n)) {
+				expected.add(n);
+			}
+		}
+		assertEquals(expected, new HashSet<DNode>(graph.getDNodes(va)));
+	}
+
+	@Test
+	public void reindexAfterAddTest() {
+		graph.getPositionIndex();
+		DNode n = new DNode(10, new HashSet<String>(), 0, 0, "A");
+		n.setX(40);
+		graph.addDNode(n);
+		assertTrue(ids(graph.getDNodes(new ViewArea(40, 40))).contains(10));
+	}
+
+	@Test
+	public void graphStreamTest() {
+		Graph g = new SingleGraph("test");
+		for (int i = 0; i < XS.length; i++) {
+			g.addNode(String.valueOf(i)).addAttribute("x", XS[i]);
+		}
+		PositionIndex<Node> index = PositionIndex.get(g);
+		assertSame(index, PositionIndex.get(g));
+		assertEquals(2, index.query(30, 30).size());
+		g.addNode("new").addAttribute("x", 30);
+		assertEquals(3, PositionIndex.get(g).query(30, 30).size());
+	}
+}
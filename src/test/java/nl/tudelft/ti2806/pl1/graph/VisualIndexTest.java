@@ -0,0 +1,92 @@
+package nl.tudelft.ti2806.pl1.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VisualIndexTest {
+
+	private Graph graph;
+
+	private static void addNode(final Graph g, final String id,
+			final Integer... ids) {
+		Node n = g.addNode(id);
+		n.addAttribute("collapsed", new HashSet<Integer>(Arrays.asList(ids)));
+	}
+
+	@Before
+	public void setup() {
+		graph = new SingleGraph("");
+		addNode(graph, "-2", -2);
+		addNode(graph, "COLLAPSED", 1, 2, 3);
+		addNode(graph, "7", 7);
+		graph.addNode("plain");
+	}
+
+	@Test
+	public void findTest() {
+		VisualIndex index = VisualIndex.of(graph);
+		assertEquals("-2", index.find(-2).getId());
+		assertEquals("COLLAPSED", index.find(1).getId());
+		assertEquals("COLLAPSED", index.find(3).getId());
+		assertEquals("7", index.find(7).getId());
+		assertNull(index.find(4));
+		assertNull(index.find(-3));
+		assertNull(index.find(8));
+	}
+
+	@Test
+	public void emptyTest() {
+		assertNull(VisualIndex.of(new SingleGraph("")).find(0));
+	}
+
+	@Test
+	public void storeTest() {
+		VisualIndex index = VisualIndex.store(graph);
+		assertSame(index, VisualIndex.get(graph));
+		graph.removeNode("7");
+		VisualIndex rebuilt = VisualIndex.get(graph);
+		assertNull(rebuilt.find(7));
+		assertEquals("COLLAPSED", rebuilt.find(2).getId());
+	}
+
+	@Test
+	public void storeSameCountTest() {
+		VisualIndex.store(graph);
+		graph.removeNode("7");
+		addNode(graph, "8", 8);
+		assertEquals(4, graph.getNodeCount());
+		VisualIndex rebuilt = VisualIndex.get(graph);
+		assertNull(rebuilt.find(7));
+		assertEquals("8", rebuilt.find(8).getId());
+	}
+
+	@Test
+	public void storeCollapsedChangedTest() {
+		VisualIndex index = VisualIndex.store(graph);
+		graph.getNode("plain").addAttribute("ui.class", "selected");
+		assertSame(index, VisualIndex.get(graph));
+		graph.getNode("plain").addAttribute("collapsed",
+				new HashSet<Integer>(Arrays.asList(5)));
+		assertEquals("plain", VisualIndex.get(graph).find(5).getId());
+	}
+
+	@Test
+	public void storeOtherGraphTest() {
+		VisualIndex.store(graph);
+		Graph copy = new SingleGraph("");
+		addNode(copy, "1", 1);
+		copy.addAttribute(VisualIndex.ATTRIBUTE,
+				graph.getAttribute(VisualIndex.ATTRIBUTE));
+		assertSame(copy, VisualIndex.get(copy).find(1).getGraph());
+	}
+}
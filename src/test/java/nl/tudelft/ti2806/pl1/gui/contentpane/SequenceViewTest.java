@@ -0,0 +1,101 @@
+package nl.tudelft.ti2806.pl1.gui.contentpane;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.BitSet;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SequenceViewTest {
+
+	private static final int INSET = 3;
+
+	private SequenceView view;
+
+	private int width;
+
+	private int height;
+
+	@Before
+	public void setUp() {
+		view = new SequenceView();
+		FontMetrics fm = view.getFontMetrics(view.getFont());
+		width = fm.charWidth('A');
+		height = fm.getHeight();
+		view.setSize(2 * INSET + 10 * width, 200);
+		assertEquals(Font.MONOSPACED, view.getFont().getFamily());
+	}
+
+	@Test
+	public void layoutTest() {
+		view.setSequence("ACGTACGTACGTACGTACGTAC", new BitSet());
+		assertEquals(10, view.getColumns());
+		assertEquals(3, view.getRows());
+		assertEquals(2 * INSET + 3 * height, view.getPreferredSize().height);
+		view.setMessage("one\ntwo");
+		assertEquals(2, view.getRows());
+		assertEquals(0, view.getLength());
+	}
+
+	@Test
+	public void offsetTest() {
+		view.setSequence("ACGTACGTACGTACGTACGTAC", new BitSet());
+		assertEquals(0, view.offsetAt(0, 0));
+		assertEquals(2, view.offsetAt(INSET + 2 * width, INSET + 1));
+		assertEquals(13, view.offsetAt(INSET + 3 * width, INSET + height + 1));
+		assertEquals(20, view.offsetAt(1000, INSET + height + 1));
+		assertEquals(22, view.offsetAt(1000, 1000));
+	}
+
+	@Test
+	public void selectionTest() {
+		final int[] changes = new int[1];
+		view.addChangeListener(new ChangeListener() {
+			@Override
+			public void stateChanged(final ChangeEvent e) {
+				changes[0]++;
+			}
+		});
+		view.setSequence("ACGTACGT", new BitSet());
+		view.select(6, 2);
+		assertEquals(2, view.getDot());
+		assertEquals(6, view.getMark());
+		assertEquals("GTAC", view.getSelectedText());
+		view.select(3, 100);
+		assertEquals(8, view.getDot());
+		assertEquals(2, changes[0]);
+		view.setSequence("AC", new BitSet());
+		assertEquals(0, view.getDot());
+		assertEquals("", view.getSelectedText());
+		assertEquals(3, changes[0]);
+	}
+
+	@Test
+	public void paintTest() {
+		BitSet marks = new BitSet();
+		marks.set(12);
+		view.setSequence("ACGTACGTACGTACGTACGTAC", marks);
+		view.select(0, 1);
+		BufferedImage img = new BufferedImage(view.getWidth(),
+				view.getHeight(), BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = img.createGraphics();
+		view.paint(g);
+		g.dispose();
+		int marked = img.getRGB(INSET + 2 * width, INSET + height);
+		assertEquals(new Color(120, 255, 120).getRGB(), marked);
+		int selected = img.getRGB(INSET, INSET);
+		assertNotEquals(Color.WHITE.getRGB(), selected);
+		assertEquals(Color.WHITE.getRGB(),
+				img.getRGB(INSET + 5 * width, INSET + 3 * height + 1));
+	}
+}
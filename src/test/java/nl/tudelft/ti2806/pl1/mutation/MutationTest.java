@@ -64,6 +64,21 @@ public class MutationTest {
 		assertEquals(80, mutresist.getScore(), 0);
 	}
 
+	@Test
+	public void mutResistLoadedLater() {
+		assertEquals(10, mutresist.getScore(), 0);
+		rgs.setDrugRestistantMutations(new File(
+				"src/test/resources/mutationTestResistant.txt"));
+		assertEquals(80, mutresist.getScore(), 0);
+	}
+
+	@Test
+	public void mutAffectedGroupsChanged() {
+		assertEquals(10, mutingen.getScore(), 0);
+		mutingen.setAffectedNodeGroups(2);
+		assertEquals(18, mutingen.getScore(), 0);
+	}
+
 	@Test
 	public void mutNoResistance() {
 		assertEquals(10, mutresist.getScore(), 0);
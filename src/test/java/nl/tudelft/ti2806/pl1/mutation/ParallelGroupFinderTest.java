@@ -0,0 +1,132 @@
+package nl.tudelft.ti2806.pl1.mutation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import nl.tudelft.ti2806.pl1.graph.DEdge;
+import nl.tudelft.ti2806.pl1.graph.DGraph;
+import nl.tudelft.ti2806.pl1.graph.DNode;
+import nl.tudelft.ti2806.pl1.phylotree.CladeIndex;
+import nl.tudelft.ti2806.pl1.phylotree.NewickParser;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelGroupFinderTest {
+
+	private static final String TREE = "((TKK_REF,A),(B,C));";
+
+	private DGraph graph;
+
+	private int ids;
+
+	@Before
+	public void setup() {
+		graph = new DGraph();
+	}
+
+	private HashSet<String> sources(final String... genomes) {
+		return new HashSet<String>(Arrays.asList(genomes));
+	}
+
+	private DNode node(final HashSet<String> sources, final String content) {
+		DNode ret = new DNode(ids++, sources, 0, 0, content);
+		graph.addDNode(ret);
+		return ret;
+	}
+
+	private void edge(final DNode from, final DNode to) {
+		graph.addDEdge(new DEdge(from, to));
+	}
+
+	private CladeIndex clades() {
+		return new CladeIndex(NewickParser.parse(TREE), graph.getGenomes());
+	}
+
+	@Test
+	public void allTypesTest() {
+		HashSet<String> all = sources("TKK_REF", "A", "B", "C");
+		DNode r0 = node(all, "ACGT");
+		DNode r1 = node(sources("TKK_REF", "B", "C"), "A");
+		DNode r2 = node(all, "ACGT");
+		DNode x = node(sources("A", "C"), "GG");
+		DNode y = node(sources("A", "C"), "TT");
+		DNode r3 = node(all, "ACGT");
+		DNode ins = node(sources("B"), "ACGTT");
+		DNode r4 = node(all, "ACGT");
+		edge(r0, r1);
+		edge(r1, r2);
+		edge(r0, r2);
+		edge(r2, x);
+		edge(x, y);
+		edge(y, r3);
+		edge(r2, r3);
+		edge(r3, ins);
+		edge(ins, r4);
+		edge(r3, r4);
+		List<DeletionMutation> dels = new ArrayList<DeletionMutation>();
+		dels.add(new DeletionMutation(r0.getId(), r2.getId(), 0, 0, null));
+		List<InsertionMutation> inss = new ArrayList<InsertionMutation>();
+		inss.add(new InsertionMutation(r3.getId(), r4.getId(), 0, 0, null,
+				ins.getId()));
+		List<ComplexMutation> complex = new ArrayList<ComplexMutation>();
+		complex.add(new ComplexMutation(r2.getId(), r3.getId(), 0, 0, null,
+				Arrays.asList(x.getId(), y.getId())));
+		graph.setPointMutations(new HashSet<PointMutation>());
+		graph.setDeletionMutations(dels);
+		graph.setInsertionMutations(inss);
+		graph.setComplexMutations(complex);
+		ParallelGroupFinder.analyze(graph, clades(), 2);
+		assertEquals(1, dels.get(0).getAffectedNodeGroups());
+		assertEquals(1, inss.get(0).getAffectedNodeGroups());
+		assertEquals(2, complex.get(0).getAffectedNodeGroups());
+	}
+
+	@Test
+	public void sameAsSequentialTest() {
+		HashSet<String> all = sources("TKK_REF", "A", "B", "C");
+		String[] alleles = { "A", "B", "C" };
+		List<PointMutation> points = new ArrayList<PointMutation>();
+		DNode prev = node(all, "ACGT");
+		for (int i = 0; i < 2000; i++) {
+			DNode a = node(sources(alleles[i % 3], "TKK_REF"), "A");
+			DNode c = node(sources(alleles[(i + 1) % 3], alleles[(i + 2) % 3]),
+					"C");
+			DNode next = node(i % 2 == 0 ? all : sources("TKK_REF",
+					alleles[i % 3], alleles[(i + 1) % 3]), "ACGT");
+			edge(prev, a);
+			edge(prev, c);
+			edge(a, next);
+			edge(c, next);
+			points.add(new PointMutation(prev.getId(), next.getId(), 0, 0,
+					null, new HashSet<Integer>(Arrays.asList(a.getId(),
+							c.getId()))));
+			prev = next;
+		}
+		graph.setPointMutations(points);
+		CladeIndex clades = clades();
+		ParallelGroupFinder.analyze(graph, clades, 1);
+		int[] expected = new int[points.size()];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = points.get(i).getAffectedNodeGroups();
+		}
+		assertEquals(1, expected[0]);
+		assertEquals(2, expected[1]);
+		for (PointMutation m : points) {
+			m.setAffectedNodeGroups(0);
+		}
+		ParallelGroupFinder.analyze(graph, clades, 4);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], points.get(i).getAffectedNodeGroups());
+		}
+	}
+
+	@Test
+	public void noMutationsTest() {
+		ParallelGroupFinder.analyze(new DGraph(), clades(), 2);
+	}
+}
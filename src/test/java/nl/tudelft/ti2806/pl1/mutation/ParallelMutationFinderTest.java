@@ -0,0 +1,136 @@
+package nl.tudelft.ti2806.pl1.mutation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import nl.tudelft.ti2806.pl1.graph.DEdge;
+import nl.tudelft.ti2806.pl1.graph.DGraph;
+import nl.tudelft.ti2806.pl1.graph.DNode;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelMutationFinderTest {
+
+	private static final int REFERENCE_NODES = 3000;
+
+	private DGraph graph;
+
+	private int ids;
+
+	private DNode[] reference;
+
+	@Before
+	public void setup() {
+		graph = new DGraph();
+		reference = new DNode[REFERENCE_NODES];
+		HashSet<String> all = new HashSet<String>(Arrays.asList("TKK_REF",
+				"REF1", "REF2"));
+		for (int i = 0; i < REFERENCE_NODES; i++) {
+			reference[i] = node(all, "ACGT");
+			reference[i].setDepth(i);
+			if (i > 0) {
+				edge(reference[i - 1], reference[i]);
+			}
+		}
+		Random random = new Random(42);
+		for (int i = 0; i + 3 < REFERENCE_NODES; i += 3) {
+			DNode from = reference[i];
+			switch (random.nextInt(4)) {
+			case 0:
+				DNode a = node(sources("REF1"), "A");
+				DNode c = node(sources("REF2"), "C");
+				edge(from, a);
+				edge(from, c);
+				edge(a, reference[i + 1]);
+				edge(c, reference[i + 1]);
+				break;
+			case 1:
+				DNode ins = node(sources("REF1"), "ACGTT");
+				edge(from, ins);
+				edge(ins, reference[i + 1]);
+				break;
+			case 2:
+				edge(from, reference[i + 2]);
+				break;
+			default:
+				DNode x = node(sources("REF2"), "GGG");
+				DNode y = node(sources("REF2"), "TT");
+				edge(from, x);
+				edge(x, y);
+				edge(y, reference[i + 3]);
+				break;
+			}
+		}
+		DNode shared = node(sources("REF1"), "CCCC");
+		DNode tail = node(sources("REF1"), "AAAA");
+		edge(shared, tail);
+		edge(tail, reference[REFERENCE_NODES - 1]);
+		for (int i = 1; i < REFERENCE_NODES; i += 700) {
+			edge(reference[i], shared);
+		}
+	}
+
+	private HashSet<String> sources(final String genome) {
+		return new HashSet<String>(Arrays.asList(genome));
+	}
+
+	private DNode node(final HashSet<String> sources, final String content) {
+		DNode ret = new DNode(ids++, sources, 0, 0, content);
+		graph.addDNode(ret);
+		return ret;
+	}
+
+	private void edge(final DNode from, final DNode to) {
+		graph.addDEdge(new DEdge(from, to));
+	}
+
+	private static List<String> points(final Collection<PointMutation> muts) {
+		List<String> ret = new ArrayList<String>();
+		for (PointMutation m : muts) {
+			ret.add(m.getPreNode() + "-" + m.getPostNode() + m.getNodes());
+		}
+		Collections.sort(ret);
+		return ret;
+	}
+
+	@Test
+	public void sameAsSequentialTest() {
+		Collection<PointMutation> points = MutationFinder.findPointMutations(
+				graph, null);
+		Collection<DeletionMutation> dels = MutationFinder
+				.findDeletionMutations(graph, null);
+		Collection<InsertionMutation> ins = MutationFinder
+				.findInsertionMutations(graph, null);
+		Collection<ComplexMutation> complex = MutationFinder
+				.findComplexMutations(graph, null);
+		assertFalse(points.isEmpty());
+		assertFalse(dels.isEmpty());
+		assertFalse(ins.isEmpty());
+		assertFalse(complex.isEmpty());
+		for (int threads : new int[] { 1, 3, 8 }) {
+			ParallelMutationFinder.analyze(graph, threads);
+			assertEquals(points(points), points(graph.getPointMutations()));
+			assertEquals(dels.toString(), graph.getDelMutations().toString());
+			assertEquals(ins.toString(), graph.getInsMutations().toString());
+			assertEquals(complex.toString(), graph.getComplexMutations()
+					.toString());
+		}
+	}
+
+	@Test
+	public void emptyGraphTest() {
+		DGraph empty = new DGraph();
+		ParallelMutationFinder.analyze(empty, 2);
+		assertEquals(0, empty.getPointMutations().size());
+		assertEquals(0, empty.getComplexMutations().size());
+	}
+}
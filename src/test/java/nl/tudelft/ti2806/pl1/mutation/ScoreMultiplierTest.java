@@ -1,6 +1,8 @@
 package nl.tudelft.ti2806.pl1.mutation;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.io.File;
 import java.util.Arrays;
@@ -74,6 +76,36 @@ public class ScoreMultiplierTest {
 		assertEquals(45, mutresist.getScore(), 0.1);
 	}
 
+	/**
+	 * Tests if a configuration only changes when a multiplier changes.
+	 */
+	@Test
+	public void configVersionTest() {
+		ScoreMultiplier.Config config = ScoreMultiplier.current();
+		ScoreMultiplier.setMult(MutationMultipliers.INDEL.name(), 1.0);
+		assertSame(config, ScoreMultiplier.current());
+		ScoreMultiplier.setMult(MutationMultipliers.INDEL.name(), 0.5);
+		ScoreMultiplier.Config changed = ScoreMultiplier.current();
+		assertNotSame(config, changed);
+		assertEquals(0.5, changed.get(MutationMultipliers.INDEL), 0);
+		assertEquals(1, config.get(MutationMultipliers.INDEL), 0);
+		ScoreMultiplier.setMult(MutationMultipliers.PHYLO.name(), 0.5);
+		assertEquals(changed.getVersion() + 1, ScoreMultiplier.current()
+				.getVersion());
+	}
+
+	/**
+	 * Tests if a cached score is recalculated when a multiplier changes back.
+	 */
+	@Test
+	public void cachedScoreTest() {
+		assertEquals(10, mutingen.getScore(), 0.1);
+		ScoreMultiplier.setMult(MutationMultipliers.POINTMUTATION.name(), 0.0);
+		assertEquals(0, mutingen.getScore(), 0.1);
+		ScoreMultiplier.resetMults();
+		assertEquals(10, mutingen.getScore(), 0.1);
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void unknownMultiplierTest() {
 		ScoreMultiplier.setMult("faulty", 2.0);
@@ -0,0 +1,128 @@
+package nl.tudelft.ti2806.pl1.phylotree;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import nl.tudelft.ti2806.pl1.graph.GenomeDictionary;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CladeIndexTest {
+
+	private GenomeDictionary genomes;
+
+	private CladeIndex index;
+
+	@Before
+	public void setUp() {
+		genomes = new GenomeDictionary();
+		for (String g : new String[] { "D", "A", "C", "B", "X" }) {
+			genomes.add(g);
+		}
+		index = new CladeIndex(
+				NewickParser.parse("(A:1,((B:3,C:3)c:2,D:2)b:1)a;"), genomes);
+	}
+
+	private long[] bits(final String... names) {
+		return genomes.mask(Arrays.asList(names));
+	}
+
+	@Test
+	public void leafTest() {
+		assertEquals(1, index.getLeaf(genomes.indexOf("A")));
+		assertEquals(5, index.getLeaf(genomes.indexOf("C")));
+		assertEquals(-1, index.getLeaf(genomes.indexOf("X")));
+		assertEquals(-1, index.getLeaf(genomes.size()));
+	}
+
+	@Test
+	public void lcaTest() {
+		assertEquals(3, index.lca(4, 5));
+		assertEquals(2, index.lca(5, 6));
+		assertEquals(0, index.lca(1, 4));
+		assertEquals(3, index.lca(3, 4));
+		assertEquals(6, index.lca(6, 6));
+		assertEquals(6.0, index.getRootDistance(4), 0.0);
+	}
+
+	@Test
+	public void distanceTest() {
+		assertEquals(3.0, index.getDistance(bits("B", "C")), 0.0);
+		assertEquals(1.0, index.getDistance(bits("B", "C", "D")), 0.0);
+		assertEquals(0.0, index.getDistance(bits("A", "C")), 0.0);
+		assertEquals(6.0, index.getDistance(bits("B")), 0.0);
+		assertEquals(0.0, index.getDistance(bits("X")), 0.0);
+		assertEquals(0.0, index.getDistance(new long[0]), 0.0);
+	}
+
+	@Test
+	public void groups2GroupsTest() {
+		assertArrayEquals(new int[] { 1, 3 },
+				index.findGroups(bits("A", "B", "C")));
+	}
+
+	@Test
+	public void groups1GroupTest() {
+		assertArrayEquals(new int[] { 0 },
+				index.findGroups(bits("A", "B", "C", "D")));
+	}
+
+	@Test
+	public void groupsLeavesTest() {
+		assertArrayEquals(new int[] { 4, 6 }, index.findGroups(bits("B", "D")));
+		assertArrayEquals(new int[] { 2 },
+				index.findGroups(bits("B", "C", "D", "X")));
+		assertArrayEquals(new int[0], index.findGroups(bits("X")));
+	}
+
+	@Test
+	public void unknownLeafTest() {
+		GenomeDictionary partial = new GenomeDictionary();
+		partial.add("B");
+		partial.add("D");
+		CladeIndex idx = new CladeIndex(
+				NewickParser.parse("(A:1,((B:3,C:3)c:2,D:2)b:1)a;"), partial);
+		assertArrayEquals(new int[] { 4, 6 },
+				idx.findGroups(partial.mask(Arrays.asList("B", "D"))));
+	}
+
+	@Test
+	public void multifurcationTest() {
+		GenomeDictionary g = new GenomeDictionary();
+		CladeIndex idx = new CladeIndex(NewickParser.parse("(a,b,c,(d,e)f)r;"),
+				g);
+		assertArrayEquals(new int[0], idx.findGroups(new long[0]));
+		for (String s : new String[] { "a", "b", "c", "d", "e" }) {
+			g.add(s);
+		}
+		idx = new CladeIndex(NewickParser.parse("(a,b,c,(d,e)f)r;"), g);
+		assertArrayEquals(new int[] { 1, 3, 4 },
+				idx.findGroups(g.mask(Arrays.asList("a", "c", "d", "e"))));
+		assertEquals(0, idx.lca(2, 6));
+		assertEquals(4, idx.lca(5, 6));
+	}
+
+	@Test
+	public void deepTreeTest() {
+		final int depth = 50000;
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < depth; i++) {
+			sb.append('(');
+		}
+		sb.append("x");
+		for (int i = 0; i < depth; i++) {
+			sb.append(",l").append(i).append("):1");
+		}
+		GenomeDictionary g = new GenomeDictionary();
+		g.add("x");
+		g.add("l0");
+		CladeIndex idx = new CladeIndex(NewickParser.parse(sb.toString()), g);
+		assertArrayEquals(new int[] { depth - 1 },
+				idx.findGroups(g.mask(Arrays.asList("x", "l0"))));
+		assertEquals(depth - 1.0,
+				idx.getDistance(g.mask(Arrays.asList("x", "l0"))), 0.0);
+	}
+}
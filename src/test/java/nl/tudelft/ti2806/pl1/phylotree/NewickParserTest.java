@@ -0,0 +1,147 @@
+package nl.tudelft.ti2806.pl1.phylotree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import nl.tudelft.ti2806.pl1.exceptions.InvalidFileFormatException;
+
+import org.junit.Test;
+
+public class NewickParserTest {
+
+	@Test
+	public void binaryTest() {
+		PhyloTree tree = NewickParser.parse("((a:0.1,b:0.2)c:0.3,d:0.4)e;");
+		assertEquals(5, tree.size());
+		assertEquals("e", tree.getName(0));
+		assertEquals("c", tree.getName(1));
+		assertEquals("a", tree.getName(2));
+		assertEquals(0.2, tree.getLength(3), 0.0);
+		assertEquals(1, tree.getParent(3));
+		assertEquals(0, tree.getParent(4));
+		assertEquals(0.0, tree.getLength(0), 0.0);
+	}
+
+	@Test
+	public void multifurcationTest() {
+		PhyloTree tree = NewickParser.parse("(a,b,(c,d,e,f),g);");
+		assertEquals(4, tree.getChildCount(0));
+		assertEquals(4, tree.getChildCount(3));
+		assertEquals("g", tree.getName(tree.getChild(0, 3)));
+	}
+
+	@Test
+	public void quotedLabelTest() {
+		PhyloTree tree = NewickParser
+				.parse("('a b':1,'it''s (x)':2,'':3)'root;';");
+		assertEquals("root;", tree.getName(0));
+		assertEquals("a b", tree.getName(1));
+		assertEquals("it's (x)", tree.getName(2));
+		assertEquals("", tree.getName(3));
+		assertEquals(3.0, tree.getLength(3), 0.0);
+	}
+
+	@Test
+	public void commentAndWhitespaceTest() {
+		PhyloTree tree = NewickParser
+				.parse("[tree [nested]]\n( TKK_01 : 1.5e-2 [&support=1],\n\tTKK_02[x]:2 ) ;");
+		assertEquals(3, tree.size());
+		assertEquals("TKK_01", tree.getName(1));
+		assertEquals(0.015, tree.getLength(1), 0.0);
+		assertEquals("TKK_02", tree.getName(2));
+		assertEquals(2.0, tree.getLength(2), 0.0);
+	}
+
+	@Test
+	public void emptyLabelsTest() {
+		PhyloTree tree = NewickParser.parse("(,(,));");
+		assertEquals(5, tree.size());
+		assertTrue(tree.isLeaf(1));
+		assertEquals(2, tree.getChildCount(2));
+	}
+
+	@Test
+	public void deepTreeTest() {
+		final int depth = 200000;
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < depth; i++) {
+			sb.append('(');
+		}
+		sb.append("x");
+		for (int i = 0; i < depth; i++) {
+			sb.append(",l").append(i).append(":1)");
+		}
+		sb.append(';');
+		PhyloTree tree = NewickParser.parse(sb.toString());
+		assertEquals(2 * depth + 1, tree.size());
+		assertEquals("x", tree.getName(depth));
+		assertEquals(depth, tree.getColumn(depth));
+	}
+
+	@Test
+	public void readerTest() throws IOException {
+		final String newick = "((a,b)c,(d,e)f)g;";
+		Reader slow = new Reader() {
+			private int pos;
+
+			@Override
+			public int read(final char[] cbuf, final int off, final int len) {
+				if (pos == newick.length()) {
+					return -1;
+				}
+				cbuf[off] = newick.charAt(pos++);
+				return 1;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		PhyloTree tree = NewickParser.parse(slow);
+		assertEquals(7, tree.size());
+		assertEquals("f", tree.getName(4));
+	}
+
+	@Test
+	public void toBinaryTreeTest() {
+		BinaryTree tree = NewickParser.parse("(a:1,b:2,c:3)r;").toBinaryTree();
+		assertEquals("r", tree.getID());
+		assertEquals("a", tree.getLeft().getID());
+		assertEquals("", tree.getRight().getID());
+		assertEquals(0.0, tree.getRight().getPathLength(), 0.0);
+		assertEquals("c", tree.getRight().getRight().getID());
+		assertEquals(tree, tree.getRight().getAncestor());
+		BinaryTree single = NewickParser.parse("((a:1):2,b)r;")
+				.toBinaryTree();
+		assertEquals("a", single.getLeft().getID());
+		assertEquals(3.0, single.getLeft().getPathLength(), 0.0);
+	}
+
+	@Test(expected = InvalidFileFormatException.class)
+	public void missingParenthesisTest() {
+		NewickParser.parse("((a,b),c;");
+	}
+
+	@Test(expected = InvalidFileFormatException.class)
+	public void twoTreesTest() {
+		NewickParser.parse("(a,b)(c,d);");
+	}
+
+	@Test(expected = InvalidFileFormatException.class)
+	public void invalidLengthTest() {
+		NewickParser.parse("(a:x,b);");
+	}
+
+	@Test(expected = InvalidFileFormatException.class)
+	public void unclosedQuoteTest() {
+		NewickParser.parse("('a,b);");
+	}
+
+	@Test(expected = InvalidFileFormatException.class)
+	public void emptyTest() {
+		NewickParser.parse("");
+	}
+}
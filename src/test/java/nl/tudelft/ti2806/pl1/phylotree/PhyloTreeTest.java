@@ -0,0 +1,111 @@
+package nl.tudelft.ti2806.pl1.phylotree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+
+import nl.tudelft.ti2806.pl1.gui.contentpane.PhyloPanel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PhyloTreeTest {
+
+	private PhyloTree tree;
+
+	@Before
+	public void setUp() {
+		tree = NewickParser.parse("(A:1,((B:3,C:3)c:2,D:2)b:1)a;");
+	}
+
+	@Test
+	public void preorderTest() {
+		assertEquals(7, tree.size());
+		String[] names = { "a", "A", "b", "c", "B", "C", "D" };
+		int[] parents = { -1, 0, 0, 2, 3, 3, 2 };
+		for (int v = 0; v < tree.size(); v++) {
+			assertEquals(names[v], tree.getName(v));
+			assertEquals(parents[v], tree.getParent(v));
+		}
+		assertEquals(2, tree.getChildCount(2));
+		assertEquals(3, tree.getChild(2, 0));
+		assertEquals(6, tree.getChild(2, 1));
+		assertEquals(5, tree.getSubtreeSize(2));
+		assertEquals(2.0, tree.getLength(3), 0.0);
+		assertTrue(tree.isLeaf(4));
+		assertFalse(tree.isLeaf(3));
+	}
+
+	@Test
+	public void placementTest() {
+		assertEquals(4, tree.getRows());
+		assertEquals(4, tree.getColumns());
+		int[] columns = { 0, 1, 1, 2, 3, 3, 2 };
+		int[] rows = { 0, 0, 1, 1, 1, 2, 3 };
+		for (int v = 0; v < tree.size(); v++) {
+			assertEquals(columns[v], tree.getColumn(v));
+			assertEquals(rows[v], tree.getRow(v));
+		}
+		assertEquals(3, tree.getBottom(2));
+		assertEquals(2, tree.getBottom(3));
+	}
+
+	@Test
+	public void collapseTest() {
+		tree.setCollapsed(3, true);
+		assertEquals(3, tree.getRows());
+		assertFalse(tree.isVisible(4));
+		assertFalse(tree.isVisible(5));
+		assertEquals(2, tree.getRow(6));
+		assertEquals(-1, tree.nodeAt(3, 1));
+		tree.setCollapsed(0, true);
+		assertEquals(1, tree.getRows());
+		assertEquals(1, tree.getColumns());
+		tree.setCollapsed(0, false);
+		tree.setCollapsed(3, false);
+		assertEquals(4, tree.getRows());
+	}
+
+	@Test
+	public void nodeAtTest() {
+		assertEquals(0, tree.nodeAt(0, 0));
+		assertEquals(1, tree.nodeAt(1, 0));
+		assertEquals(3, tree.nodeAt(2, 1));
+		assertEquals(5, tree.nodeAt(3, 2));
+		assertEquals(6, tree.nodeAt(2, 3));
+		assertEquals(-1, tree.nodeAt(0, 1));
+		assertEquals(-1, tree.nodeAt(1, 4));
+	}
+
+	@Test
+	public void chosenTest() {
+		tree.setChosen(3, true);
+		assertTrue(tree.isChosen(3));
+		assertTrue(tree.isChosen(4));
+		assertFalse(tree.isChosen(2));
+		tree.setChosen(6, true);
+		assertTrue(tree.isChosen(2));
+		assertFalse(tree.isChosen(0));
+		assertEquals(Arrays.asList("B", "C", "D"), tree.getChosen());
+		tree.setChosen(4, false);
+		assertFalse(tree.isChosen(3));
+		assertFalse(tree.isChosen(2));
+		assertEquals(Arrays.asList("C", "D"), tree.getChosen());
+		tree.setChosen(0, false);
+		assertTrue(tree.getChosen().isEmpty());
+	}
+
+	@Test
+	public void loadTreeTest() {
+		PhyloPanel pp = new PhyloPanel(null);
+		assertTrue(pp.loadTree(new File("src/test/resources/phylotree.txt")));
+		PhyloTree t = pp.getPhyloTree();
+		assertEquals(4, t.getRows());
+		t.setCollapsed(0, true);
+		pp.plotTree();
+		assertEquals(1, t.getRows());
+	}
+}
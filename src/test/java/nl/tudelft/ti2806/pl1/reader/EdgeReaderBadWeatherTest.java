@@ -1,13 +1,16 @@
 package nl.tudelft.ti2806.pl1.reader;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 
 import nl.tudelft.ti2806.pl1.exceptions.InvalidFileFormatException;
 import nl.tudelft.ti2806.pl1.graph.DGraph;
+import nl.tudelft.ti2806.pl1.graph.DNode;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -22,6 +25,8 @@ public class EdgeReaderBadWeatherTest {
 	private static String edge3 = "1";
 	private static String edge4 = "1 4 5";
 	private static String edge5 = "3 4";
+	private static String edge6 = "- 5";
+	private static String edge7 = "99999999999 5";
 
 	/**
 	 * Set the parameters for the test.
@@ -31,7 +36,7 @@ public class EdgeReaderBadWeatherTest {
 	@Parameters
 	public static Collection<Object[]> data() {
 		return Arrays.asList(new Object[][] { { edge1 }, { edge2 }, { edge3 },
-				{ edge4 }, { edge5 } });
+				{ edge4 }, { edge5 }, { edge6 }, { edge7 } });
 	}
 
 	private String edge;
@@ -46,4 +51,12 @@ public class EdgeReaderBadWeatherTest {
 		DGraph graph = new DGraph();
 		EdgeReader.readEdges(reader, graph);
 	}
+
+	@Test(expected = InvalidFileFormatException.class)
+	public void invalidStreamTest() throws IOException {
+		DGraph graph = new DGraph();
+		graph.addDNode(new DNode(5, new HashSet<String>(), 0, 0, ""));
+		EdgeReader.addEdges(new ByteArrayInputStream(edge.getBytes("UTF-8")),
+				graph);
+	}
 }
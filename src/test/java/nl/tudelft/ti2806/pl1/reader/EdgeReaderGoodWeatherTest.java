@@ -1,8 +1,10 @@
 package nl.tudelft.ti2806.pl1.reader;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
@@ -52,4 +54,42 @@ public class EdgeReaderGoodWeatherTest {
 	public void correctFileReadEndNodeTest() {
 		assertTrue(edges.get(0).getEndNode().getId() == 2);
 	}
+
+	private static DGraph graphWith(final int... ids) {
+		DGraph graph = new DGraph();
+		for (int id : ids) {
+			graph.addDNode(new DNode(id, new HashSet<String>(), 0, 0, ""));
+		}
+		return graph;
+	}
+
+	private static int stream(final String content, final DGraph graph)
+			throws IOException {
+		return EdgeReader.addEdges(
+				new ByteArrayInputStream(content.getBytes("UTF-8")), graph);
+	}
+
+	@Test
+	public void streamAddsEdgesTest() throws IOException {
+		DGraph graph = graphWith(0, 1, 2, 3);
+		assertEquals(3, stream("0 1\n1 2\r\n\n2\t3", graph));
+		assertEquals(3, graph.getEdges().size());
+		assertEquals(1, graph.getDNode(2).getInEdges().size());
+		assertEquals(3, graph.getDNode(2).getNextNodes().iterator().next()
+				.getId());
+	}
+
+	@Test
+	public void streamSparseIdsTest() throws IOException {
+		DGraph graph = graphWith(-7, 1000000);
+		assertEquals(1, stream("-7 1000000\n", graph));
+		assertEquals(1, graph.getDNode(-7).getOutEdges().size());
+	}
+
+	@Test
+	public void streamEmptyTest() throws IOException {
+		DGraph graph = graphWith(1);
+		assertEquals(0, stream("", graph));
+		assertEquals(0, graph.getEdges().size());
+	}
 }
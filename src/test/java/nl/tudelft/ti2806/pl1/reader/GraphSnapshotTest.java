@@ -0,0 +1,200 @@
+package nl.tudelft.ti2806.pl1.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Dimension;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import nl.tudelft.ti2806.pl1.graph.DEdge;
+import nl.tudelft.ti2806.pl1.graph.DGraph;
+import nl.tudelft.ti2806.pl1.graph.DNode;
+import nl.tudelft.ti2806.pl1.mutation.Mutation;
+import nl.tudelft.ti2806.pl1.mutation.MutationFinder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GraphSnapshotTest {
+
+	private static final File NODES = new File(
+			"src/test/resources/complextest_nodes.txt");
+
+	private static final File EDGES = new File(
+			"src/test/resources/complextest_edges.txt");
+
+	/** The size of the version, file and layout header of a snapshot. */
+	private static final int HEADER_SIZE = 48;
+
+	private File snapshot;
+
+	private DGraph graph;
+
+	private Dimension size;
+
+	@Before
+	public void setUp() throws Exception {
+		snapshot = File.createTempFile("snapshot", GraphSnapshot.EXTENSION);
+		graph = Reader.read(NODES.getPath(), EDGES.getPath());
+		size = NodePlacer.place(graph);
+		graph.setPointMutations(MutationFinder.findPointMutations(graph, null));
+		graph.setDeletionMutations(MutationFinder.findDeletionMutations(graph,
+				null));
+		graph.setInsertionMutations(MutationFinder.findInsertionMutations(
+				graph, null));
+		graph.setComplexMutations(MutationFinder.findComplexMutations(graph,
+				null));
+	}
+
+	@After
+	public void tearDown() {
+		snapshot.delete();
+	}
+
+	private static Set<String> edgeSet(final DGraph g) {
+		Set<String> ret = new HashSet<String>();
+		for (DEdge e : g.getEdges()) {
+			ret.add(e.getStartNode().getId() + "-" + e.getEndNode().getId());
+		}
+		return ret;
+	}
+
+	private static Set<String> keys(final Collection<? extends Mutation> muts) {
+		Set<String> ret = new HashSet<String>();
+		for (Mutation m : muts) {
+			ret.add(m.getClass().getSimpleName() + m.getPreNode() + "-"
+					+ m.getPostNode() + "-" + m.getStartPosition() + "-"
+					+ m.getEndPosition());
+		}
+		return ret;
+	}
+
+	@Test
+	public void roundTripTest() throws IOException {
+		GraphSnapshot.save(snapshot, NODES, EDGES, graph, size);
+		GraphSnapshot loaded = GraphSnapshot.load(snapshot, NODES, EDGES);
+		assertNotNull(loaded);
+		DGraph copy = loaded.getGraph();
+		assertEquals(size, loaded.getSize());
+		assertEquals(graph.getNodeCount(), copy.getNodeCount());
+		for (DNode n : graph.getNodes().values()) {
+			DNode c = copy.getDNode(n.getId());
+			assertEquals(n.getContent(), c.getContent());
+			assertEquals(n.getSources(), c.getSources());
+			assertEquals(n.getStart(), c.getStart());
+			assertEquals(n.getEnd(), c.getEnd());
+			assertEquals(n.getX(), c.getX());
+			assertEquals(n.getY(), c.getY());
+			assertEquals(n.getDepth(), c.getDepth());
+			assertEquals(n.getPercUnknown(), c.getPercUnknown(), 0);
+		}
+		assertEquals(graph.getStart().getId(), copy.getStart().getId());
+		assertEquals(edgeSet(graph), edgeSet(copy));
+		assertEquals(graph.getReferencesSet(), copy.getReferencesSet());
+		assertEquals(keys(graph.getPointMutations()),
+				keys(copy.getPointMutations()));
+		assertEquals(keys(graph.getDelMutations()),
+				keys(copy.getDelMutations()));
+		assertEquals(keys(graph.getInsMutations()),
+				keys(copy.getInsMutations()));
+		assertEquals(keys(graph.getComplexMutations()),
+				keys(copy.getComplexMutations()));
+		assertTrue(copy.getPointMutations().size()
+				+ copy.getDelMutations().size()
+				+ copy.getInsMutations().size()
+				+ copy.getComplexMutations().size() > 0);
+	}
+
+	@Test
+	public void staleSnapshotTest() throws IOException {
+		GraphSnapshot.save(snapshot, NODES, EDGES, graph, size);
+		assertNull(GraphSnapshot.load(snapshot, EDGES, NODES));
+	}
+
+	@Test
+	public void missingSnapshotTest() throws IOException {
+		snapshot.delete();
+		assertNull(GraphSnapshot.load(snapshot, NODES, EDGES));
+	}
+
+	@Test
+	public void damagedSnapshotTest() throws IOException {
+		FileOutputStream out = new FileOutputStream(snapshot);
+		out.write(new byte[] { 'D', 'N', 'A' });
+		out.close();
+		assertNull(GraphSnapshot.load(snapshot, NODES, EDGES));
+	}
+
+	@Test
+	public void truncatedSnapshotTest() throws IOException {
+		GraphSnapshot.save(snapshot, NODES, EDGES, graph, size);
+		RandomAccessFile file = new RandomAccessFile(snapshot, "rw");
+		file.setLength(file.length() / 2);
+		file.close();
+		assertNull(GraphSnapshot.load(snapshot, NODES, EDGES));
+		assertFalse(snapshot.exists());
+	}
+
+	@Test
+	public void garbageCountSnapshotTest() throws IOException {
+		GraphSnapshot.save(snapshot, NODES, EDGES, graph, size);
+		RandomAccessFile file = new RandomAccessFile(snapshot, "rw");
+		file.seek(HEADER_SIZE);
+		file.writeInt(-1);
+		file.close();
+		assertNull(GraphSnapshot.load(snapshot, NODES, EDGES));
+		assertFalse(snapshot.exists());
+	}
+
+	@Test
+	public void garbageSnapshotTest() throws IOException {
+		GraphSnapshot.save(snapshot, NODES, EDGES, graph, size);
+		RandomAccessFile file = new RandomAccessFile(snapshot, "rw");
+		file.seek(HEADER_SIZE);
+		byte[] garbage = new byte[(int) file.length() - HEADER_SIZE];
+		for (int i = 0; i < garbage.length; i++) {
+			garbage[i] = (byte) (i * 31 + 7);
+		}
+		file.write(garbage);
+		file.close();
+		assertNull(GraphSnapshot.load(snapshot, NODES, EDGES));
+		assertFalse(snapshot.exists());
+	}
+
+	@Test
+	public void snapshotFileTest() {
+		File file = GraphSnapshot.snapshotFile(NODES);
+		assertEquals(GraphSnapshot.CACHE_DIR, file.getParentFile());
+		assertTrue(file.getName().startsWith(NODES.getName()));
+		assertTrue(file.getName().endsWith(GraphSnapshot.EXTENSION));
+	}
+
+	@Test
+	public void snapshotFileUniqueTest() {
+		assertFalse(GraphSnapshot.snapshotFile(NODES).equals(
+				GraphSnapshot.snapshotFile(new File("other", NODES.getName()))));
+	}
+
+	@Test
+	public void saveCreatesDirectoryTest() throws IOException {
+		File dir = new File(snapshot.getPath() + ".dir");
+		File nested = new File(dir, "cache" + GraphSnapshot.EXTENSION);
+		try {
+			GraphSnapshot.save(nested, NODES, EDGES, graph, size);
+			assertNotNull(GraphSnapshot.load(nested, NODES, EDGES));
+		} finally {
+			nested.delete();
+			dir.delete();
+		}
+	}
+}
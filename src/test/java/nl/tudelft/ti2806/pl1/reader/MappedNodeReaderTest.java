@@ -0,0 +1,131 @@
+package nl.tudelft.ti2806.pl1.reader;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+
+import nl.tudelft.ti2806.pl1.exceptions.InvalidFileFormatException;
+import nl.tudelft.ti2806.pl1.graph.DNode;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class MappedNodeReaderTest {
+
+	private File tmp;
+
+	@After
+	public void tearDown() {
+		if (tmp != null) {
+			tmp.delete();
+		}
+	}
+
+	private String write(final String content) throws IOException {
+		tmp = File.createTempFile("mappednodes", ".txt");
+		Writer w = new OutputStreamWriter(new FileOutputStream(tmp), "UTF-8");
+		w.write(content);
+		w.close();
+		return tmp.getAbsolutePath();
+	}
+
+	private static ArrayList<DNode> readOld(final String path)
+			throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(path), "UTF-8"));
+		try {
+			return NodeReader.readNodes(reader);
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static void assertSameNodes(final ArrayList<DNode> expected,
+			final ArrayList<DNode> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			DNode e = expected.get(i);
+			DNode a = actual.get(i);
+			assertEquals(e.getId(), a.getId());
+			assertEquals(e.getSources(), a.getSources());
+			assertEquals(e.getStart(), a.getStart());
+			assertEquals(e.getEnd(), a.getEnd());
+			assertEquals(e.getContent(), a.getContent());
+			assertEquals(e.getPercUnknown(), a.getPercUnknown(), 0);
+		}
+	}
+
+	@Test
+	public void sameAsNodeReaderTest() throws IOException {
+		String path = "src/test/resources/debugNodes.txt";
+		assertSameNodes(readOld(path), MappedNodeReader.readNodes(path));
+	}
+
+	@Test
+	public void multipleChunksTest() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		final int nodes = 30000;
+		final int len = 100;
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < len; i++) {
+			content.append("ACGTN".charAt(i % 5));
+		}
+		for (int i = 0; i < nodes; i++) {
+			sb.append('>').append(i).append(" | TKK-").append(i % 7)
+					.append(",TKK_REF | ").append(i * len).append(" | ")
+					.append((i + 1) * len).append('\n').append(content)
+					.append('\n');
+		}
+		String path = write(sb.toString());
+		ArrayList<DNode> read = MappedNodeReader.readNodes(path, 4);
+		assertEquals(nodes, read.size());
+		assertSameNodes(readOld(path), read);
+	}
+
+	@Test
+	public void windowsLineEndingsTest() throws IOException {
+		String path = write(">3 | a,b | 1 | 3\r\nAC\r\n");
+		DNode node = MappedNodeReader.readNodes(path).get(0);
+		assertEquals(3, node.getId());
+		assertEquals("AC", node.getContent());
+		assertEquals(2, node.getSources().size());
+	}
+
+	@Test
+	public void emptyFileTest() throws IOException {
+		assertEquals(0, MappedNodeReader.readNodes(write("")).size());
+	}
+
+	@Test(expected = InvalidFileFormatException.class)
+	public void wrongFirstSymbolTest() throws IOException {
+		MappedNodeReader.readNodes(write("a b c"));
+	}
+
+	@Test(expected = InvalidFileFormatException.class)
+	public void wrongNumberOfInputTest() throws IOException {
+		MappedNodeReader.readNodes(write("> | b | c"));
+	}
+
+	@Test(expected = InvalidFileFormatException.class)
+	public void wrongIdTest() throws IOException {
+		MappedNodeReader.readNodes(write(">a | b | c | d\nA"));
+	}
+
+	@Test(expected = InvalidFileFormatException.class)
+	public void nonMatchingRefTest() throws IOException {
+		MappedNodeReader.readNodes(write(">0 | b | 1 | 2\nAA"));
+	}
+
+	@Test(expected = InvalidFileFormatException.class)
+	public void startAndEndNotIntegerTest() throws IOException {
+		MappedNodeReader.readNodes(write(">0 | b | a | 2\nAA"));
+	}
+}
@@ -5,7 +5,6 @@ import static org.junit.Assert.assertTrue;
 
 import java.awt.Dimension;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.HashSet;
 
 import nl.tudelft.ti2806.pl1.exceptions.InvalidNodePlacementException;
@@ -21,19 +20,15 @@ import org.junit.Test;
 
 public class NodePlacerTest {
 
-	private ArrayList<Integer> hdiff;
-	private ArrayList<Integer> nodesatdepth, nodesatdepthInvalid;
+	private int[] hdiff;
+	private int[] nodesatdepth;
 	private int height = 60;
 	private DGraph graph;
 	private Dimension dim;
 
 	@Before
 	public void startUp() throws InvalidNodePlacementException, IOException {
-		nodesatdepth = new ArrayList<Integer>(2);
-		nodesatdepth.add(3);
-		nodesatdepth.add(1);
-		nodesatdepthInvalid = new ArrayList<Integer>(1);
-		nodesatdepthInvalid.add(0);
+		nodesatdepth = new int[] { 3, 1 };
 		hdiff = NodePlacer.heightDiff(nodesatdepth, height);
 		graph = Reader.read("src/test/resources/nodes.txt",
 				"src/test/resources/edges.txt");
@@ -46,20 +41,16 @@ public class NodePlacerTest {
 	}
 
 	@Test
-	public void heightDiffTest() throws InvalidNodePlacementException {
-		assertEquals(-15, NodePlacer.getHeight(0, hdiff, nodesatdepth, height));
-		assertEquals(0, NodePlacer.getHeight(0, hdiff, nodesatdepth, height));
-	}
-
-	@Test(expected = InvalidNodePlacementException.class)
-	public void heightDiffInvalidTest() throws InvalidNodePlacementException {
-		NodePlacer.getHeight(0, hdiff, nodesatdepthInvalid, height);
+	public void heightDiffTest() {
+		assertEquals(-15, NodePlacer.height(0, hdiff, nodesatdepth, height));
+		assertEquals(0, NodePlacer.height(0, hdiff, nodesatdepth, height));
+		assertEquals(1, nodesatdepth[0]);
 	}
 
 	@Test
 	public void getWidthTest() {
-		assertEquals(0, NodePlacer.getWidth(50, 0, nodesatdepth.size()));
-		assertEquals(25, NodePlacer.getWidth(50, 1, nodesatdepth.size()));
+		assertEquals(0, NodePlacer.getWidth(50, 0, nodesatdepth.length));
+		assertEquals(25, NodePlacer.getWidth(50, 1, nodesatdepth.length));
 	}
 
 	@Test
@@ -126,14 +117,29 @@ public class NodePlacerTest {
 	}
 
 	@Test
-	public void gettersAndSettersTest() {
-		assertEquals(dim.getHeight(), NodePlacer.getHeight(), 0);
-		assertEquals(dim.getWidth(), NodePlacer.getWidth(), 0);
-		int newheight = 20;
-		int newwidth = 15;
-		NodePlacer.setHeight(newheight);
-		NodePlacer.setWidth(newwidth);
-		assertEquals(newheight, NodePlacer.getHeight(), 0);
-		assertEquals(newwidth, NodePlacer.getWidth(), 0);
+	public void layoutTest() {
+		Layout layout = NodePlacer.layout(graph);
+		assertEquals(dim, layout.getSize());
+		assertEquals(3, layout.getDepthCount());
+		assertEquals(1, layout.getNodesAtDepth(0));
+		assertEquals(layout, NodePlacer.layout(graph));
+		assertEquals(Layout.EMPTY, NodePlacer.layout(new DGraph()));
+	}
+
+	@Test
+	public void longestPathTest() {
+		DNode a = new DNode(10, new HashSet<String>(), 0, 0, "A");
+		DNode b = new DNode(11, new HashSet<String>(), 0, 0, "A");
+		DGraph g = new DGraph();
+		g.addDNode(a);
+		g.addDNode(b);
+		g.addDNode(graph.getDNode(0));
+		g.addDEdge(new DEdge(graph.getDNode(0), a));
+		g.addDEdge(new DEdge(a, b));
+		g.addDEdge(new DEdge(graph.getDNode(0), b));
+		NodePlacer.layout(g);
+		assertEquals(0, graph.getDNode(0).getDepth());
+		assertEquals(1, a.getDepth());
+		assertEquals(2, b.getDepth());
 	}
 }
@@ -3,6 +3,7 @@
  */
 package nl.tudelft.ti2806.pl1.zoomlevels;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -15,6 +16,8 @@ import nl.tudelft.ti2806.pl1.graph.DGraph;
 import nl.tudelft.ti2806.pl1.graph.DNode;
 
 import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.SingleGraph;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -110,4 +113,72 @@ public class HorizontalCollapserTest {
 				.getAttribute("oldclass"));
 
 	}
+
+	@Test
+	public void testChain() {
+		gsg = new SingleGraph("");
+		String[] ids = { "-2", "1", "2", "3", "4" };
+		for (String id : ids) {
+			Node n = gsg.addNode(id);
+			n.addAttribute("ui.class", "common");
+			n.addAttribute("collapsed",
+					new HashSet<Integer>(Arrays.asList(Integer.parseInt(id))));
+		}
+		for (int i = 1; i < ids.length; i++) {
+			gsg.addEdge(ids[i - 1] + ids[i], ids[i - 1], ids[i], true);
+		}
+		gsg.getNode("2").setAttribute("ui.class", "resistant");
+		gsg = HorizontalCollapser.horizontalCollapse(gsg);
+		assertEquals(2, gsg.getNodeCount());
+		Node last = gsg.getNode("4");
+		assertEquals(new HashSet<Integer>(Arrays.asList(1, 2, 3, 4)),
+				last.getAttribute("collapsed"));
+		assertEquals(4, last.getAttribute("ui.label"));
+		assertEquals("resistant", last.getAttribute("ui.class"));
+		assertTrue(gsg.getNode("-2").hasEdgeToward("4"));
+		assertTrue(gsg.getEdge("-21 2 3 4") != null);
+	}
+
+	@Test
+	public void testGenomes() {
+		gsg = new SingleGraph("");
+		String[] ids = { "-2", "1", "2" };
+		long[][] genomes = { { 7L }, { 1L }, { 4L, 1L } };
+		for (int i = 0; i < ids.length; i++) {
+			Node n = gsg.addNode(ids[i]);
+			n.addAttribute("ui.class", "common");
+			n.addAttribute("genomes", genomes[i]);
+			if (i > 0) {
+				gsg.addEdge(ids[i - 1] + ids[i], ids[i - 1], ids[i], true);
+			}
+		}
+		gsg = HorizontalCollapser.horizontalCollapse(gsg);
+		assertArrayEquals(new long[] { 5L, 1L },
+				gsg.getNode("2").<long[]> getAttribute("genomes"));
+		assertArrayEquals(new long[] { 7L },
+				gsg.getNode("-2").<long[]> getAttribute("genomes"));
+	}
+
+	@Test
+	public void testChainTable() {
+		gsg = ConvertDGraph.convert(graph);
+		Node[] nodes = new Node[gsg.getNodeCount()];
+		for (Node n : gsg.getEachNode()) {
+			nodes[n.getIndex()] = n;
+		}
+		int[] chains = HorizontalCollapser.chainTable(nodes, gsg.getNode("-2"));
+		int count = 0;
+		int i = 0;
+		while (i < chains.length) {
+			if (chains[i] == 2) {
+				assertEquals("6", nodes[chains[i + 1]].getId());
+				assertEquals("4", nodes[chains[i + 2]].getId());
+			} else {
+				assertEquals(1, chains[i]);
+			}
+			count++;
+			i += chains[i] + 1;
+		}
+		assertEquals(4, count);
+	}
 }
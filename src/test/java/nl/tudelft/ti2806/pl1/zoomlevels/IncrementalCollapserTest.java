@@ -0,0 +1,269 @@
+package nl.tudelft.ti2806.pl1.zoomlevels;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import nl.tudelft.ti2806.pl1.graph.DEdge;
+import nl.tudelft.ti2806.pl1.graph.DGraph;
+import nl.tudelft.ti2806.pl1.graph.DNode;
+import nl.tudelft.ti2806.pl1.mutation.Mutation;
+import nl.tudelft.ti2806.pl1.mutation.ParallelMutationFinder;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IncrementalCollapserTest {
+
+	private static final int REFERENCE_NODES = 300;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private DGraph graph;
+
+	private int ids;
+
+	@Before
+	public void setup() throws IOException {
+		graph = new DGraph();
+		DNode[] reference = new DNode[REFERENCE_NODES];
+		HashSet<String> all = new HashSet<String>(Arrays.asList("TKK_REF",
+				"REF1", "REF2"));
+		for (int i = 0; i < REFERENCE_NODES; i++) {
+			reference[i] = node(all, "ACGT", i);
+			reference[i].setDepth(i);
+			if (i > 0) {
+				edge(reference[i - 1], reference[i]);
+			}
+		}
+		Random random = new Random(7);
+		for (int i = 0; i + 3 < REFERENCE_NODES; i += 3) {
+			DNode from = reference[i];
+			switch (random.nextInt(4)) {
+			case 0:
+				DNode a = node(sources("REF1"), "A", i);
+				DNode c = node(sources("REF2"), "C", i);
+				edge(from, a);
+				edge(from, c);
+				edge(a, reference[i + 1]);
+				edge(c, reference[i + 1]);
+				break;
+			case 1:
+				DNode ins = node(sources("REF1"), "ACGTT", i);
+				edge(from, ins);
+				edge(ins, reference[i + 1]);
+				break;
+			case 2:
+				edge(from, reference[i + 2]);
+				break;
+			default:
+				DNode x = node(sources("REF2"), "GGG", i);
+				DNode y = node(sources("REF2"), "TT", i);
+				DNode z = node(sources("REF1"), "C", i);
+				edge(from, x);
+				edge(x, y);
+				edge(x, z);
+				edge(y, reference[i + 3]);
+				edge(z, reference[i + 3]);
+				break;
+			}
+		}
+		ParallelMutationFinder.analyze(graph, 2);
+		File genes = folder.newFile("genes.gff");
+		FileWriter w = new FileWriter(genes);
+		w.write("MT_H37RV_BRD_V5\tnull\tCDS\t0\t"
+				+ (REFERENCE_NODES * 2)
+				+ "\t0.0\t-\t.\tcalhounClass=Gene;Name=Gene;ID=1;displayName=Gene\n");
+		w.close();
+		graph.getReferenceGeneStorage().setGeneAnnotation(genes);
+		for (Mutation m : graph.getPointMutations()) {
+			m.setAffectedNodeGroups(random.nextInt(5));
+		}
+		for (Mutation m : graph.getInsMutations()) {
+			m.setAffectedNodeGroups(random.nextInt(5));
+		}
+		for (Mutation m : graph.getDelMutations()) {
+			m.setAffectedNodeGroups(random.nextInt(5));
+		}
+	}
+
+	private HashSet<String> sources(final String genome) {
+		return new HashSet<String>(Arrays.asList(genome));
+	}
+
+	private DNode node(final HashSet<String> sources, final String content,
+			final int refIndex) {
+		DNode ret = new DNode(ids++, sources, 4 * refIndex, 4 * refIndex + 4,
+				content);
+		graph.addDNode(ret);
+		return ret;
+	}
+
+	private void edge(final DNode from, final DNode to) {
+		graph.addDEdge(new DEdge(from, to));
+	}
+
+	private static List<String> structure(final Graph g) {
+		List<String> ret = new ArrayList<String>();
+		for (Node n : g.getEachNode()) {
+			List<Integer> collapsed = new ArrayList<Integer>(
+					n.<HashSet<Integer>> getAttribute("collapsed"));
+			Collections.sort(collapsed);
+			ret.add(n.getId() + collapsed);
+		}
+		for (Edge e : g.getEachEdge()) {
+			ret.add(e.getId() + ":" + e.getNode0().getId() + ">"
+					+ e.getNode1().getId());
+		}
+		Collections.sort(ret);
+		return ret;
+	}
+
+	@Test
+	public void indexOrderTest() {
+		CollapseIndex index = CollapseIndex.build(graph);
+		assertTrue(index.size() > 0);
+		for (int i = 1; i < index.size(); i++) {
+			assertTrue(index.key(i - 1) <= index.key(i));
+		}
+		assertEquals(0, index.count(0));
+		assertTrue(index.count(1) > 0);
+		assertTrue(index.count(1) < index.count(15));
+		assertTrue(index.count(15) < index.count(30));
+		assertEquals(index.size(), index.count(Double.POSITIVE_INFINITY));
+		int complex = 0;
+		for (int i = 0; i < index.size(); i++) {
+			if (index.kind(i) == CollapseIndex.Kind.COMPLEX) {
+				complex++;
+				assertTrue(index.key(i) < ComplexCollapser.COMPLEXTHRESHOLD);
+				assertTrue(i < index.count(ComplexCollapser.COMPLEXTHRESHOLD));
+				assertTrue(i >= index.count(ComplexCollapser.COMPLEXTHRESHOLD - 1));
+			}
+		}
+		assertTrue(complex > 0);
+	}
+
+	@Test
+	public void currentTest() {
+		CollapseIndex index = CollapseIndex.build(graph);
+		assertTrue(index.isCurrent(graph));
+		graph.getReferenceGeneStorage().setGeneAnnotation(
+				new File("src/test/resources/mutationTestGene.gff"));
+		assertTrue(!index.isCurrent(graph));
+	}
+
+	@Test
+	public void currentAfterGroupingTest() {
+		CollapseIndex index = CollapseIndex.build(graph);
+		assertTrue(index.isCurrent(graph));
+		Mutation m = graph.getPointMutations().iterator().next();
+		m.setAffectedNodeGroups(2);
+		assertTrue(!index.isCurrent(graph));
+		assertTrue(CollapseIndex.build(graph).isCurrent(graph));
+	}
+
+	@Test
+	public void sameAsFreshTest() {
+		CollapseIndex index = CollapseIndex.build(graph);
+		IncrementalCollapser moving = new IncrementalCollapser(graph);
+		int[] thresholds = { 100, 20, 27, 0, 95, 11, 90, 89, 19, 100, 0 };
+		for (int threshold : thresholds) {
+			moving.moveTo(index, threshold);
+			IncrementalCollapser fresh = new IncrementalCollapser(graph);
+			fresh.moveTo(index, threshold);
+			assertEquals(index.count(threshold), moving.getDone());
+			assertEquals(structure(fresh.copy(ZoomlevelCreator.NO_SELECTION)),
+					structure(moving.copy(ZoomlevelCreator.NO_SELECTION)));
+		}
+	}
+
+	@Test
+	public void undoAllTest() {
+		CollapseIndex index = CollapseIndex.build(graph);
+		IncrementalCollapser collapser = new IncrementalCollapser(graph);
+		List<String> uncollapsed = structure(collapser.moveTo(index, 0));
+		collapser.moveTo(index, 100);
+		assertTrue(!uncollapsed.equals(structure(collapser.copy(""))));
+		assertEquals(uncollapsed, structure(collapser.moveTo(index, 0)));
+	}
+
+	@Test
+	public void selectionTest() {
+		CollapseIndex index = CollapseIndex.build(graph);
+		IncrementalCollapser collapser = new IncrementalCollapser(graph);
+		collapser.moveTo(index, 100);
+		int selected = 0;
+		for (Node n : collapser.copy("1").getEachNode()) {
+			if ("selected".equals(n.getAttribute("ui.class"))) {
+				selected++;
+				assertTrue(n.<HashSet<Integer>> getAttribute("collapsed")
+						.contains(1));
+			}
+		}
+		assertEquals(1, selected);
+	}
+
+	@Test
+	public void nestedPointTest() {
+		graph = new DGraph();
+		ids = 0;
+		HashSet<String> all = new HashSet<String>(Arrays.asList("TKK_REF",
+				"REF1", "REF2"));
+		HashSet<String> refs = new HashSet<String>(Arrays.asList("TKK_REF",
+				"REF1"));
+		DNode entrance = node(all, "ACGT", 0);
+		DNode a = node(refs, "ACGT", 1);
+		DNode p1 = node(sources("TKK_REF"), "A", 2);
+		DNode p2 = node(sources("REF1"), "C", 2);
+		DNode b = node(refs, "ACGT", 3);
+		DNode c = node(sources("REF2"), "GGGG", 1);
+		DNode exit = node(all, "ACGT", 4);
+		edge(entrance, a);
+		edge(a, p1);
+		edge(a, p2);
+		edge(p1, b);
+		edge(p2, b);
+		edge(b, exit);
+		edge(entrance, c);
+		edge(c, exit);
+		ParallelMutationFinder.analyze(graph, 1);
+		assertEquals(1, graph.getPointMutations().size());
+		assertEquals(1, graph.getComplexMutations().size());
+		CollapseIndex index = CollapseIndex.build(graph);
+		IncrementalCollapser collapser = new IncrementalCollapser(graph);
+		List<String> uncollapsed = structure(collapser.moveTo(index, 0));
+		collapser.moveTo(index, ComplexCollapser.COMPLEXTHRESHOLD - 1);
+		assertEquals(0, collapser.getDone());
+		Graph collapsed = collapser.moveTo(index,
+				ComplexCollapser.COMPLEXTHRESHOLD);
+		assertEquals(1, collapser.getDone());
+		assertEquals(Arrays.asList("0[0]", "1[1]", "2[2]", "4[4]", "6[6]"),
+				nodes(collapsed));
+		assertEquals(uncollapsed, structure(collapser.moveTo(index, 0)));
+	}
+
+	private static List<String> nodes(final Graph g) {
+		List<String> ret = new ArrayList<String>();
+		for (String s : structure(g)) {
+			if (!s.contains(":")) {
+				ret.add(s);
+			}
+		}
+		return ret;
+	}
+}
@@ -160,4 +160,20 @@ public class PointCollapserTest {
 				.equals("selected"));
 	}
 
+	@Test
+	public void findSelectedIndexTest() {
+		Collection<PointMutation> muts = PointMutationFinder
+				.findPointMutations(graph);
+		graph.setStart(start);
+		gsg = ConvertDGraph.convert(graph);
+		for (PointMutation mut : muts) {
+			mut.setScore(0);
+		}
+		gsg = PointCollapser.collapseNodes(muts, gsg, 10, "2");
+		assertEquals("COLLAPSED_2/3/4", PointCollapser.findSelected(gsg, "2"));
+		assertEquals("COLLAPSED_2/3/4",
+				PointCollapser.findSelected(gsg, "COLLAPSED_2/3/4"));
+		assertEquals(String.valueOf(Integer.MIN_VALUE),
+				PointCollapser.findSelected(ConvertDGraph.convert(graph), "2"));
+	}
 }
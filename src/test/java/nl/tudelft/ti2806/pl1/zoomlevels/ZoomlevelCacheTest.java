@@ -0,0 +1,113 @@
+package nl.tudelft.ti2806.pl1.zoomlevels;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Dimension;
+import java.util.Arrays;
+
+import nl.tudelft.ti2806.pl1.graph.DGraph;
+import nl.tudelft.ti2806.pl1.mutation.MutationFinder;
+import nl.tudelft.ti2806.pl1.mutation.MutationMultipliers;
+import nl.tudelft.ti2806.pl1.mutation.ScoreMultiplier;
+import nl.tudelft.ti2806.pl1.reader.NodePlacer;
+import nl.tudelft.ti2806.pl1.reader.Reader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ZoomlevelCacheTest {
+
+	private ZoomlevelCreator zlc;
+
+	private Dimension size;
+
+	private ZoomlevelCache cache;
+
+	@Before
+	public void setUp() throws Exception {
+		DGraph graph = Reader.read("src/test/resources/complextest_nodes.txt",
+				"src/test/resources/complextest_edges.txt");
+		size = NodePlacer.place(graph);
+		graph.setPointMutations(MutationFinder.findPointMutations(graph, null));
+		graph.setDeletionMutations(MutationFinder.findDeletionMutations(graph,
+				null));
+		graph.setInsertionMutations(MutationFinder.findInsertionMutations(
+				graph, null));
+		graph.setComplexMutations(MutationFinder.findComplexMutations(graph,
+				null));
+		zlc = new ZoomlevelCreator(graph);
+		cache = new ZoomlevelCache(zlc, size);
+	}
+
+	@After
+	public void tearDown() {
+		cache.shutdown();
+		ScoreMultiplier.resetMults();
+	}
+
+	@Test
+	public void hitTest() {
+		ZoomlevelCache.Level level = cache.get(100);
+		assertEquals(100, level.getThreshold());
+		assertEquals(size.height, level.getSize().height);
+		assertNotNull(level.getGraph().getNode("-2"));
+		assertSame(level, cache.get(100));
+		assertSame(level, cache.getCached(100));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void multiplierTest() {
+		ZoomlevelCache.Level level = cache.get(50);
+		ScoreMultiplier.setMult(MutationMultipliers.INDEL.name(), 2.0);
+		assertNull(cache.getCached(50));
+		assertNotSame(level, cache.get(50));
+		ScoreMultiplier.resetMults();
+		assertSame(level, cache.get(50));
+	}
+
+	@Test
+	public void prefetchTest() {
+		cache.prefetch(90, 80);
+		cache.get(90);
+		assertNotNull(cache.getCached(90));
+		cache.get(80);
+		assertEquals(Arrays.asList(90, 80), cache.getThresholds());
+	}
+
+	@Test
+	public void budgetTest() {
+		cache.shutdown();
+		cache = new ZoomlevelCache(zlc, size, 1);
+		cache.get(100);
+		cache.get(90);
+		assertEquals(Arrays.asList(90), cache.getThresholds());
+	}
+
+	@Test
+	public void leastRecentlyUsedTest() {
+		ZoomlevelCache.Level level = cache.get(100);
+		long weight = level.getGraph().getNodeCount()
+				+ level.getGraph().getEdgeCount();
+		cache.shutdown();
+		cache = new ZoomlevelCache(zlc, size, 2 * weight);
+		cache.get(100);
+		cache.get(0);
+		cache.get(100);
+		cache.get(90);
+		assertEquals(Arrays.asList(100, 90), cache.getThresholds());
+	}
+
+	@Test
+	public void clearTest() {
+		cache.get(100);
+		cache.update();
+		assertNull(cache.getCached(100));
+		assertEquals(0, cache.size());
+	}
+}